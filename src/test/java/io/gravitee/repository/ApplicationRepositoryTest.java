@@ -16,6 +16,7 @@
 package io.gravitee.repository;
 
 import io.gravitee.repository.config.AbstractRepositoryTest;
+import io.gravitee.repository.config.WithoutNoise;
 import io.gravitee.repository.management.model.Application;
 import io.gravitee.repository.management.model.ApplicationStatus;
 import io.gravitee.repository.management.model.ApplicationType;
@@ -40,6 +41,7 @@ public class ApplicationRepositoryTest extends AbstractRepositoryTest {
     }
 
     @Test
+    @WithoutNoise
     public void findAllTest() throws Exception {
         Set<Application> applications = applicationRepository.findAll();
 
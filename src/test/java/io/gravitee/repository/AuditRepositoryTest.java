@@ -17,6 +17,7 @@ package io.gravitee.repository;
 
 import io.gravitee.common.data.domain.Page;
 import io.gravitee.repository.config.AbstractRepositoryTest;
+import io.gravitee.repository.config.WithoutNoise;
 import io.gravitee.repository.exceptions.TechnicalException;
 import io.gravitee.repository.management.api.search.AuditCriteria;
 import io.gravitee.repository.management.api.search.Pageable;
@@ -89,6 +90,7 @@ public class AuditRepositoryTest extends AbstractRepositoryTest {
     }
 
     @Test
+    @WithoutNoise
     public void shouldSearchAll() throws TechnicalException {
         AuditCriteria auditCriteria = new AuditCriteria.Builder().
                 build();
@@ -143,6 +145,7 @@ public class AuditRepositoryTest extends AbstractRepositoryTest {
     }
 
     @Test
+    @WithoutNoise
     public void shouldSearchTo() throws TechnicalException {
         AuditCriteria auditCriteria = new AuditCriteria.Builder().
                 to(1000000000000L).
@@ -156,4 +159,37 @@ public class AuditRepositoryTest extends AbstractRepositoryTest {
         assertEquals("page elements", 1, auditPage.getPageElements());
         assertEquals("page number", 0, auditPage.getPageNumber());
     }
+
+    @Test
+    public void shouldSearchWithReferencesEventsAndProperties() throws TechnicalException {
+        AuditCriteria auditCriteria = new AuditCriteria.Builder().
+                references(Audit.AuditReferenceType.API, singletonList("2")).
+                events(singletonList(Plan.AuditEvent.PLAN_CREATED.name())).
+                property(Audit.AuditProperties.PLAN.name(), "123").
+                build();
+        Pageable page = new PageableBuilder().pageNumber(0).pageSize(10).build();
+
+        Page<Audit> auditPage = auditRepository.search(auditCriteria, page);
+
+        assertNotNull(auditPage);
+        assertEquals("total elements", 1, auditPage.getTotalElements());
+        assertEquals("page elements", 1, auditPage.getPageElements());
+        assertEquals("find audit with id 'searchable1'", "searchable1", auditPage.getContent().get(0).getId());
+    }
+
+    @Test
+    public void shouldNotFindPropertiesOfOtherEvents() throws TechnicalException {
+        AuditCriteria auditCriteria = new AuditCriteria.Builder().
+                references(Audit.AuditReferenceType.API, singletonList("2")).
+                events(singletonList(Plan.AuditEvent.PLAN_CREATED.name())).
+                property(Audit.AuditProperties.PLAN.name(), "456").
+                build();
+        Pageable page = new PageableBuilder().pageNumber(0).pageSize(10).build();
+
+        Page<Audit> auditPage = auditRepository.search(auditCriteria, page);
+
+        assertNotNull(auditPage);
+        assertEquals("total elements", 0, auditPage.getTotalElements());
+        assertTrue("no audit", auditPage.getContent().isEmpty());
+    }
 }
@@ -0,0 +1,273 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository;
+
+import io.gravitee.repository.config.AbstractRepositoryTest;
+import io.gravitee.repository.config.WithoutNoise;
+import io.gravitee.repository.config.memory.InMemoryCommandRepository;
+import io.gravitee.repository.config.mock.Stubs;
+import io.gravitee.repository.management.api.CommandRepository;
+import io.gravitee.repository.management.api.search.CommandCriteria;
+import io.gravitee.repository.management.model.Command;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import javax.inject.Inject;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Simulates 1, 2, 4... up to {@value #NODES_PROPERTY} nodes (16 by default) acknowledging the same
+ * {@value #COMMANDS_PROPERTY} commands (100 by default) at once, each node searching the commands it has not
+ * acknowledged yet, and logs the acknowledgment throughput for each number of nodes.
+ *
+ * Through the repository contract, a node acknowledges a command by updating it with its own acknowledgment added
+ * to the ones it read: the update replaces the acknowledgments, so concurrent nodes may overwrite each other's. Two
+ * properties are checked apart:
+ * <ul>
+ * <li>no acknowledgment is lost by the first poll of the nodes. An implementation losing some is flagged by an
+ * assumption failure whose message starts with {@value #LOST_ACKNOWLEDGMENTS}, or fails when
+ * {@value #STRICT_PROPERTY} is true;</li>
+ * <li>the nodes converge: polling again, they find the commands whose acknowledgment was lost and acknowledge them
+ * again, until a poll where no node finds any, every acknowledgment being there. Since an update keeps the
+ * acknowledgments its node read, each poll adds at least one acknowledgment per command found, and the nodes are done
+ * after at most one poll per node and a last empty one. The acknowledgments lost and repeated are logged along with
+ * the throughput.</li>
+ * </ul>
+ *
+ * An implementation acknowledging atomically, as {@link InMemoryCommandRepository#acknowledge} does, must not lose
+ * any acknowledgment in the first place.
+ *
+ * Skipped against the stubs of the mock profile, which only answer the calls of the other tests.
+ *
+ * @author GraviteeSource Team
+ */
+@WithoutNoise
+public class CommandAcknowledgmentRaceTest extends AbstractRepositoryTest {
+
+    public static final String NODES_PROPERTY = "repository.stress.nodes";
+    public static final String COMMANDS_PROPERTY = "repository.stress.commands";
+    public static final String STRICT_PROPERTY = "repository.stress.strictAcknowledgments";
+    public static final String LOST_ACKNOWLEDGMENTS = "LOST ACKNOWLEDGMENTS";
+
+    private final Logger logger = LoggerFactory.getLogger(CommandAcknowledgmentRaceTest.class);
+
+    // the beans themselves, the inherited field being decorated
+    @Inject
+    private CommandRepository commandRepositoryBean;
+    @Autowired(required = false)
+    private InMemoryCommandRepository atomicRepository;
+
+    @Before
+    public void skipMocks() {
+        assumeFalse("The mocks cannot be stressed", Stubs.isStub(commandRepositoryBean));
+    }
+
+    @Override
+    protected String getTestCasesPath() {
+        return "/data/command-tests/";
+    }
+
+    @Test
+    public void shouldNotLoseAcknowledgmentsOnTheFirstPoll() throws Exception {
+        final List<String> losses = new ArrayList<>();
+        for (int nodes = 1; nodes <= Integer.getInteger(NODES_PROPERTY, 16); nodes *= 2) {
+            final String tag = "FIRST_POLL_" + nodes;
+            final List<String> ids = createCommands(tag);
+
+            final int acknowledged = race(nodes, updatePoll(tag));
+
+            assertEquals("Commands not found", nodes * ids.size(), acknowledged);
+            int lost = 0;
+            for (final String id : ids) {
+                final Command command = commandRepository.findById(id).get();
+                lost += nodes - (command.getAcknowledgments() == null ? 0 : command.getAcknowledgments().size());
+            }
+            if (lost > 0) {
+                losses.add(String.format(Locale.ROOT, "%d of %d by %d nodes", lost, nodes * ids.size(), nodes));
+            }
+        }
+        final String message = LOST_ACKNOWLEDGMENTS + " on the first poll, concurrent updates overwriting each "
+                + "other's: " + String.join(", ", losses);
+        if (!losses.isEmpty()) {
+            logger.warn(message);
+            assertFalse(message, Boolean.getBoolean(STRICT_PROPERTY));
+        }
+        assumeTrue(message, losses.isEmpty());
+    }
+
+    @Test
+    public void shouldConvergeOnceLostAcknowledgmentsAreRepeated() throws Exception {
+        for (int nodes = 1; nodes <= Integer.getInteger(NODES_PROPERTY, 16); nodes *= 2) {
+            final String tag = "UPDATE_RACE_" + nodes;
+            final List<String> ids = createCommands(tag);
+
+            final long startedAt = System.nanoTime();
+            long acknowledgments = 0;
+            int polls = 0;
+            int acknowledged;
+            do {
+                polls++;
+                acknowledged = race(nodes, updatePoll(tag));
+                acknowledgments += acknowledged;
+            } while (acknowledged > 0 && polls <= nodes + 1);
+            final long elapsed = System.nanoTime() - startedAt;
+
+            assertEquals("Acknowledgments still lost after " + polls + " polls", 0, acknowledged);
+            assertAcknowledgedByAll(tag, ids, nodes);
+            print("update", nodes, ids.size(), elapsed, polls, acknowledgments - (long) nodes * ids.size());
+        }
+    }
+
+    @Test
+    public void shouldNotLoseAtomicAcknowledgments() throws Exception {
+        assumeTrue("The repository does not acknowledge atomically", atomicRepository != null);
+
+        for (int nodes = 1; nodes <= Integer.getInteger(NODES_PROPERTY, 16); nodes *= 2) {
+            final String tag = "ATOMIC_RACE_" + nodes;
+            final List<String> ids = createCommands(tag);
+
+            final long startedAt = System.nanoTime();
+            final int acknowledged = race(nodes, node -> {
+                int found = 0;
+                for (final Command command : commandRepository.search(notAcknowledgedBy(node, tag))) {
+                    assertTrue("Acknowledged twice by " + node, atomicRepository.acknowledge(command.getId(), node));
+                    found++;
+                }
+                return found;
+            });
+            final long elapsed = System.nanoTime() - startedAt;
+
+            assertEquals("Commands not found", nodes * ids.size(), acknowledged);
+            assertAcknowledgedByAll(tag, ids, nodes);
+            print("atomic", nodes, ids.size(), elapsed, 1, 0);
+        }
+    }
+
+    /**
+     * @return the poll of a node acknowledging the commands it finds by updating them
+     */
+    private Poll updatePoll(final String tag) {
+        return node -> {
+            int found = 0;
+            for (final Command command : commandRepository.search(notAcknowledgedBy(node, tag))) {
+                final List<String> acknowledgedBy = command.getAcknowledgments() == null
+                        ? new ArrayList<>() : new ArrayList<>(command.getAcknowledgments());
+                acknowledgedBy.add(node);
+                command.setAcknowledgments(acknowledgedBy);
+                commandRepository.update(command);
+                found++;
+            }
+            return found;
+        };
+    }
+
+    private List<String> createCommands(final String tag) throws Exception {
+        final List<String> ids = new ArrayList<>();
+        for (int i = 0; i < Integer.getInteger(COMMANDS_PROPERTY, 100); i++) {
+            final Command command = new Command();
+            command.setId(tag.toLowerCase(Locale.ROOT) + '-' + i);
+            command.setFrom("node-manager");
+            command.setTags(singletonList(tag));
+            command.setContent("command " + i);
+            command.setCreatedAt(new Date());
+            command.setUpdatedAt(new Date());
+            commandRepository.create(command);
+            ids.add(command.getId());
+        }
+        return ids;
+    }
+
+    private void assertAcknowledgedByAll(final String tag, final List<String> ids, final int nodes) throws Exception {
+        for (final String id : ids) {
+            final Command command = commandRepository.findById(id).get();
+            for (int node = 0; node < nodes; node++) {
+                assertTrue("Acknowledgment of " + node(node) + " lost for " + id,
+                        command.getAcknowledgments().contains(node(node)));
+            }
+            assertEquals("Acknowledgments of " + id, nodes, command.getAcknowledgments().size());
+        }
+        for (int node = 0; node < nodes; node++) {
+            assertTrue("Commands left for " + node(node),
+                    commandRepository.search(notAcknowledgedBy(node(node), tag)).isEmpty());
+        }
+    }
+
+    /**
+     * Runs the poll of each node at once.
+     *
+     * @return the number of commands the nodes acknowledged
+     */
+    private static int race(final int nodes, final Poll poll) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(nodes);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Integer>> futures = new ArrayList<>();
+            for (int node = 0; node < nodes; node++) {
+                final String name = node(node);
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return poll.run(name);
+                }));
+            }
+            start.countDown();
+            int acknowledged = 0;
+            for (final Future<Integer> future : futures) {
+                try {
+                    acknowledged += future.get();
+                } catch (final ExecutionException e) {
+                    if (e.getCause() instanceof Error) {
+                        throw (Error) e.getCause();
+                    }
+                    throw (Exception) e.getCause();
+                }
+            }
+            return acknowledged;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static CommandCriteria notAcknowledgedBy(final String node, final String tag) {
+        return new CommandCriteria.Builder().tags(tag).notAckBy(node).build();
+    }
+
+    private static String node(final int node) {
+        return "node-" + node;
+    }
+
+    private void print(final String mode, final int nodes, final int commands, final long elapsedNanos,
+                       final int polls, final long repeated) {
+        logger.info(String.format(Locale.ROOT,
+                "%s acknowledgments, %2d nodes: %d commands in %d poll(s), %.0f acks/s, %d acks lost and repeated",
+                mode, nodes, commands, polls, (double) nodes * commands * 1e9 / Math.max(1, elapsedNanos), repeated));
+    }
+
+    @FunctionalInterface
+    private interface Poll {
+        int run(String node) throws Exception;
+    }
+}
@@ -16,17 +16,27 @@
 package io.gravitee.repository;
 
 import io.gravitee.repository.config.AbstractRepositoryTest;
+import io.gravitee.repository.config.WithoutNoise;
+import io.gravitee.repository.config.mock.Stubs;
+import io.gravitee.repository.management.api.CommandRepository;
 import io.gravitee.repository.management.api.search.CommandCriteria;
 import io.gravitee.repository.management.model.Command;
 import org.junit.Test;
 
+import javax.inject.Inject;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import static java.util.Collections.singletonList;
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeFalse;
 
 public class CommandRepositoryTest extends AbstractRepositoryTest {
 
+    // the bean itself, the inherited field being decorated
+    @Inject
+    private CommandRepository commandRepositoryBean;
+
     @Override
     protected String getTestCasesPath() {
         return "/data/command-tests/";
@@ -104,6 +114,7 @@ public class CommandRepositoryTest extends AbstractRepositoryTest {
     }
 
     @Test
+    @WithoutNoise
     public void shouldSearchByNotFrom() {
 
         List<Command> commands = commandRepository.search((new CommandCriteria.Builder())
@@ -163,6 +174,7 @@ public class CommandRepositoryTest extends AbstractRepositoryTest {
     }
 
     @Test
+    @WithoutNoise
     public void shouldSearchByNotAck() {
 
         List<Command> commands = commandRepository.search((new CommandCriteria.Builder())
@@ -190,4 +202,40 @@ public class CommandRepositoryTest extends AbstractRepositoryTest {
         assertEquals("contain 'search2'", "search2", commands.get(0).getId());
     }
 
+    @Test
+    public void shouldNotFindCommandExpiredSinceTheLastSearch() throws Exception {
+        assumeFalse("The mocks answer with fixed dates", Stubs.isStub(commandRepositoryBean));
+        final long expiredAt = System.currentTimeMillis() + 500;
+        final Command command = new Command();
+        command.setId("expiring");
+        command.setFrom("node1");
+        command.setTo("expiring-node");
+        command.setTags(singletonList("EXPIRING"));
+        command.setCreatedAt(new Date());
+        command.setUpdatedAt(new Date());
+        command.setExpiredAt(new Date(expiredAt));
+        commandRepository.create(command);
+
+        final CommandCriteria byRecipient = new CommandCriteria.Builder().to("expiring-node").notDeleted().build();
+        final CommandCriteria byTag = new CommandCriteria.Builder().tags("EXPIRING").notDeleted().build();
+        final CommandCriteria live = new CommandCriteria.Builder().notDeleted().build();
+        assertEquals("live by recipient", singletonList("expiring"), ids(commandRepository.search(byRecipient)));
+        assertEquals("live by tag", singletonList("expiring"), ids(commandRepository.search(byTag)));
+        assertTrue("live", ids(commandRepository.search(live)).contains("expiring"));
+
+        // past the expiry, then past the end of its tick, for the expired command to be evicted as well as filtered
+        Thread.sleep(expiredAt - System.currentTimeMillis() + 10);
+        assertTrue("expired by recipient", commandRepository.search(byRecipient).isEmpty());
+        Thread.sleep(1000);
+        assertTrue("evicted by recipient", commandRepository.search(byRecipient).isEmpty());
+        assertTrue("evicted by tag", commandRepository.search(byTag).isEmpty());
+        assertEquals("evicted", singletonList("search2"), ids(commandRepository.search(live)));
+        assertTrue("still found by id", commandRepository.findById("expiring").isPresent());
+        assertEquals("still found ignoring expiry", singletonList("expiring"),
+                ids(commandRepository.search(new CommandCriteria.Builder().to("expiring-node").build())));
+    }
+
+    private static List<String> ids(final List<Command> commands) {
+        return commands.stream().map(Command::getId).collect(Collectors.toList());
+    }
 }
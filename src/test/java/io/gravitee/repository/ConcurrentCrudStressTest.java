@@ -0,0 +1,282 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository;
+
+import io.gravitee.repository.config.AbstractRepositoryTest;
+import io.gravitee.repository.config.WithoutNoise;
+import io.gravitee.repository.config.mock.Stubs;
+import io.gravitee.repository.config.stress.CrudStress;
+import io.gravitee.repository.management.api.ApiRepository;
+import io.gravitee.repository.management.model.*;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.util.Date;
+
+import static java.util.Collections.singleton;
+import static org.junit.Assume.assumeFalse;
+
+/**
+ * Runs a {@link CrudStress} against each repository, with {@value #THREADS_PROPERTY} threads (8 by default) making
+ * about {@value #OPERATIONS_PROPERTY} calls each per phase (500 by default), and logs the throughput of each phase.
+ * Skipped against the stubs of the mock profile, which only answer the calls of the other tests.
+ *
+ * @author GraviteeSource Team
+ */
+@WithoutNoise
+public class ConcurrentCrudStressTest extends AbstractRepositoryTest {
+
+    public static final String THREADS_PROPERTY = "repository.stress.threads";
+    public static final String OPERATIONS_PROPERTY = "repository.stress.operations";
+
+    private static final String SENTINEL = "stress-sentinel";
+
+    private final Logger logger = LoggerFactory.getLogger(ConcurrentCrudStressTest.class);
+
+    // the bean itself, the inherited field being decorated
+    @Inject
+    private ApiRepository apiRepositoryBean;
+
+    @Before
+    public void skipMocks() {
+        assumeFalse("The mocks cannot be stressed", Stubs.isStub(apiRepositoryBean));
+    }
+
+    @Override
+    protected String getTestCasesPath() {
+        return "/data/stress-tests/";
+    }
+
+    @Test
+    public void shouldStressApis() throws Exception {
+        stress(new CrudStress.Builder<Api>("Api")
+                .model(id -> {
+                    final Api api = new Api();
+                    api.setId(id);
+                    api.setName(id);
+                    api.setVersion("1");
+                    api.setVisibility(Visibility.PUBLIC);
+                    api.setLifecycleState(LifecycleState.STARTED);
+                    api.setCreatedAt(new Date());
+                    api.setUpdatedAt(new Date());
+                    return api;
+                })
+                .marker(Api::getDescription, Api::setDescription)
+                .create(apiRepository::create)
+                .update(apiRepository::update)
+                .findById(apiRepository::findById)
+                .delete(apiRepository::delete));
+    }
+
+    @Test
+    public void shouldStressPlans() throws Exception {
+        stress(new CrudStress.Builder<Plan>("Plan")
+                .model(id -> {
+                    final Plan plan = new Plan();
+                    plan.setId(id);
+                    plan.setName(id);
+                    plan.setApis(singleton(SENTINEL));
+                    plan.setSecurity(Plan.PlanSecurityType.API_KEY);
+                    plan.setValidation(Plan.PlanValidationType.AUTO);
+                    plan.setType(Plan.PlanType.API);
+                    plan.setStatus(Plan.Status.PUBLISHED);
+                    plan.setCreatedAt(new Date());
+                    plan.setUpdatedAt(new Date());
+                    return plan;
+                })
+                .marker(Plan::getDescription, Plan::setDescription)
+                .create(planRepository::create)
+                .update(planRepository::update)
+                .findById(planRepository::findById)
+                .delete(planRepository::delete));
+    }
+
+    @Test
+    public void shouldStressSubscriptions() throws Exception {
+        stress(new CrudStress.Builder<Subscription>("Subscription")
+                .model(id -> {
+                    final Subscription subscription = new Subscription();
+                    subscription.setId(id);
+                    subscription.setApi(SENTINEL);
+                    subscription.setPlan(SENTINEL);
+                    subscription.setApplication(SENTINEL);
+                    subscription.setStatus(Subscription.Status.ACCEPTED);
+                    subscription.setCreatedAt(new Date());
+                    subscription.setUpdatedAt(new Date());
+                    return subscription;
+                })
+                .marker(Subscription::getRequest, Subscription::setRequest)
+                .create(subscriptionRepository::create)
+                .update(subscriptionRepository::update)
+                .findById(subscriptionRepository::findById)
+                .delete(subscriptionRepository::delete));
+    }
+
+    @Test
+    public void shouldStressApplications() throws Exception {
+        stress(new CrudStress.Builder<Application>("Application")
+                .model(id -> {
+                    final Application application = new Application();
+                    application.setId(id);
+                    application.setName(id);
+                    application.setStatus(ApplicationStatus.ACTIVE);
+                    application.setType(ApplicationType.SIMPLE);
+                    application.setCreatedAt(new Date());
+                    application.setUpdatedAt(new Date());
+                    return application;
+                })
+                .marker(Application::getDescription, Application::setDescription)
+                .create(applicationRepository::create)
+                .update(applicationRepository::update)
+                .findById(applicationRepository::findById)
+                .delete(applicationRepository::delete));
+    }
+
+    @Test
+    public void shouldStressPages() throws Exception {
+        stress(new CrudStress.Builder<Page>("Page")
+                .model(id -> {
+                    final Page page = new Page();
+                    page.setId(id);
+                    page.setName(id);
+                    page.setApi(SENTINEL);
+                    page.setType(PageType.MARKDOWN);
+                    page.setCreatedAt(new Date());
+                    page.setUpdatedAt(new Date());
+                    return page;
+                })
+                .marker(Page::getContent, Page::setContent)
+                .create(pageRepository::create)
+                .update(pageRepository::update)
+                .findById(pageRepository::findById)
+                .delete(pageRepository::delete));
+    }
+
+    @Test
+    public void shouldStressUsers() throws Exception {
+        stress(new CrudStress.Builder<User>("User")
+                .model(id -> {
+                    final User user = new User();
+                    user.setId(id);
+                    user.setSource("gravitee");
+                    user.setSourceId(id);
+                    user.setEmail(id + "@gravitee.io");
+                    user.setCreatedAt(new Date());
+                    user.setUpdatedAt(new Date());
+                    return user;
+                })
+                .marker(User::getFirstname, User::setFirstname)
+                .create(userRepository::create)
+                .update(userRepository::update)
+                .findById(userRepository::findById)
+                .delete(userRepository::delete));
+    }
+
+    @Test
+    public void shouldStressGroups() throws Exception {
+        stress(new CrudStress.Builder<Group>("Group")
+                .model(id -> {
+                    final Group group = new Group();
+                    group.setId(id);
+                    group.setCreatedAt(new Date());
+                    group.setUpdatedAt(new Date());
+                    return group;
+                })
+                .marker(Group::getName, Group::setName)
+                .create(groupRepository::create)
+                .update(groupRepository::update)
+                .findById(groupRepository::findById)
+                .delete(groupRepository::delete));
+    }
+
+    @Test
+    public void shouldStressViews() throws Exception {
+        stress(new CrudStress.Builder<View>("View")
+                .model(id -> {
+                    final View view = new View();
+                    view.setId(id);
+                    view.setName(id);
+                    view.setCreatedAt(new Date());
+                    view.setUpdatedAt(new Date());
+                    return view;
+                })
+                .marker(View::getDescription, View::setDescription)
+                .create(viewRepository::create)
+                .update(viewRepository::update)
+                .findById(viewRepository::findById)
+                .delete(viewRepository::delete));
+    }
+
+    @Test
+    public void shouldStressTags() throws Exception {
+        stress(new CrudStress.Builder<Tag>("Tag")
+                .model(id -> {
+                    final Tag tag = new Tag();
+                    tag.setId(id);
+                    tag.setName(id);
+                    return tag;
+                })
+                .marker(Tag::getDescription, Tag::setDescription)
+                .create(tagRepository::create)
+                .update(tagRepository::update)
+                .findById(tagRepository::findById)
+                .delete(tagRepository::delete));
+    }
+
+    @Test
+    public void shouldStressTenants() throws Exception {
+        stress(new CrudStress.Builder<Tenant>("Tenant")
+                .model(id -> {
+                    final Tenant tenant = new Tenant();
+                    tenant.setId(id);
+                    tenant.setName(id);
+                    return tenant;
+                })
+                .marker(Tenant::getDescription, Tenant::setDescription)
+                .create(tenantRepository::create)
+                .update(tenantRepository::update)
+                .findById(tenantRepository::findById)
+                .delete(tenantRepository::delete));
+    }
+
+    @Test
+    public void shouldStressDictionaries() throws Exception {
+        stress(new CrudStress.Builder<Dictionary>("Dictionary")
+                .model(id -> {
+                    final Dictionary dictionary = new Dictionary();
+                    dictionary.setId(id);
+                    dictionary.setName(id);
+                    dictionary.setType(DictionaryType.MANUAL);
+                    dictionary.setCreatedAt(new Date());
+                    dictionary.setUpdatedAt(new Date());
+                    return dictionary;
+                })
+                .marker(Dictionary::getDescription, Dictionary::setDescription)
+                .create(dictionaryRepository::create)
+                .update(dictionaryRepository::update)
+                .findById(dictionaryRepository::findById)
+                .delete(dictionaryRepository::delete));
+    }
+
+    private <T> void stress(final CrudStress.Builder<T> builder) throws Exception {
+        final CrudStress.Result result = builder.untouched(SENTINEL).build()
+                .run(Integer.getInteger(THREADS_PROPERTY, 8), Integer.getInteger(OPERATIONS_PROPERTY, 500));
+        logger.info("{}", result);
+    }
+}
@@ -16,6 +16,7 @@
 package io.gravitee.repository;
 
 import io.gravitee.repository.config.AbstractRepositoryTest;
+import io.gravitee.repository.config.WithoutNoise;
 import io.gravitee.repository.exceptions.TechnicalException;
 import io.gravitee.repository.management.model.Group;
 import org.junit.Test;
@@ -112,6 +113,7 @@ public class GroupRepositoryTest extends AbstractRepositoryTest {
     }
 
     @Test
+    @WithoutNoise
     public void shouldFindAll() throws TechnicalException {
         Set<Group> groups = groupRepository.findAll();
 
@@ -17,6 +17,7 @@ package io.gravitee.repository;
 
 import io.gravitee.common.data.domain.Page;
 import io.gravitee.repository.config.AbstractRepositoryTest;
+import io.gravitee.repository.config.ExpectedQueries;
 import io.gravitee.repository.management.api.search.builder.PageableBuilder;
 import io.gravitee.repository.management.model.Rating;
 import io.gravitee.repository.management.model.RatingAnswer;
@@ -49,6 +50,8 @@ public class RatingRepositoryTest extends AbstractRepositoryTest {
     }
 
     @Test
+    @ExpectedQueries(max = 2, nested = 0,
+            value = @ExpectedQueries.Query(method = "RatingAnswerRepository.findByRating", max = 1))
     public void shouldFindById() throws Exception {
         final Optional<Rating> ratingOptional = ratingRepository.findById("rating-id");
 
@@ -69,6 +72,8 @@ public class RatingRepositoryTest extends AbstractRepositoryTest {
     }
 
     @Test
+    @ExpectedQueries(max = 2, nested = 0,
+            value = @ExpectedQueries.Query(method = "RatingAnswerRepository.findByRating", max = 1))
     public void shouldFindByApiAndUser() throws Exception {
         final Optional<Rating> ratingOptional = ratingRepository.findByApiAndUser("api", "user");
 
@@ -89,6 +94,7 @@ public class RatingRepositoryTest extends AbstractRepositoryTest {
     }
 
     @Test
+    @ExpectedQueries(max = 2, nested = 0)
     public void shouldFindByApiPageable() throws Exception {
         Page<Rating> ratingPage = ratingRepository.findByApiPageable("api",
                 new PageableBuilder().pageNumber(0).pageSize(2).build());
@@ -16,6 +16,7 @@
 package io.gravitee.repository;
 
 import io.gravitee.repository.config.AbstractRepositoryTest;
+import io.gravitee.repository.config.WithoutNoise;
 import io.gravitee.repository.management.api.search.UserCriteria;
 import io.gravitee.repository.management.api.search.builder.PageableBuilder;
 import io.gravitee.repository.management.model.User;
@@ -111,6 +112,7 @@ public class UserRepositoryTest extends AbstractRepositoryTest {
     }
 
     @Test
+    @WithoutNoise
     public void shouldSearchAllWithNullCriteria() throws Exception {
         List<User> users = userRepository.search(null,
                 new PageableBuilder().pageNumber(0).pageSize(Integer.MAX_VALUE).build()
@@ -166,6 +168,7 @@ public class UserRepositoryTest extends AbstractRepositoryTest {
     }
 
     @Test
+    @WithoutNoise
     public void shouldSearchActiveUsers() throws Exception {
         List<User> users = userRepository.search(new UserCriteria.Builder().statuses(UserStatus.ACTIVE).build(),
                 new PageableBuilder().pageNumber(0).pageSize(Integer.MAX_VALUE).build()
@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.benchmark;
+
+import io.gravitee.repository.config.memory.InMemoryApplicationRepository;
+import io.gravitee.repository.management.model.Application;
+import io.gravitee.repository.management.model.ApplicationStatus;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Compares {@link InMemoryApplicationRepository#findByName}, served by a trigram index, with a naive scan of the same
+ * applications lower-casing every name and copying the matching ones, as a repository without index does. The names
+ * are made of a team name, a business word and a number; both searches are given the same case-mixed substrings of
+ * existing names, plus strings matching no name, and must find the same applications. A substring of a business word
+ * matches a sixteenth of the applications, whose copy then outweighs the search: the median shows the usual case.
+ *
+ * The number of applications is given as the optional argument (1000000 by default).
+ *
+ * @author GraviteeSource Team
+ */
+public class ApplicationNameSearchBenchmark {
+
+    private static final String[] WORDS = {"payment", "order", "catalog", "search", "mobile", "partner", "billing",
+            "invoice", "customer", "shipping", "inventory", "loyalty", "pricing", "account", "portal", "gateway"};
+    private static final String[] SYLLABLES = {"ka", "lo", "mi", "nu", "ra", "te", "vo", "zu", "be", "di", "fa", "go",
+            "hu", "ji", "pe", "sa", "to", "wi", "xe", "yo"};
+    private static final int TEAMS = 20_000;
+    private static final int SEARCHES = 200;
+    private static final int ROUNDS = 3;
+    private static final String ROW_FORMAT = "%-6s %-8s %10s %10s %10s%n";
+
+    public static void main(String[] args) throws Exception {
+        final int size = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        final Random random = new Random(42);
+
+        final InMemoryApplicationRepository repository = new InMemoryApplicationRepository();
+        final String[] teams = new String[TEAMS];
+        for (int i = 0; i < TEAMS; i++) {
+            final StringBuilder team = new StringBuilder();
+            for (int syllable = 2 + random.nextInt(3); syllable > 0; syllable--) {
+                team.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+            teams[i] = team.toString();
+        }
+        final List<Application> applications = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final Application application = application(i, teams[random.nextInt(TEAMS)], random);
+            repository.create(application);
+            applications.add(application);
+        }
+
+        final List<String> searches = new ArrayList<>(SEARCHES);
+        for (int i = 0; i < SEARCHES; i++) {
+            searches.add(i % 10 == 0 ? "missing-" + i : substring(applications.get(random.nextInt(size)).getName(),
+                    random));
+        }
+
+        final Function<String, Set<Application>> indexed = repository::findByName;
+        final Function<String, Set<Application>> scanned = name -> {
+            final String wanted = name.toLowerCase(Locale.ROOT);
+            return applications.stream()
+                    .filter(application -> application.getName().toLowerCase(Locale.ROOT).contains(wanted))
+                    .map(Application::new)
+                    .collect(Collectors.toSet());
+        };
+        for (final String search : searches) {
+            if (!ids(indexed.apply(search)).equals(ids(scanned.apply(search)))) {
+                throw new IllegalStateException("The indexed and scanned searches differ for " + search);
+            }
+        }
+
+        System.out.printf(ROW_FORMAT, "Round", "search", "median ms", "p90 ms", "mean ms");
+        for (int round = 1; round <= ROUNDS; round++) {
+            print(round, "indexed", measure(indexed, searches));
+            print(round, "scanned", measure(scanned, searches));
+        }
+    }
+
+    private static Application application(final int index, final String team, final Random random) {
+        final Application application = new Application();
+        application.setId("app-" + index);
+        application.setName(Character.toUpperCase(team.charAt(0)) + team.substring(1) + ' '
+                + WORDS[random.nextInt(WORDS.length)] + " App" + Integer.toString(index, 36));
+        application.setStatus(random.nextInt(10) == 0 ? ApplicationStatus.ARCHIVED : ApplicationStatus.ACTIVE);
+        application.setGroups(Collections.singleton("group-" + random.nextInt(1000)));
+        return application;
+    }
+
+    /**
+     * A substring of 3 to 8 characters of the name, its case randomly changed.
+     */
+    private static String substring(final String name, final Random random) {
+        final int length = Math.min(name.length(), 3 + random.nextInt(6));
+        final int start = random.nextInt(name.length() - length + 1);
+        final StringBuilder substring = new StringBuilder(name.substring(start, start + length));
+        for (int i = 0; i < substring.length(); i++) {
+            if (random.nextBoolean()) {
+                substring.setCharAt(i, Character.toUpperCase(substring.charAt(i)));
+            }
+        }
+        return substring.toString();
+    }
+
+    private static Set<String> ids(final Set<Application> applications) {
+        return applications.stream().map(Application::getId).collect(Collectors.toSet());
+    }
+
+    /**
+     * @return the sorted durations of the searches, in nanoseconds
+     */
+    private static long[] measure(final Function<String, Set<Application>> search, final List<String> searches) {
+        final long[] durations = new long[searches.size()];
+        for (int i = 0; i < durations.length; i++) {
+            final long start = System.nanoTime();
+            search.apply(searches.get(i));
+            durations[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(durations);
+        return durations;
+    }
+
+    private static void print(final int round, final String search, final long[] durations) {
+        System.out.printf(ROW_FORMAT, round, search, millis(durations[durations.length / 2]),
+                millis(durations[durations.length * 9 / 10]), millis((long) Arrays.stream(durations).average().orElse(0)));
+    }
+
+    private static String millis(final long nanos) {
+        return String.format("%.3f", nanos / 1_000_000D);
+    }
+}
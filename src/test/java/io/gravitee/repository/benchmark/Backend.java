@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.benchmark;
+
+import io.gravitee.repository.config.RepositoryContexts;
+import io.gravitee.repository.config.RepositoryProfileResolver;
+import io.gravitee.repository.config.TestRepositoryInitializer;
+import io.gravitee.repository.config.latency.LatencyInjector;
+import io.gravitee.repository.management.api.ApiRepository;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.PrintStream;
+
+import static io.gravitee.repository.config.mock.Stubs.isStub;
+
+/**
+ * The repository implementation a simulation runs against, booted as for the TCK and initialized as around each of
+ * its tests. The repositories handed to the simulated clients are measured by an {@link InvocationRecorder}, and
+ * behave like remote ones when the {@link LatencyInjector} system properties are set.
+ *
+ * @author GraviteeSource Team
+ */
+final class Backend implements AutoCloseable {
+
+    final AnnotationConfigApplicationContext context;
+    final InvocationRecorder recorder = new InvocationRecorder();
+    final LatencyInjector latencyInjector = LatencyInjector.fromSystemProperties();
+    private final TestRepositoryInitializer initializer;
+
+    private Backend(final AnnotationConfigApplicationContext context) {
+        this.context = context;
+        this.initializer = context.getBean(TestRepositoryInitializer.class);
+    }
+
+    static Backend start() {
+        final AnnotationConfigApplicationContext context = RepositoryContexts.prepare();
+        RepositoryContexts.loadProperties(context);
+        context.refresh();
+        if (isStub(context.getBean(ApiRepository.class))) {
+            context.close();
+            throw new IllegalStateException("Simulations need a repository implementation, select one with -D"
+                    + RepositoryProfileResolver.PROFILE_PROPERTY);
+        }
+
+        final Backend backend = new Backend(context);
+        backend.initializer.setUp();
+        return backend;
+    }
+
+    /**
+     * @return the repository of the given type, measured by the recorder, latency and failures included
+     */
+    <T> T repository(final Class<T> type) {
+        final Object repository = context.getBean(type);
+        return type.cast(recorder.decorate(type,
+                latencyInjector == null ? repository : latencyInjector.decorate(type, repository)));
+    }
+
+    void printSettings(final PrintStream out) {
+        if (latencyInjector != null) {
+            out.println(latencyInjector);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            initializer.tearDown();
+        } finally {
+            context.close();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.benchmark;
+
+import io.gravitee.repository.config.RepositoryContexts;
+import io.gravitee.repository.management.api.ApiRepository;
+import io.gravitee.repository.management.api.EventRepository;
+import io.gravitee.repository.management.api.search.ApiCriteria;
+import io.gravitee.repository.management.api.search.EventCriteria;
+import io.gravitee.repository.management.api.search.builder.PageableBuilder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how long the repository layer takes to become ready, from the creation of its application context to the
+ * first successful {@link ApiRepository} and {@link EventRepository} searches, as a gateway does when it restarts.
+ *
+ * The time is broken down into property loading, bean creation and the first search of each repository, which
+ * accounts for connection and warm-up. A search is retried until it succeeds, for at most
+ * {@value #READY_TIMEOUT_SECONDS} seconds.
+ *
+ * The first boot of the JVM is the cold one; the following ones, given as the optional argument (4 by default), show
+ * what is left once classes are loaded and the JIT has warmed up. The configuration is selected as for the TCK, with
+ * the repository.profile system property.
+ *
+ * @author GraviteeSource Team
+ */
+public class ColdStartBenchmark {
+
+    private static final long READY_TIMEOUT_SECONDS = 60;
+    private static final String ROW_FORMAT = "%-6s %14s %12s %20s %22s %12s %8s%n";
+
+    public static void main(String[] args) throws Exception {
+        final int warmBoots = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+
+        System.out.printf(ROW_FORMAT, "Boot", "properties ms", "beans ms", "first api search ms",
+                "first event search ms", "total ms", "retries");
+        for (int boot = 0; boot <= warmBoots; boot++) {
+            print(boot == 0 ? "cold" : "warm", boot());
+        }
+        System.exit(0);
+    }
+
+    static long[] boot() throws Exception {
+        final long start = System.nanoTime();
+        try (AnnotationConfigApplicationContext context = RepositoryContexts.prepare()) {
+            RepositoryContexts.loadProperties(context);
+            final long propertiesLoaded = System.nanoTime();
+
+            context.refresh();
+            final long beansCreated = System.nanoTime();
+
+            final ApiRepository apiRepository = context.getBean(ApiRepository.class);
+            final int apiRetries = untilSuccessful(() -> apiRepository.search(new ApiCriteria.Builder().build()));
+            final long apiSearched = System.nanoTime();
+
+            final EventRepository eventRepository = context.getBean(EventRepository.class);
+            final int eventRetries = untilSuccessful(() -> eventRepository.search(new EventCriteria.Builder().build(),
+                    new PageableBuilder().pageNumber(0).pageSize(10).build()));
+            final long eventSearched = System.nanoTime();
+
+            return new long[]{propertiesLoaded - start, beansCreated - propertiesLoaded, apiSearched - beansCreated,
+                    eventSearched - apiSearched, eventSearched - start, apiRetries + eventRetries};
+        }
+    }
+
+    /**
+     * @return the number of failed attempts before the search succeeded
+     */
+    private static int untilSuccessful(final Callable<?> search) throws Exception {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(READY_TIMEOUT_SECONDS);
+        int retries = 0;
+        while (true) {
+            try {
+                search.call();
+                return retries;
+            } catch (Exception ex) {
+                if (System.nanoTime() > deadline) {
+                    throw ex;
+                }
+                retries++;
+                Thread.sleep(10);
+            }
+        }
+    }
+
+    private static void print(final String boot, final long[] measures) {
+        System.out.printf(ROW_FORMAT, boot, millis(measures[0]), millis(measures[1]), millis(measures[2]),
+                millis(measures[3]), millis(measures[4]), measures[5]);
+    }
+
+    private static String millis(final long nanos) {
+        return String.format("%.1f", nanos / 1_000_000D);
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.benchmark;
+
+import org.junit.runner.Result;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The results of the suites run against each configuration, printed as one table row per repository method and
+ * configuration. The {@code calls/s} column is the number of calls made to the method over the time the suites took
+ * to run against the configuration.
+ *
+ * @author GraviteeSource Team
+ */
+public class ComparisonReport {
+
+    private static final String ROW_FORMAT = "%-70s %-12s %9s %9s %10s %10s %10s %12s %12s%n";
+
+    private final Map<String, Result> results = new LinkedHashMap<>();
+    private final Map<String, Map<String, MethodStatistics>> statistics = new LinkedHashMap<>();
+
+    void add(final String configuration, final Result result, final Map<String, MethodStatistics> methodStatistics) {
+        results.put(configuration, result);
+        statistics.put(configuration, methodStatistics);
+    }
+
+    public boolean wasSuccessful() {
+        return results.values().stream().allMatch(Result::wasSuccessful);
+    }
+
+    public void print(final PrintStream out) {
+        for (final Map.Entry<String, Result> result : results.entrySet()) {
+            out.printf("%s: %d tests, %d failures, %d ignored in %d ms%n", result.getKey(),
+                    result.getValue().getRunCount(), result.getValue().getFailureCount(),
+                    result.getValue().getIgnoreCount(), result.getValue().getRunTime());
+        }
+        out.println();
+
+        out.printf(ROW_FORMAT, "Method", "Config", "Tests", "Calls", "p50 us", "p90 us", "p99 us", "calls/s", "bytes/call");
+        final Set<String> methods = new TreeSet<>();
+        statistics.values().forEach(methodStatistics -> methods.addAll(methodStatistics.keySet()));
+        for (final String method : methods) {
+            String label = method;
+            for (final Map.Entry<String, Map<String, MethodStatistics>> configuration : statistics.entrySet()) {
+                final MethodStatistics methodStatistics = configuration.getValue().get(method);
+                if (methodStatistics == null) {
+                    out.printf(ROW_FORMAT, label, configuration.getKey(), "-", 0, "-", "-", "-", "-", "-");
+                } else {
+                    final long[] percentiles = methodStatistics.latencies.percentiles(50, 90, 99);
+                    final int calls = methodStatistics.latencies.count();
+                    out.printf(ROW_FORMAT, label, configuration.getKey(),
+                            methodStatistics.passedTests() + "/" + methodStatistics.tests.size(), calls,
+                            micros(percentiles[0]), micros(percentiles[1]), micros(percentiles[2]),
+                            String.format("%.1f", methodStatistics.callsPerSecond(
+                                    results.get(configuration.getKey()).getRunTime())),
+                            InvocationRecorder.isAllocationSupported()
+                                    ? String.valueOf(methodStatistics.allocatedBytes.get() / calls) : "n/a");
+                }
+                // the method is only named on its first row
+                label = "";
+            }
+        }
+    }
+
+    private static String micros(final long nanos) {
+        return String.format("%.1f", nanos / 1000D);
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.benchmark;
+
+import io.gravitee.repository.config.AbstractRepositoryTest;
+import io.gravitee.repository.config.RepositoryDecorators;
+import io.gravitee.repository.config.RepositoryProfileResolver;
+import org.junit.runner.JUnitCore;
+import org.junit.runner.Result;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.type.filter.AssignableTypeFilter;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Runs the TCK suites, i.e. every concrete {@link AbstractRepositoryTest} found under {@code io.gravitee.repository},
+ * against several repository configurations and compares them method by method: tests passed, latency percentiles,
+ * calls per second over the run of the suites and allocation per call.
+ *
+ * The benchmarks of this package are out of its scope: they are programs of their own, each reporting its workload
+ * for the configuration its {@code repository.profile} system property selects, and are compared by running them once
+ * per profile.
+ *
+ * The configurations are the ones the TCK scans: each class must belong to {@value #SUITES_PACKAGE} or one of its
+ * sub-packages, have {@code Test} in its name, and be activated by a single {@link Profile}, which
+ * {@link RepositoryProfileResolver} enables while its suites run, e.g. from the test classpath:
+ *
+ * <pre>
+ * java io.gravitee.repository.benchmark.ComparisonRunner io.gravitee.repository.config.MockTestRepositoryConfiguration ...
+ * </pre>
+ *
+ * @author GraviteeSource Team
+ */
+public class ComparisonRunner {
+
+    private static final String SUITES_PACKAGE = "io.gravitee.repository";
+
+    public static void main(String[] args) throws ClassNotFoundException {
+        if (args.length == 0) {
+            System.err.println("Usage: ComparisonRunner <configuration class>...");
+            System.exit(2);
+        }
+
+        final List<Class<?>> configurations = new ArrayList<>();
+        for (final String configuration : args) {
+            configurations.add(ClassUtils.forName(configuration, ComparisonRunner.class.getClassLoader()));
+        }
+
+        final ComparisonReport report = run(configurations, findSuites());
+        report.print(System.out);
+        System.exit(report.wasSuccessful() ? 0 : 1);
+    }
+
+    public static ComparisonReport run(final List<Class<?>> configurations, final List<Class<?>> suites) {
+        final ComparisonReport report = new ComparisonReport();
+        final Class<?>[] classes = suites.toArray(new Class<?>[0]);
+
+        for (final Class<?> configuration : configurations) {
+            final String profile = profileOf(configuration);
+            final InvocationRecorder recorder = new InvocationRecorder();
+            final JUnitCore junit = new JUnitCore();
+            junit.addListener(recorder);
+
+            final String previousProfile = System.getProperty(RepositoryProfileResolver.PROFILE_PROPERTY);
+            System.setProperty(RepositoryProfileResolver.PROFILE_PROPERTY, profile);
+            RepositoryDecorators.register(recorder);
+            try {
+                final Result result = junit.run(classes);
+                report.add(profile, result, recorder.statistics());
+            } finally {
+                RepositoryDecorators.unregister(recorder);
+                if (previousProfile == null) {
+                    System.clearProperty(RepositoryProfileResolver.PROFILE_PROPERTY);
+                } else {
+                    System.setProperty(RepositoryProfileResolver.PROFILE_PROPERTY, previousProfile);
+                }
+            }
+        }
+        return report;
+    }
+
+    /**
+     * @return the concrete {@link AbstractRepositoryTest} classes found under {@value #SUITES_PACKAGE}, sorted by name
+     */
+    public static List<Class<?>> findSuites() throws ClassNotFoundException {
+        final ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AssignableTypeFilter(AbstractRepositoryTest.class));
+
+        final List<Class<?>> suites = new ArrayList<>();
+        for (final BeanDefinition candidate : scanner.findCandidateComponents(SUITES_PACKAGE)) {
+            suites.add(ClassUtils.forName(candidate.getBeanClassName(), ComparisonRunner.class.getClassLoader()));
+        }
+        suites.sort(Comparator.comparing(Class::getName));
+        return suites;
+    }
+
+    private static String profileOf(final Class<?> configuration) {
+        // the suites only load the configurations their context scans
+        if (!configuration.getName().startsWith(SUITES_PACKAGE + '.')
+                || !configuration.getSimpleName().contains("Test")) {
+            throw new IllegalArgumentException("The configuration " + configuration.getName()
+                    + " must belong to " + SUITES_PACKAGE + " and have Test in its name to be scanned");
+        }
+        final Profile profile = AnnotationUtils.findAnnotation(configuration, Profile.class);
+        if (profile == null || profile.value().length != 1) {
+            throw new IllegalArgumentException(
+                    "The configuration " + configuration.getName() + " must be activated by a single @Profile");
+        }
+        return profile.value()[0];
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.benchmark;
+
+import io.gravitee.repository.config.file.FileStore;
+import io.gravitee.repository.config.memory.InMemoryEventRepository;
+import io.gravitee.repository.management.model.Event;
+import io.gravitee.repository.management.model.EventType;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Measures the {@link FileStore} behind the file profile: the throughput of the writes journaled, by one thread then
+ * by several writing distinct events, with and without forcing each of them to the disk; then the time the store
+ * takes to open again, replaying its journal, and once compacted, reading its snapshot. The events carry a payload of
+ * about a kilobyte, as the events of an api deployment do, and a tenth of them are updated then a tenth deleted; the
+ * store restored must hold what was written.
+ *
+ * The number of events and of writing threads are given as the optional arguments (200000 and 4 by default); writes
+ * forced to the disk are a hundred times fewer.
+ *
+ * @author GraviteeSource Team
+ */
+public class FileStoreBenchmark {
+
+    private static final long COMPACTION_THRESHOLD = Long.MAX_VALUE;
+    private static final int SYNCED_DIVISOR = 100;
+    private static final String ROW_FORMAT = "%-28s %10s %12s %12s %12s%n";
+
+    public static void main(String[] args) throws Exception {
+        final int size = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        final int threads = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        final String payload = payload(new Random(42));
+
+        System.out.printf(ROW_FORMAT, "Phase", "records", "MB", "ms", "records/s");
+        for (final boolean sync : new boolean[]{false, true}) {
+            final int writes = sync ? Math.max(size / SYNCED_DIVISOR, threads) : size;
+            for (final int writers : new int[]{1, threads}) {
+                final Path directory = Files.createTempDirectory("gravitee-file-store");
+                try (FileStore store = new FileStore(directory, COMPACTION_THRESHOLD, sync)) {
+                    final InMemoryEventRepository repository = store.register(InMemoryEventRepository::new);
+                    store.open();
+                    final long start = System.nanoTime();
+                    write(repository, writes, writers, payload);
+                    print((sync ? "synced" : "written") + " writes, " + writers + " thread(s)", writes,
+                            store.journalSize(), System.nanoTime() - start);
+                } finally {
+                    delete(directory);
+                }
+            }
+        }
+
+        final Path directory = Files.createTempDirectory("gravitee-file-store");
+        try {
+            final int expected;
+            try (FileStore store = new FileStore(directory, COMPACTION_THRESHOLD, false)) {
+                final InMemoryEventRepository repository = store.register(InMemoryEventRepository::new);
+                store.open();
+                write(repository, size, threads, payload);
+                for (int i = 0; i < size / 10; i++) {
+                    final Event event = event(i, payload);
+                    event.setType(EventType.STOP_API);
+                    event.setUpdatedAt(new Date(event.getUpdatedAt().getTime() + 1));
+                    repository.update(event);
+                }
+                for (int i = size - size / 10; i < size; i++) {
+                    repository.delete("event-" + i);
+                }
+                expected = repository.size();
+            }
+            replay(directory, "replayed journal", expected);
+            try (FileStore store = new FileStore(directory, COMPACTION_THRESHOLD, false)) {
+                store.register(InMemoryEventRepository::new);
+                store.open();
+                store.compact();
+            }
+            replay(directory, "read snapshot", expected);
+        } finally {
+            delete(directory);
+        }
+        System.exit(0);
+    }
+
+    private static void write(final InMemoryEventRepository repository, final int writes, final int writers,
+                              final String payload) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try {
+            final List<Future<?>> done = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                final int first = writer;
+                done.add(executor.submit(() -> {
+                    for (int i = first; i < writes; i += writers) {
+                        repository.create(event(i, payload));
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> writer : done) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void replay(final Path directory, final String phase, final int expected) throws Exception {
+        final long bytes = size(directory);
+        try (FileStore store = new FileStore(directory, COMPACTION_THRESHOLD, false)) {
+            final InMemoryEventRepository repository = store.register(InMemoryEventRepository::new);
+            final long start = System.nanoTime();
+            final long records = store.open();
+            final long duration = System.nanoTime() - start;
+            if (repository.size() != expected) {
+                throw new IllegalStateException(repository.size() + " events restored instead of " + expected);
+            }
+            print(phase, records, bytes, duration);
+        }
+    }
+
+    private static Event event(final int index, final String payload) {
+        final Event event = new Event();
+        event.setId("event-" + index);
+        event.setType(index % 2 == 0 ? EventType.PUBLISH_API : EventType.START_API);
+        event.setPayload(payload);
+        final Map<String, String> properties = new HashMap<>();
+        properties.put("api_id", "api-" + index % 1000);
+        properties.put("user", "user-" + index % 100);
+        event.setProperties(properties);
+        event.setCreatedAt(new Date(1_500_000_000_000L + index * 1000L));
+        event.setUpdatedAt(event.getCreatedAt());
+        return event;
+    }
+
+    private static String payload(final Random random) {
+        final StringBuilder payload = new StringBuilder("{\"proxy\":{\"endpoints\":[");
+        while (payload.length() < 1000) {
+            payload.append("{\"target\":\"https://backend-").append(random.nextInt(100)).append(".local\"},");
+        }
+        return payload.append("{}]}}").toString();
+    }
+
+    private static void print(final String phase, final long records, final long bytes, final long nanos) {
+        System.out.printf(ROW_FORMAT, phase, records, String.format("%.1f", bytes / 1e6),
+                String.format("%.0f", nanos / 1e6), String.format("%.0f", records / (nanos / 1e9)));
+    }
+
+    private static long size(final Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            long size = 0;
+            for (final Path file : (Iterable<Path>) files::iterator) {
+                size += Files.size(file);
+            }
+            return size;
+        }
+    }
+
+    private static void delete(final Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (final Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
@@ -0,0 +1,408 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.benchmark;
+
+import io.gravitee.repository.dataset.Dataset;
+import io.gravitee.repository.dataset.DatasetGenerator;
+import io.gravitee.repository.dataset.DatasetLoader;
+import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.management.api.*;
+import io.gravitee.repository.management.api.search.ApiKeyCriteria;
+import io.gravitee.repository.management.api.search.EventCriteria;
+import io.gravitee.repository.management.api.search.SubscriptionCriteria;
+import io.gravitee.repository.management.model.*;
+
+import java.io.PrintStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.singleton;
+
+/**
+ * Replays the synchronization loop of N gateways against a repository implementation while a writer publishes APIs
+ * and issues API keys.
+ *
+ * On each tick, a gateway searches the PUBLISH_API, START_API and STOP_API events updated since the last one it has
+ * seen, loads the plans of the APIs it discovers with all their API keys, then refreshes the subscriptions and API keys
+ * of its other plans updated since the last ones it has seen. The first tick is a full synchronization. As a gateway
+ * does, the windows start from the greatest update date seen rather than from the clock, so that a write committed
+ * long after the date it carries is still found.
+ *
+ * It reports:
+ * <ul>
+ *     <li>the sync lag: how late each tick ends compared to when it was scheduled,</li>
+ *     <li>the time from the write of an API or a key to its visibility on each gateway,</li>
+ *     <li>the load put on the backend by the gateways and the writer.</li>
+ * </ul>
+ *
+ * Settings are read from system properties: benchmark.gateways (4), benchmark.duration (30000 ms), benchmark.tick
+ * (1000 ms), benchmark.writeInterval (50 ms) and benchmark.apis (100 APIs initially deployed). The implementation is
+ * selected as for the TCK, with the repository.profile system property, and made to behave like a remote one with the
+ * {@link io.gravitee.repository.config.latency.LatencyInjector} system properties. A tick failing on an injected
+ * failure is synchronized again from the same point on the next tick, a failing write is skipped.
+ *
+ * @author GraviteeSource Team
+ */
+public class GatewaySyncSimulator {
+
+    private static final EventType[] SYNC_EVENT_TYPES = {EventType.PUBLISH_API, EventType.START_API, EventType.STOP_API};
+    private static final String ID_PREFIX = "sync-";
+
+    private final int gateways;
+    private final long durationMillis;
+    private final long tickMillis;
+    private final long writeIntervalMillis;
+    private final int apis;
+
+    private final Samples syncLag = new Samples();
+    private final Samples apiVisibility = new Samples();
+    private final Samples keyVisibility = new Samples();
+    private final Map<String, Long> writtenApis = new ConcurrentHashMap<>();
+    private final Map<String, Long> writtenKeys = new ConcurrentHashMap<>();
+    private final AtomicInteger failedTicks = new AtomicInteger();
+    private final AtomicInteger failedWrites = new AtomicInteger();
+    private volatile boolean running = true;
+
+    public GatewaySyncSimulator(int gateways, long durationMillis, long tickMillis, long writeIntervalMillis, int apis) {
+        this.gateways = gateways;
+        this.durationMillis = durationMillis;
+        this.tickMillis = tickMillis;
+        this.writeIntervalMillis = writeIntervalMillis;
+        this.apis = apis;
+    }
+
+    public static void main(String[] args) throws Exception {
+        new GatewaySyncSimulator(
+                Integer.getInteger("benchmark.gateways", 4),
+                Long.getLong("benchmark.duration", 30_000L),
+                Long.getLong("benchmark.tick", 1_000L),
+                Long.getLong("benchmark.writeInterval", 50L),
+                Integer.getInteger("benchmark.apis", 100)).run(System.out);
+        System.exit(0);
+    }
+
+    public void run(final PrintStream out) throws Exception {
+        try (Backend backend = Backend.start()) {
+            final Dataset dataset = new DatasetGenerator.Builder()
+                    .idPrefix(ID_PREFIX)
+                    .users(10)
+                    .apis(apis)
+                    .applications(apis)
+                    .subscriptions(apis * 2)
+                    .apiKeys(apis * 2)
+                    .events(apis)
+                    .build()
+                    .generate();
+            DatasetLoader.load(dataset, backend.context);
+
+            final ExecutorService executor = Executors.newFixedThreadPool(gateways + 1);
+            final List<Future<?>> tasks = new ArrayList<>();
+            final long start = System.nanoTime();
+            for (int i = 0; i < gateways; i++) {
+                tasks.add(executor.submit(new Gateway(backend)));
+            }
+            tasks.add(executor.submit(new Writer(backend, dataset)));
+
+            Thread.sleep(durationMillis);
+            running = false;
+            for (final Future<?> task : tasks) {
+                task.get();
+            }
+            final long duration = System.nanoTime() - start;
+            executor.shutdown();
+
+            out.printf("%d gateways, %d ms, tick every %d ms, write every %d ms%n",
+                    gateways, durationMillis, tickMillis, writeIntervalMillis);
+            backend.printSettings(out);
+            out.println();
+            final String rowFormat = "%-28s %8s %8s %8s %8s %8s %12s%n";
+            out.printf(rowFormat, "", "count", "p50 ms", "p90 ms", "p99 ms", "max ms", "not visible");
+            print(out, rowFormat, "sync lag", syncLag, "");
+            print(out, rowFormat, "API write to visibility", apiVisibility,
+                    String.valueOf(writtenApis.size() * gateways - apiVisibility.count()));
+            print(out, rowFormat, "key write to visibility", keyVisibility,
+                    String.valueOf(writtenKeys.size() * gateways - keyVisibility.count()));
+            if (failedTicks.get() > 0 || failedWrites.get() > 0) {
+                out.printf("%nfailed ticks: %d, failed writes: %d%n", failedTicks.get(), failedWrites.get());
+            }
+            out.println();
+            backend.recorder.printLoad(out, duration);
+        }
+    }
+
+    private static void print(final PrintStream out, final String rowFormat, final String label, final Samples samples,
+                              final String notVisible) {
+        final long[] percentiles = samples.percentiles(50, 90, 99, 100);
+        out.printf(rowFormat, label, samples.count(), percentiles[0], percentiles[1], percentiles[2], percentiles[3],
+                notVisible);
+    }
+
+    private class Gateway implements Callable<Void> {
+
+        private final EventRepository eventRepository;
+        private final PlanRepository planRepository;
+        private final SubscriptionRepository subscriptionRepository;
+        private final ApiKeyRepository apiKeyRepository;
+
+        private final Map<String, Set<String>> plansByApi = new HashMap<>();
+        private final Set<String> plans = new HashSet<>();
+        private final Set<String> seenKeys = new HashSet<>();
+        // the greatest update dates seen, -1 before the first synchronization
+        private long eventsSeenUntil = -1;
+        private long subscriptionsSeenUntil = -1;
+        private long keysSeenUntil = -1;
+
+        Gateway(final Backend backend) {
+            this.eventRepository = backend.repository(EventRepository.class);
+            this.planRepository = backend.repository(PlanRepository.class);
+            this.subscriptionRepository = backend.repository(SubscriptionRepository.class);
+            this.apiKeyRepository = backend.repository(ApiKeyRepository.class);
+        }
+
+        @Override
+        public Void call() throws Exception {
+            long scheduled = System.currentTimeMillis();
+            while (running) {
+                try {
+                    sync();
+                } catch (TechnicalException | RuntimeException e) {
+                    failedTicks.incrementAndGet();
+                }
+
+                final long end = System.currentTimeMillis();
+                syncLag.add(end - scheduled);
+                // a late gateway does not skip ticks, its lag grows instead
+                scheduled += tickMillis;
+                Thread.sleep(Math.max(0, scheduled - end));
+            }
+            return null;
+        }
+
+        private void sync() throws TechnicalException {
+            // the windows include their start, what was seen last being found again and ignored
+            final EventCriteria.Builder events = new EventCriteria.Builder().types(SYNC_EVENT_TYPES);
+            if (eventsSeenUntil >= 0) {
+                events.from(eventsSeenUntil);
+            }
+            long eventsSeen = eventsSeenUntil;
+            final Map<String, Set<String>> discovered = new HashMap<>();
+            for (final Event event : eventRepository.search(events.build())) {
+                eventsSeen = Math.max(eventsSeen, event.getUpdatedAt().getTime());
+                final String api = event.getProperties().get(Event.EventProperties.API_ID.getValue());
+                if (api != null && !plansByApi.containsKey(api) && !discovered.containsKey(api)) {
+                    final Set<String> apiPlans = new HashSet<>();
+                    for (final Plan plan : planRepository.findByApi(api)) {
+                        apiPlans.add(plan.getId());
+                    }
+                    discovered.put(api, apiPlans);
+                }
+            }
+
+            long subscriptionsSeen = subscriptionsSeenUntil;
+            long keysSeen = keysSeenUntil;
+            if (!plans.isEmpty()) {
+                final SubscriptionCriteria.Builder subscriptions = new SubscriptionCriteria.Builder().plans(plans);
+                if (subscriptionsSeenUntil >= 0) {
+                    subscriptions.from(subscriptionsSeenUntil);
+                }
+                for (final Subscription subscription : subscriptionRepository.search(subscriptions.build())) {
+                    subscriptionsSeen = Math.max(subscriptionsSeen, subscription.getUpdatedAt().getTime());
+                }
+                keysSeen = Math.max(keysSeen, refreshKeys(plans, keysSeenUntil));
+            }
+            final Set<String> discoveredPlans = new HashSet<>();
+            discovered.values().forEach(discoveredPlans::addAll);
+            if (!discoveredPlans.isEmpty()) {
+                // the subscriptions and keys of a plan discovered are all loaded, whenever they were updated
+                subscriptionRepository.search(new SubscriptionCriteria.Builder().plans(discoveredPlans).build());
+                keysSeen = Math.max(keysSeen, refreshKeys(discoveredPlans, -1));
+            }
+
+            // only kept once the whole tick succeeded, a failed one being synchronized again
+            discovered.forEach((api, apiPlans) -> {
+                plansByApi.put(api, apiPlans);
+                plans.addAll(apiPlans);
+                visible(writtenApis.get(api), apiVisibility);
+            });
+            eventsSeenUntil = eventsSeen;
+            subscriptionsSeenUntil = subscriptionsSeen;
+            keysSeenUntil = keysSeen;
+        }
+
+        /**
+         * Loads the keys of the given plans updated since the given date, or all of them before the first one.
+         *
+         * @return the greatest update date of the keys found
+         */
+        private long refreshKeys(final Set<String> keyPlans, final long seenUntil) throws TechnicalException {
+            final ApiKeyCriteria.Builder keys = new ApiKeyCriteria.Builder().plans(keyPlans).includeRevoked(true);
+            if (seenUntil >= 0) {
+                keys.from(seenUntil);
+            }
+            long seen = seenUntil;
+            for (final ApiKey key : apiKeyRepository.findByCriteria(keys.build())) {
+                seen = Math.max(seen, key.getUpdatedAt().getTime());
+                if (seenKeys.add(key.getKey())) {
+                    visible(writtenKeys.get(key.getKey()), keyVisibility);
+                }
+            }
+            return seen;
+        }
+
+        private void visible(final Long writtenAt, final Samples visibility) {
+            // only what the writer wrote during the simulation is timed, not the initial dataset
+            if (writtenAt != null) {
+                visibility.add(System.currentTimeMillis() - writtenAt);
+            }
+        }
+    }
+
+    private class Writer implements Callable<Void> {
+
+        private final ApiRepository apiRepository;
+        private final PlanRepository planRepository;
+        private final EventRepository eventRepository;
+        private final SubscriptionRepository subscriptionRepository;
+        private final ApiKeyRepository apiKeyRepository;
+
+        private final Random random = new Random(0);
+        private final List<Plan> plans;
+        private final List<String> applications = new ArrayList<>();
+
+        Writer(final Backend backend, final Dataset dataset) {
+            this.apiRepository = backend.repository(ApiRepository.class);
+            this.planRepository = backend.repository(PlanRepository.class);
+            this.eventRepository = backend.repository(EventRepository.class);
+            this.subscriptionRepository = backend.repository(SubscriptionRepository.class);
+            this.apiKeyRepository = backend.repository(ApiKeyRepository.class);
+            // keys are only issued for the plans of the APIs deployed, the only ones the gateways synchronize
+            final Set<String> deployedApis = new HashSet<>();
+            final List<EventType> syncEventTypes = Arrays.asList(SYNC_EVENT_TYPES);
+            for (final Event event : dataset.getEvents()) {
+                if (syncEventTypes.contains(event.getType())) {
+                    deployedApis.add(event.getProperties().get(Event.EventProperties.API_ID.getValue()));
+                }
+            }
+            this.plans = new ArrayList<>();
+            for (final Plan plan : dataset.getPlans()) {
+                if (!Collections.disjoint(plan.getApis(), deployedApis)) {
+                    plans.add(plan);
+                }
+            }
+            for (final Application application : dataset.getApplications()) {
+                applications.add(application.getId());
+            }
+        }
+
+        @Override
+        public Void call() throws Exception {
+            int writes = 0;
+            while (running) {
+                try {
+                    if (random.nextBoolean()) {
+                        publishApi(writes);
+                    } else {
+                        issueKey(writes);
+                    }
+                } catch (TechnicalException | RuntimeException e) {
+                    failedWrites.incrementAndGet();
+                }
+                writes++;
+                Thread.sleep(writeIntervalMillis);
+            }
+            return null;
+        }
+
+        private void publishApi(final int index) throws TechnicalException {
+            final Date now = new Date();
+            final Api api = new Api();
+            api.setId(ID_PREFIX + "published-api-" + index);
+            api.setName("Published API " + index);
+            api.setVersion("1");
+            api.setVisibility(Visibility.PUBLIC);
+            api.setLifecycleState(LifecycleState.STARTED);
+            api.setCreatedAt(now);
+            api.setUpdatedAt(now);
+            api.setDeployedAt(now);
+
+            final Plan plan = new Plan();
+            plan.setId(api.getId() + "-plan");
+            plan.setName("Plan of " + api.getName());
+            plan.setApis(singleton(api.getId()));
+            plan.setSecurity(Plan.PlanSecurityType.API_KEY);
+            plan.setValidation(Plan.PlanValidationType.AUTO);
+            plan.setType(Plan.PlanType.API);
+            plan.setStatus(Plan.Status.PUBLISHED);
+            plan.setCreatedAt(now);
+            plan.setUpdatedAt(now);
+
+            final Event event = new Event();
+            event.setId(api.getId() + "-event");
+            event.setType(EventType.PUBLISH_API);
+            event.setPayload("{}");
+            event.setProperties(Collections.singletonMap(Event.EventProperties.API_ID.getValue(), api.getId()));
+            event.setCreatedAt(now);
+            event.setUpdatedAt(now);
+
+            // timed from the first write, since a gateway may see the event before the writer gets it back
+            writtenApis.put(api.getId(), System.currentTimeMillis());
+            try {
+                apiRepository.create(api);
+                planRepository.create(plan);
+                eventRepository.create(event);
+            } catch (TechnicalException | RuntimeException e) {
+                // an API whose event was not written never becomes visible
+                writtenApis.remove(api.getId());
+                throw e;
+            }
+            plans.add(plan);
+        }
+
+        private void issueKey(final int index) throws TechnicalException {
+            final Date now = new Date();
+            final Plan plan = plans.get(random.nextInt(plans.size()));
+
+            final Subscription subscription = new Subscription();
+            subscription.setId(ID_PREFIX + "issued-subscription-" + index);
+            subscription.setApi(plan.getApis().iterator().next());
+            subscription.setPlan(plan.getId());
+            subscription.setApplication(applications.get(random.nextInt(applications.size())));
+            subscription.setStatus(Subscription.Status.ACCEPTED);
+            subscription.setCreatedAt(now);
+            subscription.setUpdatedAt(now);
+            subscription.setProcessedAt(now);
+            subscription.setStartingAt(now);
+
+            final ApiKey apiKey = new ApiKey();
+            apiKey.setKey(ID_PREFIX + "issued-key-" + index);
+            apiKey.setSubscription(subscription.getId());
+            apiKey.setApplication(subscription.getApplication());
+            apiKey.setPlan(plan.getId());
+            apiKey.setCreatedAt(now);
+            apiKey.setUpdatedAt(now);
+
+            writtenKeys.put(apiKey.getKey(), System.currentTimeMillis());
+            try {
+                subscriptionRepository.create(subscription);
+                apiKeyRepository.create(apiKey);
+            } catch (TechnicalException | RuntimeException e) {
+                writtenKeys.remove(apiKey.getKey());
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.benchmark;
+
+import io.gravitee.repository.config.RepositoryDecorator;
+import org.junit.runner.Description;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measures every repository call made while a suite runs, and ties it to the test which made it.
+ *
+ * @author GraviteeSource Team
+ */
+final class InvocationRecorder extends RunListener implements RepositoryDecorator {
+
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = threadMXBean();
+
+    private final Map<String, MethodStatistics> statistics = new ConcurrentHashMap<>();
+    private final Set<Description> failedTests = ConcurrentHashMap.newKeySet();
+    private volatile Description currentTest;
+
+    @Override
+    public Object decorate(final Class<?> type, final Object repository) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> invoke(type, repository, method, args));
+    }
+
+    private Object invoke(final Class<?> type, final Object repository, final Method method, final Object[] args)
+            throws Throwable {
+        // CRUD methods are inherited from a package-private interface
+        method.setAccessible(true);
+        if (method.getDeclaringClass() == Object.class) {
+            return method.invoke(repository, args);
+        }
+
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedBefore = THREAD_MX_BEAN == null ? 0 : THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+        final long start = System.nanoTime();
+        try {
+            return method.invoke(repository, args);
+        } catch (InvocationTargetException ite) {
+            throw ite.getCause();
+        } finally {
+            final long elapsed = System.nanoTime() - start;
+            final MethodStatistics methodStatistics = statistics.computeIfAbsent(key(type, method), k -> new MethodStatistics());
+            methodStatistics.latencies.add(elapsed);
+            if (THREAD_MX_BEAN != null) {
+                methodStatistics.allocatedBytes.addAndGet(THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - allocatedBefore);
+            }
+            final Description test = currentTest;
+            if (test != null) {
+                methodStatistics.tests.add(test);
+            }
+        }
+    }
+
+    @Override
+    public void testStarted(final Description description) {
+        currentTest = description;
+    }
+
+    @Override
+    public void testFinished(final Description description) {
+        currentTest = null;
+    }
+
+    @Override
+    public void testFailure(final Failure failure) {
+        failedTests.add(failure.getDescription());
+    }
+
+    static boolean isAllocationSupported() {
+        return THREAD_MX_BEAN != null;
+    }
+
+    /**
+     * @return the statistics of each called method, sorted by method
+     */
+    Map<String, MethodStatistics> statistics() {
+        final Map<String, MethodStatistics> sorted = new TreeMap<>(statistics);
+        for (final MethodStatistics methodStatistics : sorted.values()) {
+            for (final Description test : methodStatistics.tests) {
+                if (failedTests.contains(test)) {
+                    methodStatistics.failedTests.add(test);
+                }
+            }
+        }
+        return sorted;
+    }
+
+    /**
+     * Prints the calls made to each method, as the load they put on the backend over the given duration.
+     */
+    void printLoad(final PrintStream out, final long durationNanos) {
+        final String rowFormat = "%-70s %10s %10s %10s %10s %10s%n";
+        out.printf(rowFormat, "Method", "Calls", "calls/s", "p50 us", "p99 us", "max us");
+        for (final Map.Entry<String, MethodStatistics> method : statistics().entrySet()) {
+            final Samples latencies = method.getValue().latencies;
+            final long[] percentiles = latencies.percentiles(50, 99, 100);
+            out.printf(rowFormat, method.getKey(), latencies.count(),
+                    String.format("%.1f", latencies.count() * 1_000_000_000D / durationNanos),
+                    percentiles[0] / 1000, percentiles[1] / 1000, percentiles[2] / 1000);
+        }
+    }
+
+    private static String key(final Class<?> type, final Method method) {
+        final StringJoiner parameters = new StringJoiner(", ", "(", ")");
+        for (final Class<?> parameterType : method.getParameterTypes()) {
+            parameters.add(parameterType.getSimpleName());
+        }
+        return type.getSimpleName() + '.' + method.getName() + parameters;
+    }
+
+    private static com.sun.management.ThreadMXBean threadMXBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+            if (threadMXBean.isThreadAllocatedMemorySupported()) {
+                threadMXBean.setThreadAllocatedMemoryEnabled(true);
+                return threadMXBean;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.benchmark;
+
+import org.junit.runner.Description;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * What has been measured on a repository method against one configuration.
+ *
+ * @author GraviteeSource Team
+ */
+final class MethodStatistics {
+
+    final Samples latencies = new Samples();
+    final AtomicLong allocatedBytes = new AtomicLong();
+    final Set<Description> tests = ConcurrentHashMap.newKeySet();
+    final Set<Description> failedTests = ConcurrentHashMap.newKeySet();
+
+    int passedTests() {
+        return tests.size() - failedTests.size();
+    }
+
+    /**
+     * Calls per second over the given run of the suites, i.e. the rate at which they made the calls.
+     */
+    double callsPerSecond(final long runMillis) {
+        return runMillis == 0 ? 0 : latencies.count() * 1000D / runMillis;
+    }
+}
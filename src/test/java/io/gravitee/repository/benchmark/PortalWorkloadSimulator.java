@@ -0,0 +1,332 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.benchmark;
+
+import io.gravitee.repository.dataset.Dataset;
+import io.gravitee.repository.dataset.DatasetGenerator;
+import io.gravitee.repository.dataset.DatasetLoader;
+import io.gravitee.repository.dataset.Distribution;
+import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.management.api.*;
+import io.gravitee.repository.management.api.search.ApiCriteria;
+import io.gravitee.repository.management.api.search.PageCriteria;
+import io.gravitee.repository.management.api.search.builder.PageableBuilder;
+import io.gravitee.repository.management.model.*;
+import io.gravitee.repository.media.api.MediaRepository;
+import io.gravitee.repository.media.model.Media;
+
+import java.io.PrintStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.singleton;
+
+/**
+ * Drives a weighted mix of management portal page loads against a repository implementation, with concurrent
+ * virtual users, and reports the latency of each page:
+ * <ul>
+ *     <li>catalog (40%): the public APIs of a view, then the pictures of the first ones,</li>
+ *     <li>API (30%): the homepage, the first page of ratings and the picture of an API,</li>
+ *     <li>documentation (15%): the published pages of an API,</li>
+ *     <li>my APIs (15%): the API memberships of a user, then these APIs.</li>
+ * </ul>
+ * APIs and users are drawn following a Zipf distribution, so that the popular ones get most of the traffic.
+ *
+ * Settings are read from system properties: benchmark.virtualUsers (16), benchmark.duration (30000 ms),
+ * benchmark.thinkTime (0 ms), benchmark.apis (500), benchmark.views (10) and benchmark.users (1000). The
+ * implementation is selected as for the TCK, with the repository.profile system property, and made to behave like a
+ * remote one with the {@link io.gravitee.repository.config.latency.LatencyInjector} system properties: a page making
+ * several calls shows how their latencies add up in its tail. Page loads failing on an injected failure are counted
+ * apart, their latency still being measured.
+ *
+ * @author GraviteeSource Team
+ */
+public class PortalWorkloadSimulator {
+
+    private static final String ID_PREFIX = "portal-";
+    private static final String IMAGE = "image";
+    private static final int CATALOG_PICTURES = 10;
+    private static final int RATINGS_PER_API = 5;
+    private static final int PICTURE_SIZE = 4096;
+
+    private final int virtualUsers;
+    private final long durationMillis;
+    private final long thinkTimeMillis;
+    private final int apis;
+    private final int views;
+    private final int users;
+
+    private final List<PortalPage> pages = new ArrayList<>();
+    private int totalWeight;
+    private volatile boolean running = true;
+
+    private Dataset dataset;
+    private ApiRepository apiRepository;
+    private PageRepository pageRepository;
+    private RatingRepository ratingRepository;
+    private MembershipRepository membershipRepository;
+    private MediaRepository mediaRepository;
+
+    public PortalWorkloadSimulator(int virtualUsers, long durationMillis, long thinkTimeMillis, int apis, int views,
+                                   int users) {
+        this.virtualUsers = virtualUsers;
+        this.durationMillis = durationMillis;
+        this.thinkTimeMillis = thinkTimeMillis;
+        this.apis = apis;
+        this.views = views;
+        this.users = users;
+
+        page("catalog", 40, this::catalog);
+        page("API", 30, this::api);
+        page("documentation", 15, this::documentation);
+        page("my APIs", 15, this::myApis);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new PortalWorkloadSimulator(
+                Integer.getInteger("benchmark.virtualUsers", 16),
+                Long.getLong("benchmark.duration", 30_000L),
+                Long.getLong("benchmark.thinkTime", 0L),
+                Integer.getInteger("benchmark.apis", 500),
+                Integer.getInteger("benchmark.views", 10),
+                Integer.getInteger("benchmark.users", 1000)).run(System.out);
+        System.exit(0);
+    }
+
+    public void run(final PrintStream out) throws Exception {
+        try (Backend backend = Backend.start()) {
+            populate(backend);
+            apiRepository = backend.repository(ApiRepository.class);
+            pageRepository = backend.repository(PageRepository.class);
+            ratingRepository = backend.repository(RatingRepository.class);
+            membershipRepository = backend.repository(MembershipRepository.class);
+            mediaRepository = backend.repository(MediaRepository.class);
+
+            final ExecutorService executor = Executors.newFixedThreadPool(virtualUsers);
+            final List<Future<?>> tasks = new ArrayList<>();
+            final long start = System.nanoTime();
+            for (int i = 0; i < virtualUsers; i++) {
+                tasks.add(executor.submit(new VirtualUser(i)));
+            }
+            Thread.sleep(durationMillis);
+            running = false;
+            for (final Future<?> task : tasks) {
+                task.get();
+            }
+            final long duration = System.nanoTime() - start;
+            executor.shutdown();
+
+            out.printf("%d virtual users, %d ms, think time %d ms, %d APIs in %d views, %d users%n",
+                    virtualUsers, durationMillis, thinkTimeMillis, apis, views, users);
+            backend.printSettings(out);
+            out.println();
+            final String rowFormat = "%-16s %8s %10s %10s %10s %10s %10s %10s %10s%n";
+            out.printf(rowFormat, "Page", "weight", "loads", "failed", "loads/s", "p50 ms", "p90 ms", "p99 ms",
+                    "max ms");
+            for (final PortalPage page : pages) {
+                final long[] percentiles = page.latencies.percentiles(50, 90, 99, 100);
+                out.printf(rowFormat, page.name, page.weight, page.latencies.count(), page.failures.get(),
+                        String.format("%.1f", page.latencies.count() * 1_000_000_000D / duration),
+                        millis(percentiles[0]), millis(percentiles[1]), millis(percentiles[2]), millis(percentiles[3]));
+            }
+            out.println();
+            backend.recorder.printLoad(out, duration);
+        }
+    }
+
+    private void populate(final Backend backend) throws TechnicalException {
+        dataset = new DatasetGenerator.Builder()
+                .idPrefix(ID_PREFIX)
+                .users(users)
+                .apis(apis)
+                .subscriptionsPerApi(Distribution.zipf(1))
+                .membershipsPerUser(Distribution.zipf(1))
+                .build()
+                .generate();
+        for (int i = 0; i < dataset.getApis().size(); i++) {
+            dataset.getApis().get(i).setViews(singleton(view(i)));
+        }
+        DatasetLoader.load(dataset, backend.context);
+
+        final Random random = new Random(0);
+        final Date now = new Date();
+        for (final Api api : dataset.getApis()) {
+            createPage(backend, api, "homepage", true);
+            createPage(backend, api, "getting started", false);
+            createPage(backend, api, "reference", false);
+
+            final Media picture = new Media();
+            picture.setId(api.getId() + "-picture");
+            picture.setType(IMAGE);
+            picture.setSubType("png");
+            picture.setFileName("picture.png");
+            picture.setApi(api.getId());
+            picture.setHash(hash(api.getId()));
+            final byte[] data = new byte[PICTURE_SIZE];
+            random.nextBytes(data);
+            picture.setData(data);
+            picture.setSize((long) data.length);
+            backend.context.getBean(MediaRepository.class).save(picture);
+        }
+
+        // popular APIs get most of the ratings and of the members
+        for (int i = 0; i < apis * RATINGS_PER_API; i++) {
+            final Rating rating = new Rating();
+            rating.setId(ID_PREFIX + "rating-" + i);
+            rating.setApi(dataset.apiIds().next(random));
+            rating.setUser(dataset.userIds().next(random));
+            rating.setRate((byte) (1 + random.nextInt(5)));
+            rating.setTitle("Rating " + i);
+            rating.setCreatedAt(now);
+            rating.setUpdatedAt(now);
+            backend.context.getBean(RatingRepository.class).create(rating);
+        }
+        for (final User user : dataset.getUsers()) {
+            final Set<String> memberOf = new HashSet<>();
+            for (int i = random.nextInt(5); i >= 0; i--) {
+                memberOf.add(dataset.apiIds().next(random));
+            }
+            for (final String api : memberOf) {
+                final Membership membership = new Membership(user.getId(), api, MembershipReferenceType.API);
+                membership.setRoles(Collections.singletonMap(RoleScope.API.getId(), "USER"));
+                membership.setCreatedAt(now);
+                membership.setUpdatedAt(now);
+                backend.context.getBean(MembershipRepository.class).create(membership);
+            }
+        }
+    }
+
+    private void createPage(final Backend backend, final Api api, final String name, final boolean homepage)
+            throws TechnicalException {
+        final Page page = new Page();
+        page.setId(api.getId() + '-' + name.replace(' ', '-'));
+        page.setName(name);
+        page.setType(PageType.MARKDOWN);
+        page.setContent("# " + name);
+        page.setApi(api.getId());
+        page.setHomepage(homepage);
+        page.setPublished(true);
+        page.setCreatedAt(api.getCreatedAt());
+        page.setUpdatedAt(api.getCreatedAt());
+        backend.context.getBean(PageRepository.class).create(page);
+    }
+
+    private void catalog(final Random random) throws TechnicalException {
+        final List<Api> catalog = apiRepository.search(new ApiCriteria.Builder()
+                .view(view(random.nextInt(views)))
+                .visibility(Visibility.PUBLIC)
+                .build());
+        for (int i = 0; i < Math.min(CATALOG_PICTURES, catalog.size()); i++) {
+            mediaRepository.findByHash(hash(catalog.get(i).getId()), catalog.get(i).getId(), IMAGE);
+        }
+    }
+
+    private void api(final Random random) throws TechnicalException {
+        final String api = dataset.apiIds().next(random);
+        pageRepository.search(new PageCriteria.Builder().api(api).homepage(true).build());
+        ratingRepository.findByApiPageable(api, new PageableBuilder().pageNumber(0).pageSize(10).build());
+        mediaRepository.findByHash(hash(api), api, IMAGE);
+    }
+
+    private void documentation(final Random random) throws TechnicalException {
+        pageRepository.search(new PageCriteria.Builder().api(dataset.apiIds().next(random)).published(true).build());
+    }
+
+    private void myApis(final Random random) throws TechnicalException {
+        final Set<Membership> memberships = membershipRepository.findByUserAndReferenceType(
+                dataset.userIds().next(random), MembershipReferenceType.API);
+        if (!memberships.isEmpty()) {
+            apiRepository.search(new ApiCriteria.Builder()
+                    .ids(memberships.stream().map(Membership::getReferenceId).toArray(String[]::new))
+                    .build());
+        }
+    }
+
+    private void page(final String name, final int weight, final PageLoad load) {
+        pages.add(new PortalPage(name, weight, load));
+        totalWeight += weight;
+    }
+
+    private String view(final int index) {
+        return ID_PREFIX + "view-" + index % views;
+    }
+
+    private static String hash(final String api) {
+        return api + "-picture-hash";
+    }
+
+    private static String millis(final long nanos) {
+        return String.format("%.1f", nanos / 1_000_000D);
+    }
+
+    private interface PageLoad {
+        void load(Random random) throws TechnicalException;
+    }
+
+    private static class PortalPage {
+
+        private final String name;
+        private final int weight;
+        private final PageLoad load;
+        private final Samples latencies = new Samples();
+        private final AtomicInteger failures = new AtomicInteger();
+
+        PortalPage(final String name, final int weight, final PageLoad load) {
+            this.name = name;
+            this.weight = weight;
+            this.load = load;
+        }
+    }
+
+    private class VirtualUser implements Callable<Void> {
+
+        private final Random random;
+
+        VirtualUser(final int index) {
+            this.random = new Random(index);
+        }
+
+        @Override
+        public Void call() throws Exception {
+            while (running) {
+                final PortalPage page = next();
+                final long start = System.nanoTime();
+                try {
+                    page.load.load(random);
+                } catch (TechnicalException | RuntimeException e) {
+                    page.failures.incrementAndGet();
+                }
+                page.latencies.add(System.nanoTime() - start);
+                if (thinkTimeMillis > 0) {
+                    Thread.sleep(thinkTimeMillis);
+                }
+            }
+            return null;
+        }
+
+        private PortalPage next() {
+            int draw = random.nextInt(totalWeight);
+            for (final PortalPage page : pages) {
+                draw -= page.weight;
+                if (draw < 0) {
+                    return page;
+                }
+            }
+            throw new IllegalStateException("No page drawn");
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.benchmark;
+
+import io.gravitee.repository.config.memory.InMemoryTagRepository;
+import io.gravitee.repository.config.snapshot.ReadSnapshots;
+import io.gravitee.repository.management.api.TagRepository;
+import io.gravitee.repository.management.model.Tag;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Compares the reads of the tags from the in-memory repository itself, from a read snapshot handing out copies of
+ * them, and from one handing them out shared: the time and the bytes allocated per {@code findById} and per
+ * {@code findAll}, on a single thread. Copies cost an allocation per item read, which {@code findAll} multiplies by
+ * the number of tags; shared items cost none, but must not be changed by the callers.
+ *
+ * The number of tags is given as the optional argument (100 by default).
+ *
+ * @author GraviteeSource Team
+ */
+public class ReadSnapshotBenchmark {
+
+    private static final int FIND_BY_ID_CALLS = 2_000_000;
+    private static final int FIND_ALL_CALLS = 20_000;
+    private static final int ROUNDS = 3;
+    private static final String ROW_FORMAT = "%-20s %-10s %10s %10s%n";
+    private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) throws Exception {
+        final int size = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        THREAD_MX_BEAN.setThreadAllocatedMemoryEnabled(true);
+
+        final InMemoryTagRepository repository = new InMemoryTagRepository();
+        for (int i = 0; i < size; i++) {
+            final Tag tag = new Tag();
+            tag.setId("tag-" + i);
+            tag.setName("Tag " + i);
+            tag.setDescription("The tag number " + i);
+            repository.create(tag);
+        }
+        final Map<String, TagRepository> readers = new LinkedHashMap<>();
+        readers.put("repository", repository);
+        readers.put("copied snapshot", (TagRepository) ReadSnapshots.wrap(TagRepository.class, repository));
+        readers.put("shared snapshot", (TagRepository) ReadSnapshots.wrap(TagRepository.class, repository, true));
+
+        final String[] ids = new String[1024];
+        final Random random = new Random(42);
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = "tag-" + random.nextInt(size);
+        }
+
+        System.out.printf(ROW_FORMAT, "Reader", "Method", "ns/call", "B/call");
+        for (int round = 1; round <= ROUNDS; round++) {
+            // the first rounds warm up
+            final boolean print = round == ROUNDS;
+            for (final Map.Entry<String, TagRepository> reader : readers.entrySet()) {
+                final TagRepository tags = reader.getValue();
+                measure(print, reader.getKey(), "findById", FIND_BY_ID_CALLS, i -> {
+                    if (!tags.findById(ids[i & ids.length - 1]).isPresent()) {
+                        throw new IllegalStateException("A tag is missing");
+                    }
+                });
+                measure(print, reader.getKey(), "findAll", FIND_ALL_CALLS, i -> {
+                    if (tags.findAll().size() != size) {
+                        throw new IllegalStateException("Tags are missing");
+                    }
+                });
+            }
+        }
+    }
+
+    private static void measure(final boolean print, final String reader, final String method, final int calls,
+                                final Call call) throws Exception {
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedBefore = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId);
+        final long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            call.run(i);
+        }
+        final long duration = System.nanoTime() - start;
+        final long allocated = THREAD_MX_BEAN.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        if (print) {
+            System.out.printf(ROW_FORMAT, reader, method, duration / calls, allocated / calls);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Call {
+        void run(int i) throws Exception;
+    }
+}
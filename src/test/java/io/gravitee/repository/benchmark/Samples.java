@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.benchmark;
+
+import java.util.Arrays;
+
+/**
+ * A thread-safe series of measures (latencies in nanoseconds, lags in milliseconds...) from which percentiles are
+ * computed.
+ *
+ * @author GraviteeSource Team
+ */
+public class Samples {
+
+    private long[] values = new long[64];
+    private int count;
+    private long sum;
+
+    public synchronized void add(long value) {
+        if (count == values.length) {
+            values = Arrays.copyOf(values, count * 2);
+        }
+        values[count++] = value;
+        sum += value;
+    }
+
+    public synchronized int count() {
+        return count;
+    }
+
+    public synchronized long sum() {
+        return sum;
+    }
+
+    public synchronized double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+
+    /**
+     * @param percentiles the percentiles to compute, between 0 (excluded) and 100
+     * @return the nearest-rank value of each percentile, 0 when no sample has been added
+     */
+    public long[] percentiles(double... percentiles) {
+        final long[] sorted;
+        synchronized (this) {
+            sorted = Arrays.copyOf(values, count);
+        }
+        Arrays.sort(sorted);
+
+        final long[] result = new long[percentiles.length];
+        for (int i = 0; i < percentiles.length; i++) {
+            if (sorted.length > 0) {
+                final int rank = (int) Math.ceil(percentiles[i] / 100 * sorted.length);
+                result[i] = sorted[Math.min(Math.max(rank, 1), sorted.length) - 1];
+            }
+        }
+        return result;
+    }
+}
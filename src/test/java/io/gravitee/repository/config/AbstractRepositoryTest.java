@@ -15,6 +15,8 @@
  */
 package io.gravitee.repository.config;
 
+import io.gravitee.repository.config.latency.LatencyInjector;
+import io.gravitee.repository.config.snapshot.ReadSnapshots;
 import io.gravitee.repository.exceptions.TechnicalException;
 import io.gravitee.repository.management.api.*;
 import io.gravitee.repository.management.model.*;
@@ -24,7 +26,12 @@ import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.map.type.TypeFactory;
 import org.junit.After;
 import org.junit.Before;
+import org.junit.Rule;
+import org.junit.rules.TestName;
+import org.junit.rules.TestWatcher;
+import org.junit.runner.Description;
 import org.junit.runner.RunWith;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.ComponentScan.Filter;
 import org.springframework.context.annotation.Configuration;
@@ -36,7 +43,11 @@ import org.springframework.test.context.support.AnnotationConfigContextLoader;
 
 import javax.inject.Inject;
 import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import static java.lang.Class.forName;
@@ -44,17 +55,45 @@ import static java.util.Arrays.asList;
 import static org.springframework.util.StringUtils.capitalize;
 
 /**
+ * Setting the {@value #NOISE_SIZE_PROPERTY} system property to N inserts, after the fixtures, N generated entities
+ * per fixture type none of the tests can match, then fails any repository call lasting more than
+ * {@value #LATENCY_CEILING_PROPERTY} milliseconds (100 by default): an implementation scanning whole collections
+ * keeps passing the assertions but not the ceiling. Tests asserting on whole collections, and suites timing
+ * concurrent calls, opt out of both with {@link WithoutNoise}.
+ *
+ * Setting the {@value #READ_SNAPSHOTS_PROPERTY} system property to true serves the read-mostly repositories from
+ * {@link ReadSnapshots read snapshots} of what the fixtures loaded, handing out copies of their items; setting it to
+ * {@value #SHARED_READ_SNAPSHOTS} hands out the items themselves.
+ *
+ * Setting the {@value LatencyInjector#LATENCY_PROPERTY} or {@value LatencyInjector#FAILURE_RATE_PROPERTY} system
+ * properties makes the repositories behave like remote ones, see {@link LatencyInjector}.
+ *
+ * The repository configuration in use is selected by {@link RepositoryProfileResolver}, and the injected repositories
+ * are wrapped by the {@link RepositoryDecorators} registered when each test starts.
+ *
+ * The calls reaching the repository beans once the fixtures are loaded, from the test or from another repository, are
+ * counted per method by {@link QueryCounter}, to be bounded by {@link ExpectedQueries}. Setting the {@value #QUERY_REPORT_PROPERTY} system property to a directory writes there,
+ * per repository profile and test class, the calls made by each test, flagging the methods called at least
+ * {@value #REPEAT_THRESHOLD_PROPERTY} times (10 by default).
+ *
  * @author Azize Elamrani (azize dot elamrani at gmail dot com)
  */
 @RunWith(SpringJUnit4ClassRunner.class)
 @ContextConfiguration(
         loader = AnnotationConfigContextLoader.class,
         initializers = {PropertySourceRepositoryInitializer.class})
-@ActiveProfiles("test")
+@ActiveProfiles(resolver = RepositoryProfileResolver.class)
 public abstract class AbstractRepositoryTest {
 
     private static final String MODEL_PACKAGE = "io.gravitee.repository.management.model.";
     private static final String JSON_EXTENSION = "json";
+    public static final String NOISE_SIZE_PROPERTY = "repository.noise.size";
+    public static final String LATENCY_CEILING_PROPERTY = "repository.noise.latencyCeiling";
+    public static final String READ_SNAPSHOTS_PROPERTY = "repository.readSnapshots";
+    public static final String SHARED_READ_SNAPSHOTS = "shared";
+    public static final String QUERY_REPORT_PROPERTY = "repository.queries.report";
+    public static final String REPEAT_THRESHOLD_PROPERTY = "repository.queries.repeatThreshold";
+    private static final LatencyInjector LATENCY_INJECTOR = LatencyInjector.fromSystemProperties();
 
     @Inject
     private TestRepositoryInitializer testRepositoryInitializer;
@@ -124,7 +163,22 @@ public abstract class AbstractRepositoryTest {
     @Inject
     protected WorkflowRepository workflowRepository;
 
+    @Rule
+    public TestName testName = new TestName();
+    // the annotations of the test method, whatever the name the runner gives the test, e.g. with its parameters
+    @Rule
+    public TestWatcher testDescription = new TestWatcher() {
+        @Override
+        protected void starting(final Description description) {
+            AbstractRepositoryTest.this.description = description;
+        }
+    };
+
+    private Description description;
+
     private ObjectMapper mapper = new ObjectMapper();
+    @Inject
+    private QueryCounter queryCounter;
 
     protected abstract String getTestCasesPath();
 
@@ -137,17 +191,76 @@ public abstract class AbstractRepositoryTest {
         final File[] collectionsDumps = file.listFiles(
                 pathname -> pathname.isFile()
                         && JSON_EXTENSION.equalsIgnoreCase(FilenameUtils.getExtension(pathname.toString())));
+        final Set<Class<?>> fixtureClasses = new HashSet<>();
         for (final File collectionsDump : asList(collectionsDumps).stream().sorted((o1, o2) -> o2.getName().compareTo(o1.getName())).collect(Collectors.toList())) {
-            final Class c = getClassFromFileName(FilenameUtils.getBaseName(collectionsDump.getName()));
+            final Class<?> c = getClassFromFileName(FilenameUtils.getBaseName(collectionsDump.getName()));
+            fixtureClasses.add(c);
             for (final Object object : mapToModel(collectionsDump, c)) {
                 createModel(object);
             }
         }
+
+        final int noiseSize = Integer.getInteger(NOISE_SIZE_PROPERTY, 0);
+        final boolean noise = noiseSize > 0 && description.getAnnotation(WithoutNoise.class) == null
+                && description.getTestClass().getAnnotation(WithoutNoise.class) == null;
+        if (noise) {
+            injectNoise(noiseSize, fixtureClasses);
+        }
+        final String readSnapshots = System.getProperty(READ_SNAPSHOTS_PROPERTY, "false");
+        decorateRepositories(noise, SHARED_READ_SNAPSHOTS.equals(readSnapshots) || Boolean.parseBoolean(readSnapshots),
+                SHARED_READ_SNAPSHOTS.equals(readSnapshots));
+        // the fixtures loaded, only the calls of the test are counted
+        queryCounter.reset();
+    }
+
+    private void injectNoise(final int noiseSize, final Set<Class<?>> fixtureClasses) throws TechnicalException {
+        for (final Object object : NoiseGenerator.generate(noiseSize)) {
+            if (fixtureClasses.contains(object.getClass())) {
+                createModel(object);
+            }
+        }
+    }
+
+    private void decorateRepositories(final boolean latencyCeiling, final boolean readSnapshots,
+                                      final boolean sharedReadSnapshots)
+            throws IllegalAccessException {
+        final long ceilingMillis = Long.getLong(LATENCY_CEILING_PROPERTY, 100L);
+        for (final Field field : AbstractRepositoryTest.class.getDeclaredFields()) {
+            if (Modifier.isProtected(field.getModifiers()) && field.getType().isInterface()) {
+                Object repository = field.get(this);
+                if (readSnapshots) {
+                    repository = ReadSnapshots.wrap(field.getType(), repository, sharedReadSnapshots);
+                }
+                // the ceiling only accounts for the repository itself, not for the injected latency or the registered
+                // decorators
+                if (latencyCeiling) {
+                    repository = LatencyCeiling.wrap(field.getType(), repository, ceilingMillis);
+                }
+                if (LATENCY_INJECTOR != null) {
+                    repository = LATENCY_INJECTOR.decorate(field.getType(), repository);
+                }
+                field.set(this, RepositoryDecorators.decorate(field.getType(), repository));
+            }
+        }
     }
 
     @After
     public void tearDown() throws Exception {
-        testRepositoryInitializer.tearDown();
+        try {
+            final String reportDirectory = System.getProperty(QUERY_REPORT_PROPERTY);
+            if (reportDirectory != null) {
+                final String profile = System.getProperty(RepositoryProfileResolver.PROFILE_PROPERTY,
+                        RepositoryProfileResolver.DEFAULT_PROFILE);
+                queryCounter.report(new File(new File(reportDirectory, profile), getClass().getSimpleName() + ".txt"),
+                        testName.getMethodName(), Integer.getInteger(REPEAT_THRESHOLD_PROPERTY, 10));
+            }
+            final ExpectedQueries expectedQueries = description.getAnnotation(ExpectedQueries.class);
+            if (expectedQueries != null) {
+                queryCounter.verify(expectedQueries);
+            }
+        } finally {
+            testRepositoryInitializer.tearDown();
+        }
     }
 
     private void createModel(Object object) throws TechnicalException {
@@ -247,7 +360,7 @@ public abstract class AbstractRepositoryTest {
         }
     }
 
-    private Class getClassFromFileName(final String baseName) {
+    private Class<?> getClassFromFileName(final String baseName) {
         final String className = capitalize(baseName.substring(0, baseName.length() - 1));
         try {
             return forName(MODEL_PACKAGE + className);
@@ -267,5 +380,10 @@ public abstract class AbstractRepositoryTest {
             useDefaultFilters = false
     )
     static class ContextConfiguration {
+
+        @Bean
+        static QueryCounter queryCounter() {
+            return new QueryCounter();
+        }
     }
 }
@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Bounds the repository calls made during a test once the fixtures are loaded, as counted by {@link QueryCounter} at
+ * the repository beans: the calls of the test, and the calls the repositories make to one another while answering
+ * them. The test fails when the repositories are called more than {@link #max()} times in all, more than
+ * {@link #nested()} times by one another, or a method more than its {@link Query#max()}, e.g. to catch a finder called
+ * once per parent instead of once for all of them:
+ *
+ * <pre>
+ * &#64;ExpectedQueries(max = 4, nested = 0,
+ *         value = &#64;ExpectedQueries.Query(method = "RatingAnswerRepository.findByRating", max = 1))
+ * </pre>
+ *
+ * @author GraviteeSource Team
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface ExpectedQueries {
+
+    /**
+     * The maximum number of calls to all the repositories.
+     */
+    int max() default Integer.MAX_VALUE;
+
+    /**
+     * The maximum number of calls the repositories make to one another.
+     */
+    int nested() default Integer.MAX_VALUE;
+
+    /**
+     * The maximum number of calls to given methods.
+     */
+    Query[] value() default {};
+
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target({})
+    @interface Query {
+
+        /**
+         * The method of a repository ({@code ApiRepository.findById}), or the methods of the given name in all the
+         * repositories ({@code findById}).
+         */
+        String method();
+
+        int max();
+    }
+}
@@ -0,0 +1,252 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config;
+
+import io.gravitee.repository.config.file.FileRepositoryInitializer;
+import io.gravitee.repository.config.file.FileStore;
+import io.gravitee.repository.config.memory.*;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Embedded repositories persisted to files, active with the {@value #PROFILE} profile: the in-memory repositories
+ * made durable by a {@link FileStore}, for environments needing their data to outlive the process without a database
+ * server. Each test starting from an empty store, the store lives in a directory of its own, deleted when the context
+ * closes: the one given by the {@value #DIRECTORY_PROPERTY} property, which must be empty or not exist, or else a
+ * temporary one.
+ *
+ * @author GraviteeSource Team
+ */
+@Profile(FileTestRepositoryConfiguration.PROFILE)
+public class FileTestRepositoryConfiguration {
+
+    public static final String PROFILE = "file";
+    public static final String DIRECTORY_PROPERTY = "repository.file.directory";
+    public static final String COMPACTION_THRESHOLD_PROPERTY = "repository.file.compactionThreshold";
+    public static final String SYNC_PROPERTY = "repository.file.sync";
+
+    @Bean(destroyMethod = "close")
+    public FileStore fileStore(final Environment environment) throws IOException {
+        final long compactionThreshold = environment.getProperty(COMPACTION_THRESHOLD_PROPERTY, Long.class, 64L << 20);
+        final boolean sync = environment.getProperty(SYNC_PROPERTY, Boolean.class, false);
+        final String directory = environment.getProperty(DIRECTORY_PROPERTY);
+        final FileStore store = directory == null ? FileStore.temporary(compactionThreshold, sync)
+                : FileStore.temporary(Paths.get(directory), compactionThreshold, sync);
+        store.register(InMemoryApplicationRepository::new);
+        store.register(InMemoryApiRepository::new);
+        store.register(InMemoryUserRepository::new);
+        store.register(InMemoryApiKeyRepository::new);
+        store.register(InMemoryEventRepository::new);
+        store.register(InMemoryViewRepository::new);
+        store.register(InMemoryGroupRepository::new);
+        store.register(InMemoryMembershipRepository::new);
+        store.register(InMemoryPlanRepository::new);
+        store.register(InMemoryTagRepository::new);
+        store.register(InMemoryPageRepository::new);
+        store.register(InMemorySubscriptionRepository::new);
+        store.register(InMemoryTenantRepository::new);
+        store.register(InMemoryMetadataRepository::new);
+        store.register(InMemoryRoleRepository::new);
+        store.register(InMemoryAuditRepository::new);
+        store.register(InMemoryRatingRepository::new);
+        store.register(InMemoryRatingAnswerRepository::new);
+        store.register(InMemoryPortalNotificationRepository::new);
+        store.register(InMemoryPortalNotificationConfigRepository::new);
+        store.register(InMemoryGenericNotificationConfigRepository::new);
+        store.register(InMemoryParameterRepository::new);
+        store.register(InMemoryDictionaryRepository::new);
+        store.register(InMemoryApiHeaderRepository::new);
+        store.register(InMemoryCommandRepository::new);
+        store.register(InMemoryMediaRepository::new);
+        store.register(InMemoryIdentityProviderRepository::new);
+        store.register(InMemoryAlertRepository::new);
+        store.register(InMemoryEntrypointRepository::new);
+        store.register(InMemoryInvitationRepository::new);
+        store.register(InMemoryClientRegistrationProviderRepository::new);
+        store.register(InMemoryWorkflowRepository::new);
+        store.open();
+        return store;
+    }
+
+    @Bean
+    public TestRepositoryInitializer testRepositoryInitializer(final FileStore store) {
+        return new FileRepositoryInitializer(store);
+    }
+
+    @Bean
+    public InMemoryApplicationRepository applicationRepository(final FileStore store) {
+        return store.repository(InMemoryApplicationRepository.class);
+    }
+
+    @Bean
+    public InMemoryApiRepository apiRepository(final FileStore store) {
+        return store.repository(InMemoryApiRepository.class);
+    }
+
+    @Bean
+    public InMemoryUserRepository userRepository(final FileStore store) {
+        return store.repository(InMemoryUserRepository.class);
+    }
+
+    @Bean
+    public InMemoryApiKeyRepository apiKeyRepository(final FileStore store) {
+        return store.repository(InMemoryApiKeyRepository.class);
+    }
+
+    @Bean
+    public InMemoryEventRepository eventRepository(final FileStore store) {
+        return store.repository(InMemoryEventRepository.class);
+    }
+
+    @Bean
+    public InMemoryViewRepository viewRepository(final FileStore store) {
+        return store.repository(InMemoryViewRepository.class);
+    }
+
+    @Bean
+    public InMemoryGroupRepository groupRepository(final FileStore store) {
+        return store.repository(InMemoryGroupRepository.class);
+    }
+
+    @Bean
+    public InMemoryMembershipRepository membershipRepository(final FileStore store) {
+        return store.repository(InMemoryMembershipRepository.class);
+    }
+
+    @Bean
+    public InMemoryPlanRepository planRepository(final FileStore store) {
+        return store.repository(InMemoryPlanRepository.class);
+    }
+
+    @Bean
+    public InMemoryTagRepository tagRepository(final FileStore store) {
+        return store.repository(InMemoryTagRepository.class);
+    }
+
+    @Bean
+    public InMemoryPageRepository pageRepository(final FileStore store) {
+        return store.repository(InMemoryPageRepository.class);
+    }
+
+    @Bean
+    public InMemorySubscriptionRepository subscriptionRepository(final FileStore store) {
+        return store.repository(InMemorySubscriptionRepository.class);
+    }
+
+    @Bean
+    public InMemoryTenantRepository tenantRepository(final FileStore store) {
+        return store.repository(InMemoryTenantRepository.class);
+    }
+
+    @Bean
+    public InMemoryMetadataRepository metadataRepository(final FileStore store) {
+        return store.repository(InMemoryMetadataRepository.class);
+    }
+
+    @Bean
+    public InMemoryRoleRepository roleRepository(final FileStore store) {
+        return store.repository(InMemoryRoleRepository.class);
+    }
+
+    @Bean
+    public InMemoryAuditRepository auditRepository(final FileStore store) {
+        return store.repository(InMemoryAuditRepository.class);
+    }
+
+    @Bean
+    public InMemoryRatingRepository ratingRepository(final FileStore store) {
+        return store.repository(InMemoryRatingRepository.class);
+    }
+
+    @Bean
+    public InMemoryRatingAnswerRepository ratingAnswerRepository(final FileStore store) {
+        return store.repository(InMemoryRatingAnswerRepository.class);
+    }
+
+    @Bean
+    public InMemoryPortalNotificationRepository portalNotificationRepository(final FileStore store) {
+        return store.repository(InMemoryPortalNotificationRepository.class);
+    }
+
+    @Bean
+    public InMemoryPortalNotificationConfigRepository portalNotificationConfigRepository(final FileStore store) {
+        return store.repository(InMemoryPortalNotificationConfigRepository.class);
+    }
+
+    @Bean
+    public InMemoryGenericNotificationConfigRepository genericNotificationConfigRepository(final FileStore store) {
+        return store.repository(InMemoryGenericNotificationConfigRepository.class);
+    }
+
+    @Bean
+    public InMemoryParameterRepository parameterRepository(final FileStore store) {
+        return store.repository(InMemoryParameterRepository.class);
+    }
+
+    @Bean
+    public InMemoryDictionaryRepository dictionaryRepository(final FileStore store) {
+        return store.repository(InMemoryDictionaryRepository.class);
+    }
+
+    @Bean
+    public InMemoryApiHeaderRepository apiHeaderRepository(final FileStore store) {
+        return store.repository(InMemoryApiHeaderRepository.class);
+    }
+
+    @Bean
+    public InMemoryCommandRepository commandRepository(final FileStore store) {
+        return store.repository(InMemoryCommandRepository.class);
+    }
+
+    @Bean
+    public InMemoryMediaRepository mediaRepository(final FileStore store) {
+        return store.repository(InMemoryMediaRepository.class);
+    }
+
+    @Bean
+    public InMemoryIdentityProviderRepository identityProviderRepository(final FileStore store) {
+        return store.repository(InMemoryIdentityProviderRepository.class);
+    }
+
+    @Bean
+    public InMemoryAlertRepository alertRepository(final FileStore store) {
+        return store.repository(InMemoryAlertRepository.class);
+    }
+
+    @Bean
+    public InMemoryEntrypointRepository entrypointRepository(final FileStore store) {
+        return store.repository(InMemoryEntrypointRepository.class);
+    }
+
+    @Bean
+    public InMemoryInvitationRepository invitationRepository(final FileStore store) {
+        return store.repository(InMemoryInvitationRepository.class);
+    }
+
+    @Bean
+    public InMemoryClientRegistrationProviderRepository clientRegistrationProviderRepository(final FileStore store) {
+        return store.repository(InMemoryClientRegistrationProviderRepository.class);
+    }
+
+    @Bean
+    public InMemoryWorkflowRepository workflowRepository(final FileStore store) {
+        return store.repository(InMemoryWorkflowRepository.class);
+    }
+}
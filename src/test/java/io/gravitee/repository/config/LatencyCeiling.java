@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fails any repository call lasting longer than a given ceiling.
+ *
+ * @author GraviteeSource Team
+ */
+final class LatencyCeiling implements InvocationHandler {
+
+    private final Object target;
+    private final long ceilingMillis;
+
+    private LatencyCeiling(final Object target, final long ceilingMillis) {
+        this.target = target;
+        this.ceilingMillis = ceilingMillis;
+    }
+
+    static Object wrap(final Class<?> type, final Object target, final long ceilingMillis) {
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new LatencyCeiling(target, ceilingMillis));
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        // CRUD methods are inherited from a package-private interface
+        method.setAccessible(true);
+        final long start = System.nanoTime();
+        final Object result;
+        try {
+            result = method.invoke(target, args);
+        } catch (InvocationTargetException ite) {
+            throw ite.getCause();
+        }
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (elapsedMillis > ceilingMillis) {
+            throw new AssertionError(String.format("%s.%s took %d ms, over the %d ms ceiling",
+                    method.getDeclaringClass().getSimpleName(), method.getName(), elapsedMillis, ceilingMillis));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,199 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config;
+
+import io.gravitee.repository.config.memory.*;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+
+import java.util.List;
+
+/**
+ * Thread-safe in-memory repositories, active with the {@value #PROFILE} profile: a local stand-in needing no
+ * database, a reference to compare the other implementations with, and the baseline of their benchmarks.
+ *
+ * @author GraviteeSource Team
+ */
+@Profile(MemoryTestRepositoryConfiguration.PROFILE)
+public class MemoryTestRepositoryConfiguration {
+
+    public static final String PROFILE = "memory";
+
+    @Bean
+    public TestRepositoryInitializer testRepositoryInitializer(final List<AbstractInMemoryRepository<?, ?>> repositories) {
+        return new InMemoryRepositoryInitializer(repositories);
+    }
+
+    @Bean
+    public InMemoryApplicationRepository applicationRepository() {
+        return new InMemoryApplicationRepository();
+    }
+
+    @Bean
+    public InMemoryApiRepository apiRepository() {
+        return new InMemoryApiRepository();
+    }
+
+    @Bean
+    public InMemoryUserRepository userRepository() {
+        return new InMemoryUserRepository();
+    }
+
+    @Bean
+    public InMemoryApiKeyRepository apiKeyRepository() {
+        return new InMemoryApiKeyRepository();
+    }
+
+    @Bean
+    public InMemoryEventRepository eventRepository() {
+        return new InMemoryEventRepository();
+    }
+
+    @Bean
+    public InMemoryViewRepository viewRepository() {
+        return new InMemoryViewRepository();
+    }
+
+    @Bean
+    public InMemoryGroupRepository groupRepository() {
+        return new InMemoryGroupRepository();
+    }
+
+    @Bean
+    public InMemoryMembershipRepository membershipRepository() {
+        return new InMemoryMembershipRepository();
+    }
+
+    @Bean
+    public InMemoryPlanRepository planRepository() {
+        return new InMemoryPlanRepository();
+    }
+
+    @Bean
+    public InMemoryTagRepository tagRepository() {
+        return new InMemoryTagRepository();
+    }
+
+    @Bean
+    public InMemoryPageRepository pageRepository() {
+        return new InMemoryPageRepository();
+    }
+
+    @Bean
+    public InMemorySubscriptionRepository subscriptionRepository() {
+        return new InMemorySubscriptionRepository();
+    }
+
+    @Bean
+    public InMemoryTenantRepository tenantRepository() {
+        return new InMemoryTenantRepository();
+    }
+
+    @Bean
+    public InMemoryMetadataRepository metadataRepository() {
+        return new InMemoryMetadataRepository();
+    }
+
+    @Bean
+    public InMemoryRoleRepository roleRepository() {
+        return new InMemoryRoleRepository();
+    }
+
+    @Bean
+    public InMemoryAuditRepository auditRepository() {
+        return new InMemoryAuditRepository();
+    }
+
+    @Bean
+    public InMemoryRatingRepository ratingRepository() {
+        return new InMemoryRatingRepository();
+    }
+
+    @Bean
+    public InMemoryRatingAnswerRepository ratingAnswerRepository() {
+        return new InMemoryRatingAnswerRepository();
+    }
+
+    @Bean
+    public InMemoryPortalNotificationRepository portalNotificationRepository() {
+        return new InMemoryPortalNotificationRepository();
+    }
+
+    @Bean
+    public InMemoryPortalNotificationConfigRepository portalNotificationConfigRepository() {
+        return new InMemoryPortalNotificationConfigRepository();
+    }
+
+    @Bean
+    public InMemoryGenericNotificationConfigRepository genericNotificationConfigRepository() {
+        return new InMemoryGenericNotificationConfigRepository();
+    }
+
+    @Bean
+    public InMemoryParameterRepository parameterRepository() {
+        return new InMemoryParameterRepository();
+    }
+
+    @Bean
+    public InMemoryDictionaryRepository dictionaryRepository() {
+        return new InMemoryDictionaryRepository();
+    }
+
+    @Bean
+    public InMemoryApiHeaderRepository apiHeaderRepository() {
+        return new InMemoryApiHeaderRepository();
+    }
+
+    @Bean
+    public InMemoryCommandRepository commandRepository() {
+        return new InMemoryCommandRepository();
+    }
+
+    @Bean
+    public InMemoryMediaRepository mediaRepository() {
+        return new InMemoryMediaRepository();
+    }
+
+    @Bean
+    public InMemoryIdentityProviderRepository identityProviderRepository() {
+        return new InMemoryIdentityProviderRepository();
+    }
+
+    @Bean
+    public InMemoryAlertRepository alertRepository() {
+        return new InMemoryAlertRepository();
+    }
+
+    @Bean
+    public InMemoryEntrypointRepository entrypointRepository() {
+        return new InMemoryEntrypointRepository();
+    }
+
+    @Bean
+    public InMemoryInvitationRepository invitationRepository() {
+        return new InMemoryInvitationRepository();
+    }
+
+    @Bean
+    public InMemoryClientRegistrationProviderRepository clientRegistrationProviderRepository() {
+        return new InMemoryClientRegistrationProviderRepository();
+    }
+
+    @Bean
+    public InMemoryWorkflowRepository workflowRepository() {
+        return new InMemoryWorkflowRepository();
+    }
+}
@@ -17,14 +17,16 @@ package io.gravitee.repository.config;
 
 import io.gravitee.repository.config.mock.*;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
 
-import static org.mockito.Mockito.mock;
+import static io.gravitee.repository.config.mock.Stubs.stub;
 
+@Profile(RepositoryProfileResolver.DEFAULT_PROFILE)
 public class MockTestRepositoryConfiguration {
 
     @Bean
     public TestRepositoryInitializer testRepositoryInitializer() {
-        return mock(TestRepositoryInitializer.class);
+        return stub(TestRepositoryInitializer.class);
     }
 
     @Bean
@@ -0,0 +1,165 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config;
+
+import io.gravitee.repository.dataset.Dataset;
+import io.gravitee.repository.dataset.DatasetGenerator;
+import io.gravitee.repository.management.model.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Generates the entities inserted next to the fixtures when noise is enabled.
+ *
+ * Noise is placed out of reach of every TCK criteria: ids and names are prefixed with "noise-", references only
+ * target other noise entities, dates belong to the year 2000 (before all the time ranges queried by the tests) and
+ * the API attributes the tests filter on are given values they never ask for.
+ *
+ * Besides the {@link DatasetGenerator} types, each noise API gets an audit, a page, and a rating answered once, and
+ * {@code size} expired commands are exchanged between noise nodes. The other fixture types (alerts, API headers,
+ * client registration providers, dictionaries, entrypoints, generic notification configs, identity providers,
+ * invitations, metadata, parameters, portal notifications and their configs, roles, tags, tenants, views and
+ * workflows) are small configuration collections the tests mostly read whole: they get no noise.
+ *
+ * @author GraviteeSource Team
+ */
+final class NoiseGenerator {
+
+    private static final String ID_PREFIX = "noise-";
+    private static final long FROM = 946684800000L;
+    private static final long TO = 978307200000L;
+    private static final String VERSION = "noise";
+
+    private static int cachedSize = -1;
+    private static List<Object> cachedEntities;
+
+    private NoiseGenerator() {
+    }
+
+    /**
+     * Returns {@code size} entities of each generated type, parents first. The dataset is generated once per size
+     * and shared by the following tests: noise entities are only inserted, never read back.
+     */
+    static synchronized List<Object> generate(final int size) {
+        if (cachedSize != size) {
+            final Dataset dataset = new DatasetGenerator.Builder()
+                    .idPrefix(ID_PREFIX)
+                    .period(FROM, TO)
+                    .users(size)
+                    .groups(size)
+                    .apis(size)
+                    .applications(size)
+                    .subscriptions(size)
+                    .apiKeys(size)
+                    .memberships(size)
+                    .events(size)
+                    .build()
+                    .generate();
+            for (final Api api : dataset.getApis()) {
+                api.setVersion(VERSION);
+                api.setVisibility(Visibility.PRIVATE);
+                api.setApiLifecycleState(ApiLifecycleState.UNPUBLISHED);
+            }
+            final List<Object> entities = new ArrayList<>(dataset.entities());
+            entities.addAll(apiEntities(dataset.getApis()));
+            entities.addAll(commands(size));
+            cachedEntities = Collections.unmodifiableList(entities);
+            cachedSize = size;
+        }
+        return cachedEntities;
+    }
+
+    private static List<Object> apiEntities(final List<Api> apis) {
+        final List<Object> audits = new ArrayList<>();
+        final List<Object> pages = new ArrayList<>();
+        final List<Object> ratings = new ArrayList<>();
+        final List<Object> ratingAnswers = new ArrayList<>();
+        for (int i = 0; i < apis.size(); i++) {
+            final Api api = apis.get(i);
+            final Date date = date(i, apis.size());
+
+            final Audit audit = new Audit();
+            audit.setId(ID_PREFIX + "audit-" + i);
+            audit.setReferenceType(Audit.AuditReferenceType.API);
+            audit.setReferenceId(api.getId());
+            audit.setEvent(Api.AuditEvent.API_UPDATED.name());
+            audit.setUser(ID_PREFIX + "user");
+            audit.setCreatedAt(date);
+            audits.add(audit);
+
+            // API pages only, the portal pages being searched whole
+            final Page page = new Page();
+            page.setId(ID_PREFIX + "page-" + i);
+            page.setApi(api.getId());
+            page.setName(ID_PREFIX + "page-" + i);
+            page.setType(PageType.MARKDOWN);
+            page.setOrder(i);
+            page.setCreatedAt(date);
+            page.setUpdatedAt(date);
+            pages.add(page);
+
+            final Rating rating = new Rating();
+            rating.setId(ID_PREFIX + "rating-" + i);
+            rating.setApi(api.getId());
+            rating.setUser(ID_PREFIX + "user");
+            rating.setRate((byte) (1 + i % 5));
+            rating.setCreatedAt(date);
+            rating.setUpdatedAt(date);
+            ratings.add(rating);
+
+            final RatingAnswer ratingAnswer = new RatingAnswer();
+            ratingAnswer.setId(ID_PREFIX + "answer-" + i);
+            ratingAnswer.setRating(rating.getId());
+            ratingAnswer.setUser(ID_PREFIX + "user");
+            ratingAnswer.setCreatedAt(date);
+            ratingAnswer.setUpdatedAt(date);
+            ratingAnswers.add(ratingAnswer);
+        }
+        final List<Object> entities = new ArrayList<>(audits);
+        entities.addAll(pages);
+        entities.addAll(ratings);
+        entities.addAll(ratingAnswers);
+        return entities;
+    }
+
+    /**
+     * Commands expired in the year 2000, so that only the searches ignoring expiry can reach them.
+     */
+    private static List<Object> commands(final int size) {
+        final List<Object> commands = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            final Date date = date(i, size);
+            final Command command = new Command();
+            command.setId(ID_PREFIX + "command-" + i);
+            command.setFrom(ID_PREFIX + "node");
+            command.setTo(ID_PREFIX + "node");
+            command.setTags(Collections.singletonList(ID_PREFIX + "tag"));
+            command.setContent(ID_PREFIX + "content");
+            command.setCreatedAt(date);
+            command.setUpdatedAt(date);
+            command.setExpiredAt(date);
+            commands.add(command);
+        }
+        return commands;
+    }
+
+    private static Date date(final int index, final int count) {
+        return new Date(FROM + (TO - FROM) * index / count);
+    }
+}
@@ -0,0 +1,177 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.util.ClassUtils;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the calls made to the repository beans of a context, per method: it wraps every bean implementing a
+ * repository interface, so that the calls a repository makes to another one while answering are counted as well as
+ * the calls of the tests, and told apart as nested. The beans are proxied by subclassing their class, so that they
+ * stay injectable by it; the stubs, proxies of the interfaces themselves, are proxied by their interfaces.
+ *
+ * @author GraviteeSource Team
+ */
+final class QueryCounter implements BeanPostProcessor {
+
+    private static final String REPOSITORY_PACKAGE = "io.gravitee.repository.";
+    private static final String REPOSITORY_SUFFIX = "Repository";
+    private static final Set<File> STARTED_REPORTS = ConcurrentHashMap.newKeySet();
+
+    private final Map<String, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final AtomicInteger nested = new AtomicInteger();
+    private final Map<Method, Boolean> repositoryMethods = new ConcurrentHashMap<>();
+    // the repository calls in progress on each thread
+    private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+        final Class<?> repository = repositoryInterface(bean.getClass());
+        if (repository == null) {
+            return bean;
+        }
+        final ProxyFactory factory = new ProxyFactory(bean);
+        factory.setProxyTargetClass(true);
+        factory.addAdvice((MethodInterceptor) invocation -> {
+            final Method method = invocation.getMethod();
+            if (!repositoryMethods.computeIfAbsent(method, m -> isRepositoryMethod(bean.getClass(), m))) {
+                return invocation.proceed();
+            }
+            calls.computeIfAbsent(repository.getSimpleName() + '.' + method.getName(), m -> new AtomicInteger())
+                    .incrementAndGet();
+            final int[] calling = depth.get();
+            if (calling[0] > 0) {
+                nested.incrementAndGet();
+            }
+            calling[0]++;
+            try {
+                return invocation.proceed();
+            } finally {
+                calling[0]--;
+            }
+        });
+        return factory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    /**
+     * @return the repository interface the given class implements, or null when it is not a repository
+     */
+    private static Class<?> repositoryInterface(final Class<?> type) {
+        for (final Class<?> candidate : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+            if (candidate.getName().startsWith(REPOSITORY_PACKAGE)
+                    && candidate.getSimpleName().endsWith(REPOSITORY_SUFFIX)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static boolean isRepositoryMethod(final Class<?> type, final Method method) {
+        if (method.getDeclaringClass() == Object.class) {
+            return false;
+        }
+        for (final Class<?> candidate : ClassUtils.getAllInterfacesForClassAsSet(type)) {
+            if (candidate.getName().startsWith(REPOSITORY_PACKAGE)) {
+                for (final Method declared : candidate.getMethods()) {
+                    if (declared.getName().equals(method.getName())
+                            && declared.getParameterCount() == method.getParameterCount()) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Forgets the calls counted so far, as a test starts.
+     */
+    void reset() {
+        calls.clear();
+        nested.set(0);
+    }
+
+    /**
+     * @return the calls made to each method, sorted by method
+     */
+    Map<String, Integer> calls() {
+        final Map<String, Integer> sorted = new TreeMap<>();
+        calls.forEach((method, count) -> sorted.put(method, count.get()));
+        return sorted;
+    }
+
+    private int total() {
+        int total = 0;
+        for (final AtomicInteger count : calls.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    void verify(final ExpectedQueries expected) {
+        final List<String> violations = new ArrayList<>();
+        if (total() > expected.max()) {
+            violations.add(String.format("%d calls in all, expected at most %d", total(), expected.max()));
+        }
+        if (nested.get() > expected.nested()) {
+            violations.add(String.format("%d calls made by the repositories, expected at most %d", nested.get(),
+                    expected.nested()));
+        }
+        for (final ExpectedQueries.Query query : expected.value()) {
+            int count = 0;
+            for (final Map.Entry<String, Integer> method : calls().entrySet()) {
+                if (method.getKey().equals(query.method()) || method.getKey().endsWith('.' + query.method())) {
+                    count += method.getValue();
+                }
+            }
+            if (count > query.max()) {
+                violations.add(String.format("%d calls to %s, expected at most %d", count, query.method(), query.max()));
+            }
+        }
+        if (!violations.isEmpty()) {
+            throw new AssertionError("Unexpected repository calls: " + String.join(", ", violations) + " " + calls());
+        }
+    }
+
+    /**
+     * Appends the calls made by a test to the report of its class, flagging the methods called at least
+     * {@code repeatThreshold} times, as a finder called in a loop would be. The report is started over by the first
+     * test of the class reported in the JVM.
+     */
+    void report(final File report, final String test, final int repeatThreshold) throws IOException {
+        report.getParentFile().mkdirs();
+        final boolean append = !STARTED_REPORTS.add(report.getAbsoluteFile());
+        try (PrintWriter out = new PrintWriter(new FileWriter(report, append))) {
+            out.printf("%s: %d calls, %d of them nested%n", test, total(), nested.get());
+            for (final Map.Entry<String, Integer> method : calls().entrySet()) {
+                out.printf("    %-70s %6d%s%n", method.getKey(), method.getValue(),
+                        method.getValue() >= repeatThreshold ? "  repeated, possible N+1" : "");
+            }
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config;
+
+import io.gravitee.repository.config.memory.InMemoryRatingAnswerRepository;
+import io.gravitee.repository.config.memory.InMemoryRatingRepository;
+import io.gravitee.repository.management.api.RatingAnswerRepository;
+import io.gravitee.repository.management.api.RatingRepository;
+import io.gravitee.repository.management.model.Rating;
+import io.gravitee.repository.management.model.RatingAnswer;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.*;
+
+/**
+ * Counts the calls of a rating repository loading the answers of the ratings it finds, one call per rating, as an
+ * implementation with an N+1 would.
+ *
+ * @author GraviteeSource Team
+ */
+public class QueryCounterTest {
+
+    private final QueryCounter queryCounter = new QueryCounter();
+
+    private RatingAnswerRepository ratingAnswerRepository;
+    private RatingRepository ratingRepository;
+
+    @Before
+    public void setUp() throws Exception {
+        ratingAnswerRepository = (RatingAnswerRepository) queryCounter.postProcessAfterInitialization(
+                new InMemoryRatingAnswerRepository(), "ratingAnswerRepository");
+        ratingRepository = (RatingRepository) queryCounter.postProcessAfterInitialization(
+                ratingRepositoryLoadingAnswers(ratingAnswerRepository), "ratingRepository");
+        for (int i = 0; i < 3; i++) {
+            final Rating rating = new Rating();
+            rating.setId("rating-" + i);
+            rating.setApi("api");
+            ratingRepository.create(rating);
+            final RatingAnswer answer = new RatingAnswer();
+            answer.setId("answer-" + i);
+            answer.setRating(rating.getId());
+            ratingAnswerRepository.create(answer);
+        }
+        queryCounter.reset();
+    }
+
+    @Test
+    public void shouldCountTheCallsMadeByTheRepositories() throws Exception {
+        ratingRepository.findByApi("api");
+
+        assertEquals(singletonMap("RatingRepository.findByApi", 1), queryCounter.calls());
+
+        ratingRepository.findById("rating-0");
+
+        assertEquals(Integer.valueOf(1), queryCounter.calls().get("RatingRepository.findById"));
+        assertEquals(Integer.valueOf(1), queryCounter.calls().get("RatingAnswerRepository.findByRating"));
+    }
+
+    @Test
+    public void shouldKeepTheBeansInjectableByTheirClass() {
+        assertTrue(ratingAnswerRepository instanceof InMemoryRatingAnswerRepository);
+        assertTrue(ratingRepository instanceof InMemoryRatingRepository);
+    }
+
+    @Test
+    public void shouldLeaveTheOtherBeansAlone() {
+        final Object bean = new Object();
+
+        assertSame(bean, queryCounter.postProcessAfterInitialization(bean, "bean"));
+    }
+
+    @Test
+    public void shouldBoundTheNestedCalls() throws Exception {
+        ratingRepository.findById("rating-0");
+        ratingRepository.findById("rating-1");
+
+        queryCounter.verify(expectedQueries("twoNestedCalls"));
+        try {
+            queryCounter.verify(expectedQueries("noNestedCall"));
+            fail("The calls made by the rating repository were not bounded");
+        } catch (final AssertionError e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("2 calls made by the repositories, expected at most 0"));
+        }
+        try {
+            queryCounter.verify(expectedQueries("oneFindByRating"));
+            fail("The calls to findByRating were not bounded");
+        } catch (final AssertionError e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("2 calls to findByRating, expected at most 1"));
+        }
+    }
+
+    @ExpectedQueries(nested = 2)
+    private static void twoNestedCalls() {
+    }
+
+    @ExpectedQueries(nested = 0)
+    private static void noNestedCall() {
+    }
+
+    @ExpectedQueries(@ExpectedQueries.Query(method = "findByRating", max = 1))
+    private static void oneFindByRating() {
+    }
+
+    private static ExpectedQueries expectedQueries(final String annotated) throws Exception {
+        return QueryCounterTest.class.getDeclaredMethod(annotated).getAnnotation(ExpectedQueries.class);
+    }
+
+    /**
+     * A rating repository loading the answers of the rating it finds, anonymous so that the contexts of the TCK,
+     * scanning the classes named after tests, do not take it for a bean.
+     */
+    private static RatingRepository ratingRepositoryLoadingAnswers(final RatingAnswerRepository answers) {
+        return new InMemoryRatingRepository() {
+            @Override
+            public Optional<Rating> findById(final String id) {
+                final Optional<Rating> rating = super.findById(id);
+                if (rating.isPresent()) {
+                    try {
+                        answers.findByRating(id);
+                    } catch (final Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+                return rating;
+            }
+        };
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * Boots the repository context outside of the Spring test framework, the same way the TCK does: profiles from
+ * {@link RepositoryProfileResolver}, properties from {@link PropertySourceRepositoryInitializer} and the
+ * configurations scanned by {@link AbstractRepositoryTest}. The steps are exposed separately so they can be timed.
+ *
+ * @author GraviteeSource Team
+ */
+public final class RepositoryContexts {
+
+    private RepositoryContexts() {
+    }
+
+    /**
+     * @return a context with its profiles and configuration set, neither initialized nor refreshed
+     */
+    public static AnnotationConfigApplicationContext prepare() {
+        final AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().setActiveProfiles(new RepositoryProfileResolver().resolve(AbstractRepositoryTest.class));
+        context.register(AbstractRepositoryTest.ContextConfiguration.class);
+        return context;
+    }
+
+    public static void loadProperties(final ConfigurableApplicationContext context) {
+        new PropertySourceRepositoryInitializer().initialize(context);
+    }
+}
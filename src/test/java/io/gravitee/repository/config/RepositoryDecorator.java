@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config;
+
+/**
+ * Wraps the repositories injected in {@link AbstractRepositoryTest} once the fixtures are loaded, to observe or alter
+ * the calls made by the tests.
+ *
+ * @author GraviteeSource Team
+ */
+public interface RepositoryDecorator {
+
+    /**
+     * @param type the repository interface, as declared by {@link AbstractRepositoryTest}
+     * @param repository the repository to decorate
+     * @return an implementation of {@code type}
+     */
+    Object decorate(Class<?> type, Object repository);
+}
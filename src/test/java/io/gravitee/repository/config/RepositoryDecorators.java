@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * The decorators applied by {@link AbstractRepositoryTest}, in registration order: the last registered one is the
+ * outermost.
+ *
+ * @author GraviteeSource Team
+ */
+public final class RepositoryDecorators {
+
+    private static final List<RepositoryDecorator> DECORATORS = new CopyOnWriteArrayList<>();
+
+    private RepositoryDecorators() {
+    }
+
+    public static void register(final RepositoryDecorator decorator) {
+        DECORATORS.add(decorator);
+    }
+
+    public static void unregister(final RepositoryDecorator decorator) {
+        DECORATORS.remove(decorator);
+    }
+
+    static Object decorate(final Class<?> type, final Object repository) {
+        Object decorated = repository;
+        for (final RepositoryDecorator decorator : DECORATORS) {
+            decorated = decorator.decorate(type, decorated);
+        }
+        return decorated;
+    }
+}
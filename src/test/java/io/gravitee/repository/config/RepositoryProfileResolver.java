@@ -0,0 +1,38 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config;
+
+import org.springframework.test.context.ActiveProfilesResolver;
+
+/**
+ * Activates the "test" profile along with the profile of the repository configuration to run the TCK against,
+ * read from the {@value #PROFILE_PROPERTY} system property ("mock" by default).
+ *
+ * Since active profiles belong to the key of the Spring test context cache, each configuration gets its own context
+ * and several of them can be run in the same JVM.
+ *
+ * @author GraviteeSource Team
+ */
+public class RepositoryProfileResolver implements ActiveProfilesResolver {
+
+    public static final String PROFILE_PROPERTY = "repository.profile";
+    public static final String DEFAULT_PROFILE = "mock";
+
+    @Override
+    public String[] resolve(Class<?> testClass) {
+        return new String[]{"test", System.getProperty(PROFILE_PROPERTY, DEFAULT_PROFILE)};
+    }
+}
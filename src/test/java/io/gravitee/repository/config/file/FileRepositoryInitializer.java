@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.file;
+
+import io.gravitee.repository.config.TestRepositoryInitializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Empties the store around each test, and checks before emptying it that the repositories restored from its journal,
+ * then from its compacted snapshot, hold what the test left in them.
+ *
+ * @author GraviteeSource Team
+ */
+public class FileRepositoryInitializer implements TestRepositoryInitializer {
+
+    private final FileStore store;
+
+    public FileRepositoryInitializer(final FileStore store) {
+        this.store = store;
+    }
+
+    @Override
+    public void setUp() {
+        try {
+            store.reset();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void tearDown() {
+        try {
+            store.verify();
+            store.compact();
+            store.verify();
+            store.reset();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
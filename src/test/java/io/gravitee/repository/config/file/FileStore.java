@@ -0,0 +1,382 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.file;
+
+import io.gravitee.repository.config.memory.AbstractInMemoryRepository;
+import org.codehaus.jackson.annotate.JsonAutoDetect.Visibility;
+import org.codehaus.jackson.annotate.JsonMethod;
+import org.codehaus.jackson.map.DeserializationConfig;
+import org.codehaus.jackson.map.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+
+/**
+ * Makes in-memory repositories durable: every change of a stored item is appended to a {@link RecordLog journal} as
+ * the state of the item once changed, or as its removal, and the journal is compacted into a snapshot of every stored
+ * item once it outgrows a threshold. Reads keep being served by the in-memory repositories, the files being only read,
+ * memory-mapped, when the store is {@link #open opened} again.
+ *
+ * The files of a generation are its snapshot, holding the state of the repositories when the generation started, and
+ * its journal. A compaction writes the snapshot of the next generation aside, moves it in place once complete, then
+ * starts the journal of the next generation and deletes the files of the previous one: whenever the store stops, the
+ * latest complete snapshot and the journal of its generation hold the whole state. A record holds a state, not an
+ * operation, so that reading it again is harmless.
+ *
+ * Changes are journaled in the order they happened in, the state of an item being read when its change is journaled,
+ * and are written to the file system before the write returns; they are also forced to the disk with the sync option.
+ * Items and ids are written as JSON after the name of their class, by field and with the class of every value not
+ * declared by a concrete type, so that the ids made of several enums and strings are read back as they were written.
+ *
+ * @author GraviteeSource Team
+ */
+public final class FileStore implements Closeable {
+
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final Pattern FILE_NAME = Pattern.compile("(snapshot|journal)-(\\d+)\\.(dat|log)");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static {
+        MAPPER.setVisibility(JsonMethod.ALL, Visibility.NONE);
+        MAPPER.setVisibility(JsonMethod.FIELD, Visibility.ANY);
+        MAPPER.configure(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        MAPPER.enableDefaultTyping(ObjectMapper.DefaultTyping.OBJECT_AND_NON_CONCRETE);
+    }
+
+    private final Path directory;
+    private final long compactionThreshold;
+    private final boolean sync;
+    private final boolean temporary;
+    private final Map<String, Supplier<? extends AbstractInMemoryRepository<?, ?>>> factories = new LinkedHashMap<>();
+    private final Map<String, AbstractInMemoryRepository<?, ?>> repositories = new LinkedHashMap<>();
+    private long generation;
+    private RecordLog journal;
+
+    /**
+     * @param compactionThreshold the size in bytes beyond which the journal is compacted
+     * @param sync whether each change is forced to the disk before the write returns
+     */
+    public FileStore(final Path directory, final long compactionThreshold, final boolean sync) {
+        this(directory, compactionThreshold, sync, false);
+    }
+
+    private FileStore(final Path directory, final long compactionThreshold, final boolean sync,
+                      final boolean temporary) {
+        this.directory = directory;
+        this.compactionThreshold = compactionThreshold;
+        this.sync = sync;
+        this.temporary = temporary;
+    }
+
+    /**
+     * A store in a temporary directory, deleted with its files when the store is closed.
+     */
+    public static FileStore temporary(final long compactionThreshold, final boolean sync) throws IOException {
+        return new FileStore(Files.createTempDirectory("gravitee-repository"), compactionThreshold, sync, true);
+    }
+
+    /**
+     * A store in the given directory, created when it does not exist, deleted with its files when the store is closed
+     * and refused when it already holds a file: what it holds is discarded on each {@link #reset}, which must never
+     * happen to the files of another run or application.
+     */
+    public static FileStore temporary(final Path directory, final long compactionThreshold, final boolean sync)
+            throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            if (files.findAny().isPresent()) {
+                throw new IllegalStateException("The directory " + directory + " is not empty, the store it would "
+                        + "hold being deleted with it");
+            }
+        }
+        return new FileStore(directory, compactionThreshold, sync, true);
+    }
+
+    /**
+     * Registers the repository the given factory creates, under the name of its class, before the store is opened.
+     */
+    public synchronized <R extends AbstractInMemoryRepository<?, ?>> R register(final Supplier<R> factory) {
+        if (journal != null) {
+            throw new IllegalStateException("The store of " + directory + " is already open");
+        }
+        final R repository = factory.get();
+        final String name = repository.getClass().getSimpleName();
+        if (factories.putIfAbsent(name, factory) != null) {
+            throw new IllegalStateException("A " + name + " is already registered");
+        }
+        repositories.put(name, repository);
+        return repository;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <R extends AbstractInMemoryRepository<?, ?>> R repository(final Class<R> type) {
+        final AbstractInMemoryRepository<?, ?> repository = repositories.get(type.getSimpleName());
+        if (repository == null) {
+            throw new IllegalStateException("No " + type.getSimpleName() + " is registered");
+        }
+        return (R) repository;
+    }
+
+    /**
+     * Restores the registered repositories from the files of the store, then journals their changes.
+     *
+     * @return the number of records read
+     */
+    public synchronized long open() throws IOException {
+        Files.createDirectories(directory);
+        final long records = load(repositories, true);
+        journal = RecordLog.open(journalOf(generation), sync);
+        repositories.forEach(this::listen);
+        return records;
+    }
+
+    /**
+     * Writes the snapshot of the next generation, then starts its journal.
+     */
+    public synchronized void compact() throws IOException {
+        final Path snapshot = snapshotOf(generation + 1);
+        final Path written = snapshot.resolveSibling(snapshot.getFileName() + ".tmp");
+        Files.deleteIfExists(written);
+        try (RecordLog log = RecordLog.open(written, false)) {
+            for (final Map.Entry<String, AbstractInMemoryRepository<?, ?>> repository : repositories.entrySet()) {
+                final Iterator<?> items = repository.getValue().export().iterator();
+                while (items.hasNext()) {
+                    log.append(record(PUT, repository.getKey(), items.next()));
+                }
+            }
+            log.force();
+        }
+        Files.move(written, snapshot, ATOMIC_MOVE);
+        journal.close();
+        generation++;
+        Files.deleteIfExists(journalOf(generation));
+        journal = RecordLog.open(journalOf(generation), sync);
+        deleteOtherGenerations();
+    }
+
+    /**
+     * Restores fresh repositories from the files of the store, as opening it again would, and fails unless they hold
+     * what the registered repositories hold.
+     */
+    public synchronized void verify() throws IOException {
+        journal.force();
+        final Map<String, AbstractInMemoryRepository<?, ?>> restored = new LinkedHashMap<>();
+        factories.forEach((name, factory) -> restored.put(name, factory.get()));
+        load(restored, false);
+        for (final String name : repositories.keySet()) {
+            final List<ByteBuffer> expected = encoded(repositories.get(name));
+            final List<ByteBuffer> actual = encoded(restored.get(name));
+            if (!expected.equals(actual)) {
+                throw new IllegalStateException(name + " holds " + expected.size() + " items, " + actual.size()
+                        + " of which restored from " + directory + " differently");
+            }
+        }
+    }
+
+    /**
+     * Empties the registered repositories and deletes the files of the store, which must be {@link #temporary}.
+     */
+    public void reset() throws IOException {
+        if (!temporary) {
+            throw new IllegalStateException("The store of " + directory + " is not temporary, refusing to delete it");
+        }
+        // not under the lock of the store, which a write takes under the lock of its repository
+        repositories.values().forEach(AbstractInMemoryRepository::clear);
+        synchronized (this) {
+            if (journal != null) {
+                journal.close();
+            }
+            generation = 0;
+            deleteOtherGenerations();
+            Files.deleteIfExists(journalOf(0));
+            journal = RecordLog.open(journalOf(0), sync);
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        repositories.values().forEach(repository -> repository.onChange(id -> {
+        }));
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        if (temporary) {
+            generation = -1;
+            deleteOtherGenerations();
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * The number of bytes of the current journal.
+     */
+    public synchronized long journalSize() {
+        return journal.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <ID> void listen(final String name, final AbstractInMemoryRepository<?, ID> repository) {
+        repository.onChange(id -> journal(name, (AbstractInMemoryRepository<Object, ID>) repository, id));
+    }
+
+    private synchronized <ID> void journal(final String name, final AbstractInMemoryRepository<Object, ID> repository,
+                                           final ID id) {
+        final Optional<Object> state = repository.export(id);
+        try {
+            journal.append(state.isPresent() ? record(PUT, name, state.get()) : record(REMOVE, name, id));
+            if (journal.size() > compactionThreshold) {
+                compact();
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Unable to journal a change of " + name + " in " + directory, e);
+        }
+    }
+
+    private long load(final Map<String, AbstractInMemoryRepository<?, ?>> into, final boolean recover)
+            throws IOException {
+        final long latest = latestSnapshot();
+        generation = Math.max(latest, 0);
+        long records = 0;
+        if (latest >= 0) {
+            records += RecordLog.read(snapshotOf(latest), record -> apply(into, record));
+        }
+        final Path journalFile = journalOf(generation);
+        if (Files.isRegularFile(journalFile)) {
+            records += recover ? RecordLog.recover(journalFile, record -> apply(into, record))
+                    : RecordLog.read(journalFile, record -> apply(into, record));
+        }
+        if (recover) {
+            deleteOtherGenerations();
+        }
+        return records;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void apply(final Map<String, AbstractInMemoryRepository<?, ?>> into, final ByteBuffer record) {
+        final byte operation = record.get();
+        final byte[] name = new byte[record.getInt()];
+        record.get(name);
+        final AbstractInMemoryRepository<Object, Object> repository =
+                (AbstractInMemoryRepository<Object, Object>) into.get(new String(name, StandardCharsets.UTF_8));
+        if (repository == null) {
+            throw new IllegalStateException("Unknown repository " + new String(name, StandardCharsets.UTF_8)
+                    + " in " + directory);
+        }
+        final byte[] type = new byte[record.getInt()];
+        record.get(type);
+        final byte[] encoded = new byte[record.remaining()];
+        record.get(encoded);
+        final Object value;
+        try {
+            value = MAPPER.readValue(encoded, Class.forName(new String(type, StandardCharsets.UTF_8)));
+        } catch (final ClassNotFoundException e) {
+            throw new IllegalStateException("Unknown class " + new String(type, StandardCharsets.UTF_8) + " in "
+                    + directory, e);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Unable to read a record of " + repository.getClass().getSimpleName()
+                    + " in " + directory, e);
+        }
+        if (operation == PUT) {
+            repository.restore(value);
+        } else {
+            repository.erase(value);
+        }
+    }
+
+    private static byte[] record(final byte operation, final String name, final Object value) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeByte(operation);
+            final byte[] encodedName = name.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(encodedName.length);
+            output.write(encodedName);
+            // the ids made of several values are unmodifiable lists, read back as lists equal to them
+            final Class<?> type = value instanceof List ? ArrayList.class : value.getClass();
+            final byte[] encodedType = type.getName().getBytes(StandardCharsets.UTF_8);
+            output.writeInt(encodedType.length);
+            output.write(encodedType);
+            output.write(encode(value));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static List<ByteBuffer> encoded(final AbstractInMemoryRepository<?, ?> repository) {
+        final List<ByteBuffer> items = new ArrayList<>();
+        repository.export().forEach(item -> items.add(ByteBuffer.wrap(encode(item))));
+        Collections.sort(items);
+        return items;
+    }
+
+    private static byte[] encode(final Object value) {
+        try {
+            return MAPPER.writeValueAsBytes(value);
+        } catch (final IOException e) {
+            throw new UncheckedIOException("Unable to encode " + value, e);
+        }
+    }
+
+    private long latestSnapshot() throws IOException {
+        long latest = -1;
+        try (Stream<Path> files = Files.list(directory)) {
+            for (final Path file : (Iterable<Path>) files::iterator) {
+                final Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches() && "snapshot".equals(matcher.group(1))) {
+                    latest = Math.max(latest, Long.parseLong(matcher.group(2)));
+                }
+            }
+        }
+        return latest;
+    }
+
+    private void deleteOtherGenerations() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (final Path file : (Iterable<Path>) files::iterator) {
+                final Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches() ? Long.parseLong(matcher.group(2)) != generation
+                        : file.getFileName().toString().endsWith(".tmp")) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    private Path snapshotOf(final long generation) {
+        return directory.resolve("snapshot-" + generation + ".dat");
+    }
+
+    private Path journalOf(final long generation) {
+        return directory.resolve("journal-" + generation + ".log");
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.file;
+
+import io.gravitee.repository.config.memory.InMemoryTagRepository;
+import io.gravitee.repository.management.model.Tag;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+import static org.junit.Assert.*;
+
+/**
+ * Damages the journal of a store holding three tags, one record each, as a crash or the disk would, then reopens it.
+ *
+ * @author GraviteeSource Team
+ */
+public class FileStoreTest {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private Path directory;
+    private Path journal;
+    // the end of each record in the journal
+    private final long[] ends = new long[3];
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.getRoot().toPath();
+        journal = directory.resolve("journal-0.log");
+        final FileStore store = store();
+        store.open();
+        for (int i = 0; i < ends.length; i++) {
+            final Tag tag = new Tag();
+            tag.setId("tag-" + i);
+            tag.setName("Tag " + i);
+            store.repository(InMemoryTagRepository.class).create(tag);
+            ends[i] = store.journalSize();
+        }
+        store.close();
+        assertEquals(ends[2], Files.size(journal));
+    }
+
+    @Test
+    public void shouldReopenAnIntactJournal() throws IOException {
+        assertEquals(tags("tag-0", "tag-1", "tag-2"), reopen());
+    }
+
+    @Test
+    public void shouldTruncateATornLastRecord() throws IOException {
+        truncate(ends[2] - 5);
+
+        assertEquals(tags("tag-0", "tag-1"), reopen());
+        assertEquals(ends[1], Files.size(journal));
+    }
+
+    @Test
+    public void shouldTruncateALastRecordTornWithinItsHeader() throws IOException {
+        truncate(ends[1] + 3);
+
+        assertEquals(tags("tag-0", "tag-1"), reopen());
+        assertEquals(ends[1], Files.size(journal));
+    }
+
+    @Test
+    public void shouldTruncateACorruptedLastRecord() throws IOException {
+        corrupt(ends[2] - 2);
+
+        assertEquals(tags("tag-0", "tag-1"), reopen());
+        assertEquals(ends[1], Files.size(journal));
+    }
+
+    @Test
+    public void shouldTruncateWithinTheMiddleRecord() throws IOException {
+        // the middle record becomes the last one, torn
+        truncate(ends[1] - 5);
+
+        assertEquals(tags("tag-0"), reopen());
+        assertEquals(ends[0], Files.size(journal));
+    }
+
+    @Test
+    public void shouldAppendAfterTheRecoveredRecords() throws IOException {
+        truncate(ends[2] - 5);
+        final FileStore store = store();
+        store.open();
+        final Tag tag = new Tag();
+        tag.setId("tag-3");
+        tag.setName("Tag 3");
+        store.repository(InMemoryTagRepository.class).create(tag);
+        store.close();
+
+        assertEquals(tags("tag-0", "tag-1", "tag-3"), reopen());
+    }
+
+    @Test
+    public void shouldRefuseACorruptedMiddleRecord() throws IOException {
+        corrupt(ends[1] - 2);
+        final byte[] before = Files.readAllBytes(journal);
+
+        final FileStore store = store();
+        try {
+            store.open();
+            fail("The corrupted middle record was not detected");
+        } catch (final IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().startsWith("The record at " + ends[0] + " "));
+        } finally {
+            store.close();
+        }
+        // nothing truncated, the records following the corrupted one being kept for a repair
+        assertArrayEquals(before, Files.readAllBytes(journal));
+    }
+
+    private FileStore store() {
+        final FileStore store = new FileStore(directory, Long.MAX_VALUE, false);
+        store.register(InMemoryTagRepository::new);
+        return store;
+    }
+
+    private Set<String> reopen() throws IOException {
+        final FileStore store = store();
+        try {
+            store.open();
+            final Set<String> ids = new TreeSet<>();
+            store.repository(InMemoryTagRepository.class).findAll().forEach(tag -> ids.add(tag.getId()));
+            return ids;
+        } finally {
+            store.close();
+        }
+    }
+
+    private void truncate(final long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(journal, WRITE)) {
+            channel.truncate(size);
+        }
+    }
+
+    private void corrupt(final long position) throws IOException {
+        final byte[] bytes = Files.readAllBytes(journal);
+        bytes[(int) position] ^= 0xFF;
+        Files.write(journal, bytes);
+    }
+
+    private static Set<String> tags(final String... ids) {
+        return new TreeSet<>(Arrays.asList(ids));
+    }
+}
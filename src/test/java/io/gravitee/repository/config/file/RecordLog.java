@@ -0,0 +1,200 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * A file of records appended one after the other, each framed by its length and the CRC-32 of its bytes, and read
+ * back memory-mapped. A record is written with a single call to the file channel, and forced to the disk on demand:
+ * a crash may leave the last record torn, which reading detects and {@link #recover truncates}.
+ *
+ * @author GraviteeSource Team
+ */
+final class RecordLog implements Closeable {
+
+    private static final int HEADER_BYTES = 8;
+    private static final long WINDOW_BYTES = 256L << 20;
+
+    private final FileChannel channel;
+    private final boolean sync;
+    private long size;
+
+    private RecordLog(final FileChannel channel, final boolean sync) throws IOException {
+        this.channel = channel;
+        this.sync = sync;
+        this.size = channel.size();
+    }
+
+    /**
+     * Opens the given file for appending, creating it when it does not exist.
+     *
+     * @param sync whether each record is forced to the disk before {@link #append} returns
+     */
+    static RecordLog open(final Path file, final boolean sync) throws IOException {
+        return new RecordLog(FileChannel.open(file, CREATE, WRITE, APPEND), sync);
+    }
+
+    void append(final byte[] record) throws IOException {
+        final CRC32 crc = new CRC32();
+        crc.update(record, 0, record.length);
+        final ByteBuffer frame = ByteBuffer.allocate(HEADER_BYTES + record.length);
+        frame.putInt(record.length).putInt((int) crc.getValue()).put(record).flip();
+        while (frame.hasRemaining()) {
+            channel.write(frame);
+        }
+        if (sync) {
+            channel.force(false);
+        }
+        size += frame.limit();
+    }
+
+    long size() {
+        return size;
+    }
+
+    void force() throws IOException {
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Hands every intact record of the given file to the consumer, then truncates the torn record following the last
+     * of them, failing on a corrupted record followed by others: only the last write may have been interrupted. A
+     * length corrupted into one running past the end of the file cannot be told from a torn record, and is truncated
+     * as such, with the records following it.
+     *
+     * @return the number of records read
+     */
+    static long recover(final Path file, final Consumer<ByteBuffer> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, READ, WRITE)) {
+            final long[] end = new long[1];
+            final long records = read(channel, consumer, end);
+            final long size = channel.size();
+            if (end[0] < size) {
+                if (!isTail(channel, end[0], size)) {
+                    throw new IllegalStateException("The record at " + end[0] + " of " + file + " is corrupted, "
+                            + "and not the last: " + (size - end[0]) + " bytes follow its start");
+                }
+                channel.truncate(end[0]);
+                channel.force(true);
+            }
+            return records;
+        }
+    }
+
+    /**
+     * Whether the record at the given position is the last one of the file, or would have been had its write
+     * completed.
+     */
+    private static boolean isTail(final FileChannel channel, final long position, final long size) throws IOException {
+        if (position + HEADER_BYTES > size) {
+            return true;
+        }
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (header.hasRemaining() && channel.read(header, position + header.position()) >= 0) {
+            // until the header is read
+        }
+        final int length = header.getInt(0);
+        return length >= 0 && position + HEADER_BYTES + length >= size;
+    }
+
+    /**
+     * Hands every record of the given file to the consumer, failing on a torn or corrupted one.
+     *
+     * @return the number of records read
+     */
+    static long read(final Path file, final Consumer<ByteBuffer> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            final long[] end = new long[1];
+            final long records = read(channel, consumer, end);
+            if (end[0] < channel.size()) {
+                throw new IllegalStateException("The record at " + end[0] + " of " + file + " is corrupted");
+            }
+            return records;
+        }
+    }
+
+    private static long read(final FileChannel channel, final Consumer<ByteBuffer> consumer, final long[] end)
+            throws IOException {
+        final long size = channel.size();
+        final CRC32 crc = new CRC32();
+        long position = 0;
+        long records = 0;
+        while (position + HEADER_BYTES <= size) {
+            // mapped window by window, a record never straddling two of them
+            final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                    Math.min(size - position, WINDOW_BYTES));
+            int offset = 0;
+            while (offset + HEADER_BYTES <= window.limit()) {
+                final int length = window.getInt(offset);
+                if (length < 0 || position + offset + HEADER_BYTES + length > size) {
+                    end[0] = position + offset;
+                    return records;
+                }
+                if (offset + HEADER_BYTES + length > window.limit()) {
+                    if (offset == 0) {
+                        // a record larger than a window gets one of its own
+                        final MappedByteBuffer large = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                                HEADER_BYTES + (long) length);
+                        if (!consume(large, 0, length, crc, consumer)) {
+                            end[0] = position;
+                            return records;
+                        }
+                        records++;
+                        offset = HEADER_BYTES + length;
+                    }
+                    break;
+                }
+                if (!consume(window, offset, length, crc, consumer)) {
+                    end[0] = position + offset;
+                    return records;
+                }
+                records++;
+                offset += HEADER_BYTES + length;
+            }
+            position += offset;
+        }
+        end[0] = position;
+        return records;
+    }
+
+    private static boolean consume(final ByteBuffer buffer, final int offset, final int length, final CRC32 crc,
+                                   final Consumer<ByteBuffer> consumer) {
+        final ByteBuffer record = buffer.duplicate();
+        record.limit(offset + HEADER_BYTES + length).position(offset + HEADER_BYTES);
+        crc.reset();
+        crc.update(record.duplicate());
+        if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+            return false;
+        }
+        consumer.accept(record.slice());
+        return true;
+    }
+}
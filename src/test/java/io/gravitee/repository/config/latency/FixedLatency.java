@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.latency;
+
+import java.util.Random;
+
+/**
+ * @author GraviteeSource Team
+ */
+final class FixedLatency implements Latency {
+
+    private final double millis;
+    private final long nanos;
+
+    FixedLatency(final double millis) {
+        if (millis < 0) {
+            throw new IllegalArgumentException("The latency can not be negative: " + millis);
+        }
+        this.millis = millis;
+        this.nanos = Math.round(millis * 1_000_000);
+    }
+
+    @Override
+    public long next(Random random) {
+        return nanos;
+    }
+
+    @Override
+    public String toString() {
+        return "fixed(" + millis + " ms)";
+    }
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.latency;
+
+import java.util.Random;
+
+/**
+ * Describes how long a call to a remote repository takes, e.g. the round trip to a database. Durations are given in
+ * milliseconds and sampled in nanoseconds.
+ *
+ * @author GraviteeSource Team
+ */
+public interface Latency {
+
+    /**
+     * Returns the duration, in nanoseconds, of the next call.
+     */
+    long next(Random random);
+
+    /**
+     * Every call takes the same time.
+     */
+    static Latency fixed(double millis) {
+        return new FixedLatency(millis);
+    }
+
+    /**
+     * Calls take {@code meanMillis} on average, following a normal distribution truncated at zero.
+     */
+    static Latency normal(double meanMillis, double stdDevMillis) {
+        return new NormalLatency(meanMillis, stdDevMillis);
+    }
+
+    /**
+     * Half the calls take less than {@code medianMillis} and one in a hundred more than {@code p99Millis}, following
+     * a log-normal distribution: most calls are fast, a few are very slow.
+     */
+    static Latency longTail(double medianMillis, double p99Millis) {
+        return new LongTailLatency(medianMillis, p99Millis);
+    }
+
+    /**
+     * Parses a latency written as {@code fixed:<millis>}, {@code normal:<mean>:<std dev>} or
+     * {@code longtail:<median>:<p99>}.
+     */
+    static Latency parse(String latency) {
+        final String[] parts = latency.trim().split(":");
+        try {
+            switch (parts[0].toLowerCase()) {
+                case "fixed":
+                    if (parts.length == 2) {
+                        return fixed(Double.parseDouble(parts[1]));
+                    }
+                    break;
+                case "normal":
+                    if (parts.length == 3) {
+                        return normal(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                    }
+                    break;
+                case "longtail":
+                    if (parts.length == 3) {
+                        return longTail(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+                    }
+                    break;
+                default:
+            }
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid latency: " + latency, e);
+        }
+        throw new IllegalArgumentException("Invalid latency, expecting fixed:<millis>, normal:<mean>:<std dev> or "
+                + "longtail:<median>:<p99>: " + latency);
+    }
+}
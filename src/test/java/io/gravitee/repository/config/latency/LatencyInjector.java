@@ -0,0 +1,218 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.latency;
+
+import io.gravitee.repository.config.RepositoryDecorator;
+import io.gravitee.repository.exceptions.TechnicalException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Makes repositories behave like a remote database: each call first waits for a sampled {@link Latency}, then fails
+ * with a given probability instead of reaching the repository. A failing method throws a {@link TechnicalException}
+ * when it declares one, an {@link IllegalStateException} otherwise.
+ *
+ * Latencies and failure rates are set for all the methods, for the methods of a given name ({@code findById}) or
+ * for the method of a given repository ({@code ApiRepository.findById}), the most specific setting winning.
+ *
+ * {@link #fromSystemProperties()} reads them from the {@value #LATENCY_PROPERTY} and {@value #FAILURE_RATE_PROPERTY}
+ * system properties, suffixed by {@code .<method>} or {@code .<Repository>.<method>} for a specific method, e.g.
+ * {@code -Drepository.latency=normal:2:0.5 -Drepository.latency.ApiRepository.search=longtail:5:200
+ * -Drepository.failureRate=0.001}. See {@link Latency#parse(String)} for the latency syntax.
+ *
+ * @author GraviteeSource Team
+ */
+public final class LatencyInjector implements RepositoryDecorator {
+
+    public static final String LATENCY_PROPERTY = "repository.latency";
+    public static final String FAILURE_RATE_PROPERTY = "repository.failureRate";
+
+    private static final String ALL_METHODS = "";
+
+    private final Map<String, Latency> latencies;
+    private final Map<String, Double> failureRates;
+
+    private LatencyInjector(final Builder builder) {
+        this.latencies = new HashMap<>(builder.latencies);
+        this.failureRates = new HashMap<>(builder.failureRates);
+    }
+
+    /**
+     * @return the injector configured by the system properties, or null when none of them is set
+     */
+    public static LatencyInjector fromSystemProperties() {
+        final Builder builder = new Builder();
+        boolean configured = false;
+        for (final String property : System.getProperties().stringPropertyNames()) {
+            final String value = System.getProperty(property);
+            if (property.equals(LATENCY_PROPERTY)) {
+                builder.latency(Latency.parse(value));
+            } else if (property.startsWith(LATENCY_PROPERTY + '.')) {
+                builder.latency(property.substring(LATENCY_PROPERTY.length() + 1), Latency.parse(value));
+            } else if (property.equals(FAILURE_RATE_PROPERTY)) {
+                builder.failureRate(Double.parseDouble(value));
+            } else if (property.startsWith(FAILURE_RATE_PROPERTY + '.')) {
+                builder.failureRate(property.substring(FAILURE_RATE_PROPERTY.length() + 1), Double.parseDouble(value));
+            } else {
+                continue;
+            }
+            configured = true;
+        }
+        return configured ? builder.build() : null;
+    }
+
+    @Override
+    public Object decorate(final Class<?> type, final Object repository) {
+        final Map<Method, Behaviour> behaviours = new HashMap<>();
+        for (final Method method : type.getMethods()) {
+            final Latency latency = mostSpecific(latencies, type, method);
+            final Double failureRate = mostSpecific(failureRates, type, method);
+            if (latency != null || failureRate != null) {
+                behaviours.put(method, new Behaviour(type, method, latency, failureRate == null ? 0 : failureRate));
+            }
+        }
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            final Behaviour behaviour = behaviours.get(method);
+            if (behaviour != null) {
+                behaviour.apply();
+            }
+            // CRUD methods are inherited from a package-private interface
+            method.setAccessible(true);
+            try {
+                return method.invoke(repository, args);
+            } catch (InvocationTargetException ite) {
+                throw ite.getCause();
+            }
+        });
+    }
+
+    private static <V> V mostSpecific(final Map<String, V> settings, final Class<?> type, final Method method) {
+        final V ofRepositoryMethod = settings.get(type.getSimpleName() + '.' + method.getName());
+        if (ofRepositoryMethod != null) {
+            return ofRepositoryMethod;
+        }
+        final V ofMethod = settings.get(method.getName());
+        return ofMethod != null ? ofMethod : settings.get(ALL_METHODS);
+    }
+
+    @Override
+    public String toString() {
+        final StringJoiner settings = new StringJoiner(", ", "injected ", "");
+        for (final Map.Entry<String, Latency> latency : new TreeMap<>(latencies).entrySet()) {
+            settings.add(describe(latency.getKey()) + " latency " + latency.getValue());
+        }
+        for (final Map.Entry<String, Double> failureRate : new TreeMap<>(failureRates).entrySet()) {
+            settings.add(describe(failureRate.getKey()) + " failure rate " + failureRate.getValue());
+        }
+        return settings.toString();
+    }
+
+    private static String describe(final String methods) {
+        return methods.equals(ALL_METHODS) ? "default" : methods;
+    }
+
+    private static final class Behaviour {
+
+        private final Class<?> type;
+        private final Method method;
+        private final Latency latency;
+        private final double failureRate;
+        private final boolean technicalFailure;
+
+        Behaviour(final Class<?> type, final Method method, final Latency latency, final double failureRate) {
+            this.type = type;
+            this.method = method;
+            this.latency = latency;
+            this.failureRate = failureRate;
+            this.technicalFailure = Arrays.asList(method.getExceptionTypes()).contains(TechnicalException.class);
+        }
+
+        void apply() throws TechnicalException {
+            final Random random = ThreadLocalRandom.current();
+            if (latency != null) {
+                pause(latency.next(random));
+            }
+            if (failureRate > 0 && random.nextDouble() < failureRate) {
+                final String message = "Injected failure of " + type.getSimpleName() + '.' + method.getName();
+                if (technicalFailure) {
+                    throw new TechnicalException(message);
+                }
+                throw new IllegalStateException(message);
+            }
+        }
+
+        private static void pause(final long nanos) {
+            // parking is finer grained than sleeping, which matters for sub-millisecond latencies
+            final long deadline = System.nanoTime() + nanos;
+            for (long remaining = nanos; remaining > 0; remaining = deadline - System.nanoTime()) {
+                LockSupport.parkNanos(remaining);
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    public static class Builder {
+
+        private final Map<String, Latency> latencies = new HashMap<>();
+        private final Map<String, Double> failureRates = new HashMap<>();
+
+        /**
+         * Sets the latency of all the methods without a more specific one.
+         */
+        public Builder latency(Latency latency) {
+            return latency(ALL_METHODS, latency);
+        }
+
+        /**
+         * Sets the latency of the methods of the given name ({@code findById}), or of the given method of a
+         * repository ({@code ApiRepository.findById}).
+         */
+        public Builder latency(String methods, Latency latency) {
+            latencies.put(methods, Objects.requireNonNull(latency));
+            return this;
+        }
+
+        /**
+         * Sets the probability, between 0 and 1, that a call of any method without a more specific one fails.
+         */
+        public Builder failureRate(double failureRate) {
+            return failureRate(ALL_METHODS, failureRate);
+        }
+
+        /**
+         * Sets the probability, between 0 and 1, that a call of the methods of the given name ({@code update}), or of
+         * the given method of a repository ({@code ApiRepository.update}), fails.
+         */
+        public Builder failureRate(String methods, double failureRate) {
+            if (failureRate < 0 || failureRate > 1) {
+                throw new IllegalArgumentException("The failure rate must be between 0 and 1: " + failureRate);
+            }
+            failureRates.put(methods, failureRate);
+            return this;
+        }
+
+        public LatencyInjector build() {
+            return new LatencyInjector(this);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.latency;
+
+import java.util.Random;
+
+/**
+ * Samples {@code exp(mu + sigma * z)} for a standard normal {@code z}: {@code mu} is set by the median and
+ * {@code sigma} by how far the 99th percentile is from it.
+ *
+ * @author GraviteeSource Team
+ */
+final class LongTailLatency implements Latency {
+
+    private static final double Z_99 = 2.3263478740408408;
+
+    private final double medianMillis;
+    private final double p99Millis;
+    private final double mu;
+    private final double sigma;
+
+    LongTailLatency(final double medianMillis, final double p99Millis) {
+        if (medianMillis <= 0 || p99Millis < medianMillis) {
+            throw new IllegalArgumentException("The median must be positive and the 99th percentile above it: "
+                    + medianMillis + ", " + p99Millis);
+        }
+        this.medianMillis = medianMillis;
+        this.p99Millis = p99Millis;
+        this.mu = Math.log(medianMillis);
+        this.sigma = Math.log(p99Millis / medianMillis) / Z_99;
+    }
+
+    @Override
+    public long next(Random random) {
+        return Math.round(Math.exp(mu + sigma * random.nextGaussian()) * 1_000_000);
+    }
+
+    @Override
+    public String toString() {
+        return "longtail(median " + medianMillis + " ms, p99 " + p99Millis + " ms)";
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.latency;
+
+import java.util.Random;
+
+/**
+ * @author GraviteeSource Team
+ */
+final class NormalLatency implements Latency {
+
+    private final double meanMillis;
+    private final double stdDevMillis;
+
+    NormalLatency(final double meanMillis, final double stdDevMillis) {
+        if (meanMillis < 0 || stdDevMillis < 0) {
+            throw new IllegalArgumentException(
+                    "The mean and the standard deviation can not be negative: " + meanMillis + ", " + stdDevMillis);
+        }
+        this.meanMillis = meanMillis;
+        this.stdDevMillis = stdDevMillis;
+    }
+
+    @Override
+    public long next(Random random) {
+        final double millis = meanMillis + random.nextGaussian() * stdDevMillis;
+        return Math.max(0, Math.round(millis * 1_000_000));
+    }
+
+    @Override
+    public String toString() {
+        return "normal(" + meanMillis + " ms, " + stdDevMillis + " ms)";
+    }
+}
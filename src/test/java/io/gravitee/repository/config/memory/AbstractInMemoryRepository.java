@@ -0,0 +1,358 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.common.data.domain.Page;
+import io.gravitee.repository.management.api.search.Pageable;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Collections.singleton;
+
+/**
+ * Base of the in-memory repositories: the items live in a concurrent map keyed by their id and are indexed by the
+ * {@link Index indexes}, {@link OrderedIndex ordered indexes}, {@link BitmapIndex bitmap indexes} and
+ * {@link MaxIndex max indexes} declared by the subclass. Writes are serialized on the repository while reads never
+ * lock: an update indexes the new version of an item before unindexing the previous one, so a lookup never misses
+ * it. Stored items are copies never handed out nor mutated: a write replaces them, and a read copies them.
+ *
+ * The id of every item written or removed is handed to the {@link #onChange listener}, once the write is done and
+ * while the repository is still locked; the state of the item then {@link #export exported} is what a persistent
+ * store keeps, and {@link #restore restores}. Each change also moves the {@link #version} of the repository.
+ *
+ * @author GraviteeSource Team
+ */
+public abstract class AbstractInMemoryRepository<T, ID> {
+
+    private final String type;
+    private final ConcurrentMap<ID, T> items = new ConcurrentHashMap<>();
+    private final List<SecondaryIndex<T>> indexes = new ArrayList<>();
+    private Slots<T> slots;
+    private volatile Consumer<ID> listener = id -> {
+    };
+    private volatile long version;
+
+    protected AbstractInMemoryRepository(final Class<T> type) {
+        this.type = type.getSimpleName();
+    }
+
+    protected abstract ID idOf(T item);
+
+    protected final <K> Index<T, K> index(final Function<T, K> key) {
+        return indexAll(item -> singleton(key.apply(item)));
+    }
+
+    protected final <K> Index<T, K> indexAll(final Function<T, Collection<K>> keys) {
+        final Index<T, K> index = new Index<>(keys);
+        indexes.add(index);
+        return index;
+    }
+
+    protected final <K> OrderedIndex<T, K> orderedIndex(final Function<T, K> key, final Function<T, Date> date) {
+        return orderedIndexAll(item -> singleton(key.apply(item)), date);
+    }
+
+    protected final <K> OrderedIndex<T, K> orderedIndexAll(final Function<T, Collection<K>> keys,
+                                                           final Function<T, Date> date) {
+        final OrderedIndex<T, K> index = new OrderedIndex<>(keys, date);
+        indexes.add(index);
+        return index;
+    }
+
+    protected final <K> MaxIndex<T, K> maxIndex(final Function<T, K> key, final Function<T, Integer> value) {
+        final MaxIndex<T, K> index = new MaxIndex<>(key, value);
+        indexes.add(index);
+        return index;
+    }
+
+    protected final <K> BitmapIndex<T, K> bitmapIndex(final Function<T, K> key) {
+        if (slots == null) {
+            // registered first, so that an item has its slot when the bitmaps are written
+            slots = new Slots<>();
+            indexes.add(0, slots);
+        }
+        final BitmapIndex<T, K> index = new BitmapIndex<>(item -> singleton(key.apply(item)), slots);
+        indexes.add(index);
+        return index;
+    }
+
+    protected Optional<T> find(final ID id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(items.get(id)).map(Copies::copy);
+    }
+
+    protected synchronized T insert(final T item) {
+        if (item == null) {
+            throw new IllegalStateException("Unable to create a null " + type);
+        }
+        final ID id = idOf(item);
+        if (items.containsKey(id)) {
+            throw new IllegalStateException(type + " [" + id + "] already exists");
+        }
+        final T stored = Copies.copy(item);
+        items.put(id, stored);
+        indexes.forEach(index -> index.add(id, stored));
+        changed(id);
+        return Copies.copy(stored);
+    }
+
+    protected synchronized T replace(final T item) {
+        if (item == null) {
+            throw new IllegalStateException("Unable to update a null " + type);
+        }
+        final ID id = idOf(item);
+        final T previous = id == null ? null : items.get(id);
+        if (previous == null) {
+            throw new IllegalStateException(type + " [" + id + "] does not exist");
+        }
+        final T stored = Copies.copy(item);
+        items.put(id, stored);
+        indexes.forEach(index -> index.update(id, previous, stored));
+        changed(id);
+        return Copies.copy(stored);
+    }
+
+    protected synchronized void remove(final ID id) {
+        final T previous = id == null ? null : items.remove(id);
+        if (previous != null) {
+            // in reverse, so that the slot of an item is released once its bitmaps no longer hold it
+            for (int i = indexes.size() - 1; i >= 0; i--) {
+                indexes.get(i).remove(id, previous);
+            }
+            changed(id);
+        }
+    }
+
+    /**
+     * Tells the listener the item of the given id changed apart from the stored item itself.
+     */
+    protected void changed(final ID id) {
+        // changes are made while the repository is locked
+        version++;
+        listener.accept(id);
+    }
+
+    /**
+     * The number of changes made to the repository, for a cache of its items to tell whether it was written since.
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Listens to the ids of the items written or removed, replacing the previous listener.
+     */
+    public void onChange(final Consumer<ID> listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * The item of the given id in the state to {@link #restore restore} it from, or empty once it has been removed.
+     */
+    public Optional<T> export(final ID id) {
+        return Optional.ofNullable(storedItem(id)).map(this::exported);
+    }
+
+    /**
+     * Every item in the state to {@link #restore restore} it from.
+     */
+    public Stream<T> export() {
+        return stored().map(this::exported);
+    }
+
+    /**
+     * A copy of the given stored item completed with what the repository holds apart from it.
+     */
+    protected T exported(final T stored) {
+        return Copies.copy(stored);
+    }
+
+    /**
+     * Stores the given {@link #export exported} item, whether an item of its id is already stored or not.
+     */
+    public synchronized void restore(final T item) {
+        if (storedItem(idOf(item)) == null) {
+            insert(item);
+        } else {
+            replace(item);
+        }
+    }
+
+    /**
+     * Removes the item of the given id, if any, with what the repository holds apart from it.
+     */
+    public synchronized void erase(final ID id) {
+        remove(id);
+    }
+
+    /**
+     * The stored item itself, or null when there is none, to be {@link #copy copied} before leaving the repository.
+     */
+    protected T storedItem(final ID id) {
+        return id == null ? null : items.get(id);
+    }
+
+    /**
+     * The stored items themselves, to be filtered then {@link #copy copied} before leaving the repository.
+     */
+    protected Stream<T> stored() {
+        return items.values().stream();
+    }
+
+    /**
+     * The stored items carrying the given key in the given index.
+     */
+    @SuppressWarnings("unchecked")
+    protected <K> Stream<T> stored(final Index<T, K> index, final K key) {
+        return index.ids(key).stream()
+                .map(id -> items.get((ID) id))
+                .filter(item -> item != null && index.matches(item, key));
+    }
+
+    /**
+     * The stored items carrying all the given keys in the given index, read from the key the fewest items carry. The
+     * items are not checked to still carry the keys, so this is for callers checking a condition implying them.
+     */
+    @SuppressWarnings("unchecked")
+    protected <K> Stream<T> storedWithAll(final Index<T, K> index, final Collection<K> keys) {
+        final List<Set<Object>> ids = new ArrayList<>(keys.size());
+        for (final K key : new LinkedHashSet<>(keys)) {
+            ids.add(index.ids(key));
+        }
+        if (ids.isEmpty()) {
+            return Stream.empty();
+        }
+        ids.sort(Comparator.comparingInt(Set::size));
+        final List<Set<Object>> others = ids.subList(1, ids.size());
+        return ids.get(0).stream()
+                .filter(id -> others.stream().allMatch(other -> other.contains(id)))
+                .map(id -> items.get((ID) id))
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * The stored items carrying any of the given keys in the given index, each one once.
+     */
+    protected <K> Stream<T> stored(final Index<T, K> index, final Collection<K> keys) {
+        final Map<ID, T> found = new LinkedHashMap<>();
+        for (final K key : new LinkedHashSet<>(keys)) {
+            stored(index, key).forEach(item -> found.putIfAbsent(idOf(item), item));
+        }
+        return found.values().stream();
+    }
+
+    /**
+     * The stored items carrying any of the given keys in the given ordered index and dated within the bounds, newest
+     * first and each one once, read lazily from the index. An item updated meanwhile may still be found under the
+     * keys it no longer carries, so callers check the items against the criteria the index does not answer.
+     */
+    protected <K> Stream<T> stored(final OrderedIndex<T, K> index, final Collection<K> keys,
+                                   final long from, final long to) {
+        final Iterator<OrderedIndex.Entry> entries = index.newestFirst(keys, from, to);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(entries, Spliterator.ORDERED), false)
+                .map(entry -> current(index, entry))
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * The stored items found, for each of the given groups of {@link BitmapIndex#any bitmaps}, in any bitmap of the
+     * group. A slot may be reused meanwhile, so callers still check the items against their criteria.
+     */
+    @SuppressWarnings("unchecked")
+    protected Stream<T> stored(final List<List<Bitmap>> groups) {
+        return Arrays.stream(Bitmap.select(groups))
+                .mapToObj(slot -> {
+                    final Object id = slots.idAt(slot);
+                    return id == null ? null : items.get((ID) id);
+                })
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * The requested page of the stored items carrying any of the given keys in the given ordered index and dated
+     * within the bounds, newest first, for a criteria the index fully answers and keys no item shares: the ids before
+     * the page are skipped and the total is counted by the index, so that only the items of the page are read.
+     */
+    protected <K> Page<T> page(final OrderedIndex<T, K> index, final Collection<K> keys,
+                               final long from, final long to, final Pageable pageable) {
+        final long total = index.count(keys, from, to);
+        final Iterator<OrderedIndex.Entry> entries = index.newestFirst(keys, from, to);
+        long skipped = pageable == null ? 0 : Pages.offset(pageable);
+        while (skipped-- > 0 && entries.hasNext()) {
+            entries.next();
+        }
+        final int size = pageable == null ? Integer.MAX_VALUE : pageable.pageSize();
+        final List<T> content = new ArrayList<>();
+        while (content.size() < size && entries.hasNext()) {
+            final T item = current(index, entries.next());
+            if (item != null) {
+                content.add(Copies.copy(item));
+            }
+        }
+        return new Page<>(content, pageable == null ? 0 : pageable.pageNumber(), content.size(), total);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T current(final OrderedIndex<T, ?> index, final OrderedIndex.Entry entry) {
+        final T item = items.get((ID) entry.id());
+        return item != null && index.isCurrent(entry, item) ? item : null;
+    }
+
+    protected static <T> T copy(final T item) {
+        return Copies.copy(item);
+    }
+
+    protected static <T> List<T> toList(final Stream<T> items) {
+        return items.map(Copies::copy).collect(Collectors.toList());
+    }
+
+    protected static <T> Set<T> toSet(final Stream<T> items) {
+        return items.map(Copies::copy).collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * A composite id, for the models identified by several of their fields.
+     */
+    protected static List<Object> key(final Object... parts) {
+        return Collections.unmodifiableList(Arrays.asList(parts));
+    }
+
+    /**
+     * Whether the date lies within the bounds of a search criteria, where a bound of 0 means none.
+     */
+    protected static boolean between(final Date date, final long from, final long to) {
+        if (from <= 0 && to <= 0) {
+            return true;
+        }
+        return date != null && (from <= 0 || date.getTime() >= from) && (to <= 0 || date.getTime() <= to);
+    }
+
+    public int size() {
+        return items.size();
+    }
+
+    public synchronized void clear() {
+        items.clear();
+        indexes.forEach(SecondaryIndex::clear);
+        version++;
+    }
+}
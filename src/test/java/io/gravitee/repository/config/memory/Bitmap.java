@@ -0,0 +1,285 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A compressed bitmap of non-negative ints, after Roaring: the ints are split in chunks of 65536 by their high bits,
+ * each chunk holding its low bits either in a sorted array while it has at most {@value #MAX_ARRAY} of them, or in a
+ * bitmap of 1024 words beyond. Writes are expected to be serialized by the owner of the bitmap, while reads never
+ * lock: an array chunk is replaced on each write and a bitmap chunk is written word by word atomically, so a
+ * concurrent read sees each int either before or after its write.
+ *
+ * @author GraviteeSource Team
+ */
+final class Bitmap {
+
+    private static final int MAX_ARRAY = 4096;
+    private static final int WORDS = 1024;
+
+    private volatile Chunk[] chunks = new Chunk[0];
+    private volatile int cardinality;
+
+    void add(final int value) {
+        final int high = value >>> 16;
+        final Chunk[] current = chunks;
+        final Chunk chunk = high < current.length ? current[high] : null;
+        if (chunk == null || !chunk.contains((char) value)) {
+            publish(high, chunk == null ? new ArrayChunk(new char[]{(char) value}) : chunk.add((char) value), chunk);
+            cardinality++;
+        }
+    }
+
+    void remove(final int value) {
+        final int high = value >>> 16;
+        final Chunk[] current = chunks;
+        final Chunk chunk = high < current.length ? current[high] : null;
+        if (chunk != null && chunk.contains((char) value)) {
+            publish(high, chunk.remove((char) value), chunk);
+            cardinality--;
+        }
+    }
+
+    boolean isEmpty() {
+        return cardinality == 0;
+    }
+
+    private void publish(final int high, final Chunk updated, final Chunk previous) {
+        if (updated != previous) {
+            final Chunk[] current = chunks;
+            final Chunk[] copy = Arrays.copyOf(current, Math.max(current.length, high + 1));
+            copy[high] = updated;
+            chunks = copy;
+        }
+    }
+
+    /**
+     * The ints found, for each of the given groups of bitmaps, in any bitmap of the group, in ascending order. The
+     * smallest groups are read first, so that the chunks they leave empty are not read in the others, and a group
+     * whose bitmaps cost more to read than the ints of the smallest group is not read at all: callers check the ints
+     * selected against their whole criteria anyway.
+     */
+    static int[] select(final List<List<Bitmap>> selection) {
+        final List<List<Bitmap>> groups = new ArrayList<>(selection);
+        groups.sort(Comparator.comparingLong(Bitmap::cardinality));
+        final int highs = highs(groups);
+        if (!groups.isEmpty()) {
+            final long smallest = cardinality(groups.get(0));
+            for (int i = groups.size() - 1; i > 0; i--) {
+                if ((long) groups.get(i).size() * highs > smallest) {
+                    groups.remove(i);
+                }
+            }
+        }
+        int[] found = new int[16];
+        int size = 0;
+        for (int high = 0; high < highs; high++) {
+            long[] words = null;
+            for (final List<Bitmap> group : groups) {
+                final long[] any = union(group, high);
+                if (any == null) {
+                    words = null;
+                    break;
+                }
+                if (words == null) {
+                    words = any;
+                } else {
+                    for (int i = 0; i < WORDS; i++) {
+                        words[i] &= any[i];
+                    }
+                }
+            }
+            if (words == null) {
+                continue;
+            }
+            for (int i = 0; i < WORDS; i++) {
+                for (long word = words[i]; word != 0; word &= word - 1) {
+                    if (size == found.length) {
+                        found = Arrays.copyOf(found, size * 2);
+                    }
+                    found[size++] = high << 16 | i << 6 | Long.numberOfTrailingZeros(word);
+                }
+            }
+        }
+        return Arrays.copyOf(found, size);
+    }
+
+    private static long cardinality(final List<Bitmap> group) {
+        long cardinality = 0;
+        for (final Bitmap bitmap : group) {
+            cardinality += bitmap.cardinality;
+        }
+        return cardinality;
+    }
+
+    /**
+     * The number of chunks to look at: no int lies beyond the last chunk of the narrowest group.
+     */
+    private static int highs(final List<List<Bitmap>> groups) {
+        int highs = groups.isEmpty() ? 0 : Integer.MAX_VALUE;
+        for (final List<Bitmap> group : groups) {
+            int groupHighs = 0;
+            for (final Bitmap bitmap : group) {
+                groupHighs = Math.max(groupHighs, bitmap.chunks.length);
+            }
+            highs = Math.min(highs, groupHighs);
+        }
+        return highs;
+    }
+
+    private static long[] union(final List<Bitmap> bitmaps, final int high) {
+        long[] words = null;
+        for (final Bitmap bitmap : bitmaps) {
+            final Chunk[] chunks = bitmap.chunks;
+            final Chunk chunk = high < chunks.length ? chunks[high] : null;
+            if (chunk != null) {
+                if (words == null) {
+                    words = new long[WORDS];
+                }
+                chunk.orInto(words);
+            }
+        }
+        return words;
+    }
+
+    private interface Chunk {
+
+        boolean contains(char value);
+
+        /**
+         * @return the chunk holding the value, this one or a new one
+         */
+        Chunk add(char value);
+
+        /**
+         * @return the chunk not holding the value, this one, a new one or null when empty
+         */
+        Chunk remove(char value);
+
+        void orInto(long[] words);
+    }
+
+    private static final class ArrayChunk implements Chunk {
+
+        private final char[] values;
+
+        ArrayChunk(final char[] values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean contains(final char value) {
+            return Arrays.binarySearch(values, value) >= 0;
+        }
+
+        @Override
+        public Chunk add(final char value) {
+            final int index = Arrays.binarySearch(values, value);
+            if (index >= 0) {
+                return this;
+            }
+            if (values.length == MAX_ARRAY) {
+                final BitmapChunk bitmap = new BitmapChunk();
+                for (final char current : values) {
+                    bitmap.add(current);
+                }
+                return bitmap.add(value);
+            }
+            final int insertion = -index - 1;
+            final char[] added = new char[values.length + 1];
+            System.arraycopy(values, 0, added, 0, insertion);
+            added[insertion] = value;
+            System.arraycopy(values, insertion, added, insertion + 1, values.length - insertion);
+            return new ArrayChunk(added);
+        }
+
+        @Override
+        public Chunk remove(final char value) {
+            final int index = Arrays.binarySearch(values, value);
+            if (index < 0) {
+                return this;
+            }
+            if (values.length == 1) {
+                return null;
+            }
+            final char[] removed = new char[values.length - 1];
+            System.arraycopy(values, 0, removed, 0, index);
+            System.arraycopy(values, index + 1, removed, index, values.length - index - 1);
+            return new ArrayChunk(removed);
+        }
+
+        @Override
+        public void orInto(final long[] words) {
+            for (final char value : values) {
+                words[value >>> 6] |= 1L << value;
+            }
+        }
+    }
+
+    private static final class BitmapChunk implements Chunk {
+
+        private final AtomicLongArray words = new AtomicLongArray(WORDS);
+        private int cardinality;
+
+        @Override
+        public boolean contains(final char value) {
+            return (words.get(value >>> 6) & 1L << value) != 0;
+        }
+
+        @Override
+        public Chunk add(final char value) {
+            final long word = words.get(value >>> 6);
+            if ((word & 1L << value) == 0) {
+                words.set(value >>> 6, word | 1L << value);
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        public Chunk remove(final char value) {
+            final long word = words.get(value >>> 6);
+            if ((word & 1L << value) == 0) {
+                return this;
+            }
+            words.set(value >>> 6, word & ~(1L << value));
+            if (--cardinality > MAX_ARRAY / 2) {
+                return this;
+            }
+            // back to an array well below its limit, so that a chunk around the limit does not convert on each write
+            final char[] values = new char[cardinality];
+            int size = 0;
+            for (int i = 0; i < WORDS; i++) {
+                for (long current = words.get(i); current != 0; current &= current - 1) {
+                    values[size++] = (char) (i << 6 | Long.numberOfTrailingZeros(current));
+                }
+            }
+            return new ArrayChunk(values);
+        }
+
+        @Override
+        public void orInto(final long[] into) {
+            for (int i = 0; i < WORDS; i++) {
+                into[i] |= words.get(i);
+            }
+        }
+    }
+}
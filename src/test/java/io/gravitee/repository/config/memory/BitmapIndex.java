@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * A secondary index mapping each key extracted from a stored item to a {@link Bitmap} of the {@link Slots slots} of
+ * the items carrying it, so that criteria over several indexes are answered by unions and intersections of bitmaps
+ * rather than by filtering items. Lookups are lock-free and may be briefly stale, so callers check the items they
+ * resolve.
+ *
+ * @author GraviteeSource Team
+ */
+public final class BitmapIndex<T, K> implements SecondaryIndex<T> {
+
+    private final Function<T, Collection<K>> keys;
+    private final Slots<T> slots;
+    private final ConcurrentMap<K, Bitmap> bitmaps = new ConcurrentHashMap<>();
+
+    BitmapIndex(final Function<T, Collection<K>> keys, final Slots<T> slots) {
+        this.keys = keys;
+        this.slots = slots;
+    }
+
+    @Override
+    public void add(final Object id, final T item) {
+        final int slot = slots.slotOf(id);
+        for (final K key : keysOf(item)) {
+            if (key != null) {
+                bitmaps.computeIfAbsent(key, k -> new Bitmap()).add(slot);
+            }
+        }
+    }
+
+    @Override
+    public void remove(final Object id, final T item) {
+        remove(slots.slotOf(id), keysOf(item), Collections.emptySet());
+    }
+
+    @Override
+    public void update(final Object id, final T previous, final T current) {
+        add(id, current);
+        remove(slots.slotOf(id), keysOf(previous), keysOf(current));
+    }
+
+    private void remove(final int slot, final Collection<K> keys, final Collection<K> kept) {
+        for (final K key : keys) {
+            if (key != null && !kept.contains(key)) {
+                bitmaps.computeIfPresent(key, (k, bitmap) -> {
+                    bitmap.remove(slot);
+                    return bitmap.isEmpty() ? null : bitmap;
+                });
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        bitmaps.clear();
+    }
+
+    /**
+     * The bitmaps of the given keys, to be selected with {@link AbstractInMemoryRepository#stored(List)}.
+     */
+    List<Bitmap> any(final Collection<K> keys) {
+        final List<Bitmap> found = new ArrayList<>(keys.size());
+        for (final K key : new LinkedHashSet<>(keys)) {
+            final Bitmap bitmap = key == null ? null : bitmaps.get(key);
+            if (bitmap != null) {
+                found.add(bitmap);
+            }
+        }
+        return found;
+    }
+
+    private Collection<K> keysOf(final T item) {
+        final Collection<K> found = keys.apply(item);
+        return found == null ? Collections.emptySet() : found;
+    }
+}
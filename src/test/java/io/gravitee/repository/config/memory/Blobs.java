@@ -0,0 +1,112 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A content-addressed store of binary contents held in direct buffers, outside of the heap. A content is stored once
+ * whatever the number of times it is put, under the SHA-256 digest of its bytes, and counts the references to it: it
+ * is dropped, and its buffer left to the garbage collector, once each put has been released. Writes are expected to
+ * be serialized by the owner of the store, while reads never lock.
+ *
+ * @author GraviteeSource Team
+ */
+final class Blobs {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final ConcurrentMap<String, ByteBuffer> blobs = new ConcurrentHashMap<>();
+    private final Map<String, Integer> references = new HashMap<>();
+    private volatile long bytes;
+
+    /**
+     * Stores the content unless already stored, adding a reference to it.
+     *
+     * @return the address of the content
+     */
+    String put(final byte[] content) {
+        final String address = digest(content);
+        if (!blobs.containsKey(address)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(content.length);
+            buffer.put(content).flip();
+            blobs.put(address, buffer);
+            bytes += content.length;
+        }
+        references.merge(address, 1, Integer::sum);
+        return address;
+    }
+
+    /**
+     * Releases a reference to the content stored at the given address, dropping it with the last one.
+     */
+    void release(final String address) {
+        if (address == null || !references.containsKey(address)) {
+            return;
+        }
+        if (references.computeIfPresent(address, (key, count) -> count == 1 ? null : count - 1) == null) {
+            bytes -= blobs.remove(address).capacity();
+        }
+    }
+
+    /**
+     * A heap copy of the content stored at the given address, or null when there is none.
+     */
+    byte[] get(final String address) {
+        final ByteBuffer blob = address == null ? null : blobs.get(address);
+        if (blob == null) {
+            return null;
+        }
+        // a duplicate has its own position, so concurrent reads do not interfere
+        final ByteBuffer buffer = blob.duplicate();
+        final byte[] content = new byte[buffer.remaining()];
+        buffer.get(content);
+        return content;
+    }
+
+    void clear() {
+        blobs.clear();
+        references.clear();
+        bytes = 0;
+    }
+
+    /**
+     * The number of bytes held off the heap.
+     */
+    long bytes() {
+        return bytes;
+    }
+
+    private static String digest(final byte[] content) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            final char[] hex = new char[digest.length * 2];
+            for (int i = 0; i < digest.length; i++) {
+                hex[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+                hex[i * 2 + 1] = HEX[digest[i] & 0xF];
+            }
+            return new String(hex);
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
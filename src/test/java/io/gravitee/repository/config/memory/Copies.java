@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deep copies of the repository models, so that neither the caller of a write nor the caller of a read keeps a
+ * reference on a stored instance. Collections are copied preserving their iteration order.
+ *
+ * @author GraviteeSource Team
+ */
+public final class Copies {
+
+    private static final Map<Class<?>, Constructor<?>> CONSTRUCTORS = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<>();
+
+    private Copies() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T copy(final T value) {
+        if (value == null || value instanceof String || value instanceof Number || value instanceof Boolean
+                || value instanceof Character || value instanceof Enum) {
+            return value;
+        }
+        if (value instanceof Date) {
+            return (T) new Date(((Date) value).getTime());
+        }
+        if (value.getClass().isArray()) {
+            return (T) copyArray(value);
+        }
+        if (value instanceof List) {
+            final List<Object> list = new ArrayList<>(((List<?>) value).size());
+            for (final Object element : (List<?>) value) {
+                list.add(copy(element));
+            }
+            return (T) list;
+        }
+        if (value instanceof Set) {
+            final Set<Object> set = new LinkedHashSet<>();
+            for (final Object element : (Set<?>) value) {
+                set.add(copy(element));
+            }
+            return (T) set;
+        }
+        if (value instanceof Map) {
+            final Map<Object, Object> map = new LinkedHashMap<>();
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                map.put(entry.getKey(), copy(entry.getValue()));
+            }
+            return (T) map;
+        }
+        return copyBean(value);
+    }
+
+    private static Object copyArray(final Object array) {
+        final int length = Array.getLength(array);
+        final Class<?> componentType = array.getClass().getComponentType();
+        final Object copy = Array.newInstance(componentType, length);
+        if (componentType.isPrimitive()) {
+            System.arraycopy(array, 0, copy, 0, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                Array.set(copy, i, copy(Array.get(array, i)));
+            }
+        }
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T copyBean(final T value) {
+        final Class<?> type = value.getClass();
+        try {
+            final T copy = (T) CONSTRUCTORS.computeIfAbsent(type, Copies::constructor).newInstance();
+            for (final Field field : FIELDS.computeIfAbsent(type, Copies::fields)) {
+                field.set(copy, copy(field.get(value)));
+            }
+            return copy;
+        } catch (final ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to copy an instance of " + type.getName(), e);
+        }
+    }
+
+    private static Constructor<?> constructor(final Class<?> type) {
+        try {
+            final Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (final NoSuchMethodException e) {
+            throw new IllegalStateException(type.getName() + " has no default constructor", e);
+        }
+    }
+
+    private static Field[] fields(final Class<?> type) {
+        final List<Field> fields = new ArrayList<>();
+        for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+            for (final Field field : current.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers())) {
+                    field.setAccessible(true);
+                    fields.add(field);
+                }
+            }
+        }
+        return fields.toArray(new Field[0]);
+    }
+}
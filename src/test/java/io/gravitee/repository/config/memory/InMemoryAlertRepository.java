@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.AlertRepository;
+import io.gravitee.repository.management.model.Alert;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryAlertRepository extends AbstractInMemoryRepository<Alert, String> implements AlertRepository {
+
+    private final Index<Alert, List<Object>> byReference;
+
+    public InMemoryAlertRepository() {
+        super(Alert.class);
+        byReference = index(alert -> key(alert.getReferenceType(), alert.getReferenceId()));
+    }
+
+    @Override
+    protected String idOf(final Alert alert) {
+        return alert.getId();
+    }
+
+    @Override
+    public Optional<Alert> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public Alert create(final Alert alert) {
+        return insert(alert);
+    }
+
+    @Override
+    public Alert update(final Alert alert) {
+        return replace(alert);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+
+    @Override
+    public Set<Alert> findAll() {
+        return toSet(stored());
+    }
+
+    @Override
+    public List<Alert> findByReference(final String referenceType, final String referenceId) {
+        return toList(stored(byReference, key(referenceType, referenceId)));
+    }
+}
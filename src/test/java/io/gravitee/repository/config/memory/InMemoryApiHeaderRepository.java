@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.ApiHeaderRepository;
+import io.gravitee.repository.management.model.ApiHeader;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryApiHeaderRepository extends AbstractInMemoryRepository<ApiHeader, String> implements ApiHeaderRepository {
+
+    public InMemoryApiHeaderRepository() {
+        super(ApiHeader.class);
+    }
+
+    @Override
+    protected String idOf(final ApiHeader apiHeader) {
+        return apiHeader.getId();
+    }
+
+    @Override
+    public Optional<ApiHeader> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public ApiHeader create(final ApiHeader apiHeader) {
+        return insert(apiHeader);
+    }
+
+    @Override
+    public ApiHeader update(final ApiHeader apiHeader) {
+        return replace(apiHeader);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+
+    @Override
+    public Set<ApiHeader> findAll() {
+        return toSet(stored());
+    }
+}
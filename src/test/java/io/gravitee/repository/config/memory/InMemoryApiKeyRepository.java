@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.ApiKeyRepository;
+import io.gravitee.repository.management.api.search.ApiKeyCriteria;
+import io.gravitee.repository.management.model.ApiKey;
+
+import java.util.*;
+
+/**
+ * Api keys are stored by key, indexed by subscription, and indexed last updated first by revocation and by plan and
+ * revocation, so that a criteria search is answered by merging the ranges of its plans. Reads never lock.
+ *
+ * @author GraviteeSource Team
+ */
+public class InMemoryApiKeyRepository extends AbstractInMemoryRepository<ApiKey, String> implements ApiKeyRepository {
+
+    private static final List<Boolean> NOT_REVOKED = Collections.singletonList(false);
+    private static final List<Boolean> ANY_REVOCATION = Arrays.asList(false, true);
+
+    private final Index<ApiKey, String> bySubscription;
+    private final OrderedIndex<ApiKey, Boolean> byRevoked;
+    private final OrderedIndex<ApiKey, List<Object>> byPlanAndRevoked;
+
+    public InMemoryApiKeyRepository() {
+        super(ApiKey.class);
+        bySubscription = index(ApiKey::getSubscription);
+        byRevoked = orderedIndex(ApiKey::isRevoked, ApiKey::getUpdatedAt);
+        byPlanAndRevoked = orderedIndex(apiKey -> key(apiKey.getPlan(), apiKey.isRevoked()), ApiKey::getUpdatedAt);
+    }
+
+    @Override
+    protected String idOf(final ApiKey apiKey) {
+        return apiKey.getKey();
+    }
+
+    @Override
+    public Optional<ApiKey> findById(final String key) {
+        return find(key);
+    }
+
+    @Override
+    public ApiKey create(final ApiKey apiKey) {
+        return insert(apiKey);
+    }
+
+    @Override
+    public ApiKey update(final ApiKey apiKey) {
+        return replace(apiKey);
+    }
+
+    @Override
+    public Set<ApiKey> findBySubscription(final String subscription) {
+        return toSet(stored(bySubscription, subscription));
+    }
+
+    @Override
+    public Set<ApiKey> findByPlan(final String plan) {
+        return toSet(stored(byPlanAndRevoked, plans(Collections.singleton(plan), ANY_REVOCATION), 0, 0));
+    }
+
+    @Override
+    public List<ApiKey> findByCriteria(final ApiKeyCriteria criteria) {
+        final List<Boolean> revocations = criteria.isIncludeRevoked() ? ANY_REVOCATION : NOT_REVOKED;
+        if (criteria.getPlans() == null || criteria.getPlans().isEmpty()) {
+            return toList(stored(byRevoked, revocations, criteria.getFrom(), criteria.getTo()));
+        }
+        return toList(stored(byPlanAndRevoked, plans(criteria.getPlans(), revocations),
+                criteria.getFrom(), criteria.getTo()));
+    }
+
+    private static List<List<Object>> plans(final Collection<String> plans, final List<Boolean> revocations) {
+        final List<List<Object>> keys = new ArrayList<>(plans.size() * revocations.size());
+        for (final String plan : plans) {
+            for (final Boolean revoked : revocations) {
+                keys.add(key(plan, revoked));
+            }
+        }
+        return keys;
+    }
+}
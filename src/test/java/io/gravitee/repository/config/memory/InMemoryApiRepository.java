@@ -0,0 +1,139 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.common.data.domain.Page;
+import io.gravitee.repository.management.api.ApiRepository;
+import io.gravitee.repository.management.api.search.ApiCriteria;
+import io.gravitee.repository.management.api.search.ApiFieldExclusionFilter;
+import io.gravitee.repository.management.api.search.Pageable;
+import io.gravitee.repository.management.model.Api;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsLast;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryApiRepository extends AbstractInMemoryRepository<Api, String> implements ApiRepository {
+
+    private static final Comparator<Api> BY_NAME = comparing(Api::getName, nullsLast(String.CASE_INSENSITIVE_ORDER))
+            .thenComparing(Api::getId, nullsLast(naturalOrder()));
+
+    private final Index<Api, String> byGroup;
+    private final Index<Api, String> byView;
+    private final Index<Api, String> byLabel;
+
+    public InMemoryApiRepository() {
+        super(Api.class);
+        byGroup = indexAll(Api::getGroups);
+        byView = indexAll(Api::getViews);
+        byLabel = indexAll(Api::getLabels);
+    }
+
+    @Override
+    protected String idOf(final Api api) {
+        return api.getId();
+    }
+
+    @Override
+    public Optional<Api> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public Api create(final Api api) {
+        return insert(api);
+    }
+
+    @Override
+    public Api update(final Api api) {
+        return replace(api);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+
+    @Override
+    public Page<Api> search(final ApiCriteria criteria, final Pageable pageable) {
+        return Pages.of(search(criteria), pageable);
+    }
+
+    @Override
+    public List<Api> search(final ApiCriteria criteria) {
+        return toList(candidates(criteria).filter(api -> matches(api, criteria)).sorted(BY_NAME));
+    }
+
+    @Override
+    public List<Api> search(final ApiCriteria criteria, final ApiFieldExclusionFilter filter) {
+        final List<Api> apis = search(criteria);
+        if (filter != null) {
+            for (final Api api : apis) {
+                if (filter.isDefinition()) {
+                    api.setDefinition(null);
+                }
+                if (filter.isPicture()) {
+                    api.setPicture(null);
+                }
+            }
+        }
+        return apis;
+    }
+
+    private Stream<Api> candidates(final ApiCriteria criteria) {
+        if (criteria == null) {
+            return stored();
+        }
+        if (criteria.getIds() != null && !criteria.getIds().isEmpty()) {
+            return criteria.getIds().stream().distinct().map(this::find).filter(Optional::isPresent).map(Optional::get);
+        }
+        if (criteria.getGroups() != null && !criteria.getGroups().isEmpty()) {
+            return stored(byGroup, criteria.getGroups());
+        }
+        if (criteria.getView() != null) {
+            return stored(byView, criteria.getView());
+        }
+        if (criteria.getLabel() != null) {
+            return stored(byLabel, criteria.getLabel());
+        }
+        return stored();
+    }
+
+    private static boolean matches(final Api api, final ApiCriteria criteria) {
+        if (criteria == null) {
+            return true;
+        }
+        return (criteria.getIds() == null || criteria.getIds().isEmpty() || criteria.getIds().contains(api.getId()))
+                && (criteria.getGroups() == null || criteria.getGroups().isEmpty()
+                        || (api.getGroups() != null && api.getGroups().stream().anyMatch(criteria.getGroups()::contains)))
+                && (criteria.getView() == null || (api.getViews() != null && api.getViews().contains(criteria.getView())))
+                && (criteria.getLabel() == null || (api.getLabels() != null && api.getLabels().contains(criteria.getLabel())))
+                && (criteria.getState() == null || criteria.getState() == api.getLifecycleState())
+                && (criteria.getVisibility() == null || criteria.getVisibility() == api.getVisibility())
+                && (criteria.getVersion() == null || criteria.getVersion().equals(api.getVersion()))
+                && (criteria.getName() == null || criteria.getName().equals(api.getName()))
+                && (criteria.getLifecycleStates() == null || criteria.getLifecycleStates().isEmpty()
+                        || criteria.getLifecycleStates().contains(api.getApiLifecycleState()));
+    }
+}
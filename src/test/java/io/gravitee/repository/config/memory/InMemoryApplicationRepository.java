@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.ApplicationRepository;
+import io.gravitee.repository.management.model.Application;
+import io.gravitee.repository.management.model.ApplicationStatus;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Applications are indexed by status, by group and by group and status, and by the trigrams of their lower-cased
+ * name: a name containing a string contains all of its trigrams, so {@link #findByName} only checks the applications
+ * carrying all of them. Strings shorter than a trigram are looked for in all the applications.
+ *
+ * @author GraviteeSource Team
+ */
+public class InMemoryApplicationRepository extends AbstractInMemoryRepository<Application, String>
+        implements ApplicationRepository {
+
+    private static final int GRAM = 3;
+
+    private final Index<Application, ApplicationStatus> byStatus;
+    private final Index<Application, String> byGroup;
+    private final Index<Application, List<Object>> byGroupAndStatus;
+    private final Index<Application, String> byTrigram;
+
+    public InMemoryApplicationRepository() {
+        super(Application.class);
+        byStatus = index(Application::getStatus);
+        byGroup = indexAll(Application::getGroups);
+        byGroupAndStatus = indexAll(application -> groupsAndStatus(application.getGroups(), application.getStatus()));
+        byTrigram = indexAll(application -> trigrams(application.getName()));
+    }
+
+    private static List<List<Object>> groupsAndStatus(final Collection<String> groups,
+                                                      final ApplicationStatus... statuses) {
+        if (groups == null) {
+            return Collections.emptyList();
+        }
+        final List<List<Object>> keys = new ArrayList<>(groups.size() * statuses.length);
+        for (final String group : groups) {
+            for (final ApplicationStatus status : statuses) {
+                keys.add(key(group, status));
+            }
+        }
+        return keys;
+    }
+
+    private static Set<String> trigrams(final String name) {
+        if (name == null || name.length() < GRAM) {
+            return Collections.emptySet();
+        }
+        final String lowerCased = name.toLowerCase(Locale.ROOT);
+        final Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + GRAM <= lowerCased.length(); i++) {
+            trigrams.add(lowerCased.substring(i, i + GRAM));
+        }
+        return trigrams;
+    }
+
+    @Override
+    protected String idOf(final Application application) {
+        return application.getId();
+    }
+
+    @Override
+    public Optional<Application> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public Application create(final Application application) {
+        return insert(application);
+    }
+
+    @Override
+    public Application update(final Application application) {
+        return replace(application);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+
+    @Override
+    public Set<Application> findAll(final ApplicationStatus... statuses) {
+        if (statuses == null || statuses.length == 0) {
+            return toSet(stored());
+        }
+        return toSet(stored(byStatus, Arrays.asList(statuses)));
+    }
+
+    @Override
+    public Set<Application> findByIds(final List<String> ids) {
+        return ids == null ? Collections.emptySet() : toSet(ids.stream().distinct().map(this::find)
+                .filter(Optional::isPresent)
+                .map(Optional::get));
+    }
+
+    @Override
+    public Set<Application> findByGroups(final List<String> groups, final ApplicationStatus... statuses) {
+        if (groups == null) {
+            return Collections.emptySet();
+        }
+        if (statuses == null || statuses.length == 0) {
+            return toSet(stored(byGroup, groups));
+        }
+        return toSet(stored(byGroupAndStatus, groupsAndStatus(groups, statuses)));
+    }
+
+    @Override
+    public Set<Application> findByName(final String partialName) {
+        if (partialName == null) {
+            return Collections.emptySet();
+        }
+        final String wanted = partialName.toLowerCase(Locale.ROOT);
+        final Set<String> trigrams = trigrams(wanted);
+        final Stream<Application> candidates = trigrams.isEmpty() ? stored() : storedWithAll(byTrigram, trigrams);
+        return toSet(candidates.filter(application -> application.getName() != null
+                && application.getName().toLowerCase(Locale.ROOT).contains(wanted)));
+    }
+}
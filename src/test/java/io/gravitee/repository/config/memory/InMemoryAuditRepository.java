@@ -0,0 +1,132 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.common.data.domain.Page;
+import io.gravitee.repository.management.api.AuditRepository;
+import io.gravitee.repository.management.api.search.AuditCriteria;
+import io.gravitee.repository.management.api.search.Pageable;
+import io.gravitee.repository.management.model.Audit;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Audits are indexed newest created first, globally, by reference, by event and by reference and event, so that a
+ * search without properties is fully answered by one index and its page reached by walking the index ids only.
+ * A search with properties walks the most selective of these indexes and checks the whole criteria on each audit.
+ *
+ * @author GraviteeSource Team
+ */
+public class InMemoryAuditRepository extends AbstractInMemoryRepository<Audit, String> implements AuditRepository {
+
+    private static final Boolean ALL = Boolean.TRUE;
+
+    private final OrderedIndex<Audit, Boolean> byCreatedAt;
+    private final OrderedIndex<Audit, List<Object>> byReference;
+    private final OrderedIndex<Audit, String> byEvent;
+    private final OrderedIndex<Audit, List<Object>> byReferenceAndEvent;
+
+    public InMemoryAuditRepository() {
+        super(Audit.class);
+        byCreatedAt = orderedIndex(audit -> ALL, Audit::getCreatedAt);
+        byReference = orderedIndex(audit -> key(audit.getReferenceType(), audit.getReferenceId()), Audit::getCreatedAt);
+        byEvent = orderedIndex(Audit::getEvent, Audit::getCreatedAt);
+        byReferenceAndEvent = orderedIndex(
+                audit -> key(audit.getReferenceType(), audit.getReferenceId(), audit.getEvent()), Audit::getCreatedAt);
+    }
+
+    @Override
+    protected String idOf(final Audit audit) {
+        return audit.getId();
+    }
+
+    @Override
+    public Optional<Audit> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public Audit create(final Audit audit) {
+        return insert(audit);
+    }
+
+    @Override
+    public Page<Audit> search(final AuditCriteria criteria, final Pageable pageable) {
+        final long from = criteria.getFrom();
+        final long to = criteria.getTo();
+        final boolean byReferences = criteria.getReferences() != null && !criteria.getReferences().isEmpty();
+        final boolean byEvents = criteria.getEvents() != null && !criteria.getEvents().isEmpty();
+        if (criteria.getProperties() != null && !criteria.getProperties().isEmpty()) {
+            final Stream<Audit> candidates = byReferences && byEvents
+                    ? stored(byReferenceAndEvent, referencesAndEvents(criteria), from, to)
+                    : byReferences ? stored(byReference, references(criteria), from, to)
+                    : byEvents ? stored(byEvent, criteria.getEvents(), from, to)
+                    : stored(byCreatedAt, Collections.singleton(ALL), from, to);
+            return Pages.copyOf(candidates.filter(audit -> matches(audit, criteria)), pageable);
+        }
+        if (byReferences && byEvents) {
+            return page(byReferenceAndEvent, referencesAndEvents(criteria), from, to, pageable);
+        }
+        if (byReferences) {
+            return page(byReference, references(criteria), from, to, pageable);
+        }
+        if (byEvents) {
+            return page(byEvent, criteria.getEvents(), from, to, pageable);
+        }
+        return page(byCreatedAt, Collections.singleton(ALL), from, to, pageable);
+    }
+
+    private static List<List<Object>> references(final AuditCriteria criteria) {
+        final List<List<Object>> keys = new ArrayList<>();
+        criteria.getReferences().forEach((type, ids) -> ids.forEach(id -> keys.add(key(type, id))));
+        return keys;
+    }
+
+    private static List<List<Object>> referencesAndEvents(final AuditCriteria criteria) {
+        final List<List<Object>> keys = new ArrayList<>();
+        for (final List<Object> reference : references(criteria)) {
+            for (final String event : criteria.getEvents()) {
+                keys.add(key(reference.get(0), reference.get(1), event));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Whether the audit matches the references, events and properties of the criteria, its creation date being
+     * checked by the index it comes from.
+     */
+    private static boolean matches(final Audit audit, final AuditCriteria criteria) {
+        if (criteria.getReferences() != null && !criteria.getReferences().isEmpty()) {
+            final List<String> ids = criteria.getReferences().get(audit.getReferenceType());
+            if (ids == null || !ids.contains(audit.getReferenceId())) {
+                return false;
+            }
+        }
+        if (criteria.getEvents() != null && !criteria.getEvents().isEmpty()
+                && !criteria.getEvents().contains(audit.getEvent())) {
+            return false;
+        }
+        for (final Map.Entry<String, String> property : criteria.getProperties().entrySet()) {
+            if (audit.getProperties() == null
+                    || !Objects.equals(property.getValue(), audit.getProperties().get(property.getKey()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
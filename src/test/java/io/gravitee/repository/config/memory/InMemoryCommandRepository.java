@@ -0,0 +1,228 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.CommandRepository;
+import io.gravitee.repository.management.api.search.CommandCriteria;
+import io.gravitee.repository.management.model.Command;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Stream;
+
+import static java.util.Collections.singleton;
+
+/**
+ * Commands are indexed by recipient and by tag. The commands not expired yet are indexed once more in live indexes,
+ * out of which a {@link TimingWheel timing wheel} evicts each command once its expiry is over, so that a search for
+ * commands not expired only reads live ones: the expiry is only checked for the commands expiring within the current
+ * tick. Expired commands are kept, and still found by id and by the other searches.
+ *
+ * The acknowledgments of a command are held apart in a concurrent set of their own, which {@link #acknowledge} adds
+ * to without copying nor replacing the command, while an update replaces them as the rest of the command.
+ *
+ * @author GraviteeSource Team
+ */
+public class InMemoryCommandRepository extends AbstractInMemoryRepository<Command, String>
+        implements CommandRepository {
+
+    private static final long TICK_MILLIS = 1000;
+    private static final Boolean ALL = Boolean.TRUE;
+
+    private final Index<Command, String> byRecipient;
+    private final Index<Command, String> byTag;
+    private final Index<Command, Boolean> live = new Index<>(command -> singleton(ALL));
+    private final Index<Command, String> liveByRecipient = new Index<>(command -> singleton(command.getTo()));
+    private final Index<Command, String> liveByTag = new Index<>(Command::getTags);
+    private final List<Index<Command, ?>> liveIndexes = Arrays.asList(live, liveByRecipient, liveByTag);
+    private final TimingWheel<String> expiries = new TimingWheel<>(TICK_MILLIS, System.currentTimeMillis());
+    private final ConcurrentMap<String, Set<String>> acknowledgments = new ConcurrentHashMap<>();
+
+    public InMemoryCommandRepository() {
+        super(Command.class);
+        byRecipient = index(Command::getTo);
+        byTag = indexAll(Command::getTags);
+    }
+
+    @Override
+    protected String idOf(final Command command) {
+        return command.getId();
+    }
+
+    @Override
+    public Optional<Command> findById(final String id) {
+        return find(id).map(this::withAcknowledgments);
+    }
+
+    @Override
+    public synchronized Command create(final Command command) {
+        // held before the command is stored, so that it is exported with them
+        if (command != null && command.getId() != null && storedItem(command.getId()) == null) {
+            acknowledgments.put(command.getId(), acknowledgmentSet(command));
+        }
+        final Command created = insert(withoutAcknowledgments(command));
+        if (isLive(created, System.currentTimeMillis())) {
+            liveIndexes.forEach(index -> index.add(created.getId(), created));
+            schedule(created);
+        }
+        return withAcknowledgments(created);
+    }
+
+    @Override
+    public synchronized Command update(final Command command) {
+        final Command previous = command == null ? null : storedItem(command.getId());
+        if (previous != null) {
+            acknowledgments.put(command.getId(), acknowledgmentSet(command));
+        }
+        final Command updated = replace(withoutAcknowledgments(command));
+        if (isLive(updated, System.currentTimeMillis())) {
+            liveIndexes.forEach(index -> index.update(updated.getId(), previous, updated));
+            schedule(updated);
+        } else {
+            liveIndexes.forEach(index -> index.remove(updated.getId(), previous));
+        }
+        return withAcknowledgments(updated);
+    }
+
+    @Override
+    public synchronized void delete(final String id) {
+        final Command previous = storedItem(id);
+        remove(id);
+        if (previous != null) {
+            liveIndexes.forEach(index -> index.remove(id, previous));
+            acknowledgments.remove(id);
+        }
+    }
+
+    /**
+     * Acknowledges the command for the given node atomically, as a node polling the commands does. The repository is
+     * locked, so that the command cannot be deleted meanwhile and the listener sees the changes in order, but only for
+     * the time of adding the node to a set.
+     *
+     * @return whether the node had not acknowledged the command yet
+     */
+    public synchronized boolean acknowledge(final String id, final String node) {
+        final Set<String> acknowledged = id == null ? null : acknowledgments.get(id);
+        if (acknowledged == null) {
+            throw new IllegalStateException("Command [" + id + "] does not exist");
+        }
+        if (!acknowledged.add(node)) {
+            return false;
+        }
+        changed(id);
+        return true;
+    }
+
+    @Override
+    protected Command exported(final Command stored) {
+        return withAcknowledgments(copy(stored));
+    }
+
+    @Override
+    public synchronized void restore(final Command command) {
+        delete(command.getId());
+        create(command);
+    }
+
+    @Override
+    public void erase(final String id) {
+        delete(id);
+    }
+
+    @Override
+    public List<Command> search(final CommandCriteria criteria) {
+        final long now = System.currentTimeMillis();
+        if (now >= expiries.nextTickAt()) {
+            expire(now);
+        }
+        final List<Command> found = toList(candidates(criteria).filter(command -> matches(command, criteria, now)));
+        found.forEach(this::withAcknowledgments);
+        return found;
+    }
+
+    private Stream<Command> candidates(final CommandCriteria criteria) {
+        final boolean notExpired = criteria.isNotExpired();
+        if (criteria.getTo() != null) {
+            return stored(notExpired ? liveByRecipient : byRecipient, criteria.getTo());
+        }
+        if (criteria.getTags() != null && criteria.getTags().length > 0) {
+            return storedWithAll(notExpired ? liveByTag : byTag, Arrays.asList(criteria.getTags()));
+        }
+        return notExpired ? stored(live, ALL) : stored();
+    }
+
+    private boolean matches(final Command command, final CommandCriteria criteria, final long now) {
+        return (criteria.getTo() == null || criteria.getTo().equals(command.getTo()))
+                && (criteria.getTags() == null || criteria.getTags().length == 0
+                        || (command.getTags() != null && command.getTags().containsAll(Arrays.asList(criteria.getTags()))))
+                && (!criteria.isNotExpired() || isLive(command, now))
+                && (criteria.getNotFrom() == null || !criteria.getNotFrom().equals(command.getFrom()))
+                && (criteria.getNotAckBy() == null
+                        || !acknowledgments.getOrDefault(command.getId(), Collections.emptySet()).contains(criteria.getNotAckBy()));
+    }
+
+    private synchronized void expire(final long now) {
+        expiries.advance(now, id -> {
+            final Command command = storedItem(id);
+            // a command updated since it was scheduled has been scheduled again, for its new expiry
+            if (command != null && !isLive(command, now)) {
+                liveIndexes.forEach(index -> index.remove(id, command));
+            }
+        });
+    }
+
+    private void schedule(final Command command) {
+        if (command.getExpiredAt() != null) {
+            expiries.schedule(command.getId(), command.getExpiredAt().getTime());
+        }
+    }
+
+    private static boolean isLive(final Command command, final long now) {
+        return command.getExpiredAt() == null || command.getExpiredAt().getTime() > now;
+    }
+
+    private static Command withoutAcknowledgments(final Command command) {
+        if (command == null || command.getAcknowledgments() == null) {
+            return command;
+        }
+        final Command stored = copy(command);
+        stored.setAcknowledgments(null);
+        return stored;
+    }
+
+    private static Set<String> acknowledgmentSet(final Command command) {
+        final Set<String> acknowledged = ConcurrentHashMap.newKeySet();
+        if (command.getAcknowledgments() != null) {
+            acknowledged.addAll(command.getAcknowledgments());
+        }
+        return acknowledged;
+    }
+
+    private Command withAcknowledgments(final Command command) {
+        command.setAcknowledgments(new ArrayList<>(
+                acknowledgments.getOrDefault(command.getId(), Collections.emptySet())));
+        return command;
+    }
+
+    @Override
+    public synchronized void clear() {
+        super.clear();
+        liveIndexes.forEach(Index::clear);
+        acknowledgments.clear();
+        // the wheel only hands out ids, which are checked against the stored commands
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.EntrypointRepository;
+import io.gravitee.repository.management.model.Entrypoint;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryEntrypointRepository extends AbstractInMemoryRepository<Entrypoint, String> implements EntrypointRepository {
+
+    public InMemoryEntrypointRepository() {
+        super(Entrypoint.class);
+    }
+
+    @Override
+    protected String idOf(final Entrypoint entrypoint) {
+        return entrypoint.getId();
+    }
+
+    @Override
+    public Optional<Entrypoint> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public Entrypoint create(final Entrypoint entrypoint) {
+        return insert(entrypoint);
+    }
+
+    @Override
+    public Entrypoint update(final Entrypoint entrypoint) {
+        return replace(entrypoint);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+
+    @Override
+    public Set<Entrypoint> findAll() {
+        return toSet(stored());
+    }
+}
@@ -0,0 +1,147 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.common.data.domain.Page;
+import io.gravitee.repository.management.api.EventRepository;
+import io.gravitee.repository.management.api.search.EventCriteria;
+import io.gravitee.repository.management.api.search.Pageable;
+import io.gravitee.repository.management.model.Event;
+import io.gravitee.repository.management.model.EventType;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Events are indexed newest updated first, globally, by type and by property value, so that a search walks the time
+ * range of its most selective dimension instead of sorting the matching events.
+ *
+ * @author GraviteeSource Team
+ */
+public class InMemoryEventRepository extends AbstractInMemoryRepository<Event, String> implements EventRepository {
+
+    private static final Boolean ALL = Boolean.TRUE;
+
+    private final OrderedIndex<Event, Boolean> byUpdatedAt;
+    private final OrderedIndex<Event, EventType> byType;
+    private final OrderedIndex<Event, List<Object>> byProperty;
+
+    public InMemoryEventRepository() {
+        super(Event.class);
+        byUpdatedAt = orderedIndex(event -> ALL, Event::getUpdatedAt);
+        byType = orderedIndex(Event::getType, Event::getUpdatedAt);
+        byProperty = orderedIndexAll(InMemoryEventRepository::properties, Event::getUpdatedAt);
+    }
+
+    private static Collection<List<Object>> properties(final Event event) {
+        if (event.getProperties() == null) {
+            return Collections.emptySet();
+        }
+        final List<List<Object>> properties = new ArrayList<>(event.getProperties().size());
+        event.getProperties().forEach((name, value) -> properties.add(key(name, value)));
+        return properties;
+    }
+
+    @Override
+    protected String idOf(final Event event) {
+        return event.getId();
+    }
+
+    @Override
+    public Optional<Event> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public Event create(final Event event) {
+        return insert(event);
+    }
+
+    @Override
+    public Event update(final Event event) {
+        return replace(event);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+
+    @Override
+    public Page<Event> search(final EventCriteria criteria, final Pageable pageable) {
+        return Pages.copyOf(newestFirst(criteria), pageable);
+    }
+
+    @Override
+    public List<Event> search(final EventCriteria criteria) {
+        return toList(newestFirst(criteria));
+    }
+
+    private Stream<Event> newestFirst(final EventCriteria criteria) {
+        return candidates(criteria).filter(event -> matches(event, criteria));
+    }
+
+    /**
+     * The events updated within the range of the criteria, newest first, for the criteria dimension with the fewest
+     * events.
+     */
+    private Stream<Event> candidates(final EventCriteria criteria) {
+        final long from = criteria.getFrom();
+        final long to = criteria.getTo();
+        if (criteria.getProperties() != null) {
+            List<List<Object>> selective = null;
+            long fewest = Long.MAX_VALUE;
+            for (final Map.Entry<String, Object> property : criteria.getProperties().entrySet()) {
+                final List<List<Object>> keys = new ArrayList<>();
+                for (final Object value : values(property.getValue())) {
+                    keys.add(key(property.getKey(), value));
+                }
+                final long count = byProperty.count(keys);
+                if (count < fewest) {
+                    selective = keys;
+                    fewest = count;
+                }
+            }
+            if (selective != null && (criteria.getTypes() == null || criteria.getTypes().isEmpty()
+                    || fewest <= byType.count(criteria.getTypes()))) {
+                return stored(byProperty, selective, from, to);
+            }
+        }
+        if (criteria.getTypes() != null && !criteria.getTypes().isEmpty()) {
+            return stored(byType, criteria.getTypes(), from, to);
+        }
+        return stored(byUpdatedAt, Collections.singleton(ALL), from, to);
+    }
+
+    private static boolean matches(final Event event, final EventCriteria criteria) {
+        if (criteria.getTypes() != null && !criteria.getTypes().isEmpty() && !criteria.getTypes().contains(event.getType())) {
+            return false;
+        }
+        if (criteria.getProperties() != null) {
+            for (final Map.Entry<String, Object> property : criteria.getProperties().entrySet()) {
+                final String value = event.getProperties() == null ? null : event.getProperties().get(property.getKey());
+                if (value == null || !values(property.getValue()).contains(value)) {
+                    return false;
+                }
+            }
+        }
+        return between(event.getUpdatedAt(), criteria.getFrom(), criteria.getTo());
+    }
+
+    private static Collection<?> values(final Object value) {
+        return value instanceof Collection ? (Collection<?>) value : Collections.singleton(value);
+    }
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.GenericNotificationConfigRepository;
+import io.gravitee.repository.management.model.GenericNotificationConfig;
+import io.gravitee.repository.management.model.NotificationReferenceType;
+
+import java.util.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryGenericNotificationConfigRepository
+        extends AbstractInMemoryRepository<GenericNotificationConfig, String>
+        implements GenericNotificationConfigRepository {
+
+    private final Index<GenericNotificationConfig, List<Object>> byReference;
+    private final Index<GenericNotificationConfig, List<Object>> byReferenceAndHook;
+
+    public InMemoryGenericNotificationConfigRepository() {
+        super(GenericNotificationConfig.class);
+        byReference = index(config -> key(config.getReferenceType(), config.getReferenceId()));
+        byReferenceAndHook = indexAll(config -> hooks(config.getReferenceType(), config.getReferenceId(),
+                config.getHooks()));
+    }
+
+    static Collection<List<Object>> hooks(final NotificationReferenceType referenceType, final String referenceId,
+                                          final List<String> hooks) {
+        if (hooks == null) {
+            return Collections.emptySet();
+        }
+        final List<List<Object>> keys = new ArrayList<>(hooks.size());
+        hooks.forEach(hook -> keys.add(key(referenceType, referenceId, hook)));
+        return keys;
+    }
+
+    @Override
+    protected String idOf(final GenericNotificationConfig config) {
+        return config.getId();
+    }
+
+    @Override
+    public GenericNotificationConfig create(final GenericNotificationConfig config) {
+        return insert(config);
+    }
+
+    @Override
+    public GenericNotificationConfig update(final GenericNotificationConfig config) {
+        return replace(config);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+
+    @Override
+    public Optional<GenericNotificationConfig> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public List<GenericNotificationConfig> findByReferenceAndHook(final String hook,
+                                                                  final NotificationReferenceType referenceType,
+                                                                  final String referenceId) {
+        return toList(stored(byReferenceAndHook, key(referenceType, referenceId, hook)));
+    }
+
+    @Override
+    public List<GenericNotificationConfig> findByReference(final NotificationReferenceType referenceType,
+                                                           final String referenceId) {
+        return toList(stored(byReference, key(referenceType, referenceId)));
+    }
+}
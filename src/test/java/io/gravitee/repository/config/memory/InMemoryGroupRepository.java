@@ -0,0 +1,70 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.GroupRepository;
+import io.gravitee.repository.management.model.Group;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryGroupRepository extends AbstractInMemoryRepository<Group, String> implements GroupRepository {
+
+    public InMemoryGroupRepository() {
+        super(Group.class);
+    }
+
+    @Override
+    protected String idOf(final Group group) {
+        return group.getId();
+    }
+
+    @Override
+    public Optional<Group> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public Group create(final Group group) {
+        return insert(group);
+    }
+
+    @Override
+    public Group update(final Group group) {
+        return replace(group);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+
+    @Override
+    public Set<Group> findAll() {
+        return toSet(stored());
+    }
+
+    @Override
+    public Set<Group> findByIds(final Set<String> ids) {
+        return ids == null ? Collections.emptySet() : toSet(ids.stream().map(this::find)
+                .filter(Optional::isPresent)
+                .map(Optional::get));
+    }
+}
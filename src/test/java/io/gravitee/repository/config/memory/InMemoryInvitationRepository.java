@@ -0,0 +1,71 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.InvitationRepository;
+import io.gravitee.repository.management.model.Invitation;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryInvitationRepository extends AbstractInMemoryRepository<Invitation, String> implements InvitationRepository {
+
+    private final Index<Invitation, List<Object>> byReference;
+
+    public InMemoryInvitationRepository() {
+        super(Invitation.class);
+        byReference = index(invitation -> key(invitation.getReferenceType(), invitation.getReferenceId()));
+    }
+
+    @Override
+    protected String idOf(final Invitation invitation) {
+        return invitation.getId();
+    }
+
+    @Override
+    public Optional<Invitation> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public Invitation create(final Invitation invitation) {
+        return insert(invitation);
+    }
+
+    @Override
+    public Invitation update(final Invitation invitation) {
+        return replace(invitation);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+
+    @Override
+    public Set<Invitation> findAll() {
+        return toSet(stored());
+    }
+
+    @Override
+    public List<Invitation> findByReference(final String referenceType, final String referenceId) {
+        return toList(stored(byReference, key(referenceType, referenceId)));
+    }
+}
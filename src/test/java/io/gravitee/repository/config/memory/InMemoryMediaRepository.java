@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.media.api.MediaRepository;
+import io.gravitee.repository.media.model.Media;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Medias are stored without their data, which lives off the heap in a content-addressed {@link Blobs store} where
+ * identical contents are kept once, as long as a media refers to them. The total size of the medias of an api and type is maintained as they are saved.
+ *
+ * @author GraviteeSource Team
+ */
+public class InMemoryMediaRepository extends AbstractInMemoryRepository<Media, String> implements MediaRepository {
+
+    private final Index<Media, List<Object>> byHash;
+    private final Blobs blobs = new Blobs();
+    private final ConcurrentMap<String, String> contents = new ConcurrentHashMap<>();
+    private final ConcurrentMap<List<Object>, Long> totalSizes = new ConcurrentHashMap<>();
+
+    public InMemoryMediaRepository() {
+        super(Media.class);
+        byHash = index(media -> key(media.getHash(), media.getApi(), media.getType()));
+    }
+
+    @Override
+    protected String idOf(final Media media) {
+        return media.getId();
+    }
+
+    @Override
+    public synchronized String save(final Media media) {
+        final Media saved = copy(media);
+        if (saved.getId() == null) {
+            saved.setId(UUID.randomUUID().toString());
+        }
+        if (saved.getCreatedAt() == null) {
+            saved.setCreatedAt(new Date());
+        }
+        final byte[] data = saved.getData();
+        saved.setData(null);
+        // held before the media is stored, so that it is exported with its data
+        if (data != null && storedItem(saved.getId()) == null) {
+            contents.put(saved.getId(), blobs.put(data));
+        }
+        final String id = insert(saved).getId();
+        totalSizes.merge(key(saved.getApi(), saved.getType()), sizeOf(saved, data), Long::sum);
+        return id;
+    }
+
+    @Override
+    public Optional<Media> findByHash(final String hash, final String mediaType) {
+        return findByHash(hash, null, mediaType);
+    }
+
+    @Override
+    public Optional<Media> findByHash(final String hash, final String api, final String mediaType) {
+        return stored(byHash, key(hash, api, mediaType)).findFirst().map(this::exported);
+    }
+
+    @Override
+    protected Media exported(final Media stored) {
+        final Media media = copy(stored);
+        media.setData(blobs.get(contents.get(media.getId())));
+        return media;
+    }
+
+    @Override
+    public synchronized void restore(final Media media) {
+        erase(media.getId());
+        save(media);
+    }
+
+    @Override
+    public synchronized void erase(final String id) {
+        final Media previous = storedItem(id);
+        if (previous != null) {
+            remove(id);
+            final String address = contents.remove(id);
+            final long size = sizeOf(previous, address == null ? null : blobs.get(address));
+            totalSizes.merge(key(previous.getApi(), previous.getType()), -size, Long::sum);
+            blobs.release(address);
+        }
+    }
+
+    private static long sizeOf(final Media media, final byte[] data) {
+        return media.getSize() != null ? media.getSize() : data == null ? 0 : data.length;
+    }
+
+    /**
+     * The total size of the medias of the given type saved for the given api, or for the portal when there is no api.
+     */
+    public long totalSizeFor(final String api, final String mediaType) {
+        return totalSizes.getOrDefault(key(api, mediaType), 0L);
+    }
+
+    /**
+     * The number of bytes of media data held off the heap, identical contents counting once.
+     */
+    public long storedBytes() {
+        return blobs.bytes();
+    }
+
+    @Override
+    public synchronized void clear() {
+        super.clear();
+        contents.clear();
+        blobs.clear();
+        totalSizes.clear();
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.MembershipRepository;
+import io.gravitee.repository.management.model.Membership;
+import io.gravitee.repository.management.model.MembershipReferenceType;
+import io.gravitee.repository.management.model.RoleScope;
+
+import java.util.*;
+
+/**
+ * Memberships are identified by user and reference, and indexed once per finder: by user, by user and reference
+ * type, by user, reference type and role, by reference, by reference and role, and by role. A role key is made of the
+ * role scope id and name, as held by {@link Membership#getRoles()}.
+ *
+ * @author GraviteeSource Team
+ */
+public class InMemoryMembershipRepository extends AbstractInMemoryRepository<Membership, List<Object>>
+        implements MembershipRepository {
+
+    private final Index<Membership, String> byUser;
+    private final Index<Membership, List<Object>> byUserAndReferenceType;
+    private final Index<Membership, List<Object>> byUserAndReferenceTypeAndRole;
+    private final Index<Membership, List<Object>> byReference;
+    private final Index<Membership, List<Object>> byReferenceAndRole;
+    private final Index<Membership, List<Object>> byRole;
+
+    public InMemoryMembershipRepository() {
+        super(Membership.class);
+        byUser = index(Membership::getUserId);
+        byUserAndReferenceType = index(membership -> key(membership.getUserId(), membership.getReferenceType()));
+        byUserAndReferenceTypeAndRole = indexAll(membership ->
+                roles(membership, membership.getUserId(), membership.getReferenceType()));
+        byReference = index(membership -> key(membership.getReferenceType(), membership.getReferenceId()));
+        byReferenceAndRole = indexAll(membership ->
+                roles(membership, membership.getReferenceType(), membership.getReferenceId()));
+        byRole = indexAll(InMemoryMembershipRepository::roles);
+    }
+
+    private static Collection<List<Object>> roles(final Membership membership, final Object... prefix) {
+        if (membership.getRoles() == null) {
+            return Collections.emptySet();
+        }
+        final List<List<Object>> roles = new ArrayList<>(membership.getRoles().size());
+        membership.getRoles().forEach((scope, name) -> roles.add(role(scope, name, prefix)));
+        return roles;
+    }
+
+    private static List<Object> role(final Integer scope, final String name, final Object... prefix) {
+        final Object[] parts = Arrays.copyOf(prefix, prefix.length + 2);
+        parts[prefix.length] = scope;
+        parts[prefix.length + 1] = name;
+        return key(parts);
+    }
+
+    @Override
+    protected List<Object> idOf(final Membership membership) {
+        return key(membership.getUserId(), membership.getReferenceType(), membership.getReferenceId());
+    }
+
+    @Override
+    public Membership create(final Membership membership) {
+        return insert(membership);
+    }
+
+    @Override
+    public Membership update(final Membership membership) {
+        return replace(membership);
+    }
+
+    @Override
+    public void delete(final Membership membership) {
+        remove(idOf(membership));
+    }
+
+    @Override
+    public Optional<Membership> findById(final String userId, final MembershipReferenceType referenceType,
+                                         final String referenceId) {
+        return find(key(userId, referenceType, referenceId));
+    }
+
+    @Override
+    public Set<Membership> findByIds(final String userId, final MembershipReferenceType referenceType,
+                                     final Set<String> referenceIds) {
+        return toSet(referenceIds.stream()
+                .map(referenceId -> findById(userId, referenceType, referenceId))
+                .filter(Optional::isPresent)
+                .map(Optional::get));
+    }
+
+    @Override
+    public Set<Membership> findByReferenceAndRole(final MembershipReferenceType referenceType, final String referenceId,
+                                                  final RoleScope roleScope, final String roleName) {
+        return findByReferencesAndRole(referenceType, Collections.singletonList(referenceId), roleScope, roleName);
+    }
+
+    @Override
+    public Set<Membership> findByReferencesAndRole(final MembershipReferenceType referenceType,
+                                                   final List<String> referenceIds, final RoleScope roleScope,
+                                                   final String roleName) {
+        final boolean withRole = roleScope != null && roleName != null;
+        final List<List<Object>> keys = new ArrayList<>(referenceIds.size());
+        for (final String referenceId : referenceIds) {
+            keys.add(withRole ? role(roleScope.getId(), roleName, referenceType, referenceId)
+                    : key(referenceType, referenceId));
+        }
+        return toSet(stored(withRole ? byReferenceAndRole : byReference, keys));
+    }
+
+    @Override
+    public Set<Membership> findByUserAndReferenceType(final String userId, final MembershipReferenceType referenceType) {
+        return toSet(stored(byUserAndReferenceType, key(userId, referenceType)));
+    }
+
+    @Override
+    public Set<Membership> findByRole(final RoleScope roleScope, final String roleName) {
+        return toSet(stored(byRole, role(roleScope.getId(), roleName)));
+    }
+
+    @Override
+    public Set<Membership> findByUserAndReferenceTypeAndRole(final String userId,
+                                                             final MembershipReferenceType referenceType,
+                                                             final RoleScope roleScope, final String roleName) {
+        if (roleScope == null || roleName == null) {
+            return findByUserAndReferenceType(userId, referenceType);
+        }
+        return toSet(stored(byUserAndReferenceTypeAndRole, role(roleScope.getId(), roleName, userId, referenceType)));
+    }
+
+    @Override
+    public Set<Membership> findByUser(final String userId) {
+        return toSet(stored(byUser, userId));
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.MetadataRepository;
+import io.gravitee.repository.management.model.Metadata;
+import io.gravitee.repository.management.model.MetadataReferenceType;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryMetadataRepository extends AbstractInMemoryRepository<Metadata, List<Object>>
+        implements MetadataRepository {
+
+    private final Index<Metadata, MetadataReferenceType> byReferenceType;
+    private final Index<Metadata, List<Object>> byReference;
+
+    public InMemoryMetadataRepository() {
+        super(Metadata.class);
+        byReferenceType = index(Metadata::getReferenceType);
+        byReference = index(metadata -> key(metadata.getReferenceType(), metadata.getReferenceId()));
+    }
+
+    @Override
+    protected List<Object> idOf(final Metadata metadata) {
+        return key(metadata.getKey(), metadata.getReferenceId(), metadata.getReferenceType());
+    }
+
+    @Override
+    public Metadata create(final Metadata metadata) {
+        return insert(metadata);
+    }
+
+    @Override
+    public Metadata update(final Metadata metadata) {
+        return replace(metadata);
+    }
+
+    @Override
+    public void delete(final String key, final String referenceId, final MetadataReferenceType referenceType) {
+        remove(key(key, referenceId, referenceType));
+    }
+
+    @Override
+    public Optional<Metadata> findById(final String key, final String referenceId,
+                                       final MetadataReferenceType referenceType) {
+        return find(key(key, referenceId, referenceType));
+    }
+
+    @Override
+    public List<Metadata> findByKeyAndReferenceType(final String key, final MetadataReferenceType referenceType) {
+        return toList(stored(byReferenceType, referenceType).filter(metadata -> key.equals(metadata.getKey())));
+    }
+
+    @Override
+    public List<Metadata> findByReferenceType(final MetadataReferenceType referenceType) {
+        return toList(stored(byReferenceType, referenceType));
+    }
+
+    @Override
+    public List<Metadata> findByReferenceTypeAndReferenceId(final MetadataReferenceType referenceType,
+                                                            final String referenceId) {
+        return toList(stored(byReference, key(referenceType, referenceId)));
+    }
+}
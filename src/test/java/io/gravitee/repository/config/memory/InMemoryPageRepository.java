@@ -0,0 +1,134 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.PageRepository;
+import io.gravitee.repository.management.api.search.PageCriteria;
+import io.gravitee.repository.management.model.Page;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.comparingInt;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsLast;
+
+/**
+ * Portal pages, which belong to no API, are indexed under an empty API id. Pages are indexed by API, and by API with
+ * each of the parent, the type and the homepage flag a search may be given; the greatest page order of each API is
+ * kept as pages are written.
+ *
+ * @author GraviteeSource Team
+ */
+public class InMemoryPageRepository extends AbstractInMemoryRepository<Page, String> implements PageRepository {
+
+    private static final String PORTAL = "";
+    private static final Comparator<Page> BY_ORDER = comparingInt(Page::getOrder)
+            .thenComparing(Page::getId, nullsLast(naturalOrder()));
+
+    private final Index<Page, String> byApi;
+    private final Index<Page, List<Object>> byApiAndParent;
+    private final Index<Page, List<Object>> byApiAndType;
+    private final Index<Page, List<Object>> byApiAndHomepage;
+    private final MaxIndex<Page, String> maxOrderByApi;
+
+    public InMemoryPageRepository() {
+        super(Page.class);
+        byApi = index(InMemoryPageRepository::apiOf);
+        byApiAndParent = index(page -> page.getParentId() == null ? null : key(apiOf(page), page.getParentId()));
+        byApiAndType = index(page -> page.getType() == null ? null : key(apiOf(page), page.getType().name()));
+        byApiAndHomepage = index(page -> key(apiOf(page), page.isHomepage()));
+        maxOrderByApi = maxIndex(InMemoryPageRepository::apiOf, Page::getOrder);
+    }
+
+    private static String apiOf(final Page page) {
+        return page.getApi() == null ? PORTAL : page.getApi();
+    }
+
+    @Override
+    protected String idOf(final Page page) {
+        return page.getId();
+    }
+
+    @Override
+    public Optional<Page> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public Page create(final Page page) {
+        return insert(page);
+    }
+
+    @Override
+    public Page update(final Page page) {
+        return replace(page);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+
+    @Override
+    public List<Page> search(final PageCriteria criteria) {
+        return toList(candidates(criteria)
+                .filter(page -> matches(page, criteria))
+                .sorted(BY_ORDER));
+    }
+
+    private Stream<Page> candidates(final PageCriteria criteria) {
+        final String api = criteria.getApi() == null ? PORTAL : criteria.getApi();
+        if (criteria.getParent() != null) {
+            return stored(byApiAndParent, key(api, criteria.getParent()));
+        }
+        if (criteria.getType() != null) {
+            return stored(byApiAndType, key(api, criteria.getType()));
+        }
+        if (criteria.getHomepage() != null) {
+            return stored(byApiAndHomepage, key(api, criteria.getHomepage()));
+        }
+        return stored(byApi, api);
+    }
+
+    @Override
+    public Integer findMaxApiPageOrderByApiId(final String apiId) {
+        return maxOrder(apiId == null ? PORTAL : apiId);
+    }
+
+    @Override
+    public Integer findMaxPortalPageOrder() {
+        return maxOrder(PORTAL);
+    }
+
+    private int maxOrder(final String api) {
+        return maxOrderByApi.max(api, 0);
+    }
+
+    private static boolean matches(final Page page, final PageCriteria criteria) {
+        return (criteria.getName() == null || criteria.getName().equals(page.getName()))
+                && (criteria.getType() == null
+                        || (page.getType() != null && criteria.getType().equals(page.getType().name())))
+                && (criteria.getHomepage() == null || criteria.getHomepage() == page.isHomepage())
+                && (criteria.getPublished() == null || criteria.getPublished() == page.isPublished())
+                && (criteria.getParent() == null || criteria.getParent().equals(page.getParentId()))
+                && (!Boolean.TRUE.equals(criteria.getRootParent())
+                        || page.getParentId() == null || page.getParentId().isEmpty());
+    }
+}
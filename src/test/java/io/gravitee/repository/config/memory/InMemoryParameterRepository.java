@@ -0,0 +1,66 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.ParameterRepository;
+import io.gravitee.repository.management.model.Parameter;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryParameterRepository extends AbstractInMemoryRepository<Parameter, String>
+        implements ParameterRepository {
+
+    public InMemoryParameterRepository() {
+        super(Parameter.class);
+    }
+
+    @Override
+    protected String idOf(final Parameter parameter) {
+        return parameter.getKey();
+    }
+
+    @Override
+    public Optional<Parameter> findById(final String key) {
+        return find(key);
+    }
+
+    @Override
+    public Parameter create(final Parameter parameter) {
+        return insert(parameter);
+    }
+
+    @Override
+    public Parameter update(final Parameter parameter) {
+        return replace(parameter);
+    }
+
+    @Override
+    public void delete(final String key) {
+        remove(key);
+    }
+
+    @Override
+    public List<Parameter> findAll(final List<String> keys) {
+        return keys == null ? Collections.emptyList() : toList(keys.stream().distinct().map(this::find)
+                .filter(Optional::isPresent)
+                .map(Optional::get));
+    }
+}
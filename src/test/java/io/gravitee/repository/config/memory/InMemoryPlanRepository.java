@@ -0,0 +1,65 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.PlanRepository;
+import io.gravitee.repository.management.model.Plan;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryPlanRepository extends AbstractInMemoryRepository<Plan, String> implements PlanRepository {
+
+    private final Index<Plan, String> byApi;
+
+    public InMemoryPlanRepository() {
+        super(Plan.class);
+        byApi = indexAll(Plan::getApis);
+    }
+
+    @Override
+    protected String idOf(final Plan plan) {
+        return plan.getId();
+    }
+
+    @Override
+    public Optional<Plan> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public Plan create(final Plan plan) {
+        return insert(plan);
+    }
+
+    @Override
+    public Plan update(final Plan plan) {
+        return replace(plan);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+
+    @Override
+    public Set<Plan> findByApi(final String apiId) {
+        return toSet(stored(byApi, apiId));
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.PortalNotificationConfigRepository;
+import io.gravitee.repository.management.model.NotificationReferenceType;
+import io.gravitee.repository.management.model.PortalNotificationConfig;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryPortalNotificationConfigRepository
+        extends AbstractInMemoryRepository<PortalNotificationConfig, List<Object>>
+        implements PortalNotificationConfigRepository {
+
+    private final Index<PortalNotificationConfig, List<Object>> byReferenceAndHook;
+
+    public InMemoryPortalNotificationConfigRepository() {
+        super(PortalNotificationConfig.class);
+        byReferenceAndHook = indexAll(config -> InMemoryGenericNotificationConfigRepository.hooks(
+                config.getReferenceType(), config.getReferenceId(), config.getHooks()));
+    }
+
+    @Override
+    protected List<Object> idOf(final PortalNotificationConfig config) {
+        return key(config.getUser(), config.getReferenceType(), config.getReferenceId());
+    }
+
+    @Override
+    public PortalNotificationConfig create(final PortalNotificationConfig config) {
+        return insert(config);
+    }
+
+    @Override
+    public PortalNotificationConfig update(final PortalNotificationConfig config) {
+        return replace(config);
+    }
+
+    @Override
+    public void delete(final PortalNotificationConfig config) {
+        remove(idOf(config));
+    }
+
+    @Override
+    public Optional<PortalNotificationConfig> findById(final String user, final NotificationReferenceType referenceType,
+                                                       final String referenceId) {
+        return find(key(user, referenceType, referenceId));
+    }
+
+    @Override
+    public List<PortalNotificationConfig> findByReferenceAndHook(final String hook,
+                                                                 final NotificationReferenceType referenceType,
+                                                                 final String referenceId) {
+        return toList(stored(byReferenceAndHook, key(referenceType, referenceId, hook)));
+    }
+}
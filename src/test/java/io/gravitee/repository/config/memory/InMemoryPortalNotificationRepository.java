@@ -0,0 +1,66 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.PortalNotificationRepository;
+import io.gravitee.repository.management.model.PortalNotification;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryPortalNotificationRepository extends AbstractInMemoryRepository<PortalNotification, String>
+        implements PortalNotificationRepository {
+
+    private final Index<PortalNotification, String> byUser;
+
+    public InMemoryPortalNotificationRepository() {
+        super(PortalNotification.class);
+        byUser = index(PortalNotification::getUser);
+    }
+
+    @Override
+    protected String idOf(final PortalNotification notification) {
+        return notification.getId();
+    }
+
+    @Override
+    public PortalNotification create(final PortalNotification notification) {
+        return insert(notification);
+    }
+
+    @Override
+    public void create(final List<PortalNotification> notifications) {
+        notifications.forEach(this::insert);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+
+    @Override
+    public List<PortalNotification> findByUser(final String user) {
+        return toList(stored(byUser, user));
+    }
+
+    @Override
+    public synchronized void deleteAll(final String user) {
+        stored(byUser, user).map(PortalNotification::getId).collect(Collectors.toList()).forEach(this::remove);
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.RatingAnswerRepository;
+import io.gravitee.repository.management.model.RatingAnswer;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsLast;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryRatingAnswerRepository extends AbstractInMemoryRepository<RatingAnswer, String>
+        implements RatingAnswerRepository {
+
+    private static final Comparator<RatingAnswer> OLDEST_FIRST =
+            comparing(RatingAnswer::getCreatedAt, nullsLast(naturalOrder()))
+                    .thenComparing(RatingAnswer::getId, nullsLast(naturalOrder()));
+
+    private final Index<RatingAnswer, String> byRating;
+
+    public InMemoryRatingAnswerRepository() {
+        super(RatingAnswer.class);
+        byRating = index(RatingAnswer::getRating);
+    }
+
+    @Override
+    protected String idOf(final RatingAnswer answer) {
+        return answer.getId();
+    }
+
+    @Override
+    public RatingAnswer create(final RatingAnswer answer) {
+        return insert(answer);
+    }
+
+    @Override
+    public List<RatingAnswer> findByRating(final String rating) {
+        return toList(stored(byRating, rating).sorted(OLDEST_FIRST));
+    }
+
+    @Override
+    public Optional<RatingAnswer> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public RatingAnswer update(final RatingAnswer answer) {
+        return replace(answer);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+}
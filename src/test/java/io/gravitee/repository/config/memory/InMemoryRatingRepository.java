@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.common.data.domain.Page;
+import io.gravitee.repository.management.api.RatingRepository;
+import io.gravitee.repository.management.api.search.Pageable;
+import io.gravitee.repository.management.model.Rating;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsLast;
+import static java.util.Comparator.reverseOrder;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryRatingRepository extends AbstractInMemoryRepository<Rating, String> implements RatingRepository {
+
+    private static final Comparator<Rating> NEWEST_FIRST = comparing(Rating::getCreatedAt, nullsLast(reverseOrder()))
+            .thenComparing(Rating::getId, nullsLast(naturalOrder()));
+
+    private final Index<Rating, String> byApi;
+    private final Index<Rating, List<Object>> byApiAndUser;
+
+    public InMemoryRatingRepository() {
+        super(Rating.class);
+        byApi = index(Rating::getApi);
+        byApiAndUser = index(rating -> key(rating.getApi(), rating.getUser()));
+    }
+
+    @Override
+    protected String idOf(final Rating rating) {
+        return rating.getId();
+    }
+
+    @Override
+    public Rating create(final Rating rating) {
+        return insert(rating);
+    }
+
+    @Override
+    public Optional<Rating> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public Page<Rating> findByApiPageable(final String api, final Pageable pageable) {
+        return Pages.of(toList(stored(byApi, api).sorted(NEWEST_FIRST)), pageable);
+    }
+
+    @Override
+    public List<Rating> findByApi(final String api) {
+        return toList(stored(byApi, api).sorted(NEWEST_FIRST));
+    }
+
+    @Override
+    public Rating update(final Rating rating) {
+        return replace(rating);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+
+    @Override
+    public Optional<Rating> findByApiAndUser(final String api, final String user) {
+        return stored(byApiAndUser, key(api, user)).findFirst().map(AbstractInMemoryRepository::copy);
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.config.TestRepositoryInitializer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Empties every in-memory repository around each test.
+ *
+ * @author GraviteeSource Team
+ */
+public class InMemoryRepositoryInitializer implements TestRepositoryInitializer {
+
+    private final List<AbstractInMemoryRepository<?, ?>> repositories;
+
+    public InMemoryRepositoryInitializer(final Collection<AbstractInMemoryRepository<?, ?>> repositories) {
+        this.repositories = new ArrayList<>(repositories);
+    }
+
+    @Override
+    public void setUp() {
+        repositories.forEach(AbstractInMemoryRepository::clear);
+    }
+
+    @Override
+    public void tearDown() {
+        repositories.forEach(AbstractInMemoryRepository::clear);
+    }
+}
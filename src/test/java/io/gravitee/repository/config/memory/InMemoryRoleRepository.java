@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.RoleRepository;
+import io.gravitee.repository.management.model.Role;
+import io.gravitee.repository.management.model.RoleScope;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryRoleRepository extends AbstractInMemoryRepository<Role, List<Object>> implements RoleRepository {
+
+    private final Index<Role, RoleScope> byScope;
+
+    public InMemoryRoleRepository() {
+        super(Role.class);
+        byScope = index(Role::getScope);
+    }
+
+    @Override
+    protected List<Object> idOf(final Role role) {
+        return key(role.getScope(), role.getName());
+    }
+
+    @Override
+    public Optional<Role> findById(final RoleScope scope, final String name) {
+        return find(key(scope, name));
+    }
+
+    @Override
+    public Role create(final Role role) {
+        return insert(role);
+    }
+
+    @Override
+    public Role update(final Role role) {
+        return replace(role);
+    }
+
+    @Override
+    public void delete(final RoleScope scope, final String name) {
+        remove(key(scope, name));
+    }
+
+    @Override
+    public Set<Role> findByScope(final RoleScope scope) {
+        return toSet(stored(byScope, scope));
+    }
+
+    @Override
+    public Set<Role> findAll() {
+        return toSet(stored());
+    }
+}
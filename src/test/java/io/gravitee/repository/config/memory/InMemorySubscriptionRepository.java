@@ -0,0 +1,140 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.common.data.domain.Page;
+import io.gravitee.repository.management.api.SubscriptionRepository;
+import io.gravitee.repository.management.api.search.Pageable;
+import io.gravitee.repository.management.api.search.SubscriptionCriteria;
+import io.gravitee.repository.management.model.Subscription;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsLast;
+import static java.util.Comparator.reverseOrder;
+
+/**
+ * Subscriptions are indexed in bitmaps by application, plan, api and status, so that a search intersects the unions
+ * of the bitmaps of the values it is given for each of them, then filters and sorts only the subscriptions selected.
+ *
+ * @author GraviteeSource Team
+ */
+public class InMemorySubscriptionRepository extends AbstractInMemoryRepository<Subscription, String>
+        implements SubscriptionRepository {
+
+    private static final Comparator<Subscription> NEWEST_FIRST =
+            comparing(Subscription::getCreatedAt, nullsLast(reverseOrder()))
+                    .thenComparing(Subscription::getId, nullsLast(naturalOrder()));
+
+    private final BitmapIndex<Subscription, String> byApplication;
+    private final BitmapIndex<Subscription, String> byPlan;
+    private final BitmapIndex<Subscription, String> byApi;
+    private final BitmapIndex<Subscription, Subscription.Status> byStatus;
+
+    public InMemorySubscriptionRepository() {
+        super(Subscription.class);
+        byApplication = bitmapIndex(Subscription::getApplication);
+        byPlan = bitmapIndex(Subscription::getPlan);
+        byApi = bitmapIndex(Subscription::getApi);
+        byStatus = bitmapIndex(Subscription::getStatus);
+    }
+
+    @Override
+    protected String idOf(final Subscription subscription) {
+        return subscription.getId();
+    }
+
+    @Override
+    public Optional<Subscription> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public Subscription create(final Subscription subscription) {
+        return insert(subscription);
+    }
+
+    @Override
+    public Subscription update(final Subscription subscription) {
+        return replace(subscription);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+
+    @Override
+    public Page<Subscription> search(final SubscriptionCriteria criteria, final Pageable pageable) {
+        return Pages.copyOf(newestFirst(criteria), pageable);
+    }
+
+    @Override
+    public List<Subscription> search(final SubscriptionCriteria criteria) {
+        return toList(newestFirst(criteria));
+    }
+
+    private Stream<Subscription> newestFirst(final SubscriptionCriteria criteria) {
+        return candidates(criteria)
+                .filter(matching(criteria))
+                .sorted(NEWEST_FIRST);
+    }
+
+    private Stream<Subscription> candidates(final SubscriptionCriteria criteria) {
+        final List<List<Bitmap>> selection = new ArrayList<>(4);
+        if (isSet(criteria.getApplications())) {
+            selection.add(byApplication.any(criteria.getApplications()));
+        }
+        if (isSet(criteria.getPlans())) {
+            selection.add(byPlan.any(criteria.getPlans()));
+        }
+        if (isSet(criteria.getApis())) {
+            selection.add(byApi.any(criteria.getApis()));
+        }
+        if (isSet(criteria.getStatuses())) {
+            selection.add(byStatus.any(criteria.getStatuses()));
+        }
+        return selection.isEmpty() ? stored() : stored(selection);
+    }
+
+    /**
+     * The whole criteria, its values hashed once since the bitmaps may leave many subscriptions to check.
+     */
+    private static Predicate<Subscription> matching(final SubscriptionCriteria criteria) {
+        final Set<String> applications = valuesOf(criteria.getApplications());
+        final Set<String> plans = valuesOf(criteria.getPlans());
+        final Set<String> apis = valuesOf(criteria.getApis());
+        final Set<Subscription.Status> statuses = valuesOf(criteria.getStatuses());
+        return subscription -> (applications == null || applications.contains(subscription.getApplication()))
+                && (plans == null || plans.contains(subscription.getPlan()))
+                && (apis == null || apis.contains(subscription.getApi()))
+                && (statuses == null || statuses.contains(subscription.getStatus()))
+                && (criteria.getClientId() == null || criteria.getClientId().equals(subscription.getClientId()))
+                && between(subscription.getUpdatedAt(), criteria.getFrom(), criteria.getTo());
+    }
+
+    private static <V> Set<V> valuesOf(final Collection<V> values) {
+        return isSet(values) ? new HashSet<>(values) : null;
+    }
+
+    private static boolean isSet(final Collection<?> values) {
+        return values != null && !values.isEmpty();
+    }
+}
@@ -0,0 +1,62 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.TenantRepository;
+import io.gravitee.repository.management.model.Tenant;
+
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryTenantRepository extends AbstractInMemoryRepository<Tenant, String> implements TenantRepository {
+
+    public InMemoryTenantRepository() {
+        super(Tenant.class);
+    }
+
+    @Override
+    protected String idOf(final Tenant tenant) {
+        return tenant.getId();
+    }
+
+    @Override
+    public Optional<Tenant> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public Tenant create(final Tenant tenant) {
+        return insert(tenant);
+    }
+
+    @Override
+    public Tenant update(final Tenant tenant) {
+        return replace(tenant);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+
+    @Override
+    public Set<Tenant> findAll() {
+        return toSet(stored());
+    }
+}
@@ -0,0 +1,106 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.common.data.domain.Page;
+import io.gravitee.repository.management.api.UserRepository;
+import io.gravitee.repository.management.api.search.Pageable;
+import io.gravitee.repository.management.api.search.UserCriteria;
+import io.gravitee.repository.management.model.User;
+import io.gravitee.repository.management.model.UserStatus;
+
+import java.util.*;
+import java.util.stream.Stream;
+
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsLast;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryUserRepository extends AbstractInMemoryRepository<User, String> implements UserRepository {
+
+    private static final Comparator<User> BY_NAME =
+            comparing(User::getLastname, nullsLast(String.CASE_INSENSITIVE_ORDER))
+                    .thenComparing(User::getFirstname, nullsLast(String.CASE_INSENSITIVE_ORDER))
+                    .thenComparing(User::getId, nullsLast(naturalOrder()));
+
+    private final Index<User, List<Object>> bySource;
+    private final Index<User, UserStatus> byStatus;
+
+    public InMemoryUserRepository() {
+        super(User.class);
+        bySource = index(user -> sourceKey(user.getSource(), user.getSourceId()));
+        byStatus = index(User::getStatus);
+    }
+
+    private static List<Object> sourceKey(final String source, final String sourceId) {
+        return key(source, sourceId == null ? null : sourceId.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    protected String idOf(final User user) {
+        return user.getId();
+    }
+
+    @Override
+    public Optional<User> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public User create(final User user) {
+        return insert(user);
+    }
+
+    @Override
+    public User update(final User user) {
+        return replace(user);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+
+    @Override
+    public Optional<User> findBySource(final String source, final String sourceId) {
+        return stored(bySource, sourceKey(source, sourceId)).findFirst().map(AbstractInMemoryRepository::copy);
+    }
+
+    @Override
+    public Set<User> findByIds(final List<String> ids) {
+        return ids == null ? Collections.emptySet() : toSet(ids.stream().distinct().map(this::find)
+                .filter(Optional::isPresent)
+                .map(Optional::get));
+    }
+
+    @Override
+    public Page<User> search(final UserCriteria criteria, final Pageable pageable) {
+        final Stream<User> users;
+        if (criteria == null) {
+            users = stored();
+        } else if (criteria.hasNoStatus()) {
+            users = stored().filter(user -> user.getStatus() == null);
+        } else if (criteria.getStatuses() != null && criteria.getStatuses().length > 0) {
+            users = stored(byStatus, Arrays.asList(criteria.getStatuses()));
+        } else {
+            users = stored();
+        }
+        return Pages.of(toList(users.sorted(BY_NAME)), pageable);
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.repository.management.api.WorkflowRepository;
+import io.gravitee.repository.management.model.Workflow;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsLast;
+import static java.util.Comparator.reverseOrder;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class InMemoryWorkflowRepository extends AbstractInMemoryRepository<Workflow, String>
+        implements WorkflowRepository {
+
+    private static final Comparator<Workflow> NEWEST_FIRST =
+            comparing(Workflow::getCreatedAt, nullsLast(reverseOrder()))
+                    .thenComparing(Workflow::getId, nullsLast(naturalOrder()));
+
+    private final Index<Workflow, List<Object>> byReferenceAndType;
+
+    public InMemoryWorkflowRepository() {
+        super(Workflow.class);
+        byReferenceAndType = index(workflow ->
+                key(workflow.getReferenceType(), workflow.getReferenceId(), workflow.getType()));
+    }
+
+    @Override
+    protected String idOf(final Workflow workflow) {
+        return workflow.getId();
+    }
+
+    @Override
+    public Optional<Workflow> findById(final String id) {
+        return find(id);
+    }
+
+    @Override
+    public Workflow create(final Workflow workflow) {
+        return insert(workflow);
+    }
+
+    @Override
+    public Workflow update(final Workflow workflow) {
+        return replace(workflow);
+    }
+
+    @Override
+    public void delete(final String id) {
+        remove(id);
+    }
+
+    @Override
+    public Set<Workflow> findAll() {
+        return toSet(stored());
+    }
+
+    @Override
+    public List<Workflow> findByReferenceAndType(final String referenceType, final String referenceId,
+                                                 final String type) {
+        return toList(stored(byReferenceAndType, key(referenceType, referenceId, type)).sorted(NEWEST_FIRST));
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * A secondary index mapping each key extracted from a stored item to the ids of the items carrying it. Items are
+ * added and removed under the lock of the owning {@link AbstractInMemoryRepository}, while lookups are lock-free:
+ * the ids returned may be briefly stale, so callers check the items they resolve with {@link #matches}.
+ *
+ * @author GraviteeSource Team
+ */
+public final class Index<T, K> implements SecondaryIndex<T> {
+
+    private final Function<T, Collection<K>> keys;
+    private final ConcurrentMap<K, Set<Object>> ids = new ConcurrentHashMap<>();
+
+    Index(final Function<T, Collection<K>> keys) {
+        this.keys = keys;
+    }
+
+    @Override
+    public void add(final Object id, final T item) {
+        for (final K key : keysOf(item)) {
+            if (key != null) {
+                ids.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(id);
+            }
+        }
+    }
+
+    @Override
+    public void remove(final Object id, final T item) {
+        for (final K key : keysOf(item)) {
+            if (key != null) {
+                ids.computeIfPresent(key, (k, current) -> {
+                    current.remove(id);
+                    return current.isEmpty() ? null : current;
+                });
+            }
+        }
+    }
+
+    @Override
+    public void update(final Object id, final T previous, final T current) {
+        add(id, current);
+        final Collection<K> currentKeys = keysOf(current);
+        for (final K key : keysOf(previous)) {
+            if (key != null && !currentKeys.contains(key)) {
+                ids.computeIfPresent(key, (k, found) -> {
+                    found.remove(id);
+                    return found.isEmpty() ? null : found;
+                });
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        ids.clear();
+    }
+
+    Set<Object> ids(final K key) {
+        if (key == null) {
+            return Collections.emptySet();
+        }
+        final Set<Object> found = ids.get(key);
+        return found == null ? Collections.emptySet() : found;
+    }
+
+    boolean matches(final T item, final K key) {
+        return keysOf(item).contains(key);
+    }
+
+    private Collection<K> keysOf(final T item) {
+        final Collection<K> found = keys.apply(item);
+        return found == null ? Collections.emptySet() : found;
+    }
+}
@@ -0,0 +1,84 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Function;
+
+/**
+ * A secondary index keeping, for each key extracted from a stored item, how many of the items carrying it hold each
+ * value of an int field, in a sorted map, so that the greatest value is read rather than aggregated and stays right
+ * as items are updated and removed.
+ *
+ * @author GraviteeSource Team
+ */
+public final class MaxIndex<T, K> implements SecondaryIndex<T> {
+
+    private static final ConcurrentSkipListMap<Integer, Integer> NONE = new ConcurrentSkipListMap<>();
+
+    private final Function<T, K> key;
+    private final Function<T, Integer> value;
+    private final ConcurrentMap<K, ConcurrentSkipListMap<Integer, Integer>> counts = new ConcurrentHashMap<>();
+
+    MaxIndex(final Function<T, K> key, final Function<T, Integer> value) {
+        this.key = key;
+        this.value = value;
+    }
+
+    @Override
+    public void add(final Object id, final T item) {
+        final K itemKey = key.apply(item);
+        final Integer itemValue = value.apply(item);
+        if (itemKey != null && itemValue != null) {
+            counts.computeIfAbsent(itemKey, k -> new ConcurrentSkipListMap<>()).merge(itemValue, 1, Integer::sum);
+        }
+    }
+
+    @Override
+    public void remove(final Object id, final T item) {
+        final K itemKey = key.apply(item);
+        final Integer itemValue = value.apply(item);
+        if (itemKey != null && itemValue != null) {
+            counts.computeIfPresent(itemKey, (k, values) -> {
+                values.computeIfPresent(itemValue, (v, count) -> count == 1 ? null : count - 1);
+                return values.isEmpty() ? null : values;
+            });
+        }
+    }
+
+    @Override
+    public void update(final Object id, final T previous, final T current) {
+        // the greatest value may briefly count both versions, never none of them
+        add(id, current);
+        remove(id, previous);
+    }
+
+    @Override
+    public void clear() {
+        counts.clear();
+    }
+
+    /**
+     * The greatest value held by the items carrying the key, or the given default when there is none.
+     */
+    int max(final K key, final int none) {
+        final Map.Entry<Integer, Integer> greatest = counts.getOrDefault(key, NONE).lastEntry();
+        return greatest == null ? none : greatest.getKey();
+    }
+}
@@ -0,0 +1,280 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * A secondary index keeping, for each key extracted from a stored item, the ids of the items carrying it in a skip
+ * list ordered by a date of the items, newest first. A time range is then a sub-set of the skip list, and several
+ * keys are read by merging their ranges, so that a page is reached by walking the index rather than by sorting the
+ * matching items. Items without a date come last and are outside of any bounded range.
+ *
+ * @author GraviteeSource Team
+ */
+public final class OrderedIndex<T, K> implements SecondaryIndex<T> {
+
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final Function<T, Collection<K>> keys;
+    private final Function<T, Date> date;
+    private final ConcurrentMap<K, Bucket> buckets = new ConcurrentHashMap<>();
+
+    OrderedIndex(final Function<T, Collection<K>> keys, final Function<T, Date> date) {
+        this.keys = keys;
+        this.date = date;
+    }
+
+    @Override
+    public void add(final Object id, final T item) {
+        final Entry entry = entry(id, item);
+        for (final K key : keysOf(item)) {
+            if (key != null) {
+                buckets.computeIfAbsent(key, k -> new Bucket()).add(entry);
+            }
+        }
+    }
+
+    @Override
+    public void remove(final Object id, final T item) {
+        final Entry entry = entry(id, item);
+        for (final K key : keysOf(item)) {
+            if (key != null) {
+                buckets.computeIfPresent(key, (k, bucket) -> bucket.remove(entry) ? null : bucket);
+            }
+        }
+    }
+
+    @Override
+    public void update(final Object id, final T previous, final T current) {
+        add(id, current);
+        final Entry stale = entry(id, previous);
+        final boolean moved = !stale.equals(entry(id, current));
+        final Collection<K> currentKeys = keysOf(current);
+        for (final K key : keysOf(previous)) {
+            if (key != null && (moved || !currentKeys.contains(key))) {
+                buckets.computeIfPresent(key, (k, bucket) -> bucket.remove(stale) ? null : bucket);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        buckets.clear();
+    }
+
+    /**
+     * The number of items carrying any of the given keys, whatever their date.
+     */
+    long count(final Collection<K> keys) {
+        long count = 0;
+        for (final K key : keys) {
+            final Bucket bucket = key == null ? null : buckets.get(key);
+            count += bucket == null ? 0 : bucket.size;
+        }
+        return count;
+    }
+
+    /**
+     * The number of items dated within the bounds, for each of the given keys: an item is counted once per key it
+     * carries. A bound of 0 means none, and then the count is read rather than walked.
+     */
+    long count(final Collection<K> keys, final long from, final long to) {
+        long count = 0;
+        for (final K key : new LinkedHashSet<>(keys)) {
+            final Bucket bucket = key == null ? null : buckets.get(key);
+            if (bucket != null) {
+                count += from <= 0 && to <= 0 ? bucket.size : bucket.range(from, to).size();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The entries of the items carrying any of the given keys and dated within the bounds, newest first, each one
+     * once. A bound of 0 means none.
+     */
+    Iterator<Entry> newestFirst(final Collection<K> keys, final long from, final long to) {
+        final List<Iterator<Entry>> ranges = new ArrayList<>();
+        for (final K key : new LinkedHashSet<>(keys)) {
+            final Bucket bucket = key == null ? null : buckets.get(key);
+            if (bucket != null) {
+                ranges.add(bucket.range(from, to).iterator());
+            }
+        }
+        return ranges.size() == 1 ? ranges.get(0) : new MergingIterator(ranges);
+    }
+
+    /**
+     * Whether the entry is the one of the current version of the item, rather than a stale one about to be removed.
+     */
+    boolean isCurrent(final Entry entry, final T item) {
+        return entry.equals(entry(entry.id, item));
+    }
+
+    private Entry entry(final Object id, final T item) {
+        final Date itemDate = date.apply(item);
+        return new Entry(itemDate == null ? NO_DATE : itemDate.getTime(), id, 0);
+    }
+
+    private Collection<K> keysOf(final T item) {
+        final Collection<K> found = keys.apply(item);
+        return found == null ? Collections.emptySet() : found;
+    }
+
+    private static final class Bucket {
+
+        private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>();
+        // a skip list counts its elements by walking them, so the size is tracked by the single writer
+        private volatile int size;
+
+        void add(final Entry entry) {
+            if (entries.add(entry)) {
+                size++;
+            }
+        }
+
+        /**
+         * @return whether the bucket is now empty
+         */
+        boolean remove(final Entry entry) {
+            if (entries.remove(entry)) {
+                size--;
+            }
+            return size == 0;
+        }
+
+        NavigableSet<Entry> range(final long from, final long to) {
+            if (from <= 0 && to <= 0) {
+                return entries;
+            }
+            final long newest = to > 0 ? to : Long.MAX_VALUE;
+            final long oldest = from > 0 ? from : NO_DATE + 1;
+            if (newest < oldest) {
+                return Collections.emptyNavigableSet();
+            }
+            return entries.subSet(new Entry(newest, null, -1), false, new Entry(oldest, null, 1), false);
+        }
+    }
+
+    /**
+     * An id at a date, ordered newest first then by id. An entry without id is a bound placed before (-1) or after
+     * (1) all the ids at its date.
+     */
+    static final class Entry implements Comparable<Entry> {
+
+        private final long time;
+        private final Object id;
+        private final int bound;
+
+        Entry(final long time, final Object id, final int bound) {
+            this.time = time;
+            this.id = id;
+            this.bound = bound;
+        }
+
+        Object id() {
+            return id;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public int compareTo(final Entry other) {
+            final int byTime = Long.compare(other.time, time);
+            if (byTime != 0) {
+                return byTime;
+            }
+            if (bound != 0 || other.bound != 0) {
+                return Integer.compare(bound, other.bound);
+            }
+            return ((Comparable<Object>) id).compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            return other instanceof Entry && compareTo((Entry) other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(time) * 31 + Objects.hashCode(id);
+        }
+    }
+
+    /**
+     * Merges ranges sorted newest first into one, skipping the ids found in several of them.
+     */
+    private static final class MergingIterator implements Iterator<Entry> {
+
+        private final PriorityQueue<Head> heads = new PriorityQueue<>();
+        private Entry last;
+
+        MergingIterator(final List<Iterator<Entry>> ranges) {
+            for (final Iterator<Entry> range : ranges) {
+                if (range.hasNext()) {
+                    heads.add(new Head(range));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!heads.isEmpty() && last != null && heads.peek().entry.compareTo(last) == 0) {
+                advance();
+            }
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Entry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = advance();
+            return last;
+        }
+
+        private Entry advance() {
+            final Head head = heads.poll();
+            final Entry entry = head.entry;
+            if (head.range.hasNext()) {
+                head.entry = head.range.next();
+                heads.add(head);
+            }
+            return entry;
+        }
+
+        private static final class Head implements Comparable<Head> {
+
+            private final Iterator<Entry> range;
+            private Entry entry;
+
+            Head(final Iterator<Entry> range) {
+                this.range = range;
+                this.entry = range.next();
+            }
+
+            @Override
+            public int compareTo(final Head other) {
+                return entry.compareTo(other.entry);
+            }
+        }
+    }
+}
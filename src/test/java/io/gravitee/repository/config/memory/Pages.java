@@ -0,0 +1,72 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import io.gravitee.common.data.domain.Page;
+import io.gravitee.repository.management.api.search.Pageable;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * @author GraviteeSource Team
+ */
+public final class Pages {
+
+    private Pages() {
+    }
+
+    /**
+     * The requested page of the given sorted items, or all of them as a first page when there is no pageable.
+     */
+    public static <T> Page<T> of(final List<T> items, final Pageable pageable) {
+        if (pageable == null) {
+            return new Page<>(items, 0, items.size(), items.size());
+        }
+        final long from = Math.min(offset(pageable), items.size());
+        final long to = Math.min(from + pageable.pageSize(), items.size());
+        final List<T> content = new ArrayList<>(items.subList((int) from, (int) to));
+        return new Page<>(content, pageable.pageNumber(), content.size(), items.size());
+    }
+
+    /**
+     * A copy of the requested page of the given sorted stored items, or of all of them as a first page when there is
+     * no pageable: the items outside of the page are counted but neither copied nor collected.
+     */
+    static <T> Page<T> copyOf(final Stream<T> items, final Pageable pageable) {
+        final long from = pageable == null ? 0 : offset(pageable);
+        final long to = pageable == null ? Long.MAX_VALUE : from + pageable.pageSize();
+        final List<T> content = new ArrayList<>();
+        long total = 0;
+        for (final Iterator<T> iterator = items.iterator(); iterator.hasNext(); total++) {
+            final T item = iterator.next();
+            if (total >= from && total < to) {
+                content.add(Copies.copy(item));
+            }
+        }
+        return new Page<>(content, pageable == null ? 0 : pageable.pageNumber(), content.size(), total);
+    }
+
+    /**
+     * The position of the first item of the page, multiplied as longs not to overflow.
+     */
+    static long offset(final Pageable pageable) {
+        final long pageSize = pageable.pageSize();
+        return pageable.pageNumber() * pageSize;
+    }
+}
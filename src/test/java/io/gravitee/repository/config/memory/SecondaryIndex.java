@@ -0,0 +1,36 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+/**
+ * An index maintained by {@link AbstractInMemoryRepository} under its write lock.
+ *
+ * @author GraviteeSource Team
+ */
+interface SecondaryIndex<T> {
+
+    void add(Object id, T item);
+
+    void remove(Object id, T item);
+
+    /**
+     * Replaces the previous version of an item by the current one, adding its new entries before removing the stale
+     * ones so that a concurrent lookup never misses an item carrying the key it looks for.
+     */
+    void update(Object id, T previous, T current);
+
+    void clear();
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Dense ints standing for the ids of the stored items in the {@link BitmapIndex bitmap indexes}: a slot is given to an
+ * id when its item is stored, and given back for reuse when it is removed. A reused slot may briefly resolve to its
+ * new id in a concurrent read, so callers check the items they resolve.
+ *
+ * @author GraviteeSource Team
+ */
+final class Slots<T> implements SecondaryIndex<T> {
+
+    private static final int PAGE_BITS = 16;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private final ConcurrentMap<Object, Integer> slots = new ConcurrentHashMap<>();
+    private final Deque<Integer> released = new ArrayDeque<>();
+    // replaced as a whole when a page is added, so that the reads do not lock
+    private volatile List<AtomicReferenceArray<Object>> ids = Collections.emptyList();
+    private int next;
+
+    @Override
+    public void add(final Object id, final T item) {
+        if (!slots.containsKey(id)) {
+            final int slot = released.isEmpty() ? next++ : released.pop();
+            final int page = slot >>> PAGE_BITS;
+            if (page >= ids.size()) {
+                final List<AtomicReferenceArray<Object>> grown = new ArrayList<>(ids);
+                grown.add(new AtomicReferenceArray<>(PAGE_SIZE));
+                ids = grown;
+            }
+            ids.get(page).set(slot & PAGE_SIZE - 1, id);
+            slots.put(id, slot);
+        }
+    }
+
+    @Override
+    public void remove(final Object id, final T item) {
+        final Integer slot = slots.remove(id);
+        if (slot != null) {
+            ids.get(slot >>> PAGE_BITS).set(slot & PAGE_SIZE - 1, null);
+            released.push(slot);
+        }
+    }
+
+    @Override
+    public void update(final Object id, final T previous, final T current) {
+        // an id keeps its slot
+    }
+
+    @Override
+    public void clear() {
+        slots.clear();
+        released.clear();
+        ids = Collections.emptyList();
+        next = 0;
+    }
+
+    /**
+     * The slot of the id, or -1 when it has none.
+     */
+    int slotOf(final Object id) {
+        final Integer slot = slots.get(id);
+        return slot == null ? -1 : slot;
+    }
+
+    /**
+     * The id having the slot, or null when there is none.
+     */
+    Object idAt(final int slot) {
+        final List<AtomicReferenceArray<Object>> current = ids;
+        final int page = slot >>> PAGE_BITS;
+        return page < current.size() ? current.get(page).get(slot & PAGE_SIZE - 1) : null;
+    }
+}
@@ -0,0 +1,146 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * A hierarchical timing wheel handing out elements once their deadline is over. Time is cut in ticks, and each of
+ * the {@value #LEVELS} wheels has {@value #SLOTS} slots, a slot of a wheel spanning a whole turn of the wheel below:
+ * an element waits in the lowest wheel its deadline fits in, and moves down as the time gets closer, so that
+ * scheduling and expiring cost the same whatever the number of elements. Deadlines beyond the highest wheel wait in
+ * an overflow queue. The wheel is not thread-safe: its owner serializes the calls.
+ *
+ * @author GraviteeSource Team
+ */
+final class TimingWheel<E> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << SLOT_BITS * LEVELS;
+
+    private final long tickMillis;
+    private final List<List<Entry<E>>> slots = new ArrayList<>(LEVELS * SLOTS);
+    private final PriorityQueue<Entry<E>> overflow = new PriorityQueue<>(Comparator.comparingLong(entry -> entry.tick));
+    private long currentTick;
+    private int scheduled;
+    private volatile long nextTickAt;
+
+    TimingWheel(final long tickMillis, final long now) {
+        this.tickMillis = tickMillis;
+        for (int i = 0; i < LEVELS * SLOTS; i++) {
+            slots.add(new ArrayList<>());
+        }
+        moveTo(Math.floorDiv(now, tickMillis));
+    }
+
+    /**
+     * Schedules the element to be handed out once the tick of its deadline is over.
+     */
+    void schedule(final E element, final long deadline) {
+        place(new Entry<>(element, Math.max(Math.floorDiv(deadline, tickMillis), currentTick)));
+    }
+
+    /**
+     * The time from which {@link #advance} has elements to hand out, or at least a tick to move.
+     */
+    long nextTickAt() {
+        return nextTickAt;
+    }
+
+    /**
+     * Moves the wheel to the given time, handing out the elements of the ticks over.
+     */
+    void advance(final long now, final Consumer<E> expired) {
+        final long target = Math.floorDiv(now, tickMillis);
+        while (currentTick < target) {
+            if (scheduled == 0) {
+                // nothing in the wheels: jump, then bring in the overflow now within reach
+                moveTo(target);
+                pullOverflow();
+                break;
+            }
+            final List<Entry<E>> due = slot(0, currentTick);
+            scheduled -= due.size();
+            for (final Entry<E> entry : due) {
+                expired.accept(entry.element);
+            }
+            due.clear();
+            moveTo(currentTick + 1);
+            if ((currentTick & (1L << SLOT_BITS * (LEVELS - 1)) - 1) == 0) {
+                pullOverflow();
+            }
+            for (int level = LEVELS - 1; level > 0; level--) {
+                if ((currentTick & (1L << SLOT_BITS * level) - 1) == 0) {
+                    cascade(level);
+                }
+            }
+        }
+    }
+
+    private void cascade(final int level) {
+        final List<Entry<E>> slot = slot(level, currentTick >> SLOT_BITS * level);
+        final List<Entry<E>> entries = new ArrayList<>(slot);
+        scheduled -= slot.size();
+        slot.clear();
+        entries.forEach(this::place);
+    }
+
+    private void pullOverflow() {
+        while (!overflow.isEmpty() && overflow.peek().tick - currentTick < SPAN) {
+            final Entry<E> entry = overflow.poll();
+            entry.tick = Math.max(entry.tick, currentTick);
+            place(entry);
+        }
+    }
+
+    private void place(final Entry<E> entry) {
+        final long delta = entry.tick - currentTick;
+        for (int level = 0; level < LEVELS; level++) {
+            if (delta >> SLOT_BITS * (level + 1) == 0) {
+                slot(level, entry.tick >> SLOT_BITS * level).add(entry);
+                scheduled++;
+                return;
+            }
+        }
+        overflow.add(entry);
+    }
+
+    private List<Entry<E>> slot(final int level, final long index) {
+        return slots.get(level * SLOTS + (int) (index & SLOTS - 1));
+    }
+
+    private void moveTo(final long tick) {
+        currentTick = tick;
+        nextTickAt = (tick + 1) * tickMillis;
+    }
+
+    private static final class Entry<E> {
+
+        private final E element;
+        private long tick;
+
+        Entry(final E element, final long tick) {
+            this.element = element;
+            this.tick = tick;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.memory;
+
+import org.junit.Test;
+
+import java.util.*;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.*;
+
+/**
+ * With a tick of one millisecond, a wheel spans 64 ticks, the second 4096, the third 262144 and the fourth 16777216,
+ * beyond which the deadlines wait in the overflow queue.
+ *
+ * @author GraviteeSource Team
+ */
+public class TimingWheelTest {
+
+    private static final long SPAN = 1L << 24;
+
+    private final TimingWheel<Long> wheel = new TimingWheel<>(1, 0);
+
+    @Test
+    public void shouldHandOutOnceTheTickOfTheDeadlineIsOver() {
+        wheel.schedule(5L, 5);
+
+        assertEquals(emptyList(), advance(5));
+        assertEquals(6, wheel.nextTickAt());
+        assertEquals(singletonList(5L), advance(6));
+        assertEquals(emptyList(), advance(100));
+    }
+
+    @Test
+    public void shouldHandOutPastDeadlinesOnTheNextTick() {
+        advance(10);
+        wheel.schedule(3L, 3);
+
+        assertEquals(singletonList(3L), advance(11));
+    }
+
+    @Test
+    public void shouldCascadeEveryLevel() {
+        // the last and first tick of each wheel
+        final List<Long> deadlines = asList(63L, 64L, 4095L, 4096L, 262143L, 262144L, SPAN - 1, 70000L);
+        deadlines.forEach(deadline -> wheel.schedule(deadline, deadline));
+
+        final List<Long> sorted = new ArrayList<>(deadlines);
+        Collections.sort(sorted);
+        for (final long deadline : sorted) {
+            assertEquals("before " + deadline, emptyList(), advance(deadline));
+            assertEquals("after " + deadline, singletonList(deadline), advance(deadline + 1));
+        }
+    }
+
+    @Test
+    public void shouldPullTheOverflowOnceWithinReach() {
+        wheel.schedule(10L, 10);
+        wheel.schedule(SPAN + 100, SPAN + 100);
+        wheel.schedule(3 * SPAN + 5, 3 * SPAN + 5);
+
+        assertEquals(singletonList(10L), advance(SPAN + 100));
+        assertEquals(singletonList(SPAN + 100), advance(SPAN + 101));
+        // the wheels empty, the wheel jumps straight to the time asked
+        assertEquals(emptyList(), advance(3 * SPAN + 5));
+        assertEquals(singletonList(3 * SPAN + 5), advance(3 * SPAN + 6));
+    }
+
+    @Test
+    public void shouldPullTheOverflowWhileTheWheelsAreBusy() {
+        // keeps the wheels busy, so that the overflow is pulled while turning rather than after a jump
+        for (long deadline = 0; deadline < 2 * SPAN; deadline += 1 << 16) {
+            wheel.schedule(deadline, deadline);
+        }
+        wheel.schedule(SPAN + 7, SPAN + 7);
+
+        final List<Long> expired = advance(SPAN + 7);
+        assertFalse(expired.contains(SPAN + 7));
+        assertEquals(singletonList(SPAN + 7), advance(SPAN + 8));
+    }
+
+    @Test
+    public void shouldHandOutExactlyTheDeadlinesOver() {
+        final Random random = new Random(42);
+        final Map<Long, Long> deadlines = new HashMap<>();
+        for (long element = 0; element < 10_000; element++) {
+            final long deadline = random.nextInt(4) == 0
+                    ? (long) (random.nextDouble() * 2 * SPAN)
+                    : random.nextInt(300_000);
+            deadlines.put(element, deadline);
+            wheel.schedule(element, deadline);
+        }
+
+        final Set<Long> expired = new HashSet<>();
+        long now = 0;
+        while (now <= 2 * SPAN) {
+            now += 1 + random.nextInt(now < 300_000 ? 5_000 : 1_000_000);
+            for (final Long element : advance(now)) {
+                assertTrue("handed out twice: " + element, expired.add(element));
+                assertTrue("handed out early: " + element, deadlines.get(element) < now);
+            }
+            for (final Map.Entry<Long, Long> deadline : deadlines.entrySet()) {
+                if (deadline.getValue() < now) {
+                    assertTrue("not handed out: " + deadline.getKey(), expired.contains(deadline.getKey()));
+                }
+            }
+        }
+        assertEquals(deadlines.keySet(), expired);
+    }
+
+    private List<Long> advance(final long now) {
+        final List<Long> expired = new ArrayList<>();
+        wheel.advance(now, expired::add);
+        return expired;
+    }
+}
@@ -15,26 +15,38 @@
  */
 package io.gravitee.repository.config.mock;
 
-import org.mockito.Mockito;
 import org.springframework.beans.factory.FactoryBean;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
+ * Each repository is stubbed on the first call made on it, so that a context only pays for the repositories its
+ * tests use. The stubs are prepared once per mock class into a table frozen once prepared, which the stubs of every
+ * context answer from; the stub itself belongs to the mock, a bean of the context, and holds what the calls of the
+ * context change, so that what a test writes to a stub answering writes is never seen by another context.
+ *
  * @author David BRASSELY (david.brassely at graviteesource.com)
  * @author GraviteeSource Team
  */
 public abstract class AbstractRepositoryMock<R> implements FactoryBean<R> {
 
+    private static final Map<Class<?>, StubTable> TABLES = new ConcurrentHashMap<>();
+
     private final Class<R> repoClass;
+    private R stub;
 
     protected AbstractRepositoryMock(final Class<R> repoClass) {
         this.repoClass = repoClass;
     }
 
     @Override
-    public R getObject() throws Exception {
-        R mock = Mockito.mock(repoClass);
-        prepare(mock);
-        return mock;
+    public synchronized R getObject() throws Exception {
+        if (stub == null) {
+            stub = Stubs.stub(repoClass,
+                    TABLES.computeIfAbsent(getClass(), mockClass -> Stubs.prepared(repoClass, this::prepare)));
+        }
+        return stub;
     }
 
     @Override
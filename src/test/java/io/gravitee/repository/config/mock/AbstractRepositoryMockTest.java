@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.mock;
+
+import io.gravitee.repository.management.api.ApplicationRepository;
+import io.gravitee.repository.management.api.TagRepository;
+import io.gravitee.repository.management.model.Tag;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.gravitee.repository.config.mock.Stubs.when;
+import static org.junit.Assert.*;
+
+/**
+ * Each mock stands for the bean of a different context.
+ *
+ * @author GraviteeSource Team
+ */
+public class AbstractRepositoryMockTest {
+
+    private static final AtomicInteger PREPARATIONS = new AtomicInteger();
+
+    @Test
+    public void shouldPrepareTheStubsOncePerMockClass() throws Exception {
+        final TagRepository first = countingTagRepositoryMock().getObject();
+        final TagRepository second = countingTagRepositoryMock().getObject();
+
+        assertNotSame(first, second);
+        assertEquals("first", first.findById("tag").get().getName());
+        assertEquals("first", second.findById("tag").get().getName());
+        assertEquals(1, PREPARATIONS.get());
+    }
+
+    @Test
+    public void shouldGiveEachContextItsOwnConsecutiveAnswers() throws Exception {
+        final TagRepository first = countingTagRepositoryMock().getObject();
+        assertEquals("first", first.findById("tag").get().getName());
+        assertEquals("second", first.findById("tag").get().getName());
+        assertEquals("second", first.findById("tag").get().getName());
+
+        final TagRepository second = countingTagRepositoryMock().getObject();
+        assertEquals("first", second.findById("tag").get().getName());
+    }
+
+    @Test
+    public void shouldKeepTheStateOfEachContext() throws Exception {
+        final ApplicationRepository first = new ApplicationRepositoryMock().getObject();
+        final ApplicationRepository second = new ApplicationRepositoryMock().getObject();
+        final int applications = first.findAll().size();
+
+        first.delete("deleted-app");
+
+        assertEquals(applications - 1, first.findAll().size());
+        assertEquals(applications, second.findAll().size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldRefuseStubbingPreparedStubs() throws Exception {
+        final TagRepository stub = countingTagRepositoryMock().getObject();
+        stub.findAll();
+
+        when(stub.findById("other")).thenReturn(Optional.empty());
+    }
+
+    /**
+     * A mock of a class of its own, anonymous so that the contexts of the TCK, scanning the classes named after
+     * tests, do not take it for a bean.
+     */
+    private static AbstractRepositoryMock<TagRepository> countingTagRepositoryMock() {
+        return new AbstractRepositoryMock<TagRepository>(TagRepository.class) {
+            @Override
+            void prepare(final TagRepository tagRepository) throws Exception {
+                PREPARATIONS.incrementAndGet();
+                when(tagRepository.findById("tag")).thenReturn(Optional.of(tag("first")), Optional.of(tag("second")));
+            }
+        };
+    }
+
+    private static Tag tag(final String name) {
+        final Tag tag = new Tag();
+        tag.setId("tag");
+        tag.setName(name);
+        return tag;
+    }
+}
@@ -21,13 +21,8 @@ import io.gravitee.repository.management.model.Alert;
 import java.util.Date;
 import java.util.Set;
 
-import static java.util.Collections.singletonList;
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
-import static org.mockito.internal.util.collections.Sets.newSet;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -53,13 +48,7 @@ public class AlertRepositoryMock extends AbstractRepositoryMock<AlertRepository>
         alert.setCreatedAt(date);
         alert.setUpdatedAt(date);
 
-        final Alert alert2 = new Alert();
-        alert2.setId("alert");
-        alert2.setName("Health-check");
-
-        final Alert alertBeforUpdate = new Alert();
-        alertBeforUpdate.setId("quota80");
-        alertBeforUpdate.setName("Quota80");
+        final Fixtures<Alert> fixtures = Fixtures.load("/data/alert-tests/", Alert.class, Alert::getId);
 
         final Alert alert2Updated = new Alert();
         alert2Updated.setId("quota80");
@@ -70,40 +59,29 @@ public class AlertRepositoryMock extends AbstractRepositoryMock<AlertRepository>
         alert2Updated.setType("New type");
         alert2Updated.setMetricType("New metric type");
         alert2Updated.setMetric("New metric");
+        alert2Updated.setThresholdType("PERCENT_RATE");
         alert2Updated.setThreshold(99D);
         alert2Updated.setPlan("New plan");
         alert2Updated.setEnabled(true);
         alert2Updated.setCreatedAt(date);
         alert2Updated.setUpdatedAt(date);
 
-        final Alert alertQuota = new Alert();
-        alertQuota.setId("quota90");
-        alertQuota.setName("Quota90");
-        alertQuota.setDescription("Description for alert API quota 90%");
-        alertQuota.setReferenceType("APPLICATION");
-        alertQuota.setReferenceId("application-id");
-        alertQuota.setType("QUOTA");
-        alertQuota.setMetricType("QUOTA");
-        alertQuota.setThresholdType("PERCENT_RATE");
-        alertQuota.setThreshold(90D);
-        alertQuota.setPlan("gold");
-        alertQuota.setEnabled(true);
-        alertQuota.setCreatedAt(date);
-        alertQuota.setUpdatedAt(new Date(1439022010883L));
-
-        final Set<Alert> alerts = newSet(alert, alertQuota, alert2Updated);
-        final Set<Alert> alertsAfterDelete = newSet(alert, alertQuota);
-        final Set<Alert> alertsAfterAdd = newSet(alert, alert2, mock(Alert.class), mock(Alert.class));
+        final Set<Alert> alerts = fixtures.set("health-check", "quota80", "quota90");
+        final Set<Alert> alertsAfterDelete = fixtures.set("health-check", "quota90");
+        final Set<Alert> alertsAfterAdd = fixtures.set("health-check", "quota80", "quota90");
+        alertsAfterAdd.add(alert);
 
         when(alertRepository.findAll()).thenReturn(alerts, alertsAfterAdd, alerts, alertsAfterDelete, alerts);
 
         when(alertRepository.create(any(Alert.class))).thenReturn(alert);
 
+        when(alertRepository.findById(any())).thenAnswer(fixtures.byKey());
+        when(alertRepository.findByReference(any(), any()))
+                .thenAnswer(fixtures.listBy(Alert::getReferenceType, Alert::getReferenceId));
+
         when(alertRepository.findById("new-alert")).thenReturn(of(alert));
-        when(alertRepository.findById("quota80")).thenReturn(of(alertBeforUpdate), of(alert2Updated));
+        when(alertRepository.findById("quota80")).thenReturn(of(fixtures.get("quota80")), of(alert2Updated));
 
         when(alertRepository.update(argThat(o -> o == null || o.getId().equals("unknown")))).thenThrow(new IllegalStateException());
-
-        when(alertRepository.findByReference("API", "api-id")).thenReturn(singletonList(alert));
     }
 }
@@ -16,26 +16,14 @@
 package io.gravitee.repository.config.mock;
 
 import io.gravitee.repository.management.api.ApiHeaderRepository;
-import io.gravitee.repository.management.api.AuditRepository;
-import io.gravitee.repository.management.api.search.AuditCriteria;
 import io.gravitee.repository.management.model.ApiHeader;
-import io.gravitee.repository.management.model.Audit;
-import io.gravitee.repository.management.model.Plan;
-import org.mockito.ArgumentMatcher;
+import static io.gravitee.repository.config.mock.Stubs.*;
 
-import java.util.Arrays;
 import java.util.Date;
 import java.util.HashSet;
 
-import static java.util.Arrays.asList;
-import static java.util.Collections.singletonList;
-import static java.util.Collections.singletonMap;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -49,13 +37,17 @@ public class ApiHeaderRepositoryMock extends AbstractRepositoryMock<ApiHeaderRep
 
     @Override
     void prepare(ApiHeaderRepository apiHeaderRepository) throws Exception {
+        final Fixtures<ApiHeader> fixtures = Fixtures.load("/data/apiheader-tests/", ApiHeader.class, ApiHeader::getId);
+
+        when(apiHeaderRepository.findById(any())).thenAnswer(fixtures.byKey());
+
         //shouldDelete
         when(apiHeaderRepository.findById("1"))
-                .thenReturn(of(mock(ApiHeader.class)), empty());
+                .thenReturn(of(fixtures.get("1")), empty());
 
         //shouldFindAll
         when(apiHeaderRepository.findAll())
-                .thenReturn(new HashSet<>(Arrays.asList(mock(ApiHeader.class), mock(ApiHeader.class), mock(ApiHeader.class))));
+                .thenReturn(new HashSet<>(fixtures.all()));
 
         //shouldUpdate
         ApiHeader up = new ApiHeader();
@@ -16,18 +16,15 @@
 package io.gravitee.repository.config.mock;
 
 import io.gravitee.repository.management.api.ApiKeyRepository;
+import io.gravitee.repository.management.api.search.ApiKeyCriteria;
 import io.gravitee.repository.management.model.ApiKey;
 
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static io.gravitee.repository.utils.DateUtils.parse;
-import static java.util.Arrays.asList;
-import static java.util.Collections.singletonList;
-import static java.util.Optional.empty;
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.nullsLast;
+import static java.util.Comparator.reverseOrder;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.anyString;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
-import static org.mockito.internal.util.collections.Sets.newSet;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -41,27 +38,28 @@ public class ApiKeyRepositoryMock extends AbstractRepositoryMock<ApiKeyRepositor
 
     @Override
     void prepare(ApiKeyRepository apiKeyRepository) throws Exception {
-        final ApiKey apiKey = mock(ApiKey.class);
-        when(apiKey.getKey()).thenReturn("apiKey");
-        when(apiKey.getExpireAt()).thenReturn(parse("11/02/2016"));
-        when(apiKey.getSubscription()).thenReturn("subscription1");
-        when(apiKey.isRevoked()).thenReturn(true);
-        when(apiKey.isPaused()).thenReturn(true);
-        when(apiKeyRepository.findById(anyString())).thenReturn(empty());
-        when(apiKeyRepository.findById("d449098d-8c31-4275-ad59-8dd707865a33")).thenReturn(of(apiKey));
+        final ApiKey apiKey = new ApiKey();
+        apiKey.setKey("apiKey");
+        apiKey.setExpireAt(parse("11/02/2016"));
+        apiKey.setSubscription("subscription1");
+        apiKey.setRevoked(true);
+        apiKey.setPaused(true);
+        final Fixtures<ApiKey> fixtures = Fixtures.load("/data/apikey-tests/", ApiKey.class, ApiKey::getKey)
+                .sorted(comparing(ApiKey::getUpdatedAt, nullsLast(reverseOrder())));
+
+        when(apiKeyRepository.findById(any())).thenAnswer(fixtures.byKey());
+        when(apiKeyRepository.findBySubscription(any())).thenAnswer(fixtures.setBy(ApiKey::getSubscription));
+        when(apiKeyRepository.findByPlan(any())).thenAnswer(fixtures.setBy(ApiKey::getPlan));
+        when(apiKeyRepository.findByCriteria(any())).thenAnswer(fixtures.listWhere((key, arguments) -> {
+            final ApiKeyCriteria criteria = (ApiKeyCriteria) arguments[0];
+            return (criteria.isIncludeRevoked() || !key.isRevoked())
+                    && (criteria.getPlans() == null || criteria.getPlans().isEmpty()
+                    || criteria.getPlans().contains(key.getPlan()))
+                    && Fixtures.within(key.getUpdatedAt(), criteria.getFrom(), criteria.getTo());
+        }));
+
         when(apiKeyRepository.findById("apiKey")).thenReturn(of(apiKey));
-        when(apiKeyRepository.findBySubscription("subscription1")).thenReturn(newSet(apiKey, mock(ApiKey.class)));
 
         when(apiKeyRepository.update(argThat(o -> o == null || o.getKey().equals("unknown")))).thenThrow(new IllegalStateException());
-
-        ApiKey mockCriteria1 = mock(ApiKey.class);
-        ApiKey mockCriteria1Revoked = mock(ApiKey.class);
-        ApiKey mockCriteria2 = mock(ApiKey.class);
-        when(mockCriteria1.getKey()).thenReturn("findByCriteria1");
-        when(mockCriteria1Revoked.getKey()).thenReturn("findByCriteria1Revoked");
-        when(mockCriteria2.getKey()).thenReturn("findByCriteria2");
-        when(apiKeyRepository.findByCriteria(argThat(o -> o == null || o.getFrom() == 0))).thenReturn(asList(mockCriteria1, mockCriteria2));
-        when(apiKeyRepository.findByCriteria(argThat(o -> o == null || o.getTo() == 1486771400000L))).thenReturn(singletonList(mockCriteria1));
-        when(apiKeyRepository.findByCriteria(argThat(o -> o == null || o.isIncludeRevoked()))).thenReturn(asList(mockCriteria2,mockCriteria1Revoked,mockCriteria1));
     }
 }
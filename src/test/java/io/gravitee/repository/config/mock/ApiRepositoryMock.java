@@ -18,25 +18,22 @@ package io.gravitee.repository.config.mock;
 import io.gravitee.repository.management.api.ApiRepository;
 import io.gravitee.repository.management.api.search.ApiCriteria;
 import io.gravitee.repository.management.api.search.ApiFieldExclusionFilter;
-import io.gravitee.repository.management.api.search.builder.PageableBuilder;
+import io.gravitee.repository.management.api.search.Pageable;
 import io.gravitee.repository.management.model.*;
-import org.mockito.internal.util.collections.Sets;
 
+import java.util.HashSet;
 import java.util.List;
 
-import static io.gravitee.repository.management.model.ApiLifecycleState.PUBLISHED;
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static io.gravitee.repository.management.model.LifecycleState.STARTED;
-import static io.gravitee.repository.management.model.LifecycleState.STOPPED;
-import static io.gravitee.repository.management.model.Visibility.PUBLIC;
 import static io.gravitee.repository.utils.DateUtils.parse;
 import static java.util.Arrays.asList;
+import static java.util.Collections.disjoint;
 import static java.util.Collections.singleton;
-import static java.util.Collections.singletonList;
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.nullsLast;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -50,100 +47,88 @@ public class ApiRepositoryMock extends AbstractRepositoryMock<ApiRepository> {
 
     @Override
     void prepare(ApiRepository apiRepository) throws Exception {
-        final Api apiToDelete = mock(Api.class);
-        when(apiToDelete.getId()).thenReturn("api-to-delete");
-
-        final Api apiToUpdate = mock(Api.class);
-        when(apiToUpdate.getId()).thenReturn("api-to-update");
-        when(apiToUpdate.getName()).thenReturn("api-to-update name");
-        when(apiToUpdate.getApiLifecycleState()).thenReturn(PUBLISHED);
-        final Api apiUpdated = mock(Api.class);
-        when(apiUpdated.getName()).thenReturn("New API name");
-        when(apiUpdated.getDescription()).thenReturn("New description");
-        when(apiUpdated.getViews()).thenReturn(Sets.newSet("view1", "view2"));
-        when(apiUpdated.getDefinition()).thenReturn("New definition");
-        when(apiUpdated.getDeployedAt()).thenReturn(parse("11/02/2016"));
-        when(apiUpdated.getGroups()).thenReturn(singleton("New group"));
-        when(apiUpdated.getLifecycleState()).thenReturn(STARTED);
-        when(apiUpdated.getPicture()).thenReturn("New picture");
-        when(apiUpdated.getCreatedAt()).thenReturn(parse("11/02/2016"));
-        when(apiUpdated.getUpdatedAt()).thenReturn(parse("13/11/2016"));
-        when(apiUpdated.getVersion()).thenReturn("New version");
-        when(apiUpdated.getVisibility()).thenReturn(Visibility.PRIVATE);
-        when(apiUpdated.getApiLifecycleState()).thenReturn(ApiLifecycleState.UNPUBLISHED);
-
-        when(apiRepository.findById("api-to-update")).thenReturn(of(apiToUpdate), of(apiUpdated));
-
-        when(apiRepository.findById("api-to-delete")).thenReturn(of(apiToDelete), empty());
-
-        when(apiRepository.findById("findByNameMissing")).thenReturn(empty());
-
-        final Api newApi = mock(Api.class);
-        when(newApi.getVersion()).thenReturn("1");
-        when(newApi.getLifecycleState()).thenReturn(LifecycleState.STOPPED);
-        when(newApi.getVisibility()).thenReturn(Visibility.PRIVATE);
-        when(newApi.getDefinition()).thenReturn("{}");
-        when(newApi.getCreatedAt()).thenReturn(parse("11/02/2016"));
-        when(newApi.getUpdatedAt()).thenReturn(parse("12/02/2016"));
-        when(newApi.getApiLifecycleState()).thenReturn(ApiLifecycleState.CREATED);
+        final Fixtures<Api> fixtures = Fixtures.load("/data/api-tests/", Api.class, Api::getId)
+                .sorted(comparing(Api::getName, nullsLast(String.CASE_INSENSITIVE_ORDER)));
+        final Stubs.StatefulAnswer search =
+                fixtures.listWhere((api, arguments) -> matches(api, (ApiCriteria) arguments[0]));
+
+        when(apiRepository.findById(any())).thenAnswer(fixtures.byKey());
+        when(apiRepository.search(any())).thenAnswer(search);
+        when(apiRepository.search(any(), any(Pageable.class)))
+                .thenAnswer(fixtures.pageWhere((api, arguments) -> matches(api, (ApiCriteria) arguments[0])));
+        when(apiRepository.search(any(), any(ApiFieldExclusionFilter.class))).thenAnswer((arguments, state) -> {
+            @SuppressWarnings("unchecked")
+            final List<Api> apis = (List<Api>) search.answer(arguments, state);
+            final ApiFieldExclusionFilter filter = (ApiFieldExclusionFilter) arguments[1];
+            for (final Api api : apis) {
+                if (filter != null && filter.isDefinition()) {
+                    api.setDefinition(null);
+                }
+                if (filter != null && filter.isPicture()) {
+                    api.setPicture(null);
+                }
+            }
+            return apis;
+        });
+
+        final Api apiUpdated = new Api();
+
+        apiUpdated.setId("api-to-update");
+        apiUpdated.setName("New API name");
+        apiUpdated.setDescription("New description");
+        apiUpdated.setViews(new HashSet<>(asList("view1", "view2")));
+        apiUpdated.setDefinition("New definition");
+        apiUpdated.setDeployedAt(parse("11/02/2016"));
+        apiUpdated.setGroups(singleton("New group"));
+        apiUpdated.setLifecycleState(STARTED);
+        apiUpdated.setPicture("New picture");
+        apiUpdated.setCreatedAt(parse("11/02/2016"));
+        apiUpdated.setUpdatedAt(parse("13/11/2016"));
+        apiUpdated.setVersion("New version");
+        apiUpdated.setVisibility(Visibility.PRIVATE);
+        apiUpdated.setApiLifecycleState(ApiLifecycleState.UNPUBLISHED);
+
+        when(apiRepository.findById("api-to-update")).thenReturn(of(fixtures.get("api-to-update")), of(apiUpdated));
+
+        when(apiRepository.findById("api-to-delete")).thenReturn(of(fixtures.get("api-to-delete")), empty());
+
+        final Api newApi = new Api();
+
+        newApi.setId("sample-new");
+        newApi.setVersion("1");
+        newApi.setLifecycleState(LifecycleState.STOPPED);
+        newApi.setVisibility(Visibility.PRIVATE);
+        newApi.setDefinition("{}");
+        newApi.setCreatedAt(parse("11/02/2016"));
+        newApi.setUpdatedAt(parse("12/02/2016"));
+        newApi.setApiLifecycleState(ApiLifecycleState.CREATED);
         when(apiRepository.findById("sample-new")).thenReturn(of(newApi), empty());
 
-        final Api groupedApi = mock(Api.class);
-        when(groupedApi.getGroups()).thenReturn(singleton("api-group"));
-        when(groupedApi.getId()).thenReturn("grouped-api");
-        when(groupedApi.getApiLifecycleState()).thenReturn(PUBLISHED);
-        when(apiRepository.findById("grouped-api")).thenReturn(of(groupedApi));
-
-        final Api apiToFindById = mock(Api.class);
-        when(apiToFindById.getId()).thenReturn("api-to-findById");
-        when(apiToFindById.getVersion()).thenReturn("1");
-        when(apiToFindById.getName()).thenReturn("api-to-findById name");
-        when(apiToFindById.getLifecycleState()).thenReturn(LifecycleState.STOPPED);
-        when(apiToFindById.getVisibility()).thenReturn(PUBLIC);
-        when(apiToFindById.getDefinition()).thenReturn(null);
-        when(apiToFindById.getCreatedAt()).thenReturn(parse("11/02/2016"));
-        when(apiToFindById.getUpdatedAt()).thenReturn(parse("12/02/2016"));
-        when(apiToFindById.getLabels()).thenReturn(asList("label 1", "label 2"));
-        when(apiToFindById.getApiLifecycleState()).thenReturn(ApiLifecycleState.DEPRECATED);
-        when(apiRepository.findById("api-to-findById")).thenReturn(of(apiToFindById));
-
-        final List<Api> searchedApis = asList(mock(Api.class), mock(Api.class), mock(Api.class), mock(Api.class));
-        final List<Api> searchedApisAfterDeletion = asList(mock(Api.class), mock(Api.class), mock(Api.class));
+        // api-to-delete deleted by the test
+        final List<Api> searchedApis = fixtures.all();
+        final List<Api> searchedApisAfterDeletion = fixtures.list("api-to-update", "api-to-findById", "grouped-api");
         when(apiRepository.search(null)).thenReturn(searchedApis, searchedApis, searchedApis, searchedApisAfterDeletion);
-        when(apiRepository.search(new ApiCriteria.Builder().build())).thenReturn(asList(mock(Api.class), mock(Api.class), mock(Api.class), mock(Api.class)));
-
-        when(apiRepository.search(new ApiCriteria.Builder().ids("api-to-delete", "api-to-update", "unknown").build())).
-                thenReturn(asList(apiToUpdate, apiToDelete));
 
         when(apiRepository.update(argThat(o -> o == null || o.getId().equals("unknown")))).thenThrow(new IllegalStateException());
+    }
 
-        when(apiRepository.search(new ApiCriteria.Builder().name("api-to-findById name").build())).thenReturn(singletonList(apiToFindById));
-        when(apiRepository.search(new ApiCriteria.Builder().view("my-view").build())).thenReturn(singletonList(apiToFindById));
-        when(apiRepository.search(new ApiCriteria.Builder().name("api-to-findById name").version("1").build())).thenReturn(singletonList(apiToFindById));
-        when(apiRepository.search(new ApiCriteria.Builder().name("api-to-findById name").version("1").build(),
-                new ApiFieldExclusionFilter.Builder().excludeDefinition().build())).thenReturn(singletonList(apiToFindById));
-        when(apiRepository.search(new ApiCriteria.Builder().groups("api-group", "unknown").build())).thenReturn(singletonList(groupedApi));
-        when(apiRepository.search(new ApiCriteria.Builder().version("1").build())).thenReturn(asList(apiToFindById,
-                groupedApi, apiToDelete, apiToUpdate));
-        when(apiRepository.search(new ApiCriteria.Builder().label("label 1").build())).thenReturn(singletonList(apiToFindById));
-        when(apiRepository.search(new ApiCriteria.Builder().state(STOPPED).build())).thenReturn(asList(apiToFindById,
-                groupedApi, apiToDelete, apiToUpdate));
-        when(apiRepository.search(new ApiCriteria.Builder().visibility(PUBLIC).build())).thenReturn(asList(apiToFindById,
-                groupedApi));
-
-        when(apiRepository.search(
-                new ApiCriteria.Builder().version("1").build(),
-                new PageableBuilder().pageNumber(0).pageSize(2).build())).thenReturn(
-                new io.gravitee.common.data.domain.Page<>(asList(apiToDelete, apiToFindById), 0, 2, 4));
-        when(apiRepository.search(
-                new ApiCriteria.Builder().version("1").build(),
-                new PageableBuilder().pageNumber(1).pageSize(2).build())).thenReturn(
-                new io.gravitee.common.data.domain.Page<>(asList(apiToUpdate, groupedApi), 1, 2, 4));
-        when(apiRepository.search(
-                new ApiCriteria.Builder().version("1").build(), new PageableBuilder().build())).thenReturn(
-                new io.gravitee.common.data.domain.Page<>(asList(apiToDelete, apiToFindById, apiToUpdate, groupedApi), 0, 4, 4));
-
-        when(apiRepository.search(new ApiCriteria.Builder().lifecycleStates(singletonList(PUBLISHED)).build()))
-                .thenReturn(asList(apiToUpdate, groupedApi));
+    /**
+     * Whether the API matches the whole criteria, no criteria accepting every API.
+     */
+    private static boolean matches(final Api api, final ApiCriteria criteria) {
+        if (criteria == null) {
+            return true;
+        }
+        return (criteria.getIds() == null || criteria.getIds().isEmpty() || criteria.getIds().contains(api.getId()))
+                && (criteria.getGroups() == null || criteria.getGroups().isEmpty()
+                        || api.getGroups() != null && !disjoint(api.getGroups(), criteria.getGroups()))
+                && (criteria.getView() == null || api.getViews() != null && api.getViews().contains(criteria.getView()))
+                && (criteria.getLabel() == null || api.getLabels() != null && api.getLabels().contains(criteria.getLabel()))
+                && (criteria.getState() == null || criteria.getState() == api.getLifecycleState())
+                && (criteria.getVisibility() == null || criteria.getVisibility() == api.getVisibility())
+                && (criteria.getVersion() == null || criteria.getVersion().equals(api.getVersion()))
+                && (criteria.getName() == null || criteria.getName().equals(api.getName()))
+                && (criteria.getLifecycleStates() == null || criteria.getLifecycleStates().isEmpty()
+                        || criteria.getLifecycleStates().contains(api.getApiLifecycleState()));
     }
 }
@@ -22,18 +22,18 @@ import io.gravitee.repository.management.model.ApplicationType;
 
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static io.gravitee.repository.utils.DateUtils.parse;
 import static java.util.Arrays.asList;
-import static java.util.Collections.singleton;
-import static java.util.Collections.singletonList;
+import static java.util.Collections.disjoint;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.*;
-import static org.mockito.internal.util.collections.Sets.newSet;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -47,87 +47,62 @@ public class ApplicationRepositoryMock extends AbstractRepositoryMock<Applicatio
 
     @Override
     void prepare(ApplicationRepository applicationRepository) throws Exception {
-        final Application application = mock(Application.class);
-        when(application.getId()).thenReturn("application-sample");
-        when(application.getType()).thenReturn(ApplicationType.SIMPLE);
-        Map<String, String> metadata = new HashMap<>();
-        metadata.put("client_id", "my-client-id");
-        metadata.put("type", "Web");
-        when(application.getMetadata()).thenReturn(metadata);
-        when(applicationRepository.findById("application-sample")).thenReturn(of(application));
-
-        final Set<Application> allApplications = newSet(
-                application,
-                mock(Application.class),
-                mock(Application.class),
-                mock(Application.class),
-                mock(Application.class),
-                mock(Application.class),
-                mock(Application.class),
-                mock(Application.class),
-                mock(Application.class));
-        when(applicationRepository.findAll()).thenReturn(allApplications);
-        doAnswer(invocation -> allApplications.remove(application)).when(applicationRepository).delete("deleted-app");
+        final Fixtures<Application> fixtures = Fixtures.load("/data/application-tests/", Application.class,
+                Application::getId);
+        when(applicationRepository.findById(any())).thenAnswer(fixtures.byKey());
+        when(applicationRepository.findByIds(any()))
+                .thenAnswer(fixtures.setWhere((application, arguments) -> ((List<?>) arguments[0]).contains(application.getId())));
+        when(applicationRepository.findAll(any())).thenAnswer(fixtures.setWhere((application, arguments) ->
+                hasStatus(application, (ApplicationStatus[]) arguments[0])));
+        when(applicationRepository.findByGroups(any(), any())).thenAnswer(fixtures.setWhere((application, arguments) ->
+                application.getGroups() != null && !disjoint(application.getGroups(), (List<?>) arguments[0])
+                        && hasStatus(application, (ApplicationStatus[]) arguments[1])));
+        when(applicationRepository.findByName(any())).thenAnswer(fixtures.setWhere((application, arguments) ->
+                application.getName() != null && arguments[0] != null && application.getName().toLowerCase(Locale.ROOT)
+                        .contains(((String) arguments[0]).toLowerCase(Locale.ROOT))));
+
+        // the applications of each context, which deleting one changes
+        final Object allApplications = new Object();
+        final Supplier<Set<Application>> fixtureApplications = () -> new HashSet<>(fixtures.all());
+        when(applicationRepository.findAll()).thenAnswer((arguments, state) ->
+                Stubs.copy(state.get(allApplications, fixtureApplications)));
+        doAnswer((arguments, state) -> state.get(allApplications, fixtureApplications).remove(fixtures.get("deleted-app")))
+                .when(applicationRepository).delete("deleted-app");
         when(applicationRepository.findById("deleted-app")).thenReturn(empty());
 
-        final Application newApplication = mock(Application.class);
-        when(newApplication.getName()).thenReturn("created-app");
-        when(newApplication.getDescription()).thenReturn("Application description");
-        when(newApplication.getStatus()).thenReturn(ApplicationStatus.ACTIVE);
-        when(newApplication.getType()).thenReturn(ApplicationType.SIMPLE);
-        when(newApplication.getCreatedAt()).thenReturn(parse("11/02/2016"));
-        when(newApplication.getUpdatedAt()).thenReturn(parse("12/02/2016"));
+        final Application newApplication = new Application();
+
+        newApplication.setId("created-app");
+        newApplication.setName("created-app");
+        newApplication.setDescription("Application description");
+        newApplication.setStatus(ApplicationStatus.ACTIVE);
+        newApplication.setType(ApplicationType.SIMPLE);
+        newApplication.setCreatedAt(parse("11/02/2016"));
+        newApplication.setUpdatedAt(parse("12/02/2016"));
         Map<String, String> createMetadata = new HashMap<>();
         createMetadata.put("type", "app-type");
-        when(newApplication.getMetadata()).thenReturn(createMetadata);
+        newApplication.setMetadata(createMetadata);
 
         when(applicationRepository.findById("created-app")).thenReturn(of(newApplication));
 
-        final Application updatedApplication = mock(Application.class);
-        when(updatedApplication.getId()).thenReturn("updated-app");
-        when(updatedApplication.getName()).thenReturn("updated-app");
-        when(updatedApplication.getDescription()).thenReturn("Updated description");
-        when(updatedApplication.getStatus()).thenReturn(ApplicationStatus.ARCHIVED);
-        when(updatedApplication.getType()).thenReturn(ApplicationType.SIMPLE);
-        when(updatedApplication.getCreatedAt()).thenReturn(parse("11/02/2016"));
-        when(updatedApplication.getUpdatedAt()).thenReturn(parse("22/02/2016"));
+        final Application updatedApplication = new Application();
+        updatedApplication.setId("updated-app");
+        updatedApplication.setName("updated-app");
+        updatedApplication.setDescription("Updated description");
+        updatedApplication.setStatus(ApplicationStatus.ARCHIVED);
+        updatedApplication.setType(ApplicationType.SIMPLE);
+        updatedApplication.setCreatedAt(parse("11/02/2016"));
+        updatedApplication.setUpdatedAt(parse("22/02/2016"));
         Map<String, String> updateMetadata = new HashMap<>();
         updateMetadata.put("type", "update-type");
-        when(updatedApplication.getMetadata()).thenReturn(updateMetadata);
+        updatedApplication.setMetadata(updateMetadata);
 
         when(applicationRepository.findById("updated-app")).thenReturn(of(updatedApplication));
 
-        final Application groupedApplication1 = mock(Application.class);
-        when(groupedApplication1.getId()).thenReturn("grouped-app1");
-        when(groupedApplication1.getGroups()).thenReturn(singleton("application-group"));
-        when(applicationRepository.findById("grouped-app1")).thenReturn(of(groupedApplication1));
-
-        final Application groupedApplication2 = mock(Application.class);
-        when(groupedApplication2.getId()).thenReturn("grouped-app2");
-        when(groupedApplication2.getGroups()).thenReturn(singleton("application-group"));
-        when(applicationRepository.findById("grouped-app2")).thenReturn(of(groupedApplication2));
-
-        final Set<Application> allArchivedApplications = newSet(groupedApplication2);
-        when(applicationRepository.findAll(ApplicationStatus.ARCHIVED)).thenReturn(allArchivedApplications);
-
-        final Application searchedApp1 = mock(Application.class);
-        final Application searchedApp2 = mock(Application.class);
-        when(searchedApp1.getId()).thenReturn("searched-app1");
-        when(searchedApp1.getName()).thenReturn("searched-app1");
-        when(searchedApp2.getId()).thenReturn("searched-app2");
-        when(searchedApp2.getName()).thenReturn("searched-app2");
-        when(applicationRepository.findByName("searched-app1")).thenReturn(singleton(searchedApp1));
-        when(applicationRepository.findByName("arched")).thenReturn(newSet(searchedApp1, searchedApp2));
-        when(applicationRepository.findByName("aRcHEd")).thenReturn(newSet(searchedApp1, searchedApp2));
-
-        when(applicationRepository.findByIds(asList("searched-app1", "searched-app2"))).thenReturn(newSet(searchedApp1, searchedApp2));
-        when(applicationRepository.findByGroups(singletonList("application-group"))).thenReturn(newSet(groupedApplication1, groupedApplication2));
-        when(applicationRepository.findByGroups(singletonList("application-group"), ApplicationStatus.ARCHIVED)).thenReturn(newSet(groupedApplication2));
-
-
-        when(applicationRepository.findByIds(asList("application-sample", "updated-app", "unknown"))).
-                thenReturn(new HashSet<>(asList(application, updatedApplication)));
-
         when(applicationRepository.update(argThat(o -> o == null || o.getId().equals("unknown")))).thenThrow(new IllegalStateException());
     }
+
+    private static boolean hasStatus(final Application application, final ApplicationStatus[] statuses) {
+        return statuses == null || statuses.length == 0 || asList(statuses).contains(application.getStatus());
+    }
 }
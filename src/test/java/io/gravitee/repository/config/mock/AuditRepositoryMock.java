@@ -16,19 +16,15 @@
 package io.gravitee.repository.config.mock;
 
 import io.gravitee.repository.management.api.AuditRepository;
+import io.gravitee.repository.management.api.search.AuditCriteria;
 import io.gravitee.repository.management.model.Audit;
-import io.gravitee.repository.management.model.Plan;
 
-import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
-import static java.util.Arrays.asList;
-import static java.util.Collections.singletonList;
-import static java.util.Collections.singletonMap;
-import static java.util.Optional.of;
-import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
+import static io.gravitee.repository.config.mock.Stubs.*;
+import static java.util.Comparator.comparing;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -42,56 +38,36 @@ public class AuditRepositoryMock extends AbstractRepositoryMock<AuditRepository>
 
     @Override
     void prepare(AuditRepository auditRepository) throws Exception {
-        final Audit newAudit = mock(Audit.class);
-        when(newAudit.getId()).thenReturn("new");
-        when(newAudit.getReferenceType()).thenReturn(Audit.AuditReferenceType.API);
-        when(newAudit.getReferenceId()).thenReturn("1");
-        when(newAudit.getEvent()).thenReturn(Plan.AuditEvent.PLAN_CREATED.name());
-        when(newAudit.getProperties()).thenReturn(singletonMap(Audit.AuditProperties.PLAN.name(), "123"));
-        when(newAudit.getUser()).thenReturn("JohnDoe");
-        when(newAudit.getPatch()).thenReturn("diff");
-        when(newAudit.getCreatedAt()).thenReturn(new Date(1486771200000L));
-        when(auditRepository.findById("new")).thenReturn(of(newAudit));
+        final Fixtures<Audit> fixtures = Fixtures.load("/data/audit-tests/", Audit.class, Audit::getId)
+                .sorted(comparing(Audit::getCreatedAt).reversed());
 
-        final Audit searchable1 = mock(Audit.class);
-        when(searchable1.getId()).thenReturn("searchable1");
+        when(auditRepository.findById(any())).thenAnswer(fixtures.byKey());
+        when(auditRepository.search(any(), any()))
+                .thenAnswer(fixtures.pageWhere((audit, arguments) -> matches(audit, (AuditCriteria) arguments[0])));
+    }
 
-        final Audit searchable2 = mock(Audit.class);
-        when(searchable2.getId()).thenReturn("searchable2");
-        //shouldSearchWithPagination
-        when(auditRepository.search(
-                argThat(o -> o != null && o.getReferences() != null && !o.getReferences().isEmpty()
-                ), any())).
-                thenReturn(new io.gravitee.common.data.domain.Page<>(singletonList(searchable2), 0, 1, 2));
-        //shouldSearchWithEvent
-        when(auditRepository.search(
-                argThat(o -> o != null && o.getEvents() != null && o.getEvents().get(0).equals(Plan.AuditEvent.PLAN_UPDATED.name())
-                ), any())).
-                thenReturn(new io.gravitee.common.data.domain.Page<>(singletonList(searchable2), 0, 1, 1));
-        //shouldSearchAll
-        when(auditRepository.search(
-                argThat(o -> o != null && (o.getEvents() == null || o.getEvents().isEmpty()) && (o.getReferences() == null || o.getReferences().isEmpty())
-                ), any())).
-                thenReturn(new io.gravitee.common.data.domain.Page<>(
-                        asList(searchable2, newAudit, searchable1),
-                        0,
-                        3,
-                        3));
-        //shouldSearchFromTo
-        when(auditRepository.search(
-                argThat(o -> o != null && o.getFrom() > 0 && o.getTo() > 0
-                ), any())).
-                thenReturn(new io.gravitee.common.data.domain.Page<>(singletonList(searchable2), 0, 1, 1));
-        //shouldSearchFrom
-        when(auditRepository.search(
-                argThat(o -> o != null && o.getFrom() > 0 && o.getTo() == 0
-                ), any())).
-                thenReturn(new io.gravitee.common.data.domain.Page<>(asList(mock(Audit.class), mock(Audit.class), mock(Audit.class)), 0, 2, 3),
-                        new io.gravitee.common.data.domain.Page<>(asList(mock(Audit.class), mock(Audit.class), mock(Audit.class)), 1, 1, 3));
-        //shouldSearchTo
-        when(auditRepository.search(
-                argThat(o -> o != null && o.getFrom() == 0 && o.getTo() > 0
-                ), any())).
-                thenReturn(new io.gravitee.common.data.domain.Page<>(singletonList(mock(Audit.class)), 0, 1, 1));
+    /**
+     * Whether the audit matches the whole criteria: references, events, properties and creation dates.
+     */
+    private static boolean matches(final Audit audit, final AuditCriteria criteria) {
+        if (criteria.getReferences() != null && !criteria.getReferences().isEmpty()) {
+            final List<String> ids = criteria.getReferences().get(audit.getReferenceType());
+            if (ids == null || !ids.contains(audit.getReferenceId())) {
+                return false;
+            }
+        }
+        if (criteria.getEvents() != null && !criteria.getEvents().isEmpty()
+                && !criteria.getEvents().contains(audit.getEvent())) {
+            return false;
+        }
+        if (criteria.getProperties() != null) {
+            for (final Map.Entry<String, String> property : criteria.getProperties().entrySet()) {
+                if (audit.getProperties() == null
+                        || !Objects.equals(property.getValue(), audit.getProperties().get(property.getKey()))) {
+                    return false;
+                }
+            }
+        }
+        return Fixtures.within(audit.getCreatedAt(), criteria.getFrom(), criteria.getTo());
     }
 }
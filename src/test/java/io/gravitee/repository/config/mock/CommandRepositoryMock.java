@@ -16,18 +16,17 @@
 package io.gravitee.repository.config.mock;
 
 import io.gravitee.repository.management.api.CommandRepository;
+import io.gravitee.repository.management.api.search.CommandCriteria;
 import io.gravitee.repository.management.model.Command;
 
 import java.util.Arrays;
 import java.util.Date;
 import java.util.Objects;
 
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static java.util.Collections.singletonList;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
-import static org.mockito.ArgumentMatchers.argThat;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 /**
  * @author Nicolas GERAUD (nicolas.geraud at graviteesource.com)
@@ -41,6 +40,8 @@ public class CommandRepositoryMock extends AbstractRepositoryMock<CommandReposit
 
     @Override
     void prepare(CommandRepository commandRepository) throws Exception {
+        final Fixtures<Command> fixtures = Fixtures.load("/data/command-tests/", Command.class, Command::getId);
+
         //shouldCreate
         Command newCommand = new Command();
         newCommand.setId("msg-to-create");
@@ -77,26 +78,24 @@ public class CommandRepositoryMock extends AbstractRepositoryMock<CommandReposit
 
         //shouldDelete
         when(commandRepository.findById("msg-to-delete"))
-                .thenReturn(of(mock(Command.class)), empty());
+                .thenReturn(of(fixtures.get("msg-to-delete")), empty());
 
         //search
-        Command search1 = new Command();
-        search1.setId("search1");
-        Command search2 = new Command();
-        search2.setId("search2");
-        Command search3 = new Command();
-        search3.setId("search3");
-        when(commandRepository.search(argThat(o-> o != null && o.getNotFrom() != null)))
-                .thenReturn(Arrays.asList(newCommand, updatedCommand, mock(Command.class), search2, search3));
-        when(commandRepository.search(argThat(o -> o != null && o.getTo() != null)))
-                .thenReturn(singletonList(search3));
-        when(commandRepository.search(argThat(o -> o != null && o.getTags() != null && o.getTags().length == 1)))
-                .thenReturn(Arrays.asList(newCommand, updatedCommand, search1, search2));
-        when(commandRepository.search(argThat(o -> o != null && o.getTags() != null && o.getTags().length == 2)))
-                .thenReturn(singletonList(search3));
-        when(commandRepository.search(argThat(o -> o != null && o.getNotAckBy() != null)))
-                .thenReturn(Arrays.asList(newCommand, updatedCommand, mock(Command.class), search2));
-        when(commandRepository.search(argThat(o ->  o != null && o.isNotExpired())))
-                .thenReturn(singletonList(search2));
+        when(commandRepository.search(any()))
+                .thenAnswer(fixtures.listWhere((command, arguments) -> matches(command, (CommandCriteria) arguments[0])));
+    }
+
+    /**
+     * Whether the command matches the whole criteria, expired at the time of the search.
+     */
+    private static boolean matches(final Command command, final CommandCriteria criteria) {
+        return (criteria.getTo() == null || criteria.getTo().equals(command.getTo()))
+                && (criteria.getTags() == null || command.getTags() != null
+                        && command.getTags().containsAll(Arrays.asList(criteria.getTags())))
+                && (!criteria.isNotExpired() || command.getExpiredAt() == null
+                        || command.getExpiredAt().getTime() > System.currentTimeMillis())
+                && (criteria.getNotFrom() == null || !criteria.getNotFrom().equals(command.getFrom()))
+                && (criteria.getNotAckBy() == null || command.getAcknowledgments() == null
+                        || !command.getAcknowledgments().contains(criteria.getNotAckBy()));
     }
 }
@@ -22,11 +22,8 @@ import io.gravitee.repository.management.model.DictionaryType;
 import java.util.Date;
 import java.util.Set;
 
-import static java.util.Optional.empty;
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.*;
-import static org.mockito.internal.util.collections.Sets.newSet;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -40,38 +37,37 @@ public class DictionaryRepositoryMock extends AbstractRepositoryMock<DictionaryR
 
     @Override
     void prepare(DictionaryRepository dictionaryRepository) throws Exception {
-        final Dictionary newDictionary = mock(Dictionary.class);
-        when(newDictionary.getName()).thenReturn("My dic 1");
-        when(newDictionary.getDescription()).thenReturn("Description for my dic 1");
-        when(newDictionary.getCreatedAt()).thenReturn(new Date(1000000000000L));
-        when(newDictionary.getUpdatedAt()).thenReturn(new Date(1439032010883L));
-        when(newDictionary.getType()).thenReturn(DictionaryType.MANUAL);
+        final Dictionary newDictionary = new Dictionary();
+        newDictionary.setId("new-dictionary");
+        newDictionary.setName("My dic 1");
+        newDictionary.setDescription("Description for my dic 1");
+        newDictionary.setCreatedAt(new Date(1000000000000L));
+        newDictionary.setUpdatedAt(new Date(1439032010883L));
+        newDictionary.setType(DictionaryType.MANUAL);
 
-        final Dictionary dic1 = new Dictionary();
-        dic1.setId("dic-1");
-        dic1.setName("My dic 1");
-        dic1.setDescription("Description for my dic 1");
-        dic1.setCreatedAt(new Date(1000000000000L));
-        dic1.setUpdatedAt(new Date(1439032010883L));
+        final Fixtures<Dictionary> fixtures = Fixtures.load("/data/dictionary-tests/", Dictionary.class, Dictionary::getId);
 
-        final Dictionary dictionaryUpdated = mock(Dictionary.class);
-        when(dictionaryUpdated.getName()).thenReturn("My dic 1");
-        when(dictionaryUpdated.getDescription()).thenReturn("Description for my dic 1");
-        when(dictionaryUpdated.getCreatedAt()).thenReturn(new Date(1000000000000L));
-        when(dictionaryUpdated.getUpdatedAt()).thenReturn(new Date(1486771200000L));
-        when(dictionaryUpdated.getType()).thenReturn(DictionaryType.DYNAMIC);
+        final Dictionary dictionaryUpdated = new Dictionary();
 
-        final Set<Dictionary> dictionaries = newSet(newDictionary, dic1, mock(Dictionary.class));
-        final Set<Dictionary> dictionariesAfterDelete = newSet(newDictionary, dic1);
-        final Set<Dictionary> dictionariesAfterAdd = newSet(newDictionary, dic1, mock(Dictionary.class), mock(Dictionary.class));
+        dictionaryUpdated.setId("dic-1");
+        dictionaryUpdated.setName("My dic 1");
+        dictionaryUpdated.setDescription("Description for my dic 1");
+        dictionaryUpdated.setCreatedAt(new Date(1000000000000L));
+        dictionaryUpdated.setUpdatedAt(new Date(1486771200000L));
+        dictionaryUpdated.setType(DictionaryType.DYNAMIC);
+
+        final Set<Dictionary> dictionaries = fixtures.set("dic-1", "dic-2", "dic-3");
+        final Set<Dictionary> dictionariesAfterDelete = fixtures.set("dic-1", "dic-2");
+        final Set<Dictionary> dictionariesAfterAdd = fixtures.set("dic-1", "dic-2", "dic-3");
+        dictionariesAfterAdd.add(newDictionary);
 
         when(dictionaryRepository.findAll()).thenReturn(dictionaries, dictionariesAfterAdd, dictionaries, dictionariesAfterDelete, dictionaries);
 
         when(dictionaryRepository.create(any(Dictionary.class))).thenReturn(newDictionary);
 
+        when(dictionaryRepository.findById(any())).thenAnswer(fixtures.byKey());
         when(dictionaryRepository.findById("new-dictionary")).thenReturn(of(newDictionary));
-        when(dictionaryRepository.findById("unknown")).thenReturn(empty());
-        when(dictionaryRepository.findById("dic-1")).thenReturn(of(dic1), of(dictionaryUpdated));
+        when(dictionaryRepository.findById("dic-1")).thenReturn(of(fixtures.get("dic-1")), of(dictionaryUpdated));
 
         when(dictionaryRepository.update(argThat(o -> o == null || o.getId().equals("unknown")))).thenThrow(new IllegalStateException());
     }
@@ -18,12 +18,11 @@ package io.gravitee.repository.config.mock;
 import io.gravitee.repository.management.api.EntrypointRepository;
 import io.gravitee.repository.management.model.Entrypoint;
 
+import java.util.HashSet;
 import java.util.Set;
 
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.*;
-import static org.mockito.internal.util.collections.Sets.newSet;
 
 /**
  * @author Azize ELAMRANI (azize.elamrani at graviteesource.com)
@@ -42,25 +41,26 @@ public class EntrypointRepositoryMock extends AbstractRepositoryMock<EntrypointR
         entrypoint.setValue("Entry point value");
         entrypoint.setTags("internal;product");
 
-        final Entrypoint entrypoint2 = new Entrypoint();
-        entrypoint2.setId("entrypoint");
-        entrypoint2.setValue("https://public-api.company.com");
+        final Fixtures<Entrypoint> fixtures = Fixtures.load("/data/entrypoint-tests/", Entrypoint.class, Entrypoint::getId);
 
         final Entrypoint entrypoint2Updated = new Entrypoint();
-        entrypoint2Updated.setId("entrypoint");
+        entrypoint2Updated.setId("fa29c012-a0d2-4721-a9c0-12a0d26721db");
         entrypoint2Updated.setValue("New value");
         entrypoint2Updated.setTags("New tags");
 
-        final Set<Entrypoint> entrypoints = newSet(entrypoint, entrypoint2, mock(Entrypoint.class));
-        final Set<Entrypoint> entrypointsAfterDelete = newSet(entrypoint, entrypoint2);
-        final Set<Entrypoint> entrypointsAfterAdd = newSet(entrypoint, entrypoint2, mock(Entrypoint.class), mock(Entrypoint.class));
+        final Set<Entrypoint> entrypoints = new HashSet<>(fixtures.all());
+        final Set<Entrypoint> entrypointsAfterDelete = fixtures.set("fa29c012-a0d2-4721-a9c0-12a0d26721db",
+                "aaeddaec-0e94-4f49-adda-ec0e947f4965");
+        final Set<Entrypoint> entrypointsAfterAdd = new HashSet<>(fixtures.all());
+        entrypointsAfterAdd.add(entrypoint);
 
         when(entrypointRepository.findAll()).thenReturn(entrypoints, entrypointsAfterAdd, entrypoints, entrypointsAfterDelete, entrypoints);
 
         when(entrypointRepository.create(any(Entrypoint.class))).thenReturn(entrypoint);
 
+        when(entrypointRepository.findById(any())).thenAnswer(fixtures.byKey());
         when(entrypointRepository.findById("new-entrypoint")).thenReturn(of(entrypoint));
-        when(entrypointRepository.findById("fa29c012-a0d2-4721-a9c0-12a0d26721db")).thenReturn(of(entrypoint2), of(entrypoint2Updated));
+        when(entrypointRepository.findById("fa29c012-a0d2-4721-a9c0-12a0d26721db")).thenReturn(of(fixtures.get("fa29c012-a0d2-4721-a9c0-12a0d26721db")), of(entrypoint2Updated));
 
         when(entrypointRepository.update(argThat(o -> o == null || o.getId().equals("unknown")))).thenThrow(new IllegalStateException());
     }
@@ -0,0 +1,229 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.mock;
+
+import io.gravitee.repository.config.memory.Pages;
+import io.gravitee.repository.management.api.search.Pageable;
+import org.codehaus.jackson.map.ObjectMapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * The entities of a type the TCK loads before the tests of a directory, read from the same file, for the stubs to
+ * answer with the data the tests are written against.
+ *
+ * A finder is stubbed once for all its arguments with the answer of its shape: {@link #byKey()} for a finder by key,
+ * {@link #listBy}, {@link #setBy} or {@link #firstBy} for a finder by fields, answered from an index of the entities
+ * by the values of these fields, and {@link #listWhere}, {@link #setWhere}, {@link #firstWhere} or {@link #pageWhere}
+ * for a search,
+ * answered by the entities its criteria accept:
+ *
+ * <pre>
+ * when(tagRepository.findById(any())).thenAnswer(fixtures.byKey());
+ * when(ratingRepository.findByApi(any())).thenAnswer(fixtures.listBy(Rating::getApi));
+ * </pre>
+ *
+ * The entities are answered as copies, in the order of the file unless {@link #sorted} otherwise.
+ *
+ * @author GraviteeSource Team
+ */
+public final class Fixtures<T> {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String file;
+    private final List<T> entities;
+    private final Map<String, T> byKey;
+
+    private Fixtures(final String file, final List<T> entities, final Map<String, T> byKey) {
+        this.file = file;
+        this.entities = unmodifiableList(entities);
+        this.byKey = byKey;
+    }
+
+    /**
+     * @param testCasesPath the directory of the tests, as given by their getTestCasesPath
+     * @param type the type of the entities, read from the file named after it
+     * @param key the key the entities are looked up by
+     */
+    public static <T> Fixtures<T> load(final String testCasesPath, final Class<T> type,
+                                       final Function<T, String> key) {
+        final String name = type.getSimpleName();
+        final String file = testCasesPath + Character.toLowerCase(name.charAt(0)) + name.substring(1) + "s.json";
+        try (InputStream input = Fixtures.class.getResourceAsStream(file)) {
+            if (input == null) {
+                throw new IllegalArgumentException("No fixtures found at " + file);
+            }
+            final List<T> entities = MAPPER.readValue(input,
+                    MAPPER.getTypeFactory().constructCollectionType(List.class, type));
+            final Map<String, T> byKey = new HashMap<>();
+            for (final T entity : entities) {
+                byKey.put(key.apply(entity), entity);
+            }
+            return new Fixtures<>(file, entities, byKey);
+        } catch (final IOException e) {
+            throw new IllegalStateException("Unable to read the fixtures of " + file, e);
+        }
+    }
+
+    /**
+     * @return the same entities, in the given order
+     */
+    public Fixtures<T> sorted(final Comparator<? super T> order) {
+        final List<T> sorted = new ArrayList<>(entities);
+        sorted.sort(order);
+        return new Fixtures<>(file, sorted, byKey);
+    }
+
+    /**
+     * @return the answer of a finder by key: the entity of the key given as first argument, if any
+     */
+    public Stubs.StatefulAnswer byKey() {
+        return (arguments, state) -> Stubs.copy(Optional.ofNullable(byKey.get(arguments[0])));
+    }
+
+    /**
+     * @return the answer of a finder by the given fields, one per argument: the entities holding the arguments
+     */
+    @SafeVarargs
+    public final Stubs.StatefulAnswer listBy(final Function<T, ?>... fields) {
+        final Map<List<Object>, List<T>> index = index(fields);
+        return (arguments, state) -> Stubs.copy(index.getOrDefault(Arrays.asList(arguments), emptyList()));
+    }
+
+    /**
+     * @return the answer of a finder by the given fields returning a set, iterated in the order of the entities
+     */
+    @SafeVarargs
+    public final Stubs.StatefulAnswer setBy(final Function<T, ?>... fields) {
+        final Map<List<Object>, List<T>> index = index(fields);
+        return (arguments, state) -> Stubs.copy(
+                new LinkedHashSet<>(index.getOrDefault(Arrays.asList(arguments), emptyList())));
+    }
+
+    /**
+     * @return the answer of a finder by the given fields returning an optional: the first entity holding the
+     * arguments, if any
+     */
+    @SafeVarargs
+    public final Stubs.StatefulAnswer firstBy(final Function<T, ?>... fields) {
+        final Map<List<Object>, List<T>> index = index(fields);
+        return (arguments, state) -> Stubs.copy(
+                index.getOrDefault(Arrays.asList(arguments), emptyList()).stream().findFirst());
+    }
+
+    private Map<List<Object>, List<T>> index(final Function<T, ?>[] fields) {
+        final Map<List<Object>, List<T>> index = new HashMap<>();
+        for (final T entity : entities) {
+            final List<Object> values = new ArrayList<>(fields.length);
+            for (final Function<T, ?> field : fields) {
+                values.add(field.apply(entity));
+            }
+            index.computeIfAbsent(values, v -> new ArrayList<>()).add(entity);
+        }
+        return index;
+    }
+
+    /**
+     * @return the answer of a search: the entities the given criteria accept, given the arguments of the call
+     */
+    public Stubs.StatefulAnswer listWhere(final BiPredicate<T, Object[]> criteria) {
+        return (arguments, state) -> Stubs.copy(filter(criteria, arguments));
+    }
+
+    /**
+     * @return the answer of a search returning a set, iterated in the order of the entities
+     */
+    public Stubs.StatefulAnswer setWhere(final BiPredicate<T, Object[]> criteria) {
+        return (arguments, state) -> Stubs.copy(new LinkedHashSet<>(filter(criteria, arguments)));
+    }
+
+    /**
+     * @return the answer of a search returning an optional: the first entity the given criteria accept, if any
+     */
+    public Stubs.StatefulAnswer firstWhere(final BiPredicate<T, Object[]> criteria) {
+        return (arguments, state) -> Stubs.copy(filter(criteria, arguments).stream().findFirst());
+    }
+
+    /**
+     * @return the answer of a paginated search: the requested page of the entities the given criteria accept, the
+     * last argument being the {@link Pageable}, or all of them as a first page when it is null
+     */
+    public Stubs.StatefulAnswer pageWhere(final BiPredicate<T, Object[]> criteria) {
+        return (arguments, state) -> Stubs.copy(
+                Pages.of(filter(criteria, arguments), (Pageable) arguments[arguments.length - 1]));
+    }
+
+    /**
+     * @return whether the given date lies within the given bounds, inclusive, a bound of zero standing for none
+     */
+    public static boolean within(final Date date, final long from, final long to) {
+        return (from <= 0 || date != null && date.getTime() >= from) && (to <= 0 || date != null && date.getTime() <= to);
+    }
+
+    private List<T> filter(final BiPredicate<T, Object[]> criteria, final Object[] arguments) {
+        final List<T> accepted = new ArrayList<>();
+        for (final T entity : entities) {
+            if (criteria.test(entity, arguments)) {
+                accepted.add(entity);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * @return the entity of the given key
+     */
+    public T get(final String key) {
+        final T entity = byKey.get(key);
+        if (entity == null) {
+            throw new IllegalArgumentException("No entity " + key + " in " + file);
+        }
+        return entity;
+    }
+
+    /**
+     * @return the entities of the given keys, in that order
+     */
+    public List<T> list(final String... keys) {
+        final List<T> found = new ArrayList<>(keys.length);
+        for (final String key : keys) {
+            found.add(get(key));
+        }
+        return found;
+    }
+
+    /**
+     * @return the entities of the given keys, iterated in that order
+     */
+    public Set<T> set(final String... keys) {
+        return new LinkedHashSet<>(list(keys));
+    }
+
+    /**
+     * @return all the entities, in the order of the file
+     */
+    public List<T> all() {
+        return entities;
+    }
+}
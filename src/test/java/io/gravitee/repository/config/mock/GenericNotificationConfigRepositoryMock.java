@@ -22,9 +22,9 @@ import io.gravitee.repository.management.model.NotificationReferenceType;
 import java.util.Arrays;
 import java.util.Date;
 
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
-import static org.mockito.Mockito.*;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -38,6 +38,14 @@ public class GenericNotificationConfigRepositoryMock extends AbstractRepositoryM
 
     @Override
     void prepare(GenericNotificationConfigRepository genericNotificationConfigRepository) throws Exception {
+        final Fixtures<GenericNotificationConfig> fixtures = Fixtures.load("/data/genericnotificationConfig-tests/",
+                GenericNotificationConfig.class, GenericNotificationConfig::getId);
+
+        when(genericNotificationConfigRepository.findById(any())).thenAnswer(fixtures.byKey());
+        when(genericNotificationConfigRepository.findByReferenceAndHook(any(), any(), any()))
+                .thenAnswer(fixtures.listWhere((config, arguments) -> config.getHooks().contains(arguments[0])
+                        && config.getReferenceType() == arguments[1] && config.getReferenceId().equals(arguments[2])));
+
         //create
         final GenericNotificationConfig createdCfg = new GenericNotificationConfig();
         createdCfg.setId("new-id");
@@ -68,33 +76,7 @@ public class GenericNotificationConfigRepositoryMock extends AbstractRepositoryM
 
         //delete
         when(genericNotificationConfigRepository.findById("notif-to-delete")).
-                thenReturn(of(mock(GenericNotificationConfig.class)), empty());
-
-        //findById
-        final GenericNotificationConfig foundCfg = new GenericNotificationConfig();
-        foundCfg.setId("notif-to-find");
-        foundCfg.setName("notif-to-find");
-        foundCfg.setReferenceType(NotificationReferenceType.API);
-        foundCfg.setReferenceId("config-to-find");
-        foundCfg.setNotifier("notifierId");
-        foundCfg.setConfig("my config");
-        foundCfg.setUseSystemProxy(true);
-        foundCfg.setHooks(Arrays.asList("A", "B"));
-        foundCfg.setUpdatedAt(new Date(1439022010883L));
-        foundCfg.setCreatedAt(new Date(1439022010883L));
-        when(genericNotificationConfigRepository.findById("notif-to-find")).thenReturn(of(foundCfg));
-
-        //notFoundById
-        when(genericNotificationConfigRepository.findById("notifierId-unknown")).thenReturn(empty());
+                thenReturn(of(fixtures.get("notif-to-delete")), empty());
 
-        //findByReferenceAndHook
-        GenericNotificationConfig n1 = mock(GenericNotificationConfig.class);
-        when(n1.getNotifier()).thenReturn("notifierA");
-        GenericNotificationConfig n2 = mock(GenericNotificationConfig.class);
-        when(n2.getNotifier()).thenReturn("notifierB");
-        when(genericNotificationConfigRepository.findByReferenceAndHook(
-                "B",
-                NotificationReferenceType.APPLICATION,
-                "search")).thenReturn(Arrays.asList(n1, n2));
     }
 }
@@ -20,17 +20,10 @@ import io.gravitee.repository.management.model.IdentityProvider;
 import io.gravitee.repository.management.model.IdentityProviderType;
 
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Set;
 
-import static java.util.Optional.empty;
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
-import static org.mockito.internal.util.collections.Sets.newSet;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -44,77 +37,44 @@ public class IdentityProviderRepositoryMock extends AbstractRepositoryMock<Ident
 
     @Override
     void prepare(IdentityProviderRepository identityProviderRepository) throws Exception {
-        final IdentityProvider newIdentityProvider = mock(IdentityProvider.class);
-        when(newIdentityProvider.getName()).thenReturn("My idp 1");
-        when(newIdentityProvider.getDescription()).thenReturn("Description for my idp 1");
-        when(newIdentityProvider.isEnabled()).thenReturn(true);
-        when(newIdentityProvider.getCreatedAt()).thenReturn(new Date(1000000000000L));
-        when(newIdentityProvider.getUpdatedAt()).thenReturn(new Date(1439032010883L));
-        when(newIdentityProvider.getType()).thenReturn(IdentityProviderType.GITHUB);
-        when(newIdentityProvider.getEmailRequired()).thenReturn(true);
-
-        final IdentityProvider identityProvider1 = new IdentityProvider();
-        identityProvider1.setId("github");
-        identityProvider1.setEnabled(true);
-        identityProvider1.setName("Google");
-        identityProvider1.setDescription("GitHub Identity Provider");
-        identityProvider1.setType(IdentityProviderType.OIDC);
-        identityProvider1.setCreatedAt(new Date(1000000000000L));
-        identityProvider1.setUpdatedAt(new Date(1486771200000L));
-
-        final IdentityProvider identityProviderUpdated = mock(IdentityProvider.class);
-        when(identityProviderUpdated.getName()).thenReturn("Google");
-        when(identityProviderUpdated.getDescription()).thenReturn("Google Identity Provider");
-        when(identityProviderUpdated.getCreatedAt()).thenReturn(new Date(1000000000000L));
-        when(identityProviderUpdated.getUpdatedAt()).thenReturn(new Date(1486771200000L));
-        when(identityProviderUpdated.getType()).thenReturn(IdentityProviderType.GOOGLE);
-        when(identityProviderUpdated.isEnabled()).thenReturn(true);
-        when(identityProviderUpdated.getEmailRequired()).thenReturn(true);
-
-        final IdentityProvider identityProvider3 = createMock();
-
-        final Set<IdentityProvider> identityProviders = newSet(newIdentityProvider, identityProvider1, mock(IdentityProvider.class));
-        final Set<IdentityProvider> identityProvidersAfterDelete = newSet(newIdentityProvider, identityProvider1);
-        final Set<IdentityProvider> identityProvidersAfterAdd = newSet(newIdentityProvider, identityProvider1, mock(IdentityProvider.class), mock(IdentityProvider.class));
+        final IdentityProvider newIdentityProvider = new IdentityProvider();
+        newIdentityProvider.setId("new-idp");
+        newIdentityProvider.setName("My idp 1");
+        newIdentityProvider.setDescription("Description for my idp 1");
+        newIdentityProvider.setEnabled(true);
+        newIdentityProvider.setCreatedAt(new Date(1000000000000L));
+        newIdentityProvider.setUpdatedAt(new Date(1439032010883L));
+        newIdentityProvider.setType(IdentityProviderType.GITHUB);
+        newIdentityProvider.setEmailRequired(true);
+
+        final Fixtures<IdentityProvider> fixtures = Fixtures.load("/data/identityprovider-tests/", IdentityProvider.class,
+                IdentityProvider::getId);
+
+        final IdentityProvider identityProviderUpdated = new IdentityProvider();
+
+        identityProviderUpdated.setId("idp-1");
+        identityProviderUpdated.setName("Google");
+        identityProviderUpdated.setDescription("Google Identity Provider");
+        identityProviderUpdated.setCreatedAt(new Date(1000000000000L));
+        identityProviderUpdated.setUpdatedAt(new Date(1486771200000L));
+        identityProviderUpdated.setType(IdentityProviderType.GOOGLE);
+        identityProviderUpdated.setEnabled(true);
+        identityProviderUpdated.setEmailRequired(true);
+
+
+        final Set<IdentityProvider> identityProviders = fixtures.set("github", "idp-3", "idp-1");
+        final Set<IdentityProvider> identityProvidersAfterDelete = fixtures.set("github", "idp-1");
+        final Set<IdentityProvider> identityProvidersAfterAdd = fixtures.set("github", "idp-3", "idp-1");
+        identityProvidersAfterAdd.add(newIdentityProvider);
 
         when(identityProviderRepository.findAll()).thenReturn(identityProviders, identityProvidersAfterAdd, identityProviders, identityProvidersAfterDelete, identityProviders);
 
         when(identityProviderRepository.create(any(IdentityProvider.class))).thenReturn(newIdentityProvider);
 
+        when(identityProviderRepository.findById(any())).thenAnswer(fixtures.byKey());
         when(identityProviderRepository.findById("new-idp")).thenReturn(of(newIdentityProvider));
-        when(identityProviderRepository.findById("unknown")).thenReturn(empty());
-        when(identityProviderRepository.findById("idp-1")).thenReturn(of(identityProvider1), of(identityProviderUpdated));
-        when(identityProviderRepository.findById("idp-3")).thenReturn(of(identityProvider3));
+        when(identityProviderRepository.findById("idp-1")).thenReturn(of(fixtures.get("idp-1")), of(identityProviderUpdated));
 
         when(identityProviderRepository.update(argThat(o -> o == null || o.getId().equals("unknown")))).thenThrow(new IllegalStateException());
     }
-
-    private IdentityProvider createMock() {
-        final IdentityProvider identityProvider3 = new IdentityProvider();
-        identityProvider3.setId("idp-3");
-        identityProvider3.setEnabled(false);
-        identityProvider3.setName("Gravitee.io AM");
-        identityProvider3.setDescription("Gravitee.io AM Identity Provider");
-        identityProvider3.setType(IdentityProviderType.GRAVITEEIO_AM);
-        identityProvider3.setCreatedAt(new Date(1000000000000L));
-        identityProvider3.setUpdatedAt(new Date(1486771200000L));
-
-        String condition = "{#jsonPath('$.email_verified')}";
-
-        Map<String, String[]> groupMappings = new HashMap<>();
-        groupMappings.put(condition, new String []{"group1", "group2"});
-        identityProvider3.setGroupMappings(groupMappings);
-
-        Map<String, String[]> roleMappings = new HashMap<>();
-        roleMappings.put(condition, new String []{"role1", "role2"});
-        identityProvider3.setRoleMappings(roleMappings);
-
-        Map<String, String> userProfileMapping = new HashMap<>();
-        userProfileMapping.put("sub", "id");
-        userProfileMapping.put("firstname", "firstname");
-        userProfileMapping.put("email", "mail");
-        identityProvider3.setUserProfileMapping(userProfileMapping);
-
-        return identityProvider3;
-    }
 }
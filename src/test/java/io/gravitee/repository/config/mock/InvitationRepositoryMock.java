@@ -19,15 +19,11 @@ import io.gravitee.repository.management.api.InvitationRepository;
 import io.gravitee.repository.management.model.Invitation;
 
 import java.util.Date;
+import java.util.HashSet;
 import java.util.Set;
 
-import static java.util.Collections.singletonList;
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
-import static org.mockito.internal.util.collections.Sets.newSet;
 
 /**
  * @author Azize ELAMRANI (azize.elamrani at graviteesource.com)
@@ -53,13 +49,7 @@ public class InvitationRepositoryMock extends AbstractRepositoryMock<InvitationR
         invitation.setCreatedAt(date);
         invitation.setUpdatedAt(date);
 
-        final Invitation invitation2 = new Invitation();
-        invitation2.setId("invitation");
-        invitation2.setEmail("invitation@email.com");
-
-        final Invitation invitationBeforUpdate = new Invitation();
-        invitationBeforUpdate.setId("ec48086d-0bfb-4b9a-a641-d374c6465dd4");
-        invitationBeforUpdate.setEmail("invitation@application.com");
+        final Fixtures<Invitation> fixtures = Fixtures.load("/data/invitation-tests/", Invitation.class, Invitation::getId);
 
         final Invitation invitation2Updated = new Invitation();
         invitation2Updated.setId("ec48086d-0bfb-4b9a-a641-d374c6465dd4");
@@ -71,29 +61,24 @@ public class InvitationRepositoryMock extends AbstractRepositoryMock<InvitationR
         invitation2Updated.setCreatedAt(date);
         invitation2Updated.setUpdatedAt(date);
 
-        final Invitation invitationApplication = new Invitation();
-        invitationApplication.setId("e6d5e6d0-17e9-4606-83c3-cfef8b91d5ce");
-        invitationApplication.setReferenceType("APPLICATION");
-        invitationApplication.setReferenceId("application-id");
-        invitationApplication.setApiRole("USER");
-        invitationApplication.setApplicationRole("OWNER");
-        invitationApplication.setEmail("invitation@application.com");
-        invitationApplication.setCreatedAt(date);
-        invitationApplication.setUpdatedAt(date);
-
-        final Set<Invitation> invitations = newSet(invitation, invitationApplication, invitation2Updated);
-        final Set<Invitation> invitationsAfterDelete = newSet(invitation, invitationApplication);
-        final Set<Invitation> invitationsAfterAdd = newSet(invitation, invitation2, mock(Invitation.class), mock(Invitation.class));
+        final Set<Invitation> invitations = new HashSet<>(fixtures.all());
+        final Set<Invitation> invitationsAfterDelete = fixtures.set("ec48086d-0bfb-4b9a-a641-d374c6465dd4",
+                "dd09c20c-2d73-4228-824f-8c9a48bb8632");
+        final Set<Invitation> invitationsAfterAdd = new HashSet<>(fixtures.all());
+        invitationsAfterAdd.add(invitation);
 
         when(invitationRepository.findAll()).thenReturn(invitations, invitationsAfterAdd, invitations, invitationsAfterDelete, invitations);
 
         when(invitationRepository.create(any(Invitation.class))).thenReturn(invitation);
 
+        when(invitationRepository.findById(any())).thenAnswer(fixtures.byKey());
+        when(invitationRepository.findByReference(any(), any()))
+                .thenAnswer(fixtures.listBy(Invitation::getReferenceType, Invitation::getReferenceId));
+
         when(invitationRepository.findById("new-invitation")).thenReturn(of(invitation));
-        when(invitationRepository.findById("e6d5e6d0-17e9-4606-83c3-cfef8b91d5ce")).thenReturn(of(invitationBeforUpdate), of(invitation2Updated));
+        when(invitationRepository.findById("e6d5e6d0-17e9-4606-83c3-cfef8b91d5ce"))
+                .thenReturn(of(fixtures.get("e6d5e6d0-17e9-4606-83c3-cfef8b91d5ce")), of(invitation2Updated));
 
         when(invitationRepository.update(argThat(o -> o == null || o.getId().equals("unknown")))).thenThrow(new IllegalStateException());
-
-        when(invitationRepository.findByReference("API", "api-id")).thenReturn(singletonList(invitation));
     }
 }
@@ -20,11 +20,9 @@ import io.gravitee.repository.media.model.Media;
 
 import java.util.Date;
 
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.any;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -38,31 +36,31 @@ public class MediaRepositoryMock extends AbstractRepositoryMock<MediaRepository>
 
     @Override
     void prepare(MediaRepository mediaRepository) throws Exception {
-        final Media mediaData = mock(Media.class);
-        when(mediaData.getId()).thenReturn("223344");
-        when(mediaData.getFileName()).thenReturn("gravitee_logo_anim.gif");
-        when(mediaData.getSize()).thenReturn(85361L);
-        when(mediaData.getType()).thenReturn("image");
-        when(mediaData.getSubType()).thenReturn("gif");
-        when(mediaData.getHash()).thenReturn("4692FBACBEF919061ECF328CA543E028");
-        when(mediaData.getCreatedAt()).thenReturn(new Date());
-
-
-        final Media mediaData2 = mock(Media.class);
-        when(mediaData2.getId()).thenReturn("556677");
-        when(mediaData2.getFileName()).thenReturn("default_photo.png");
-        when(mediaData2.getSize()).thenReturn(85361L);
-        when(mediaData2.getApi()).thenReturn("123456");
-        when(mediaData2.getHash()).thenReturn("1BC5D9656D860DE678CBEF5C169D8B15");
-
-        final Media mediaData3 = mock(Media.class);
-        when(mediaData3.getId()).thenReturn("22334455");
-        when(mediaData3.getFileName()).thenReturn("stars.png");
-        when(mediaData3.getSize()).thenReturn(4370L);
-        when(mediaData3.getType()).thenReturn("image");
-        when(mediaData3.getSubType()).thenReturn("png");
-        when(mediaData3.getHash()).thenReturn("77C921AB285376AFF72FBDD2D0784E0B");
-        when(mediaData3.getCreatedAt()).thenReturn(new Date());
+        final Media mediaData = new Media();
+        mediaData.setId("223344");
+        mediaData.setFileName("gravitee_logo_anim.gif");
+        mediaData.setSize(85361L);
+        mediaData.setType("image");
+        mediaData.setSubType("gif");
+        mediaData.setHash("4692FBACBEF919061ECF328CA543E028");
+        mediaData.setCreatedAt(new Date());
+
+
+        final Media mediaData2 = new Media();
+        mediaData2.setId("556677");
+        mediaData2.setFileName("default_photo.png");
+        mediaData2.setSize(85361L);
+        mediaData2.setApi("123456");
+        mediaData2.setHash("1BC5D9656D860DE678CBEF5C169D8B15");
+
+        final Media mediaData3 = new Media();
+        mediaData3.setId("22334455");
+        mediaData3.setFileName("stars.png");
+        mediaData3.setSize(4370L);
+        mediaData3.setType("image");
+        mediaData3.setSubType("png");
+        mediaData3.setHash("77C921AB285376AFF72FBDD2D0784E0B");
+        mediaData3.setCreatedAt(new Date());
 
 
 
@@ -20,18 +20,11 @@ import io.gravitee.repository.management.model.Membership;
 import io.gravitee.repository.management.model.MembershipReferenceType;
 import io.gravitee.repository.management.model.RoleScope;
 
-import java.util.Collections;
+import java.util.Collection;
 import java.util.Date;
-import java.util.HashSet;
-import java.util.Map;
 
-import static java.util.Arrays.asList;
-import static java.util.Collections.singleton;
-import static java.util.Collections.singletonList;
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static java.util.Optional.empty;
-import static java.util.Optional.of;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.*;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -45,53 +38,45 @@ public class MembershipRepositoryMock extends AbstractRepositoryMock<MembershipR
 
     @Override
     void prepare(MembershipRepository membershipRepository) throws Exception {
-        Map<Integer, String> API_OWNER_ROLE_MAP = Collections.singletonMap(RoleScope.API.getId(), "OWNER");
-        Membership m1 = mock(Membership.class);
-        when(m1.getUserId()).thenReturn("user1");
-        when(m1.getReferenceType()).thenReturn(MembershipReferenceType.API);
-        when(m1.getRoles()).thenReturn(API_OWNER_ROLE_MAP);
-        when(m1.getReferenceId()).thenReturn("api1");
-        Membership m2 = new Membership("user2", "api2", MembershipReferenceType.API);
-        m2.setRoles(API_OWNER_ROLE_MAP);
-        Membership m3 = new Membership("user3", "api3", MembershipReferenceType.API);
-        m3.setRoles(API_OWNER_ROLE_MAP);
-        Membership m4 = new Membership("userToDelete", "app1", MembershipReferenceType.APPLICATION);
-        m4.setCreatedAt(new Date(1000000000000L));
+        final Fixtures<Membership> fixtures = Fixtures.load("/data/membership-tests/", Membership.class,
+                membership -> membership.getUserId() + ':' + membership.getReferenceId());
 
-        when(membershipRepository.findById("user1", MembershipReferenceType.API, "api1"))
-                .thenReturn(of(m1));
-        when(membershipRepository.findById(null, MembershipReferenceType.API, "api1"))
-                .thenReturn(empty());
+        when(membershipRepository.findById(any(), any(), any())).thenAnswer(fixtures.firstBy(
+                Membership::getUserId, Membership::getReferenceType, Membership::getReferenceId));
+        when(membershipRepository.findByIds(any(), any(), any())).thenAnswer(fixtures.setWhere((membership, arguments) ->
+                membership.getUserId().equals(arguments[0]) && membership.getReferenceType() == arguments[1]
+                        && ((Collection<?>) arguments[2]).contains(membership.getReferenceId())));
+        when(membershipRepository.findByUser(any())).thenAnswer(fixtures.setBy(Membership::getUserId));
+        when(membershipRepository.findByUserAndReferenceType(any(), any()))
+                .thenAnswer(fixtures.setBy(Membership::getUserId, Membership::getReferenceType));
+        when(membershipRepository.findByUserAndReferenceTypeAndRole(any(), any(), any(), any()))
+                .thenAnswer(fixtures.setWhere((membership, arguments) -> membership.getUserId().equals(arguments[0])
+                        && membership.getReferenceType() == arguments[1]
+                        && hasRole(membership, (RoleScope) arguments[2], (String) arguments[3])));
+        when(membershipRepository.findByReferenceAndRole(any(), any(), any(), any()))
+                .thenAnswer(fixtures.setWhere((membership, arguments) -> membership.getReferenceType() == arguments[0]
+                        && membership.getReferenceId().equals(arguments[1])
+                        && hasRole(membership, (RoleScope) arguments[2], (String) arguments[3])));
+        when(membershipRepository.findByReferencesAndRole(any(), any(), any(), any()))
+                .thenAnswer(fixtures.setWhere((membership, arguments) -> membership.getReferenceType() == arguments[0]
+                        && ((Collection<?>) arguments[1]).contains(membership.getReferenceId())
+                        && hasRole(membership, (RoleScope) arguments[2], (String) arguments[3])));
+        when(membershipRepository.findByRole(any(), any())).thenAnswer(fixtures.setWhere((membership, arguments) ->
+                hasRole(membership, (RoleScope) arguments[0], (String) arguments[1])));
+
+        final Membership m4 = new Membership("userToDelete", "app1", MembershipReferenceType.APPLICATION);
+        m4.setCreatedAt(new Date(1000000000000L));
         when(membershipRepository.findById("userToDelete", MembershipReferenceType.APPLICATION, "app1"))
                 .thenReturn(empty());
-        when(membershipRepository.findByReferenceAndRole(eq(MembershipReferenceType.API), eq("api1"), eq(RoleScope.API), any()))
-                .thenReturn(singleton(m1));
-        when(membershipRepository.findByReferenceAndRole(eq(MembershipReferenceType.API), eq("api1"), eq(null), any()))
-                .thenReturn(singleton(m1));
-        when(membershipRepository.findByUserAndReferenceType("user1", MembershipReferenceType.API))
-                .thenReturn(singleton(m1));
-        when(membershipRepository.findByUserAndReferenceTypeAndRole("user1", MembershipReferenceType.API, RoleScope.API, "OWNER"))
-                .thenReturn(singleton(m1));
-        when(membershipRepository.findByReferencesAndRole(MembershipReferenceType.API, asList("api2", "api3"), null, null))
-                .thenReturn(new HashSet<>(asList(m2, m3)));
-        when(membershipRepository.findByReferencesAndRole(MembershipReferenceType.API, asList("api2", "api3"), RoleScope.API, "OWNER"))
-                .thenReturn(new HashSet<>(singletonList(m2)));
         when(membershipRepository.update(any())).thenReturn(m4);
-
-        Membership api1_findByIds = mock(Membership.class);
-        when(api1_findByIds.getReferenceId()).thenReturn("api1_findByIds");
-        Membership api2_findByIds = mock(Membership.class);
-        when(api2_findByIds.getReferenceId()).thenReturn("api2_findByIds");
-        when(membershipRepository.findByIds(
-                "user_findByIds",
-                MembershipReferenceType.API,
-                new HashSet<>(asList("api1_findByIds", "api2_findByIds", "unknown")))).
-                thenReturn(new HashSet<>(asList(api1_findByIds, api2_findByIds)));
-        when(membershipRepository.findByUser("user_findByIds")).
-                thenReturn(new HashSet<>(asList(api1_findByIds, api2_findByIds)));
-
         when(membershipRepository.update(argThat(o -> o == null || o.getReferenceId().equals("unknown")))).thenThrow(new IllegalStateException());
+    }
 
-        when(membershipRepository.findByRole(RoleScope.APPLICATION, "USER")).thenReturn(new HashSet<>(asList(mock(Membership.class), mock(Membership.class))));
+    /**
+     * Whether the membership has the given role, any membership having it when the role is not given in full.
+     */
+    private static boolean hasRole(final Membership membership, final RoleScope scope, final String name) {
+        return scope == null || name == null
+                || membership.getRoles() != null && name.equals(membership.getRoles().get(scope.getId()));
     }
 }
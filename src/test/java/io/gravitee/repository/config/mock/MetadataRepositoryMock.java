@@ -22,11 +22,10 @@ import io.gravitee.repository.management.model.MetadataReferenceType;
 
 import java.util.List;
 
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static java.util.Arrays.asList;
-import static java.util.Collections.singletonList;
+import static java.util.Collections.emptyList;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.*;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -40,34 +39,38 @@ public class MetadataRepositoryMock extends AbstractRepositoryMock<MetadataRepos
 
     @Override
     void prepare(MetadataRepository metadataRepository) throws Exception {
-        final Metadata booleanMetadata = mock(Metadata.class);
-        when(booleanMetadata.getKey()).thenReturn("boolean");
-        when(booleanMetadata.getName()).thenReturn("Boolean");
+        final Fixtures<Metadata> fixtures = Fixtures.load("/data/metadata-tests/", Metadata.class, Metadata::getKey);
+        final Metadata booleanMetadata = fixtures.get("boolean");
 
-        final Metadata stringMetadata = mock(Metadata.class);
-        when(stringMetadata.getName()).thenReturn("Metadata name");
-        when(stringMetadata.getFormat()).thenReturn(MetadataFormat.STRING);
-        when(stringMetadata.getValue()).thenReturn("String");
-        when(stringMetadata.getKey()).thenReturn("key");
-        when(stringMetadata.getReferenceId()).thenReturn("apiId");
-        when(stringMetadata.getReferenceType()).thenReturn(MetadataReferenceType.API);
+        final Metadata stringMetadata = new Metadata();
+        stringMetadata.setName("Metadata name");
+        stringMetadata.setFormat(MetadataFormat.STRING);
+        stringMetadata.setValue("String");
+        stringMetadata.setKey("key");
+        stringMetadata.setReferenceId("apiId");
+        stringMetadata.setReferenceType(MetadataReferenceType.API);
 
-        final Metadata metadata2Updated = mock(Metadata.class);
-        when(metadata2Updated.getName()).thenReturn("New metadata");
-        when(metadata2Updated.getValue()).thenReturn("New value");
-        when(metadata2Updated.getFormat()).thenReturn(MetadataFormat.URL);
-        when(metadata2Updated.getReferenceType()).thenReturn(MetadataReferenceType.APPLICATION);
+        final Metadata metadata2Updated = new Metadata();
 
-        final List<Metadata> metadataList = asList(booleanMetadata, stringMetadata, mock(Metadata.class));
-        final List<Metadata> metadataListAfterAdd = asList(booleanMetadata, stringMetadata, mock(Metadata.class), mock(Metadata.class));
-        final List<Metadata> metadataListAfterDelete = asList(booleanMetadata, stringMetadata);
+        metadata2Updated.setKey("boolean");
+        metadata2Updated.setName("New metadata");
+        metadata2Updated.setValue("New value");
+        metadata2Updated.setFormat(MetadataFormat.URL);
+        metadata2Updated.setReferenceType(MetadataReferenceType.APPLICATION);
 
+        final List<Metadata> metadataList = fixtures.list("boolean");
+        final List<Metadata> metadataListAfterAdd = asList(booleanMetadata, stringMetadata);
+
+        when(metadataRepository.findById(any(), any(), any())).thenAnswer(
+                fixtures.firstBy(Metadata::getKey, Metadata::getReferenceId, Metadata::getReferenceType));
+        when(metadataRepository.findByReferenceType(any())).thenAnswer(fixtures.listBy(Metadata::getReferenceType));
+        when(metadataRepository.findByReferenceTypeAndReferenceId(any(), any()))
+                .thenAnswer(fixtures.listBy(Metadata::getReferenceType, Metadata::getReferenceId));
+        when(metadataRepository.findByKeyAndReferenceType(any(), any()))
+                .thenAnswer(fixtures.listBy(Metadata::getKey, Metadata::getReferenceType));
 
         when(metadataRepository.findByReferenceType(MetadataReferenceType.DEFAULT)).thenReturn(metadataList, metadataListAfterAdd, metadataList, metadataList);
-        when(metadataRepository.findByReferenceTypeAndReferenceId(MetadataReferenceType.APPLICATION, "applicationId")).thenReturn(metadataList, metadataListAfterDelete);
-        when(metadataRepository.findByReferenceTypeAndReferenceId(MetadataReferenceType.API, "apiId")).thenReturn(singletonList(stringMetadata));
-        when(metadataRepository.findByReferenceType(MetadataReferenceType.APPLICATION)).thenReturn(singletonList(metadata2Updated));
-        when(metadataRepository.findByKeyAndReferenceType("string", MetadataReferenceType.API)).thenReturn(singletonList(stringMetadata));
+        when(metadataRepository.findByReferenceTypeAndReferenceId(MetadataReferenceType.APPLICATION, "applicationId")).thenReturn(fixtures.list("mail"), emptyList());
 
         when(metadataRepository.create(any(Metadata.class))).thenReturn(booleanMetadata);
 
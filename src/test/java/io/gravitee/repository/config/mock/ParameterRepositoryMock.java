@@ -18,12 +18,11 @@ package io.gravitee.repository.config.mock;
 import io.gravitee.repository.management.api.ParameterRepository;
 import io.gravitee.repository.management.model.Parameter;
 
-import java.util.Arrays;
+import java.util.List;
 
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.*;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -37,24 +36,28 @@ public class ParameterRepositoryMock extends AbstractRepositoryMock<ParameterRep
 
     @Override
     void prepare(ParameterRepository parameterRepository) throws Exception {
-        final Parameter parameter = mock(Parameter.class);
-        when(parameter.getValue()).thenReturn("Parameter value");
+        final Parameter parameter = new Parameter();
+        parameter.setKey("new-parameter");
+        parameter.setValue("Parameter value");
 
-        final Parameter parameter2 = mock(Parameter.class);
-        when(parameter2.getKey()).thenReturn("portal.top-apis");
-        when(parameter2.getValue()).thenReturn("api1;api2;api2");
+        final Fixtures<Parameter> fixtures = Fixtures.load("/data/parameter-tests/", Parameter.class, Parameter::getKey);
 
-        final Parameter parameter2Updated = mock(Parameter.class);
-        when(parameter2Updated.getValue()).thenReturn("New value");
+        final Parameter parameter2Updated = new Parameter();
+
+        parameter2Updated.setKey("portal.top-apis");
+        parameter2Updated.setValue("New value");
+
+        when(parameterRepository.findById(any())).thenAnswer(fixtures.byKey());
+        when(parameterRepository.findAll(any()))
+                .thenAnswer(fixtures.listWhere((p, arguments) -> ((List<?>) arguments[0]).contains(p.getKey())));
 
         when(parameterRepository.create(any(Parameter.class))).thenReturn(parameter);
 
         when(parameterRepository.findById("new-parameter")).thenReturn(empty(), of(parameter));
-        when(parameterRepository.findById("management.oAuth.clientId")).thenReturn(of(parameter2), empty());
-        when(parameterRepository.findById("portal.top-apis")).thenReturn(of(parameter2), of(parameter2Updated));
+        when(parameterRepository.findById("management.oAuth.clientId"))
+                .thenReturn(of(fixtures.get("management.oAuth.clientId")), empty());
+        when(parameterRepository.findById("portal.top-apis")).thenReturn(of(fixtures.get("portal.top-apis")), of(parameter2Updated));
 
         when(parameterRepository.update(argThat(o -> o == null || o.getKey().equals("unknown")))).thenThrow(new IllegalStateException());
-
-        when(parameterRepository.findAll(any())).thenReturn(Arrays.asList(mock(Parameter.class), mock(Parameter.class)));
     }
 }
@@ -22,10 +22,9 @@ import io.gravitee.repository.management.model.PortalNotificationConfig;
 import java.util.Arrays;
 import java.util.Date;
 
-import static java.util.Collections.emptyList;
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
-import static org.mockito.Mockito.*;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -39,6 +38,16 @@ public class PortalNotificationConfigRepositoryMock extends AbstractRepositoryMo
 
     @Override
     void prepare(PortalNotificationConfigRepository portalNotificationConfigRepository) throws Exception {
+        final Fixtures<PortalNotificationConfig> fixtures = Fixtures.load("/data/portalnotificationConfig-tests/",
+                PortalNotificationConfig.class, config -> config.getUser() + ':' + config.getReferenceId());
+
+        when(portalNotificationConfigRepository.findById(any(), any(), any())).thenAnswer(fixtures.firstBy(
+                PortalNotificationConfig::getUser, PortalNotificationConfig::getReferenceType,
+                PortalNotificationConfig::getReferenceId));
+        when(portalNotificationConfigRepository.findByReferenceAndHook(any(), any(), any()))
+                .thenAnswer(fixtures.listWhere((config, arguments) -> config.getHooks().contains(arguments[0])
+                        && config.getReferenceType() == arguments[1] && config.getReferenceId().equals(arguments[2])));
+
         //create
         final PortalNotificationConfig createdCfg = new PortalNotificationConfig();
         createdCfg.setReferenceType(NotificationReferenceType.API);
@@ -61,39 +70,6 @@ public class PortalNotificationConfigRepositoryMock extends AbstractRepositoryMo
 
         //delete
         when(portalNotificationConfigRepository.findById("userid", NotificationReferenceType.API, "config-to-delete")).
-                thenReturn(of(mock(PortalNotificationConfig.class)), empty());
-
-        //findById
-        final PortalNotificationConfig foundCfg = new PortalNotificationConfig();
-        foundCfg.setReferenceType(NotificationReferenceType.API);
-        foundCfg.setReferenceId("config-to-find");
-        foundCfg.setUser("userid");
-        foundCfg.setHooks(Arrays.asList("A", "B"));
-        foundCfg.setUpdatedAt(new Date(1439022010883L));
-        foundCfg.setCreatedAt(new Date(1439022010883L));
-        when(portalNotificationConfigRepository.findById("userid", NotificationReferenceType.API, "config-to-find")).
-                thenReturn(of(foundCfg));
-
-        //notFoundById
-        when(portalNotificationConfigRepository.findById("userid-unknown", NotificationReferenceType.API, "config-to-find")).
-                thenReturn(empty());
-        when(portalNotificationConfigRepository.findById("userid", NotificationReferenceType.APPLICATION, "config-to-find")).
-                thenReturn(empty());
-        when(portalNotificationConfigRepository.findById("userid", NotificationReferenceType.API, "config-to-not-find")).
-                thenReturn(empty());
-
-        //findByReferenceAndHook
-        PortalNotificationConfig n1 = mock(PortalNotificationConfig.class);
-        when(n1.getUser()).thenReturn("userA");
-        PortalNotificationConfig n2 = mock(PortalNotificationConfig.class);
-        when(n2.getUser()).thenReturn("userB");
-        when(portalNotificationConfigRepository.findByReferenceAndHook(
-                "B",
-                NotificationReferenceType.APPLICATION,
-                "search")).thenReturn(Arrays.asList(n1, n2));
-        when(portalNotificationConfigRepository.findByReferenceAndHook(
-                "D",
-                NotificationReferenceType.APPLICATION,
-                "search")).thenReturn(emptyList());
+                thenReturn(of(fixtures.get("userid:config-to-delete")), empty());
     }
 }
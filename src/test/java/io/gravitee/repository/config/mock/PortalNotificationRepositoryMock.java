@@ -20,9 +20,8 @@ import io.gravitee.repository.management.model.PortalNotification;
 
 import java.util.Date;
 
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static java.util.Collections.emptyList;
-import static java.util.Collections.singletonList;
-import static org.mockito.Mockito.*;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -36,6 +35,9 @@ public class PortalNotificationRepositoryMock extends AbstractRepositoryMock<Por
 
     @Override
     void prepare(PortalNotificationRepository portalNotificationRepository) throws Exception {
+        final Fixtures<PortalNotification> fixtures = Fixtures.load("/data/portalnotification-tests/",
+                PortalNotification.class, PortalNotification::getId);
+
         // create
         final PortalNotification notificationCreated = new PortalNotification();
         notificationCreated.setId("notif-create");
@@ -45,22 +47,14 @@ public class PortalNotificationRepositoryMock extends AbstractRepositoryMock<Por
         notificationCreated.setCreatedAt(new Date(1439022010883L));
         when(portalNotificationRepository.create(any(PortalNotification.class))).thenReturn(notificationCreated);
 
+        when(portalNotificationRepository.findByUser(any())).thenAnswer(fixtures.listBy(PortalNotification::getUser));
+
         //delete
         when(portalNotificationRepository.findByUser(eq("notif-userId-toDelete"))).thenReturn(
-                singletonList(mock(PortalNotification.class)),
+                fixtures.list("notif-toDelete"),
                 emptyList(),
-                singletonList(mock(PortalNotification.class)),
+                fixtures.list("notif-toDelete"),
                 emptyList()
         );
-
-        //findByUserId
-        final PortalNotification notificationFindByUsername = new PortalNotification();
-        notificationFindByUsername.setId("notif-findByUserId");
-        notificationFindByUsername.setTitle("notif-title-findByUserId");
-        notificationFindByUsername.setMessage("notif-message-findByUserId");
-        notificationFindByUsername.setUser("notif-userId-findByUserId");
-        notificationFindByUsername.setCreatedAt(new Date(1439022010883L));
-        when(portalNotificationRepository.findByUser(eq("notif-userId-findByUserId"))).thenReturn(singletonList(notificationFindByUsername));
-        when(portalNotificationRepository.findByUser(eq("unknown"))).thenReturn(emptyList());
     }
 }
@@ -16,21 +16,13 @@
 package io.gravitee.repository.config.mock;
 
 import io.gravitee.repository.management.api.RatingAnswerRepository;
-import io.gravitee.repository.management.api.ViewRepository;
 import io.gravitee.repository.management.model.RatingAnswer;
-import io.gravitee.repository.management.model.View;
-import org.mockito.ArgumentMatcher;
-
-import java.util.Date;
-import java.util.Set;
 
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static io.gravitee.repository.utils.DateUtils.parse;
 import static java.util.Collections.singletonList;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.*;
-import static org.mockito.internal.util.collections.Sets.newSet;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -44,19 +36,7 @@ public class RatingAnswerRepositoryMock extends AbstractRepositoryMock<RatingAns
 
     @Override
     void prepare(RatingAnswerRepository ratingAnswerRepository) throws Exception {
-        final RatingAnswer ratingAnswer = new RatingAnswer();
-        ratingAnswer.setId("answer-id");
-        ratingAnswer.setRating("rating-id");
-        ratingAnswer.setUser("user");
-        ratingAnswer.setComment("Answer");
-        ratingAnswer.setCreatedAt(parse("11/02/2017"));
-
-        final RatingAnswer ratingAnswer2 = new RatingAnswer();
-        ratingAnswer2.setId("answer2-id");
-        ratingAnswer2.setRating("rating3-id");
-        ratingAnswer2.setUser("admin");
-        ratingAnswer2.setComment("Answer2");
-        ratingAnswer2.setCreatedAt(parse("11/02/2017"));
+        final Fixtures<RatingAnswer> fixtures = Fixtures.load("/data/rating-tests/", RatingAnswer.class, RatingAnswer::getId);
 
         final RatingAnswer newRatingAnswer = new RatingAnswer();
         newRatingAnswer.setId("new-answer-id");
@@ -65,9 +45,10 @@ public class RatingAnswerRepositoryMock extends AbstractRepositoryMock<RatingAns
         newRatingAnswer.setComment("My answer");
         newRatingAnswer.setCreatedAt(parse("11/02/2017"));
 
-        when(ratingAnswerRepository.findByRating("rating-id")).thenReturn(singletonList(ratingAnswer));
-        when(ratingAnswerRepository.findByRating("rating3-id")).thenReturn(singletonList(ratingAnswer2));
+        when(ratingAnswerRepository.findById(any())).thenAnswer(fixtures.byKey());
+        when(ratingAnswerRepository.findByRating(any())).thenAnswer(fixtures.listBy(RatingAnswer::getRating));
+
         when(ratingAnswerRepository.findByRating("new-rating")).thenReturn(singletonList(newRatingAnswer));
-        when(ratingAnswerRepository.findById("answer-id")).thenReturn(of(ratingAnswer), empty());
+        when(ratingAnswerRepository.findById("answer-id")).thenReturn(of(fixtures.get("answer-id")), empty());
     }
 }
@@ -19,11 +19,9 @@ import io.gravitee.repository.management.api.RoleRepository;
 import io.gravitee.repository.management.model.Role;
 import io.gravitee.repository.management.model.RoleScope;
 
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.*;
-import static org.mockito.internal.util.collections.Sets.newSet;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -37,45 +35,29 @@ public class RoleRepositoryMock extends AbstractRepositoryMock<RoleRepository> {
 
     @Override
     void prepare(RoleRepository roleRepository) throws Exception {
-        final Role toCreate = mock(Role.class);
-        when(toCreate.getName()).thenReturn("to create");
-        when(toCreate.getScope()).thenReturn(RoleScope.API);
-        when(toCreate.getPermissions()).thenReturn(new int[]{3});
+        final Role toCreate = new Role();
+        toCreate.setName("to create");
+        toCreate.setScope(RoleScope.API);
+        toCreate.setPermissions(new int[]{3});
 
-        final Role toDelete = mock(Role.class);
-        when(toDelete.getName()).thenReturn("to delete");
-        when(toDelete.getScope()).thenReturn(RoleScope.MANAGEMENT);
-        when(toDelete.getPermissions()).thenReturn(new int[]{1, 2, 3});
+        final Fixtures<Role> fixtures = Fixtures.load("/data/role-tests/", Role.class, Role::getName);
+        final Role toDelete = fixtures.get("to delete");
 
-        final Role toUpdate = mock(Role.class);
-        when(toUpdate.getName()).thenReturn("to update");
-        when(toUpdate.getDescription()).thenReturn("new description");
-        when(toUpdate.getScope()).thenReturn(RoleScope.MANAGEMENT);
-        when(toUpdate.isDefaultRole()).thenReturn(true);
-        when(toUpdate.getPermissions()).thenReturn(new int[]{4, 5});
+        final Role toUpdate = new Role();
+        toUpdate.setName("to update");
+        toUpdate.setDescription("new description");
+        toUpdate.setScope(RoleScope.MANAGEMENT);
+        toUpdate.setDefaultRole(true);
+        toUpdate.setPermissions(new int[]{4, 5});
 
-        final Role findByScope1 = mock(Role.class);
-        when(findByScope1.getName()).thenReturn("find by scope 1");
-        when(findByScope1.getDescription()).thenReturn("role description");
-        when(findByScope1.getScope()).thenReturn(RoleScope.PORTAL);
-        when(findByScope1.isDefaultRole()).thenReturn(true);
-        when(findByScope1.isSystem()).thenReturn(true);
-        when(findByScope1.getPermissions()).thenReturn(new int[]{1});
+        when(roleRepository.findById(any(), any())).thenAnswer(fixtures.firstBy(Role::getScope, Role::getName));
+        when(roleRepository.findByScope(any())).thenAnswer(fixtures.setBy(Role::getScope));
+        when(roleRepository.findAll()).thenReturn(fixtures.set("to delete", "to update", "find by scope 1", "find by scope 2"));
 
-        final Role findByScope2 = mock(Role.class);
-        when(findByScope2.getName()).thenReturn("find by scope 2");
-        when(findByScope2.getScope()).thenReturn(RoleScope.PORTAL);
-        when(findByScope2.isDefaultRole()).thenReturn(false);
-        when(findByScope2.getPermissions()).thenReturn(new int[]{1});
-
-        when(roleRepository.findById(findByScope1.getScope(), findByScope1.getName())).thenReturn(of(findByScope1));
         when(roleRepository.findById(toUpdate.getScope(), toUpdate.getName())).thenReturn(of(toUpdate));
-        when(roleRepository.findById(toCreate.getScope(), toCreate.getName())).thenReturn(empty(), of(findByScope1));
-        when(roleRepository.findById(toDelete.getScope(), toDelete.getName())).thenReturn(of(findByScope1), empty());
-        when(roleRepository.findById(findByScope2.getScope(), findByScope2.getName())).thenReturn(of(findByScope2));
+        when(roleRepository.findById(toCreate.getScope(), toCreate.getName())).thenReturn(empty(), of(toCreate));
+        when(roleRepository.findById(toDelete.getScope(), toDelete.getName())).thenReturn(of(toDelete), empty());
         when(roleRepository.create(any(Role.class))).thenReturn(toCreate);
-        when(roleRepository.findAll()).thenReturn(newSet(toDelete, toUpdate, findByScope1, findByScope2));
-        when(roleRepository.findByScope(RoleScope.PORTAL)).thenReturn(newSet(findByScope1, findByScope2));
         when(roleRepository.update(any())).thenReturn(toUpdate);
 
         when(roleRepository.update(argThat(o -> o == null || o.getName().equals("unknown")))).thenThrow(new IllegalStateException());
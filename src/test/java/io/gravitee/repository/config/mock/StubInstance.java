@@ -0,0 +1,91 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.mock;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A stub answering from a {@link StubTable}, which other stubs may share, and holding what its own calls change: the
+ * turn of the consecutive answers of each stubbed call, and the state of the {@link Stubs.StatefulAnswer stateful
+ * answers}.
+ *
+ * @author GraviteeSource Team
+ */
+final class StubInstance implements InvocationHandler, Stubs.State {
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+
+    private final StubTable table;
+    private final Map<StubTable.Stub, AtomicInteger> calls = new ConcurrentHashMap<>();
+    private final Map<Object, Object> states = new ConcurrentHashMap<>();
+
+    StubInstance(final StubTable table) {
+        this.table = table;
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        if (method.getDeclaringClass() == Object.class) {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    return "Stub of " + table.type().getSimpleName();
+            }
+        }
+        table.prepare();
+        final Object[] arguments = args == null ? NO_ARGUMENTS : args;
+        final Stubs.Declaration declaration = Stubs.declaration();
+        final List<Predicate<Object>> matchers = declaration.takeMatchers();
+        final Stubs.StatefulAnswer answer = declaration.takeAnswer();
+        if (answer != null) {
+            table.declare(method, arguments, matchers).accept(answer);
+            return StubTable.emptyValue(method.getReturnType());
+        }
+        declaration.invocation = new StubTable.Invocation(table, method, arguments, matchers);
+        if (!matchers.isEmpty()) {
+            return StubTable.emptyValue(method.getReturnType());
+        }
+        final StubTable.Stub stub = table.find(method, arguments);
+        return stub == null || stub.answers.isEmpty() ? StubTable.emptyValue(method.getReturnType())
+                : answer(stub, arguments);
+    }
+
+    private Object answer(final StubTable.Stub stub, final Object[] arguments) throws Throwable {
+        final List<Stubs.StatefulAnswer> answers = stub.answers;
+        if (answers.size() == 1) {
+            return answers.get(0).answer(arguments, this);
+        }
+        final int call = calls.computeIfAbsent(stub, s -> new AtomicInteger())
+                .getAndUpdate(c -> c == Integer.MAX_VALUE ? c : c + 1);
+        return answers.get(Math.min(call, answers.size() - 1)).answer(arguments, this);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <S> S get(final Object key, final Supplier<S> initial) {
+        return (S) states.computeIfAbsent(key, k -> initial.get());
+    }
+}
@@ -0,0 +1,293 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.mock;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * The stubs of a repository: the ones declared with argument values are looked up by method and arguments, the ones
+ * declared with matchers are kept per method in declaration order. A value stub only hides the matcher stubs declared
+ * before it, so a lookup hit only tries the matcher stubs declared after it, most recent first.
+ *
+ * Arguments whose class overrides equals but not hashCode can not be looked up and are matched by equality.
+ *
+ * A table given a preparation runs it on the first call made on one of its {@link StubInstance stubs}, calls from
+ * other threads waiting for it, and is frozen once prepared: it then never changes, and is shared by the stubs of
+ * every context, each of them holding what its calls change.
+ *
+ * @author GraviteeSource Team
+ */
+final class StubTable {
+
+    private final Class<?> type;
+    private final Map<Key, Stub> byArguments = new ConcurrentHashMap<>();
+    private final Map<Method, List<Stub>> byMatchers = new ConcurrentHashMap<>();
+    private final AtomicInteger declarations = new AtomicInteger();
+    private volatile Callable<?> preparation;
+    private volatile boolean frozen;
+    private boolean preparing;
+
+    StubTable(final Class<?> type) {
+        this.type = type;
+    }
+
+    Class<?> type() {
+        return type;
+    }
+
+    void prepareOnFirstCall(final Callable<?> preparation) {
+        this.preparation = preparation;
+    }
+
+    /**
+     * Runs the preparation, if not done yet.
+     */
+    void prepare() {
+        if (preparation != null) {
+            prepareOnce();
+        }
+    }
+
+    private synchronized void prepareOnce() {
+        // the calls the preparation makes on the stub only declare stubs
+        if (preparation == null || preparing) {
+            return;
+        }
+        preparing = true;
+        try {
+            preparation.call();
+        } catch (final Exception e) {
+            throw new IllegalStateException("Unable to prepare the stub of " + type.getSimpleName(), e);
+        } finally {
+            preparation = null;
+            preparing = false;
+            frozen = true;
+        }
+    }
+
+    Stub find(final Method method, final Object[] arguments) {
+        final Stub found = byArguments.get(new Key(method, arguments));
+        final List<Stub> matching = byMatchers.get(method);
+        if (matching != null) {
+            for (int i = matching.size() - 1; i >= 0; i--) {
+                final Stub stub = matching.get(i);
+                if (found != null && stub.order < found.order) {
+                    break;
+                }
+                if (stub.matches(arguments)) {
+                    return stub;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * @return the sink of the answers of the stub declared for the given call
+     */
+    Consumer<Stubs.StatefulAnswer> declare(final Method method, final Object[] arguments,
+                                           final List<Predicate<Object>> matchers) {
+        if (frozen) {
+            throw new IllegalStateException(String.format("The stubs of %s are prepared and shared by every context, "
+                    + "%s can not be stubbed any further", type.getSimpleName(), method.getName()));
+        }
+        if (!matchers.isEmpty() && matchers.size() != arguments.length) {
+            throw new IllegalStateException(String.format("%s.%s is stubbed with %d matchers for %d arguments, "
+                    + "either all arguments or none are matchers", type.getSimpleName(), method.getName(),
+                    matchers.size(), arguments.length));
+        }
+        final int order = declarations.incrementAndGet();
+        if (matchers.isEmpty() && lookedUp(arguments)) {
+            final Stub stub = new Stub(order, null);
+            byArguments.put(new Key(method, arguments), stub);
+            return stub.answers::add;
+        }
+        final List<Predicate<Object>> predicates = matchers.isEmpty() ? equalities(arguments) : matchers;
+        final Stub stub = new Stub(order, predicates);
+        byMatchers.computeIfAbsent(method, m -> new CopyOnWriteArrayList<>()).add(stub);
+        return stub.answers::add;
+    }
+
+    private static boolean lookedUp(final Object[] arguments) {
+        for (final Object argument : arguments) {
+            if (argument != null && !argument.getClass().isArray()) {
+                try {
+                    final Class<?> type = argument.getClass();
+                    final boolean ownEquals = type.getMethod("equals", Object.class).getDeclaringClass() != Object.class;
+                    final boolean ownHashCode = type.getMethod("hashCode").getDeclaringClass() != Object.class;
+                    if (ownEquals != ownHashCode) {
+                        return false;
+                    }
+                } catch (final NoSuchMethodException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        }
+        return true;
+    }
+
+    private static List<Predicate<Object>> equalities(final Object[] arguments) {
+        final List<Predicate<Object>> equalities = new ArrayList<>(arguments.length);
+        for (final Object argument : arguments) {
+            equalities.add(value -> Objects.deepEquals(argument, value));
+        }
+        return equalities;
+    }
+
+    /**
+     * @return what Mockito answers by default: zero, false, an empty collection, optional or stream, or null
+     */
+    static Object emptyValue(final Class<?> type) {
+        if (type == boolean.class || type == Boolean.class) {
+            return false;
+        }
+        if (type == char.class || type == Character.class) {
+            return (char) 0;
+        }
+        if (type == byte.class || type == Byte.class) {
+            return (byte) 0;
+        }
+        if (type == short.class || type == Short.class) {
+            return (short) 0;
+        }
+        if (type == int.class || type == Integer.class) {
+            return 0;
+        }
+        if (type == long.class || type == Long.class) {
+            return 0L;
+        }
+        if (type == float.class || type == Float.class) {
+            return 0F;
+        }
+        if (type == double.class || type == Double.class) {
+            return 0D;
+        }
+        if (type == Optional.class) {
+            return Optional.empty();
+        }
+        if (type == Stream.class) {
+            return Stream.empty();
+        }
+        if (type == List.class || type == Collection.class || type == Iterable.class) {
+            return new ArrayList<>();
+        }
+        if (type == Set.class) {
+            return new HashSet<>();
+        }
+        if (type == SortedSet.class) {
+            return new TreeSet<>();
+        }
+        if (type == Map.class) {
+            return new HashMap<>();
+        }
+        return null;
+    }
+
+    /**
+     * A call made on a stub, declaring a stub when it is the argument of {@link Stubs#when}.
+     */
+    static final class Invocation {
+
+        final StubTable table;
+        final Method method;
+        final Object[] arguments;
+        final List<Predicate<Object>> matchers;
+
+        Invocation(final StubTable table, final Method method, final Object[] arguments,
+                           final List<Predicate<Object>> matchers) {
+            this.table = table;
+            this.method = method;
+            this.arguments = arguments;
+            this.matchers = matchers;
+        }
+    }
+
+    /**
+     * A declared stub, its answers given in turn by the consecutive calls of a context, the last one repeating.
+     */
+    static final class Stub {
+
+        final int order;
+        final List<Predicate<Object>> matchers;
+        final List<Stubs.StatefulAnswer> answers = new CopyOnWriteArrayList<>();
+
+        Stub(final int order, final List<Predicate<Object>> matchers) {
+            this.order = order;
+            this.matchers = matchers;
+        }
+
+        boolean matches(final Object[] arguments) {
+            for (int i = 0; i < arguments.length; i++) {
+                if (!matchers.get(i).test(arguments[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A method and its arguments, arrays compared by their content.
+     */
+    private static final class Key {
+
+        private final Method method;
+        private final List<Object> arguments;
+        private final int hash;
+
+        Key(final Method method, final Object[] arguments) {
+            this.method = method;
+            this.arguments = contents(arguments);
+            this.hash = 31 * method.hashCode() + this.arguments.hashCode();
+        }
+
+        private static List<Object> contents(final Object array) {
+            final int length = Array.getLength(array);
+            final List<Object> contents = new ArrayList<>(length);
+            for (int i = 0; i < length; i++) {
+                final Object element = Array.get(array, i);
+                contents.add(element != null && element.getClass().isArray() ? contents(element) : element);
+            }
+            return contents;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return hash == key.hash && method.equals(key.method) && arguments.equals(key.arguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.mock;
+
+import java.util.function.Consumer;
+
+/**
+ * The answers of a stubbed call, given in turn by its consecutive calls, the last one repeating.
+ *
+ * @author GraviteeSource Team
+ */
+public final class Stubbing<T> {
+
+    private final Consumer<Stubs.StatefulAnswer> answers;
+
+    Stubbing(final Consumer<Stubs.StatefulAnswer> answers) {
+        this.answers = answers;
+    }
+
+    @SafeVarargs
+    public final Stubbing<T> thenReturn(final T value, final T... values) {
+        answers.accept((arguments, state) -> Stubs.copy(value));
+        for (final T next : values) {
+            answers.accept((arguments, state) -> Stubs.copy(next));
+        }
+        return this;
+    }
+
+    public Stubbing<T> thenThrow(final Throwable... throwables) {
+        for (final Throwable throwable : throwables) {
+            answers.accept((arguments, state) -> {
+                throw throwable;
+            });
+        }
+        return this;
+    }
+
+    public Stubbing<T> thenAnswer(final Stubs.Answer answer) {
+        answers.accept(Stubs.stateless(answer));
+        return this;
+    }
+
+    public Stubbing<T> thenAnswer(final Stubs.StatefulAnswer answer) {
+        answers.accept(answer);
+        return this;
+    }
+}
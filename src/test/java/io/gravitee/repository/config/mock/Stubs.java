@@ -0,0 +1,314 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.mock;
+
+import io.gravitee.common.data.domain.Page;
+import io.gravitee.repository.config.memory.Copies;
+import org.springframework.aop.framework.Advised;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Stubs of the repository interfaces, declared the Mockito way but answered from hashed lookup tables: a call is
+ * answered by a single lookup on its arguments, only the stubs declared with matchers being tried one after the other.
+ * As with Mockito, the stub declared last wins, consecutive answers are given in turn and the last one repeats, and
+ * an unstubbed call answers an empty value. Mockito answers its stubs one matcher after the other, which the TCK, calling
+ * every stub of a repository in each test, cannot afford.
+ *
+ * A matcher stands for its argument in the declared call, returning a placeholder: null for the matchers of any type,
+ * the default value of the primitive for {@link #anyInt}, {@link #anyLong}, {@link #anyBoolean} and {@link #any(Class)}
+ * given a primitive or its wrapper, which a primitive parameter would otherwise fail to unbox.
+ *
+ * Answers are copied on each call, so a test modifying what it reads does not modify what the next tests read.
+ * An answer keeping a state between calls, as one answering writes does, keeps it in the {@link State} of the stub
+ * called: a prepared table being shared by the stubs of every context, a state held by the answer itself would be
+ * shared too.
+ *
+ * @author GraviteeSource Team
+ */
+public final class Stubs {
+
+    private static final ThreadLocal<Declaration> DECLARATION = ThreadLocal.withInitial(Declaration::new);
+    private static final Map<Class<?>, Object> DEFAULTS = new HashMap<>();
+    private static final Map<Class<?>, Class<?>> WRAPPERS = new HashMap<>();
+
+    static {
+        primitive(boolean.class, Boolean.class, false);
+        primitive(byte.class, Byte.class, (byte) 0);
+        primitive(short.class, Short.class, (short) 0);
+        primitive(char.class, Character.class, '\0');
+        primitive(int.class, Integer.class, 0);
+        primitive(long.class, Long.class, 0L);
+        primitive(float.class, Float.class, 0F);
+        primitive(double.class, Double.class, 0D);
+    }
+
+    private static <T> void primitive(final Class<T> primitive, final Class<T> wrapper, final T defaultValue) {
+        WRAPPERS.put(primitive, wrapper);
+        DEFAULTS.put(primitive, defaultValue);
+        DEFAULTS.put(wrapper, defaultValue);
+    }
+
+    private Stubs() {
+    }
+
+    /**
+     * @return a stub of the given repository interface, answering nothing until stubbed
+     */
+    public static <R> R stub(final Class<R> type) {
+        return stub(type, new StubTable(type));
+    }
+
+    /**
+     * @return a table of stubs of the given repository interface, stubbed by the given preparation on the first call
+     * made on one of its stubs, then frozen
+     */
+    static <R> StubTable prepared(final Class<R> type, final Preparation<R> preparation) {
+        final StubTable table = new StubTable(type);
+        final R stub = stub(type, table);
+        table.prepareOnFirstCall(() -> {
+            preparation.prepare(stub);
+            return null;
+        });
+        return table;
+    }
+
+    /**
+     * @return a stub answering from the given table, with a state of its own
+     */
+    static <R> R stub(final Class<R> type, final StubTable table) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, new StubInstance(table)));
+    }
+
+    /**
+     * @return whether the given object is a stub, behind the proxies of the context counting its calls if any
+     */
+    public static boolean isStub(final Object object) {
+        if (object instanceof Advised) {
+            try {
+                return isStub(((Advised) object).getTargetSource().getTarget());
+            } catch (final Exception e) {
+                throw new IllegalStateException("The target of " + object + " cannot be reached", e);
+            }
+        }
+        return object != null && Proxy.isProxyClass(object.getClass())
+                && Proxy.getInvocationHandler(object) instanceof StubInstance;
+    }
+
+    public static <T> Stubbing<T> when(final T call) {
+        final StubTable.Invocation invocation = DECLARATION.get().takeInvocation();
+        if (invocation == null) {
+            throw new IllegalStateException("when() expects a call on a stub");
+        }
+        return new Stubbing<>(invocation.table.declare(invocation.method, invocation.arguments, invocation.matchers));
+    }
+
+    public static Stubber doAnswer(final Answer answer) {
+        return new Stubber(stateless(answer));
+    }
+
+    public static Stubber doAnswer(final StatefulAnswer answer) {
+        return new Stubber(answer);
+    }
+
+    static StatefulAnswer stateless(final Answer answer) {
+        return (arguments, state) -> answer.answer(arguments);
+    }
+
+    /**
+     * @return a matcher of any argument of a reference parameter
+     */
+    public static <T> T any() {
+        return match(argument -> true, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> T any(final Class<T> type) {
+        return match(WRAPPERS.getOrDefault(type, type)::isInstance, (T) DEFAULTS.get(type));
+    }
+
+    public static int anyInt() {
+        return any(int.class);
+    }
+
+    public static long anyLong() {
+        return any(long.class);
+    }
+
+    public static boolean anyBoolean() {
+        return any(boolean.class);
+    }
+
+    public static String anyString() {
+        return match(String.class::isInstance, null);
+    }
+
+    public static <T> T eq(final T value) {
+        return match(argument -> Objects.deepEquals(value, argument), value);
+    }
+
+    public static <T> T isNull(final Class<T> type) {
+        return match(Objects::isNull, null);
+    }
+
+    /**
+     * @return a matcher of the arguments of a reference parameter the given predicate accepts
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T argThat(final Predicate<T> predicate) {
+        return match(argument -> predicate.test((T) argument), null);
+    }
+
+    private static <T> T match(final Predicate<Object> matcher, final T placeholder) {
+        DECLARATION.get().matchers.add(matcher);
+        return placeholder;
+    }
+
+    static Declaration declaration() {
+        return DECLARATION.get();
+    }
+
+    /**
+     * @return a copy of the given answer, down to the models it holds
+     */
+    static Object copy(final Object value) {
+        if (value == null) {
+            return value;
+        }
+        if (value instanceof Optional) {
+            return ((Optional<?>) value).map(Stubs::copy);
+        }
+        if (value instanceof Page) {
+            return copyPage((Page<?>) value);
+        }
+        if (value instanceof List) {
+            final List<Object> list = new ArrayList<>(((List<?>) value).size());
+            for (final Object element : (List<?>) value) {
+                list.add(copy(element));
+            }
+            return list;
+        }
+        if (value instanceof Set) {
+            final Set<Object> set = new LinkedHashSet<>();
+            for (final Object element : (Set<?>) value) {
+                set.add(copy(element));
+            }
+            return set;
+        }
+        if (value instanceof Map) {
+            final Map<Object, Object> map = new LinkedHashMap<>();
+            for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                map.put(entry.getKey(), copy(entry.getValue()));
+            }
+            return map;
+        }
+        return Copies.copy(value);
+    }
+
+    private static <T> Page<T> copyPage(final Page<T> page) {
+        final List<T> content = new ArrayList<>(page.getContent().size());
+        page.getContent().forEach(item -> content.add(Copies.copy(item)));
+        return new Page<>(content, page.getPageNumber(), Math.toIntExact(page.getPageElements()),
+                page.getTotalElements());
+    }
+
+    /**
+     * What a stubbed call does, given its arguments.
+     */
+    @FunctionalInterface
+    interface Preparation<R> {
+
+        void prepare(R stub) throws Exception;
+    }
+
+    @FunctionalInterface
+    public interface Answer {
+
+        Object answer(Object[] arguments) throws Throwable;
+    }
+
+    /**
+     * An answer given the state of the stub called.
+     */
+    @FunctionalInterface
+    public interface StatefulAnswer {
+
+        Object answer(Object[] arguments, State state) throws Throwable;
+    }
+
+    /**
+     * What the calls made on a stub change, apart from the calls made on the other stubs of its table.
+     */
+    public interface State {
+
+        /**
+         * @return the state of the given key, initialized on its first use
+         */
+        <S> S get(Object key, Supplier<S> initial);
+    }
+
+    public static final class Stubber {
+
+        private final StatefulAnswer answer;
+
+        private Stubber(final StatefulAnswer answer) {
+            this.answer = answer;
+        }
+
+        /**
+         * @return the given stub, whose next call declares the stubbed one
+         */
+        public <R> R when(final R stub) {
+            DECLARATION.get().answer = answer;
+            return stub;
+        }
+    }
+
+    /**
+     * The declaration in progress on the current thread: the matchers of the arguments, the answer declared ahead of
+     * the call, and the last call made on a stub.
+     */
+    static final class Declaration {
+
+        final List<Predicate<Object>> matchers = new ArrayList<>();
+        StatefulAnswer answer;
+        StubTable.Invocation invocation;
+
+        List<Predicate<Object>> takeMatchers() {
+            if (matchers.isEmpty()) {
+                return Collections.emptyList();
+            }
+            final List<Predicate<Object>> taken = new ArrayList<>(matchers);
+            matchers.clear();
+            return taken;
+        }
+
+        StatefulAnswer takeAnswer() {
+            final StatefulAnswer taken = answer;
+            answer = null;
+            return taken;
+        }
+
+        StubTable.Invocation takeInvocation() {
+            final StubTable.Invocation taken = invocation;
+            invocation = null;
+            return taken;
+        }
+    }
+}
@@ -17,18 +17,13 @@ package io.gravitee.repository.config.mock;
 
 import io.gravitee.repository.management.api.SubscriptionRepository;
 import io.gravitee.repository.management.api.search.SubscriptionCriteria;
-import io.gravitee.repository.management.api.search.builder.PageableBuilder;
 import io.gravitee.repository.management.model.Subscription;
 
-import java.util.Collections;
-import java.util.Date;
+import java.util.Collection;
 
-import static java.util.Arrays.asList;
-import static java.util.Collections.*;
+import static io.gravitee.repository.config.mock.Stubs.*;
+import static java.util.Comparator.comparing;
 import static java.util.Optional.empty;
-import static java.util.Optional.of;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.*;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -42,69 +37,36 @@ public class SubscriptionRepositoryMock extends AbstractRepositoryMock<Subscript
 
     @Override
     void prepare(SubscriptionRepository subscriptionRepository) throws Exception {
-        final Subscription sub1 = new Subscription();
-        sub1.setId("sub1");
-        sub1.setPlan("plan1");
-        sub1.setApplication("app1");
-        sub1.setApi("api1");
-        sub1.setRequest("request");
-        sub1.setReason("reason");
-        sub1.setStatus(Subscription.Status.PENDING);
-        sub1.setProcessedBy("user1");
-        sub1.setSubscribedBy("user2");
-        sub1.setStartingAt(new Date(1439022010883L));
-        sub1.setEndingAt(new Date(1449022010883L));
-        sub1.setCreatedAt(new Date(1459022010883L));
-        sub1.setUpdatedAt(new Date(1469022010883L));
-        sub1.setProcessedAt(new Date(1479022010883L));
-        sub1.setPausedAt(new Date(1479022010883L));
-        sub1.setClientId("my-client-id");
+        final Fixtures<Subscription> fixtures =
+                Fixtures.load("/data/subscription-tests/", Subscription.class, Subscription::getId)
+                        .sorted(comparing(Subscription::getCreatedAt).reversed());
 
-        final Subscription sub3 = new Subscription();
-        sub3.setId("sub3");
+        when(subscriptionRepository.findById(any())).thenAnswer(fixtures.byKey());
+        when(subscriptionRepository.search(any())).thenAnswer(fixtures.listWhere(
+                (subscription, arguments) -> matches(subscription, (SubscriptionCriteria) arguments[0])));
+        when(subscriptionRepository.search(any(), any())).thenAnswer(fixtures.pageWhere(
+                (subscription, arguments) -> matches(subscription, (SubscriptionCriteria) arguments[0])));
 
-        final Subscription sub4 = new Subscription();
-        sub4.setId("sub4");
-
-        when(subscriptionRepository.search(
-                new SubscriptionCriteria.Builder()
-                        .plans(singleton("plan1"))
-                        .build()))
-                .thenReturn(singletonList(sub1));
-        when(subscriptionRepository.search(
-                new SubscriptionCriteria.Builder()
-                        .plans(singleton("unknown-plan"))
-                        .build()))
-                .thenReturn(Collections.emptyList());
-
-        when(subscriptionRepository.search(
-                new SubscriptionCriteria.Builder()
-                        .applications(singleton("app1"))
-                        .build()))
-                .thenReturn(asList(sub3, sub4, sub1));
-        when(subscriptionRepository.search(
-                new SubscriptionCriteria.Builder()
-                        .applications(singleton("unknown-app"))
-                        .build()))
-                .thenReturn(Collections.emptyList());
-
-        when(subscriptionRepository.findById("sub1")).thenReturn(of(sub1));
-        when(subscriptionRepository.findById("unknown-sub")).thenReturn(empty());
+        // deleted by the test
         when(subscriptionRepository.findById("sub2")).thenReturn(empty());
-        when(subscriptionRepository.update(sub1)).thenReturn(sub1);
 
+        when(subscriptionRepository.update(any())).thenAnswer(arguments -> arguments[0]);
         when(subscriptionRepository.update(argThat(o -> o == null || o.getId().equals("unknown")))).thenThrow(new IllegalStateException());
+    }
 
-        when(subscriptionRepository.search(
-                new SubscriptionCriteria.Builder()
-                        .from(1469022010883L)
-                        .to(1569022010883L)
-                        .build()))
-                .thenReturn(singletonList(sub1));
+    /**
+     * Whether the subscription matches the whole criteria, its dates being those of its last update.
+     */
+    private static boolean matches(final Subscription subscription, final SubscriptionCriteria criteria) {
+        return isIn(subscription.getApplication(), criteria.getApplications())
+                && isIn(subscription.getPlan(), criteria.getPlans())
+                && isIn(subscription.getApi(), criteria.getApis())
+                && isIn(subscription.getStatus(), criteria.getStatuses())
+                && (criteria.getClientId() == null || criteria.getClientId().equals(subscription.getClientId()))
+                && Fixtures.within(subscription.getUpdatedAt(), criteria.getFrom(), criteria.getTo());
+    }
 
-        when(subscriptionRepository.search(any(), eq(new PageableBuilder().pageNumber(0).pageSize(2).build())))
-                .thenReturn(new io.gravitee.common.data.domain.Page<>(asList(sub3, sub1), 0, 2, 2));
-        when(subscriptionRepository.search(any(), eq(new PageableBuilder().pageNumber(1).pageSize(2).build())))
-                .thenReturn(new io.gravitee.common.data.domain.Page<>(emptyList(), 1, 0, 2));
+    private static boolean isIn(final Object value, final Collection<?> values) {
+        return values == null || values.isEmpty() || values.contains(value);
     }
 }
@@ -20,12 +20,10 @@ import io.gravitee.repository.management.model.Tag;
 
 import java.util.Set;
 
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.*;
-import static org.mockito.internal.util.collections.Sets.newSet;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -39,32 +37,33 @@ public class TagRepositoryMock extends AbstractRepositoryMock<TagRepository> {
 
     @Override
     void prepare(TagRepository tagRepository) throws Exception {
-        final Tag tag = mock(Tag.class);
-        when(tag.getName()).thenReturn("Tag name");
-        when(tag.getDescription()).thenReturn("Description for the new tag");
-        when(tag.getRestrictedGroups()).thenReturn(asList("g1", "groupNew"));
+        final Tag tag = new Tag();
+        tag.setId("new-tag");
+        tag.setName("Tag name");
+        tag.setDescription("Description for the new tag");
+        tag.setRestrictedGroups(asList("g1", "groupNew"));
 
-        final Tag tag2 = mock(Tag.class);
-        when(tag2.getId()).thenReturn("products");
-        when(tag2.getName()).thenReturn("Products");
-        when(tag2.getDescription()).thenReturn("Description for products tag");
-        when(tag2.getRestrictedGroups()).thenReturn(asList("group1", "group2"));
+        final Fixtures<Tag> fixtures = Fixtures.load("/data/tag-tests/", Tag.class, Tag::getId);
 
-        final Tag tag2Updated = mock(Tag.class);
-        when(tag2Updated.getName()).thenReturn("New product");
-        when(tag2Updated.getDescription()).thenReturn("New description");
-        when(tag2Updated.getRestrictedGroups()).thenReturn(singletonList("group"));
+        final Tag tag2Updated = new Tag();
 
-        final Set<Tag> tags = newSet(tag, tag2, mock(Tag.class));
-        final Set<Tag> tagsAfterDelete = newSet(tag, tag2);
-        final Set<Tag> tagsAfterAdd = newSet(tag, tag2, mock(Tag.class), mock(Tag.class));
+        tag2Updated.setId("products");
+        tag2Updated.setName("New product");
+        tag2Updated.setDescription("New description");
+        tag2Updated.setRestrictedGroups(singletonList("group"));
+
+        final Set<Tag> tags = fixtures.set("international", "products", "stores");
+        final Set<Tag> tagsAfterDelete = fixtures.set("international", "products");
+        final Set<Tag> tagsAfterAdd = fixtures.set("international", "products", "stores");
+        tagsAfterAdd.add(tag);
 
         when(tagRepository.findAll()).thenReturn(tags, tagsAfterAdd, tags, tagsAfterDelete, tags);
 
         when(tagRepository.create(any(Tag.class))).thenReturn(tag);
 
+        when(tagRepository.findById(any())).thenAnswer(fixtures.byKey());
         when(tagRepository.findById("new-tag")).thenReturn(of(tag));
-        when(tagRepository.findById("products")).thenReturn(of(tag2), of(tag2Updated));
+        when(tagRepository.findById("products")).thenReturn(of(fixtures.get("products")), of(tag2Updated));
 
         when(tagRepository.update(argThat(o -> o == null || o.getId().equals("unknown")))).thenThrow(new IllegalStateException());
     }
@@ -20,10 +20,8 @@ import io.gravitee.repository.management.model.Tenant;
 
 import java.util.Set;
 
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.*;
-import static org.mockito.internal.util.collections.Sets.newSet;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -37,28 +35,31 @@ public class TenantRepositoryMock extends AbstractRepositoryMock<TenantRepositor
 
     @Override
     void prepare(TenantRepository tenantRepository) throws Exception {
-        final Tenant tenant = mock(Tenant.class);
-        when(tenant.getName()).thenReturn("Tenant name");
-        when(tenant.getDescription()).thenReturn("Description for the new tenant");
+        final Tenant tenant = new Tenant();
+        tenant.setId("new-tenant");
+        tenant.setName("Tenant name");
+        tenant.setDescription("Description for the new tenant");
 
-        final Tenant tenant2 = mock(Tenant.class);
-        when(tenant2.getId()).thenReturn("tenant");
-        when(tenant2.getName()).thenReturn("Asia");
+        final Fixtures<Tenant> fixtures = Fixtures.load("/data/tenant-tests/", Tenant.class, Tenant::getId);
 
-        final Tenant tenant2Updated = mock(Tenant.class);
-        when(tenant2Updated.getName()).thenReturn("New tenant");
-        when(tenant2Updated.getDescription()).thenReturn("New description");
+        final Tenant tenant2Updated = new Tenant();
 
-        final Set<Tenant> tenants = newSet(tenant, tenant2, mock(Tenant.class));
-        final Set<Tenant> tenantsAfterDelete = newSet(tenant, tenant2);
-        final Set<Tenant> tenantsAfterAdd = newSet(tenant, tenant2, mock(Tenant.class), mock(Tenant.class));
+        tenant2Updated.setId("asia");
+        tenant2Updated.setName("New tenant");
+        tenant2Updated.setDescription("New description");
+
+        final Set<Tenant> tenants = fixtures.set("europe", "asia", "us");
+        final Set<Tenant> tenantsAfterDelete = fixtures.set("europe", "asia");
+        final Set<Tenant> tenantsAfterAdd = fixtures.set("europe", "asia", "us");
+        tenantsAfterAdd.add(tenant);
 
         when(tenantRepository.findAll()).thenReturn(tenants, tenantsAfterAdd, tenants, tenantsAfterDelete, tenants);
 
         when(tenantRepository.create(any(Tenant.class))).thenReturn(tenant);
 
+        when(tenantRepository.findById(any())).thenAnswer(fixtures.byKey());
         when(tenantRepository.findById("new-tenant")).thenReturn(of(tenant));
-        when(tenantRepository.findById("asia")).thenReturn(of(tenant2), of(tenant2Updated));
+        when(tenantRepository.findById("asia")).thenReturn(of(fixtures.get("asia")), of(tenant2Updated));
 
         when(tenantRepository.update(argThat(o -> o == null || o.getId().equals("unknown")))).thenThrow(new IllegalStateException());
     }
@@ -20,15 +20,16 @@ import io.gravitee.repository.management.api.search.UserCriteria;
 import io.gravitee.repository.management.model.User;
 import io.gravitee.repository.management.model.UserStatus;
 
+import java.util.Arrays;
 import java.util.Date;
-import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 
-import static java.util.Arrays.asList;
-import static java.util.Collections.singletonList;
+import static io.gravitee.repository.config.mock.Stubs.*;
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.nullsLast;
 import static java.util.Optional.empty;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.*;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -42,92 +43,64 @@ public class UserRepositoryMock extends AbstractRepositoryMock<UserRepository> {
 
     @Override
     void prepare(UserRepository userRepository) throws Exception {
-        final User user = mock(User.class);
-        when(user.getId()).thenReturn("createuser1");
-        when(user.getPassword()).thenReturn("New pwd");
-        when(user.getEmail()).thenReturn("createuser1@gravitee.io");
+        final User user = new User();
+        user.setId("createuser1");
+        user.setPassword("New pwd");
+        user.setEmail("createuser1@gravitee.io");
 
-        final User userUpdated = mock(User.class);
-        when(userUpdated.getId()).thenReturn("id2update");
-        when(userUpdated.getSource()).thenReturn("sourceUpdated");
-        when(userUpdated.getSourceId()).thenReturn("sourceIdUpdated");
-        when(userUpdated.getPassword()).thenReturn("passwordUpdated");
-        when(userUpdated.getEmail()).thenReturn("emailUpdated");
-        when(userUpdated.getFirstname()).thenReturn("firstnameUpdated");
-        when(userUpdated.getLastname()).thenReturn("lastnameUpdated");
-        when(userUpdated.getPicture()).thenReturn("pictureUpdated");
-        when(userUpdated.getCreatedAt()).thenReturn(new Date(1439032010883L));
-        when(userUpdated.getUpdatedAt()).thenReturn(new Date(1439042010883L));
-        when(userUpdated.getLastConnectionAt()).thenReturn(new Date(1439052010883L));
-        when(userUpdated.getStatus()).thenReturn(UserStatus.ARCHIVED);
+        final User userUpdated = new User();
+        userUpdated.setId("id2update");
+        userUpdated.setSource("sourceUpdated");
+        userUpdated.setSourceId("sourceIdUpdated");
+        userUpdated.setPassword("passwordUpdated");
+        userUpdated.setEmail("emailUpdated");
+        userUpdated.setFirstname("firstnameUpdated");
+        userUpdated.setLastname("lastnameUpdated");
+        userUpdated.setPicture("pictureUpdated");
+        userUpdated.setCreatedAt(new Date(1439032010883L));
+        userUpdated.setUpdatedAt(new Date(1439042010883L));
+        userUpdated.setLastConnectionAt(new Date(1439052010883L));
+        userUpdated.setStatus(UserStatus.ARCHIVED);
 
-        final User user0 = mock(User.class);
-        when(user0.getId()).thenReturn("user0");
-        final User user1 = mock(User.class);
-        when(user1.getId()).thenReturn("user1");
-        final User user2 = mock(User.class);
-        when(user2.getId()).thenReturn("user2");
-        final User user3 = mock(User.class);
-        when(user3.getId()).thenReturn("user3");
-        final User user4 = mock(User.class);
-        when(user4.getId()).thenReturn("user4");
-        final User user5 = mock(User.class);
-        when(user5.getId()).thenReturn("user5");
-        final User id2update = mock(User.class);
-        when(id2update.getId()).thenReturn("id2update");
-        final User user2delete = mock(User.class);
-        when(user2delete.getId()).thenReturn("user2delete");
-        io.gravitee.common.data.domain.Page<User> searchAllResult = new io.gravitee.common.data.domain.Page<>(
-                asList(user0, user1, user3, user5, user2, user4, id2update, user2delete),0, 0, 8);
+        final Fixtures<User> fixtures = Fixtures.load("/data/user-tests/", User.class, User::getId)
+                .sorted(comparing(User::getLastname, nullsLast(String.CASE_INSENSITIVE_ORDER))
+                        .thenComparing(User::getFirstname, nullsLast(String.CASE_INSENSITIVE_ORDER)));
+
+        when(userRepository.findById(any())).thenAnswer(fixtures.byKey());
+        when(userRepository.findByIds(any()))
+                .thenAnswer(fixtures.setWhere((u, arguments) -> ((List<?>) arguments[0]).contains(u.getId())));
+        when(userRepository.findBySource(any(), any())).thenAnswer(fixtures.firstWhere((u, arguments) ->
+                Objects.equals(arguments[0], u.getSource())
+                        && u.getSourceId() != null && u.getSourceId().equalsIgnoreCase((String) arguments[1])));
+        when(userRepository.search(any(), any()))
+                .thenAnswer(fixtures.pageWhere((u, arguments) -> matches(u, (UserCriteria) arguments[0])));
 
-        when(userRepository.search(isNull(UserCriteria.class), any())).thenReturn(searchAllResult);
-        when(userRepository.search(
-                argThat(o -> o != null
-                        && (o.getStatuses() == null
-                        || o.getStatuses().length==0)
-                ), any()))
-                .thenReturn(searchAllResult);
-        when(userRepository.search(
-                argThat(o -> o != null
-                        && o.getStatuses() != null
-                        && o.getStatuses().length==1
-                        && UserStatus.ARCHIVED.equals(o.getStatuses()[0])
-                ), any()))
-                .thenReturn(new io.gravitee.common.data.domain.Page<>(singletonList(mock(User.class)), 0, 0, 1));
-        when(userRepository.search(
-                argThat(o -> o != null
-                        && o.getStatuses() != null
-                        && o.getStatuses().length==1
-                        && UserStatus.ACTIVE.equals(o.getStatuses()[0])
-                ), any()))
-                .thenReturn(new io.gravitee.common.data.domain.Page<>(
-                        asList(user, mock(User.class), mock(User.class), mock(User.class), mock(User.class), mock(User.class)),0, 0, 6));
-        when(userRepository.search(
-                argThat(o -> o != null
-                        && o.getStatuses() == null
-                        && o.hasNoStatus()
-                ), any()))
-                .thenReturn(new io.gravitee.common.data.domain.Page<>(
-                        asList(mock(User.class)),0, 0, 1));
         when(userRepository.create(any(User.class))).thenReturn(user);
-        when(userRepository.findById("user0")).thenReturn(of(user));
-        when(userRepository.findById("id2update")).thenReturn(of(userUpdated));
+        when(userRepository.findById("id2update")).thenReturn(of(fixtures.get("id2update")), of(userUpdated));
 
-        when(user.getId()).thenReturn("createuser1");
-        when(user.getEmail()).thenReturn("createuser1@gravitee.io");
-        when(user.getStatus()).thenReturn(UserStatus.ACTIVE);
+        user.setId("createuser1");
+        user.setEmail("createuser1@gravitee.io");
+        user.setStatus(UserStatus.ACTIVE);
 
         when(userRepository.findBySource("gravitee", "createuser1")).thenReturn(of(user));
 
         when(userRepository.update(argThat(o -> o != null && "id2update".equals(o.getId())))).thenReturn(userUpdated);
         when(userRepository.update(argThat(o -> o == null || "unknown".equals(o.getId())))).thenThrow(new IllegalStateException());
 
-        when(userRepository.findBySource("gravitee", "user1")).thenReturn(of(user1));
-        when(userRepository.findBySource("gravitee", "USER1")).thenReturn(of(user1));
-        when(userRepository.findBySource("gravitee", "user")).thenReturn(empty());
-        when(userRepository.findById("user1")).thenReturn(of(user1));
-        when(userRepository.findByIds(asList("user1", "user5"))).thenReturn(new HashSet<>(asList(user1, user5)));
+        when(userRepository.findById("user2delete")).thenReturn(of(fixtures.get("user2delete")), empty());
+    }
 
-        when(userRepository.findById("user2delete")).thenReturn(of(new User()), empty());
+    /**
+     * Whether the user matches the criteria, no criteria accepting every user.
+     */
+    private static boolean matches(final User user, final UserCriteria criteria) {
+        if (criteria == null) {
+            return true;
+        }
+        if (criteria.hasNoStatus()) {
+            return user.getStatus() == null;
+        }
+        return criteria.getStatuses() == null || criteria.getStatuses().length == 0
+                || Arrays.asList(criteria.getStatuses()).contains(user.getStatus());
     }
 }
@@ -21,11 +21,8 @@ import io.gravitee.repository.management.model.View;
 import java.util.Date;
 import java.util.Set;
 
-import static java.util.Optional.empty;
+import static io.gravitee.repository.config.mock.Stubs.*;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.*;
-import static org.mockito.internal.util.collections.Sets.newSet;
 
 /**
  * @author David BRASSELY (david.brassely at graviteesource.com)
@@ -39,48 +36,45 @@ public class ViewRepositoryMock extends AbstractRepositoryMock<ViewRepository> {
 
     @Override
     void prepare(ViewRepository viewRepository) throws Exception {
-        final View newView = mock(View.class);
-        when(newView.getName()).thenReturn("View name");
-        when(newView.getDescription()).thenReturn("Description for the new view");
-        when(newView.getCreatedAt()).thenReturn(new Date(1486771200000L));
-        when(newView.getUpdatedAt()).thenReturn(new Date(1486771200000L));
-        when(newView.isHidden()).thenReturn(true);
-        when(newView.getOrder()).thenReturn(1);
-        when(newView.isDefaultView()).thenReturn(true);
-        when(newView.getPicture()).thenReturn("New picture");
+        final View newView = new View();
+        newView.setId("new-view");
+        newView.setName("View name");
+        newView.setDescription("Description for the new view");
+        newView.setCreatedAt(new Date(1486771200000L));
+        newView.setUpdatedAt(new Date(1486771200000L));
+        newView.setHidden(true);
+        newView.setOrder(1);
+        newView.setDefaultView(true);
+        newView.setPicture("New picture");
 
 
-        final View viewProducts = new View();
-        viewProducts.setId("view");
-        viewProducts.setName("Products");
-        viewProducts.setCreatedAt(new Date(1000000000000L));
-        viewProducts.setUpdatedAt(new Date(1111111111111L));
-        viewProducts.setHidden(false);
-        viewProducts.setOrder(1);
-        viewProducts.setDefaultView(false);
+        final Fixtures<View> fixtures = Fixtures.load("/data/view-tests/", View.class, View::getId);
 
-        final View viewProductsUpdated = mock(View.class);
-        when(viewProductsUpdated.getName()).thenReturn("New product");
-        when(viewProductsUpdated.getDescription()).thenReturn("New description");
-        when(viewProductsUpdated.getCreatedAt()).thenReturn(new Date(1486771200000L));
-        when(viewProductsUpdated.getUpdatedAt()).thenReturn(new Date(1486771200000L));
-        when(viewProductsUpdated.isHidden()).thenReturn(true);
-        when(viewProductsUpdated.getOrder()).thenReturn(10);
-        when(viewProductsUpdated.isDefaultView()).thenReturn(true);
-        when(viewProductsUpdated.getHighlightApi()).thenReturn("new Highlighted API");
-        when(viewProductsUpdated.getPicture()).thenReturn("New picture");
+        final View viewProductsUpdated = new View();
 
-        final Set<View> views = newSet(newView, viewProducts, mock(View.class));
-        final Set<View> viewsAfterDelete = newSet(newView, viewProducts);
-        final Set<View> viewsAfterAdd = newSet(newView, viewProducts, mock(View.class), mock(View.class));
+        viewProductsUpdated.setId("products");
+        viewProductsUpdated.setName("New product");
+        viewProductsUpdated.setDescription("New description");
+        viewProductsUpdated.setCreatedAt(new Date(1486771200000L));
+        viewProductsUpdated.setUpdatedAt(new Date(1486771200000L));
+        viewProductsUpdated.setHidden(true);
+        viewProductsUpdated.setOrder(10);
+        viewProductsUpdated.setDefaultView(true);
+        viewProductsUpdated.setHighlightApi("new Highlighted API");
+        viewProductsUpdated.setPicture("New picture");
+
+        final Set<View> views = fixtures.set("international", "products", "stores");
+        final Set<View> viewsAfterDelete = fixtures.set("international", "products");
+        final Set<View> viewsAfterAdd = fixtures.set("international", "products", "stores");
+        viewsAfterAdd.add(newView);
 
         when(viewRepository.findAll()).thenReturn(views, viewsAfterAdd, views, viewsAfterDelete, views);
 
         when(viewRepository.create(any(View.class))).thenReturn(newView);
 
+        when(viewRepository.findById(any())).thenAnswer(fixtures.byKey());
         when(viewRepository.findById("new-view")).thenReturn(of(newView));
-        when(viewRepository.findById("unknown")).thenReturn(empty());
-        when(viewRepository.findById("products")).thenReturn(of(viewProducts), of(viewProductsUpdated));
+        when(viewRepository.findById("products")).thenReturn(of(fixtures.get("products")), of(viewProductsUpdated));
 
         when(viewRepository.update(argThat(o -> o == null || o.getId().equals("unknown")))).thenThrow(new IllegalStateException());
     }
@@ -21,13 +21,9 @@ import io.gravitee.repository.management.model.Workflow;
 import java.util.Date;
 import java.util.Set;
 
-import static java.util.Arrays.asList;
+import static io.gravitee.repository.config.mock.Stubs.*;
+import static java.util.Comparator.comparing;
 import static java.util.Optional.of;
-import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.argThat;
-import static org.mockito.Mockito.mock;
-import static org.mockito.Mockito.when;
-import static org.mockito.internal.util.collections.Sets.newSet;
 
 /**
  * @author Azize ELAMRANI (azize.elamrani at graviteesource.com)
@@ -52,12 +48,8 @@ public class WorkflowRepositoryMock extends AbstractRepositoryMock<WorkflowRepos
         workflow.setComment("test");
         workflow.setCreatedAt(date);
 
-        final Workflow workflow2 = new Workflow();
-        workflow2.setId("workflow");
-
-        final Workflow workflowBeforUpdate = new Workflow();
-        workflowBeforUpdate.setId("workflow");
-        workflowBeforUpdate.setState("IN_REVIEW");
+        final Fixtures<Workflow> fixtures = Fixtures.load("/data/workflow-tests/", Workflow.class, Workflow::getId)
+                .sorted(comparing(Workflow::getCreatedAt).reversed());
 
         final Workflow workflow2Updated = new Workflow();
         workflow2Updated.setId("workflow");
@@ -68,32 +60,22 @@ public class WorkflowRepositoryMock extends AbstractRepositoryMock<WorkflowRepos
         workflow2Updated.setComment("New comment");
         workflow2Updated.setCreatedAt(date);
 
-        final Workflow oldWorkflow = new Workflow();
-        oldWorkflow.setId("old-workflow");
-        oldWorkflow.setReferenceType("API");
-        oldWorkflow.setReferenceId("api-id");
-        oldWorkflow.setType("REVIEW");
-        oldWorkflow.setState("DRAFT");
-        oldWorkflow.setComment("Comment");
-        oldWorkflow.setUser("User");
-        oldWorkflow.setCreatedAt(new Date(1518357357000L));
-
-        final Workflow workflow3 = new Workflow();
-        workflow3.setId("workflow-api");
-
-        final Set<Workflow> workflows = newSet(workflow, oldWorkflow, workflow2Updated, workflow3);
-        final Set<Workflow> workflowsAfterDelete = newSet(workflow, oldWorkflow, workflow3);
-        final Set<Workflow> workflowsAfterAdd = newSet(workflow, workflow2, workflow3, mock(Workflow.class), mock(Workflow.class));
+        final Set<Workflow> workflows = fixtures.set("workflow-api", "workflow", "old-workflow", "workflow-app");
+        final Set<Workflow> workflowsAfterDelete = fixtures.set("workflow-api", "old-workflow", "workflow-app");
+        final Set<Workflow> workflowsAfterAdd = fixtures.set("workflow-api", "workflow", "old-workflow", "workflow-app");
+        workflowsAfterAdd.add(workflow);
 
         when(workflowRepository.findAll()).thenReturn(workflows, workflowsAfterAdd, workflows, workflowsAfterDelete, workflows);
 
         when(workflowRepository.create(any(Workflow.class))).thenReturn(workflow);
 
+        when(workflowRepository.findById(any())).thenAnswer(fixtures.byKey());
+        when(workflowRepository.findByReferenceAndType(any(), any(), any()))
+                .thenAnswer(fixtures.listBy(Workflow::getReferenceType, Workflow::getReferenceId, Workflow::getType));
+
         when(workflowRepository.findById("new-workflow")).thenReturn(of(workflow));
-        when(workflowRepository.findById("workflow")).thenReturn(of(workflowBeforUpdate), of(workflow2Updated));
+        when(workflowRepository.findById("workflow")).thenReturn(of(fixtures.get("workflow")), of(workflow2Updated));
 
         when(workflowRepository.update(argThat(o -> o == null || o.getId().equals("unknown")))).thenThrow(new IllegalStateException());
-
-        when(workflowRepository.findByReferenceAndType("API", "api-id", "REVIEW")).thenReturn(asList(workflow2, oldWorkflow, workflow3));
     }
 }
@@ -0,0 +1,196 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.snapshot;
+
+import io.gravitee.repository.config.memory.AbstractInMemoryRepository;
+import io.gravitee.repository.config.memory.Copies;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Serves a read-mostly repository from an immutable snapshot of its items, replaced as a whole once a write has gone
+ * through it: {@code findById} and {@code findAll} neither lock nor call the repository. Writes are serialized, and
+ * copy the snapshot; the item written is read back from the repository, so that the snapshot holds what the
+ * repository stored, not the instance the caller keeps. Any other method goes to the repository.
+ *
+ * The models being mutable, the items are handed out either as copies, which the caller is free to change but which
+ * a read allocates, or shared, the snapshot then handing out the very {@code Optional} and set it holds: a caller
+ * changing a shared item changes it for every other reader, until the next write of the item. Shared reads allocate
+ * nothing but the argument array of the proxy call, which {@code findAll} does not even need;
+ * {@link io.gravitee.repository.benchmark.ReadSnapshotBenchmark} measures both ways.
+ *
+ * The snapshot only sees the writes made through it. When the repository is an in-memory one, its
+ * {@link AbstractInMemoryRepository#version version} is checked on each call: a write made otherwise fails the calls
+ * following it, rather than leaving the snapshot serving what it held before. Any other repository must not be
+ * written otherwise while it is served.
+ *
+ * @author GraviteeSource Team
+ */
+final class ReadSnapshot<T> implements InvocationHandler {
+
+    private final String type;
+    private final Object repository;
+    private final AbstractInMemoryRepository<?, ?> versioned;
+    private final Function<T, String> idOf;
+    private final boolean shared;
+    private final Method findById;
+    private volatile Snapshot<T> snapshot;
+    private volatile boolean writing;
+
+    /**
+     * @param type the interface of the repository, a CRUD repository of items keyed by string which finds them all
+     * @param shared whether the items are handed out shared rather than copied
+     */
+    @SuppressWarnings("unchecked")
+    ReadSnapshot(final Class<?> type, final Object repository, final Function<T, String> idOf, final boolean shared)
+            throws Throwable {
+        this.type = type.getSimpleName();
+        this.repository = repository;
+        this.versioned = repository instanceof AbstractInMemoryRepository
+                ? (AbstractInMemoryRepository<?, ?>) repository : null;
+        this.idOf = idOf;
+        this.shared = shared;
+        this.findById = type.getMethod("findById", Object.class);
+        final long version = version();
+        final Map<String, Optional<T>> found = new LinkedHashMap<>();
+        for (final T item : (Collection<T>) call(type.getMethod("findAll"))) {
+            found.put(idOf.apply(item), Optional.of(item));
+        }
+        this.snapshot = new Snapshot<>(found, version);
+        checked(snapshot);
+    }
+
+    @Override
+    public Object invoke(final Object proxy, final Method method, final Object[] args) throws Throwable {
+        final int arity = args == null ? 0 : args.length;
+        if ("findById".equals(method.getName()) && arity == 1) {
+            final Optional<T> item = checked(snapshot).found.get((String) args[0]);
+            if (item == null) {
+                return Optional.empty();
+            }
+            return shared ? item : item.map(Copies::copy);
+        }
+        if ("findAll".equals(method.getName()) && arity == 0) {
+            final Set<T> all = checked(snapshot).all;
+            return shared ? all : Copies.copy(all);
+        }
+        if (("create".equals(method.getName()) || "update".equals(method.getName())) && arity == 1) {
+            return written(method, args);
+        }
+        if ("delete".equals(method.getName()) && arity == 1) {
+            deleted(method, (String) args[0]);
+            return null;
+        }
+        return call(method, args);
+    }
+
+    /**
+     * Runs the given write of an item, then snapshots the item as stored.
+     */
+    @SuppressWarnings("unchecked")
+    private synchronized T written(final Method write, final Object[] args) throws Throwable {
+        checkVersion(snapshot);
+        writing = true;
+        try {
+            final T written = (T) call(write, args);
+            final String id = written == null ? null : idOf.apply(written);
+            final Optional<T> stored = id == null ? Optional.empty() : (Optional<T>) call(findById, id);
+            final Map<String, Optional<T>> found = new LinkedHashMap<>(snapshot.found);
+            if (stored.isPresent()) {
+                found.put(id, stored);
+            } else {
+                found.remove(id);
+            }
+            snapshot = new Snapshot<>(found, version());
+            return written;
+        } finally {
+            writing = false;
+        }
+    }
+
+    /**
+     * Runs the given deletion of an item, then snapshots its absence.
+     */
+    private synchronized void deleted(final Method delete, final String id) throws Throwable {
+        checkVersion(snapshot);
+        writing = true;
+        try {
+            call(delete, id);
+            final Map<String, Optional<T>> found = new LinkedHashMap<>(snapshot.found);
+            found.remove(id);
+            snapshot = new Snapshot<>(found, version());
+        } finally {
+            writing = false;
+        }
+    }
+
+    /**
+     * Returns the given snapshot, read last, once checked against the version of the repository. A write in progress
+     * through the snapshot moves the version before replacing the snapshot: the version is only compared when no
+     * write was in progress and the snapshot has not been replaced since, so that a read racing such a write is
+     * never taken for a write bypassing the snapshot.
+     */
+    private Snapshot<T> checked(final Snapshot<T> current) {
+        if (versioned != null && versioned.version() != current.version && !writing && snapshot == current) {
+            throw bypassed(current);
+        }
+        return current;
+    }
+
+    private void checkVersion(final Snapshot<T> current) {
+        if (versioned != null && versioned.version() != current.version) {
+            throw bypassed(current);
+        }
+    }
+
+    private IllegalStateException bypassed(final Snapshot<T> current) {
+        return new IllegalStateException("The " + type + " has been written bypassing its read snapshot: it is at "
+                + "version " + versioned.version() + ", its snapshot at version " + current.version);
+    }
+
+    private long version() {
+        return versioned == null ? -1 : versioned.version();
+    }
+
+    private Object call(final Method method, final Object... args) throws Throwable {
+        // CRUD methods are inherited from a package-private interface
+        method.setAccessible(true);
+        try {
+            return method.invoke(repository, args);
+        } catch (InvocationTargetException ite) {
+            throw ite.getCause();
+        }
+    }
+
+    private static final class Snapshot<T> {
+
+        private final Map<String, Optional<T>> found;
+        private final Set<T> all;
+        private final long version;
+
+        private Snapshot(final Map<String, Optional<T>> found, final long version) {
+            this.found = found;
+            this.version = version;
+            final Set<T> all = new LinkedHashSet<>();
+            found.values().forEach(item -> all.add(item.get()));
+            this.all = Collections.unmodifiableSet(all);
+        }
+    }
+}
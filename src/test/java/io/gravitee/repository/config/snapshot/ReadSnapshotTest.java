@@ -0,0 +1,150 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.snapshot;
+
+import io.gravitee.repository.config.memory.InMemoryTagRepository;
+import io.gravitee.repository.management.api.TagRepository;
+import io.gravitee.repository.management.model.Tag;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author GraviteeSource Team
+ */
+public class ReadSnapshotTest {
+
+    private final InMemoryTagRepository repository = new InMemoryTagRepository();
+
+    @Before
+    public void setUp() throws Exception {
+        repository.create(tag("tag-1"));
+        repository.create(tag("tag-2"));
+    }
+
+    @Test
+    public void shouldHandOutCopies() throws Exception {
+        final TagRepository snapshot = (TagRepository) ReadSnapshots.wrap(TagRepository.class, repository);
+
+        final Tag found = snapshot.findById("tag-1").get();
+        found.setName("changed");
+
+        assertNotSame(found, snapshot.findById("tag-1").get());
+        assertEquals("tag-1", snapshot.findById("tag-1").get().getName());
+        assertNotSame(snapshot.findAll(), snapshot.findAll());
+    }
+
+    @Test
+    public void shouldHandOutSharedItems() throws Exception {
+        final TagRepository snapshot = (TagRepository) ReadSnapshots.wrap(TagRepository.class, repository, true);
+
+        final Optional<Tag> found = snapshot.findById("tag-1");
+        assertSame(found, snapshot.findById("tag-1"));
+        final Set<Tag> all = snapshot.findAll();
+        assertSame(all, snapshot.findAll());
+        assertTrue(all.contains(found.get()));
+        try {
+            all.clear();
+            fail("The shared items can be removed");
+        } catch (final UnsupportedOperationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void shouldServeTheWritesMadeThroughIt() throws Exception {
+        final TagRepository snapshot = (TagRepository) ReadSnapshots.wrap(TagRepository.class, repository, true);
+
+        snapshot.create(tag("tag-3"));
+        final Tag updated = tag("tag-1");
+        updated.setName("updated");
+        snapshot.update(updated);
+        snapshot.delete("tag-2");
+
+        assertEquals("updated", snapshot.findById("tag-1").get().getName());
+        assertFalse(snapshot.findById("tag-2").isPresent());
+        assertEquals(2, snapshot.findAll().size());
+        assertTrue(snapshot.findById("tag-3").isPresent());
+    }
+
+    @Test
+    public void shouldFailReadsOnceWrittenBypassingIt() throws Exception {
+        final TagRepository snapshot = (TagRepository) ReadSnapshots.wrap(TagRepository.class, repository);
+
+        repository.create(tag("tag-3"));
+
+        try {
+            snapshot.findAll();
+            fail("The write bypassing the snapshot was not detected");
+        } catch (final IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("bypassing its read snapshot"));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldFailWritesOnceWrittenBypassingIt() throws Exception {
+        final TagRepository snapshot = (TagRepository) ReadSnapshots.wrap(TagRepository.class, repository);
+
+        repository.delete("tag-1");
+
+        snapshot.create(tag("tag-3"));
+    }
+
+    @Test
+    public void shouldNotTakeReadsRacingWritesForBypasses() throws Exception {
+        final TagRepository snapshot = (TagRepository) ReadSnapshots.wrap(TagRepository.class, repository, true);
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final ExecutorService readers = Executors.newFixedThreadPool(4);
+        try {
+            final Future<?>[] reads = new Future<?>[4];
+            for (int i = 0; i < reads.length; i++) {
+                reads[i] = readers.submit(() -> {
+                    while (writing.get()) {
+                        snapshot.findById("tag-1");
+                        snapshot.findAll();
+                    }
+                    return null;
+                });
+            }
+            for (int i = 0; i < 2_000; i++) {
+                final Tag tag = tag("tag-1");
+                tag.setName("name-" + i);
+                snapshot.update(tag);
+            }
+            writing.set(false);
+            for (final Future<?> read : reads) {
+                read.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            writing.set(false);
+            readers.shutdownNow();
+        }
+        assertEquals("name-1999", snapshot.findById("tag-1").get().getName());
+    }
+
+    private static Tag tag(final String id) {
+        final Tag tag = new Tag();
+        tag.setId(id);
+        tag.setName(id);
+        return tag;
+    }
+}
@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.snapshot;
+
+import io.gravitee.repository.config.RepositoryDecorator;
+import io.gravitee.repository.management.api.ClientRegistrationProviderRepository;
+import io.gravitee.repository.management.api.DictionaryRepository;
+import io.gravitee.repository.management.api.EntrypointRepository;
+import io.gravitee.repository.management.api.IdentityProviderRepository;
+import io.gravitee.repository.management.api.TagRepository;
+import io.gravitee.repository.management.api.TenantRepository;
+import io.gravitee.repository.management.api.ViewRepository;
+import io.gravitee.repository.management.model.ClientRegistrationProvider;
+import io.gravitee.repository.management.model.Dictionary;
+import io.gravitee.repository.management.model.Entrypoint;
+import io.gravitee.repository.management.model.IdentityProvider;
+import io.gravitee.repository.management.model.Tag;
+import io.gravitee.repository.management.model.Tenant;
+import io.gravitee.repository.management.model.View;
+
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Serves the read-mostly configuration repositories, tags, tenants, views, entrypoints, identity providers, client
+ * registration providers and dictionaries, from {@link ReadSnapshot read snapshots} built out of their current
+ * content; the other repositories are left as they are. A repository served from a snapshot must only be written
+ * through it. As a {@link RepositoryDecorator}, the items are handed out as copies, unless {@link #shared shared}.
+ *
+ * @author GraviteeSource Team
+ */
+public final class ReadSnapshots implements RepositoryDecorator {
+
+    private static final Map<Class<?>, Function<?, String>> ID_OF = new HashMap<>();
+
+    private final boolean shared;
+
+    static {
+        snapshot(TagRepository.class, Tag::getId);
+        snapshot(TenantRepository.class, Tenant::getId);
+        snapshot(ViewRepository.class, View::getId);
+        snapshot(EntrypointRepository.class, Entrypoint::getId);
+        snapshot(IdentityProviderRepository.class, IdentityProvider::getId);
+        snapshot(ClientRegistrationProviderRepository.class, ClientRegistrationProvider::getId);
+        snapshot(DictionaryRepository.class, Dictionary::getId);
+    }
+
+    private static <T> void snapshot(final Class<?> type, final Function<T, String> idOf) {
+        ID_OF.put(type, idOf);
+    }
+
+    public ReadSnapshots() {
+        this(false);
+    }
+
+    private ReadSnapshots(final boolean shared) {
+        this.shared = shared;
+    }
+
+    /**
+     * A decorator handing out the items shared rather than copied, see {@link ReadSnapshot}: for callers never
+     * changing the items they read.
+     */
+    public static ReadSnapshots shared() {
+        return new ReadSnapshots(true);
+    }
+
+    @Override
+    public Object decorate(final Class<?> type, final Object repository) {
+        return wrap(type, repository, shared);
+    }
+
+    public static Object wrap(final Class<?> type, final Object repository) {
+        return wrap(type, repository, false);
+    }
+
+    public static Object wrap(final Class<?> type, final Object repository, final boolean shared) {
+        final Function<?, String> idOf = ID_OF.get(type);
+        if (idOf == null) {
+            return repository;
+        }
+        final ReadSnapshot<?> snapshot;
+        try {
+            snapshot = new ReadSnapshot<>(type, repository, idOf, shared);
+        } catch (final Throwable e) {
+            throw new IllegalStateException("Unable to snapshot the " + type.getSimpleName(), e);
+        }
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, snapshot);
+    }
+}
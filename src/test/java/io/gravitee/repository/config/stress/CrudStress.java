@@ -0,0 +1,383 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.config.stress;
+
+import io.gravitee.repository.exceptions.TechnicalException;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Hammers the create, update, findById and delete methods of a repository from several threads at once, checking
+ * after each call what any implementation safe for concurrent use guarantees. The items are told apart by a marker,
+ * a string field set to the thread and the sequence number of the update that wrote it. Three phases are run:
+ * <ul>
+ * <li>disjoint: each thread creates, updates, reads and deletes its own items, and always reads its own writes, a
+ * deleted item staying deleted even when updated;</li>
+ * <li>overlapping: the threads update and read the same items, a read never missing an item nor returning a
+ * marker no thread wrote;</li>
+ * <li>deletion race: the threads update the items another thread deletes, an update either succeeding or being
+ * rejected with an {@link IllegalStateException}, and no deleted item coming back.</li>
+ * </ul>
+ * The item of the {@code untouched} id, when given, must keep its marker throughout.
+ *
+ * @author GraviteeSource Team
+ */
+public final class CrudStress<T> {
+
+    private static final String INITIAL_MARKER = "initial";
+    private static final String ID_PREFIX = "stress-";
+    private static final int UPDATES_PER_ITEM = 3;
+    // create, then an update and a read per update, then a delete, a read, a rejected update and a read
+    private static final int OPERATIONS_PER_ITEM = 1 + 2 * UPDATES_PER_ITEM + 4;
+
+    private final String type;
+    private final Function<String, T> model;
+    private final Function<T, String> marker;
+    private final BiConsumer<T, String> markerSetter;
+    private final Call<T, T> create;
+    private final Call<T, T> update;
+    private final Call<String, Optional<T>> findById;
+    private final Deletion delete;
+    private final String untouched;
+
+    private CrudStress(final Builder<T> builder) {
+        this.type = builder.type;
+        this.model = requireNonNull(builder.model, "model");
+        this.marker = requireNonNull(builder.marker, "marker");
+        this.markerSetter = requireNonNull(builder.markerSetter, "marker setter");
+        this.create = requireNonNull(builder.create, "create");
+        this.update = requireNonNull(builder.update, "update");
+        this.findById = requireNonNull(builder.findById, "findById");
+        this.delete = requireNonNull(builder.delete, "delete");
+        this.untouched = builder.untouched;
+    }
+
+    /**
+     * Runs the three phases, each thread making about {@code operations} calls per phase.
+     *
+     * @throws AssertionError when a guarantee is broken
+     */
+    public Result run(final int threads, final int operations) throws Exception {
+        final String untouchedMarker = untouched == null ? null : markerOf(untouched);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final Result result = new Result(type, threads);
+            result.phases.put("disjoint", race(executor, threads, thread -> disjoint(thread, operations)));
+            result.phases.put("overlapping", overlapping(executor, threads, operations));
+            result.phases.put("deletion race", deletionRace(executor, threads, operations));
+            if (untouched != null) {
+                check(untouchedMarker.equals(markerOf(untouched)), "the untouched " + type + " " + untouched
+                        + " was modified");
+            }
+            return result;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long disjoint(final int thread, final int operations) throws Exception {
+        final List<String> ids = new ArrayList<>();
+        for (int i = 0; i < Math.max(1, operations / OPERATIONS_PER_ITEM); i++) {
+            final String id = ID_PREFIX + "disjoint-" + thread + '-' + i;
+            create.apply(item(id, INITIAL_MARKER));
+            ids.add(id);
+        }
+        for (final String id : ids) {
+            for (int sequence = 1; sequence <= UPDATES_PER_ITEM; sequence++) {
+                final String written = marker(thread, sequence);
+                update.apply(item(id, written));
+                check(written.equals(markerOf(id)), "the update of " + type + " " + id + " to " + written
+                        + " was not read back");
+            }
+        }
+        for (int i = 1; i < ids.size(); i += 2) {
+            final String id = ids.get(i);
+            delete.delete(id);
+            check(!findById.apply(id).isPresent(), "the deleted " + type + " " + id + " was found");
+            try {
+                update.apply(item(id, marker(thread, UPDATES_PER_ITEM + 1)));
+                throw new AssertionError("the deleted " + type + " " + id + " was updated");
+            } catch (final IllegalStateException e) {
+                // expected, the item no longer exists
+            }
+            check(!findById.apply(id).isPresent(), "the deleted " + type + " " + id + " came back");
+        }
+        for (int i = 0; i < ids.size(); i += 2) {
+            check(marker(thread, UPDATES_PER_ITEM).equals(markerOf(ids.get(i))),
+                    "the last update of " + type + " " + ids.get(i) + " was lost");
+        }
+        return (long) ids.size() * (1 + 2 * UPDATES_PER_ITEM) + (ids.size() / 2) * 4 + (ids.size() + 1) / 2;
+    }
+
+    private Phase overlapping(final ExecutorService executor, final int threads, final int operations)
+            throws Exception {
+        final String[] ids = new String[Math.max(2, threads / 2)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = ID_PREFIX + "overlapping-" + i;
+            create.apply(item(ids[i], INITIAL_MARKER));
+        }
+        // the sequence number of the last update each thread started, a read cannot return a later one
+        final AtomicLongArray started = new AtomicLongArray(threads);
+        final Phase phase = race(executor, threads, thread -> {
+            final Random random = ThreadLocalRandom.current();
+            for (int i = 0; i < operations; i++) {
+                final String id = ids[random.nextInt(ids.length)];
+                if (random.nextBoolean()) {
+                    update.apply(item(id, marker(thread, started.incrementAndGet(thread))));
+                } else {
+                    checkWritten(id, markerOf(id), started);
+                }
+            }
+            return operations;
+        });
+        for (final String id : ids) {
+            checkWritten(id, markerOf(id), started);
+        }
+        return phase;
+    }
+
+    private Phase deletionRace(final ExecutorService executor, final int threads, final int operations)
+            throws Exception {
+        final List<String> ids = new ArrayList<>();
+        for (int i = 0; i < operations; i++) {
+            final String id = ID_PREFIX + "deleted-" + i;
+            create.apply(item(id, INITIAL_MARKER));
+            ids.add(id);
+        }
+        final AtomicLong rejected = new AtomicLong();
+        final Phase phase = race(executor, threads, thread -> {
+            if (thread == 0) {
+                final List<String> shuffled = new ArrayList<>(ids);
+                Collections.shuffle(shuffled, ThreadLocalRandom.current());
+                for (final String id : shuffled) {
+                    delete.delete(id);
+                }
+                return shuffled.size();
+            }
+            final Random random = ThreadLocalRandom.current();
+            for (int i = 0; i < operations; i++) {
+                final String id = ids.get(random.nextInt(ids.size()));
+                try {
+                    update.apply(item(id, marker(thread, i)));
+                } catch (final IllegalStateException e) {
+                    rejected.incrementAndGet();
+                }
+            }
+            return operations;
+        });
+        for (final String id : ids) {
+            check(!findById.apply(id).isPresent(), "the deleted " + type + " " + id + " came back");
+        }
+        phase.rejectedUpdates = rejected.get();
+        return phase;
+    }
+
+    private Phase race(final ExecutorService executor, final int threads, final Task task) throws Exception {
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<Long>> futures = new ArrayList<>();
+        for (int thread = 0; thread < threads; thread++) {
+            final int index = thread;
+            futures.add(executor.submit(() -> {
+                start.await();
+                return task.run(index);
+            }));
+        }
+        final long startedAt = System.nanoTime();
+        start.countDown();
+        long operations = 0;
+        for (final Future<Long> future : futures) {
+            try {
+                operations += future.get();
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw (Exception) e.getCause();
+            }
+        }
+        return new Phase(operations, System.nanoTime() - startedAt);
+    }
+
+    private void checkWritten(final String id, final String read, final AtomicLongArray started) {
+        if (INITIAL_MARKER.equals(read)) {
+            return;
+        }
+        final String[] parts = read == null ? new String[0] : read.split("-");
+        if (parts.length == 2 && parts[0].startsWith("t")) {
+            try {
+                final int thread = Integer.parseInt(parts[0].substring(1));
+                if (thread < started.length() && Long.parseLong(parts[1]) <= started.get(thread)) {
+                    return;
+                }
+            } catch (final NumberFormatException e) {
+                // reported below
+            }
+        }
+        throw new AssertionError("the " + type + " " + id + " was read with " + read + ", never written");
+    }
+
+    private String markerOf(final String id) throws TechnicalException {
+        final Optional<T> item = findById.apply(id);
+        check(item.isPresent(), "the " + type + " " + id + " was not found");
+        return marker.apply(item.get());
+    }
+
+    private T item(final String id, final String marker) {
+        final T item = model.apply(id);
+        markerSetter.accept(item, marker);
+        return item;
+    }
+
+    private static String marker(final int thread, final long sequence) {
+        return "t" + thread + '-' + sequence;
+    }
+
+    private static void check(final boolean condition, final String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Call<I, O> {
+        O apply(I input) throws TechnicalException;
+    }
+
+    @FunctionalInterface
+    public interface Deletion {
+        void delete(String id) throws TechnicalException;
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        long run(int thread) throws Exception;
+    }
+
+    public static final class Builder<T> {
+
+        private final String type;
+        private Function<String, T> model;
+        private Function<T, String> marker;
+        private BiConsumer<T, String> markerSetter;
+        private Call<T, T> create;
+        private Call<T, T> update;
+        private Call<String, Optional<T>> findById;
+        private Deletion delete;
+        private String untouched;
+
+        public Builder(final String type) {
+            this.type = type;
+        }
+
+        /**
+         * Builds a valid item of the given id, the marker being set afterwards.
+         */
+        public Builder<T> model(final Function<String, T> model) {
+            this.model = model;
+            return this;
+        }
+
+        public Builder<T> marker(final Function<T, String> marker, final BiConsumer<T, String> markerSetter) {
+            this.marker = marker;
+            this.markerSetter = markerSetter;
+            return this;
+        }
+
+        public Builder<T> create(final Call<T, T> create) {
+            this.create = create;
+            return this;
+        }
+
+        public Builder<T> update(final Call<T, T> update) {
+            this.update = update;
+            return this;
+        }
+
+        public Builder<T> findById(final Call<String, Optional<T>> findById) {
+            this.findById = findById;
+            return this;
+        }
+
+        public Builder<T> delete(final Deletion delete) {
+            this.delete = delete;
+            return this;
+        }
+
+        /**
+         * Sets the id of an existing item the stress must not modify.
+         */
+        public Builder<T> untouched(final String untouched) {
+            this.untouched = untouched;
+            return this;
+        }
+
+        public CrudStress<T> build() {
+            return new CrudStress<>(this);
+        }
+    }
+
+    public static final class Phase {
+
+        private final long operations;
+        private final long nanos;
+        private long rejectedUpdates;
+
+        private Phase(final long operations, final long nanos) {
+            this.operations = operations;
+            this.nanos = nanos;
+        }
+
+        public double throughput() {
+            return operations * 1e9 / Math.max(1, nanos);
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%d calls, %.0f calls/s", operations, throughput())
+                    + (rejectedUpdates > 0 ? ", " + rejectedUpdates + " updates rejected" : "");
+        }
+    }
+
+    public static final class Result {
+
+        private final String type;
+        private final int threads;
+        private final Map<String, Phase> phases = new LinkedHashMap<>();
+
+        private Result(final String type, final int threads) {
+            this.type = type;
+            this.threads = threads;
+        }
+
+        public Map<String, Phase> phases() {
+            return Collections.unmodifiableMap(phases);
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder builder = new StringBuilder(type).append(", ").append(threads).append(" threads");
+            phases.forEach((name, phase) -> builder.append("; ").append(name).append(": ").append(phase));
+            return builder.toString();
+        }
+    }
+}
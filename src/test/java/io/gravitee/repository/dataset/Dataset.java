@@ -0,0 +1,129 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.dataset;
+
+import io.gravitee.repository.management.model.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The entities produced by a {@link DatasetGenerator}, along with the key spaces workloads use to target them.
+ *
+ * @author GraviteeSource Team
+ */
+public class Dataset {
+
+    final List<User> users = new ArrayList<>();
+    final List<Group> groups = new ArrayList<>();
+    final List<Api> apis = new ArrayList<>();
+    final List<Plan> plans = new ArrayList<>();
+    final List<Application> applications = new ArrayList<>();
+    final List<Subscription> subscriptions = new ArrayList<>();
+    final List<ApiKey> apiKeys = new ArrayList<>();
+    final List<Membership> memberships = new ArrayList<>();
+    final List<Event> events = new ArrayList<>();
+
+    KeySpace apiIds;
+    KeySpace applicationIds;
+    KeySpace userIds;
+    KeySpace groupIds;
+
+    Dataset() {
+    }
+
+    public List<User> getUsers() {
+        return Collections.unmodifiableList(users);
+    }
+
+    public List<Group> getGroups() {
+        return Collections.unmodifiableList(groups);
+    }
+
+    public List<Api> getApis() {
+        return Collections.unmodifiableList(apis);
+    }
+
+    public List<Plan> getPlans() {
+        return Collections.unmodifiableList(plans);
+    }
+
+    public List<Application> getApplications() {
+        return Collections.unmodifiableList(applications);
+    }
+
+    public List<Subscription> getSubscriptions() {
+        return Collections.unmodifiableList(subscriptions);
+    }
+
+    public List<ApiKey> getApiKeys() {
+        return Collections.unmodifiableList(apiKeys);
+    }
+
+    public List<Membership> getMemberships() {
+        return Collections.unmodifiableList(memberships);
+    }
+
+    public List<Event> getEvents() {
+        return Collections.unmodifiableList(events);
+    }
+
+    /**
+     * The API ids, ranked by the distribution of the subscriptions over the APIs.
+     */
+    public KeySpace apiIds() {
+        return apiIds;
+    }
+
+    /**
+     * The application ids, ranked by the distribution of the API keys over the applications.
+     */
+    public KeySpace applicationIds() {
+        return applicationIds;
+    }
+
+    /**
+     * The user ids, ranked by the distribution of the memberships over the users.
+     */
+    public KeySpace userIds() {
+        return userIds;
+    }
+
+    /**
+     * The group ids, ranked by the distribution of the memberships over the groups.
+     */
+    public KeySpace groupIds() {
+        return groupIds;
+    }
+
+    /**
+     * Returns every generated entity, parents first, so that they can be created in this order.
+     */
+    public List<Object> entities() {
+        final List<Object> entities = new ArrayList<>();
+        entities.addAll(users);
+        entities.addAll(groups);
+        entities.addAll(apis);
+        entities.addAll(plans);
+        entities.addAll(applications);
+        entities.addAll(subscriptions);
+        entities.addAll(apiKeys);
+        entities.addAll(memberships);
+        entities.addAll(events);
+        return entities;
+    }
+}
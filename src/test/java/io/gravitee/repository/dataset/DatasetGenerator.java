@@ -0,0 +1,396 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.dataset;
+
+import io.gravitee.repository.management.model.*;
+
+import java.util.*;
+import java.util.function.Function;
+
+import static java.util.Collections.singleton;
+import static java.util.Collections.singletonMap;
+
+/**
+ * Generates consistent management data (APIs and their plans, applications, subscriptions, API keys, group
+ * memberships and events) whose relationships follow configurable {@link Distribution}s, so that a few APIs may hold
+ * most of the subscriptions or a few users belong to most of the groups.
+ *
+ * A generator is deterministic: the same builder settings always produce the same dataset.
+ *
+ * @author GraviteeSource Team
+ */
+public class DatasetGenerator {
+
+    private static final EventType[] EVENT_TYPES = {EventType.PUBLISH_API, EventType.START_API, EventType.STOP_API};
+    private static final int MAX_MEMBERSHIP_DRAWS = 10;
+
+    private final Builder settings;
+
+    private DatasetGenerator(final Builder settings) {
+        this.settings = settings;
+    }
+
+    public Dataset generate() {
+        final Random random = new Random(settings.seed);
+        final Dataset dataset = new Dataset();
+
+        generateUsers(dataset, random);
+        generateGroups(dataset, random);
+        generateApis(dataset, random);
+        generateApplications(dataset, random);
+        final Map<String, List<Subscription>> subscriptionsByApplication = generateSubscriptions(dataset, random);
+        generateApiKeys(dataset, random, subscriptionsByApplication);
+        generateMemberships(dataset, random);
+        generateEvents(dataset, random);
+
+        dataset.apiIds = new KeySpace(ids(dataset.apis, Api::getId), settings.subscriptionsPerApi);
+        dataset.applicationIds = new KeySpace(ids(dataset.applications, Application::getId), settings.apiKeysPerApplication);
+        dataset.userIds = new KeySpace(ids(dataset.users, User::getId), settings.membershipsPerUser);
+        dataset.groupIds = new KeySpace(ids(dataset.groups, Group::getId), settings.membershipsPerGroup);
+        return dataset;
+    }
+
+    private void generateUsers(final Dataset dataset, final Random random) {
+        for (int i = 0; i < settings.users; i++) {
+            final User user = new User();
+            user.setId(id("user", i));
+            user.setSource("gravitee");
+            user.setSourceId(user.getId());
+            user.setEmail(user.getId() + "@gravitee.io");
+            user.setFirstname("Firstname " + i);
+            user.setLastname("Lastname " + i);
+            user.setStatus(UserStatus.ACTIVE);
+            user.setCreatedAt(date(random));
+            user.setUpdatedAt(user.getCreatedAt());
+            dataset.users.add(user);
+        }
+    }
+
+    private void generateGroups(final Dataset dataset, final Random random) {
+        for (int i = 0; i < settings.groups; i++) {
+            final Group group = new Group();
+            group.setId(id("group", i));
+            group.setName("Group " + i);
+            group.setCreatedAt(date(random));
+            group.setUpdatedAt(group.getCreatedAt());
+            dataset.groups.add(group);
+        }
+    }
+
+    private void generateApis(final Dataset dataset, final Random random) {
+        for (int i = 0; i < settings.apis; i++) {
+            final Api api = new Api();
+            api.setId(id("api", i));
+            api.setName("API " + i);
+            api.setVersion("1");
+            api.setDefinition("{}");
+            api.setVisibility(random.nextBoolean() ? Visibility.PUBLIC : Visibility.PRIVATE);
+            api.setLifecycleState(LifecycleState.STARTED);
+            api.setApiLifecycleState(ApiLifecycleState.PUBLISHED);
+            api.setCreatedAt(date(random));
+            api.setUpdatedAt(api.getCreatedAt());
+            api.setDeployedAt(api.getCreatedAt());
+            dataset.apis.add(api);
+
+            for (int j = 0; j < settings.plansPerApi; j++) {
+                final Plan plan = new Plan();
+                plan.setId(api.getId() + "-plan-" + j);
+                plan.setName("Plan " + j + " of " + api.getName());
+                plan.setApis(singleton(api.getId()));
+                plan.setSecurity(Plan.PlanSecurityType.API_KEY);
+                plan.setValidation(Plan.PlanValidationType.AUTO);
+                plan.setType(Plan.PlanType.API);
+                plan.setStatus(Plan.Status.PUBLISHED);
+                plan.setOrder(j);
+                plan.setCreatedAt(api.getCreatedAt());
+                plan.setUpdatedAt(api.getCreatedAt());
+                plan.setPublishedAt(api.getCreatedAt());
+                dataset.plans.add(plan);
+            }
+        }
+    }
+
+    private void generateApplications(final Dataset dataset, final Random random) {
+        for (int i = 0; i < settings.applications; i++) {
+            final Application application = new Application();
+            application.setId(id("application", i));
+            application.setName("Application " + i);
+            application.setDescription("Description of application " + i);
+            application.setType(ApplicationType.SIMPLE);
+            application.setStatus(ApplicationStatus.ACTIVE);
+            application.setCreatedAt(date(random));
+            application.setUpdatedAt(application.getCreatedAt());
+            dataset.applications.add(application);
+        }
+    }
+
+    private Map<String, List<Subscription>> generateSubscriptions(final Dataset dataset, final Random random) {
+        final Map<String, List<Subscription>> subscriptionsByApplication = new HashMap<>();
+        for (int i = 0; i < settings.subscriptions; i++) {
+            final Application application = dataset.applications.get(
+                    settings.subscriptionsPerApplication.next(random, dataset.applications.size()));
+            addSubscription(dataset, random, application, subscriptionsByApplication);
+        }
+        return subscriptionsByApplication;
+    }
+
+    private Subscription addSubscription(final Dataset dataset, final Random random, final Application application,
+                                         final Map<String, List<Subscription>> subscriptionsByApplication) {
+        final int apiRank = settings.subscriptionsPerApi.next(random, dataset.apis.size());
+        final Api api = dataset.apis.get(apiRank);
+        final Plan plan = dataset.plans.get(apiRank * settings.plansPerApi + random.nextInt(settings.plansPerApi));
+
+        final Subscription subscription = new Subscription();
+        subscription.setId(id("subscription", dataset.subscriptions.size()));
+        subscription.setApi(api.getId());
+        subscription.setPlan(plan.getId());
+        subscription.setApplication(application.getId());
+        subscription.setStatus(Subscription.Status.ACCEPTED);
+        subscription.setSubscribedBy(dataset.users.isEmpty() ? null : dataset.users.get(random.nextInt(dataset.users.size())).getId());
+        subscription.setCreatedAt(date(random));
+        subscription.setUpdatedAt(subscription.getCreatedAt());
+        subscription.setProcessedAt(subscription.getCreatedAt());
+        subscription.setStartingAt(subscription.getCreatedAt());
+        dataset.subscriptions.add(subscription);
+        subscriptionsByApplication.computeIfAbsent(application.getId(), k -> new ArrayList<>()).add(subscription);
+        return subscription;
+    }
+
+    private void generateApiKeys(final Dataset dataset, final Random random,
+                                 final Map<String, List<Subscription>> subscriptionsByApplication) {
+        for (int i = 0; i < settings.apiKeys; i++) {
+            final Application application = dataset.applications.get(
+                    settings.apiKeysPerApplication.next(random, dataset.applications.size()));
+            final List<Subscription> subscriptions = subscriptionsByApplication.get(application.getId());
+            // keys follow their own distribution, so the drawn application may not have subscribed yet
+            final Subscription subscription = subscriptions == null
+                    ? addSubscription(dataset, random, application, subscriptionsByApplication)
+                    : subscriptions.get(random.nextInt(subscriptions.size()));
+
+            final ApiKey apiKey = new ApiKey();
+            apiKey.setKey(id("key", i));
+            apiKey.setSubscription(subscription.getId());
+            apiKey.setApplication(application.getId());
+            apiKey.setPlan(subscription.getPlan());
+            apiKey.setCreatedAt(date(random));
+            apiKey.setUpdatedAt(apiKey.getCreatedAt());
+            dataset.apiKeys.add(apiKey);
+        }
+    }
+
+    private void generateMemberships(final Dataset dataset, final Random random) {
+        final Set<String> memberships = new HashSet<>();
+        for (int i = 0; i < settings.memberships; i++) {
+            for (int draw = 0; draw < MAX_MEMBERSHIP_DRAWS; draw++) {
+                final User user = dataset.users.get(settings.membershipsPerUser.next(random, dataset.users.size()));
+                final Group group = dataset.groups.get(settings.membershipsPerGroup.next(random, dataset.groups.size()));
+                // a user belongs at most once to a group
+                if (memberships.add(user.getId() + '|' + group.getId())) {
+                    final Membership membership = new Membership(user.getId(), group.getId(), MembershipReferenceType.GROUP);
+                    membership.setRoles(singletonMap(RoleScope.GROUP.getId(), "USER"));
+                    membership.setCreatedAt(date(random));
+                    membership.setUpdatedAt(membership.getCreatedAt());
+                    dataset.memberships.add(membership);
+                    break;
+                }
+            }
+        }
+    }
+
+    private void generateEvents(final Dataset dataset, final Random random) {
+        final long step = settings.events == 0 ? 0 : (settings.to - settings.from) / settings.events;
+        for (int i = 0; i < settings.events; i++) {
+            final Api api = dataset.apis.get(settings.eventsPerApi.next(random, dataset.apis.size()));
+
+            final Event event = new Event();
+            event.setId(id("event", i));
+            event.setType(EVENT_TYPES[random.nextInt(EVENT_TYPES.length)]);
+            event.setPayload("{}");
+            final Map<String, String> properties = new HashMap<>();
+            properties.put(Event.EventProperties.API_ID.getValue(), api.getId());
+            event.setProperties(properties);
+            // events are generated in chronological order, as they are written by the management API
+            event.setCreatedAt(new Date(settings.from + i * step));
+            event.setUpdatedAt(event.getCreatedAt());
+            dataset.events.add(event);
+        }
+    }
+
+    private String id(final String entity, final int index) {
+        return settings.idPrefix + entity + '-' + index;
+    }
+
+    private Date date(final Random random) {
+        return new Date(settings.from + (long) (random.nextDouble() * (settings.to - settings.from)));
+    }
+
+    private static <T> List<String> ids(final List<T> entities, final Function<T, String> id) {
+        final List<String> ids = new ArrayList<>(entities.size());
+        for (T entity : entities) {
+            ids.add(id.apply(entity));
+        }
+        return ids;
+    }
+
+    public static class Builder {
+
+        private long seed;
+        private String idPrefix = "dataset-";
+        private long from = 1546300800000L;
+        private long to = 1577836800000L;
+
+        private int users;
+        private int groups;
+        private int apis;
+        private int plansPerApi = 1;
+        private int applications;
+        private int subscriptions;
+        private int apiKeys;
+        private int memberships;
+        private int events;
+
+        private Distribution subscriptionsPerApi = Distribution.uniform();
+        private Distribution subscriptionsPerApplication = Distribution.uniform();
+        private Distribution apiKeysPerApplication = Distribution.uniform();
+        private Distribution membershipsPerUser = Distribution.uniform();
+        private Distribution membershipsPerGroup = Distribution.uniform();
+        private Distribution eventsPerApi = Distribution.uniform();
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /**
+         * Prefixes every generated id, so that several datasets can live in the same repositories.
+         */
+        public Builder idPrefix(String idPrefix) {
+            this.idPrefix = idPrefix;
+            return this;
+        }
+
+        /**
+         * The period, in milliseconds since the epoch, the creation and update dates are taken from.
+         */
+        public Builder period(long from, long to) {
+            this.from = from;
+            this.to = to;
+            return this;
+        }
+
+        public Builder users(int users) {
+            this.users = users;
+            return this;
+        }
+
+        public Builder groups(int groups) {
+            this.groups = groups;
+            return this;
+        }
+
+        public Builder apis(int apis) {
+            this.apis = apis;
+            return this;
+        }
+
+        public Builder plansPerApi(int plansPerApi) {
+            this.plansPerApi = plansPerApi;
+            return this;
+        }
+
+        public Builder applications(int applications) {
+            this.applications = applications;
+            return this;
+        }
+
+        public Builder subscriptions(int subscriptions) {
+            this.subscriptions = subscriptions;
+            return this;
+        }
+
+        /**
+         * The number of API keys. A key drawn for an application without subscription creates one for it.
+         */
+        public Builder apiKeys(int apiKeys) {
+            this.apiKeys = apiKeys;
+            return this;
+        }
+
+        /**
+         * The number of group memberships. Fewer may be generated when the distributions keep drawing the same
+         * (user, group) pair.
+         */
+        public Builder memberships(int memberships) {
+            this.memberships = memberships;
+            return this;
+        }
+
+        public Builder events(int events) {
+            this.events = events;
+            return this;
+        }
+
+        public Builder subscriptionsPerApi(Distribution distribution) {
+            this.subscriptionsPerApi = distribution;
+            return this;
+        }
+
+        public Builder subscriptionsPerApplication(Distribution distribution) {
+            this.subscriptionsPerApplication = distribution;
+            return this;
+        }
+
+        public Builder apiKeysPerApplication(Distribution distribution) {
+            this.apiKeysPerApplication = distribution;
+            return this;
+        }
+
+        public Builder membershipsPerUser(Distribution distribution) {
+            this.membershipsPerUser = distribution;
+            return this;
+        }
+
+        public Builder membershipsPerGroup(Distribution distribution) {
+            this.membershipsPerGroup = distribution;
+            return this;
+        }
+
+        public Builder eventsPerApi(Distribution distribution) {
+            this.eventsPerApi = distribution;
+            return this;
+        }
+
+        public DatasetGenerator build() {
+            if (users < 0 || groups < 0 || apis < 0 || plansPerApi < 0 || applications < 0 || subscriptions < 0
+                    || apiKeys < 0 || memberships < 0 || events < 0) {
+                throw new IllegalArgumentException("The numbers of entities must not be negative");
+            }
+            if (to < from) {
+                throw new IllegalArgumentException("The period must end after it starts");
+            }
+            if ((subscriptions > 0 || apiKeys > 0) && (apis == 0 || applications == 0 || plansPerApi == 0)) {
+                throw new IllegalArgumentException("Subscriptions and API keys require APIs, plans and applications");
+            }
+            if (memberships > 0 && (users == 0 || groups == 0)) {
+                throw new IllegalArgumentException("Memberships require users and groups");
+            }
+            if (events > 0 && apis == 0) {
+                throw new IllegalArgumentException("Events require APIs");
+            }
+            return new DatasetGenerator(this);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.dataset;
+
+import io.gravitee.repository.management.model.*;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class DatasetGeneratorTest {
+
+    private static final int DRAWS = 100_000;
+
+    private static DatasetGenerator.Builder skewed() {
+        return new DatasetGenerator.Builder()
+                .seed(42)
+                .users(50)
+                .groups(10)
+                .apis(20)
+                .plansPerApi(2)
+                .applications(30)
+                .subscriptions(200)
+                .apiKeys(150)
+                .memberships(100)
+                .events(100)
+                .subscriptionsPerApi(Distribution.zipf(1.1))
+                .subscriptionsPerApplication(Distribution.hotSpot(0.1, 0.8))
+                .apiKeysPerApplication(Distribution.zipf(1.5))
+                .membershipsPerUser(Distribution.hotSpot(0.2, 0.9))
+                .eventsPerApi(Distribution.zipf(1.0));
+    }
+
+    @Test
+    public void shouldGenerateTheRequestedEntities() {
+        final Dataset dataset = skewed().build().generate();
+
+        assertEquals(50, dataset.getUsers().size());
+        assertEquals(10, dataset.getGroups().size());
+        assertEquals(20, dataset.getApis().size());
+        assertEquals(40, dataset.getPlans().size());
+        assertEquals(30, dataset.getApplications().size());
+        // API keys drawn for applications without subscription add one
+        assertTrue(dataset.getSubscriptions().size() >= 200);
+        assertEquals(150, dataset.getApiKeys().size());
+        assertTrue(dataset.getMemberships().size() <= 100);
+        assertEquals(100, dataset.getEvents().size());
+    }
+
+    @Test
+    public void shouldBeDeterministic() {
+        final Dataset first = skewed().build().generate();
+        final Dataset second = skewed().build().generate();
+
+        assertEquals(ids(first.getSubscriptions(), s -> s.getId() + s.getApi() + s.getPlan() + s.getApplication()),
+                ids(second.getSubscriptions(), s -> s.getId() + s.getApi() + s.getPlan() + s.getApplication()));
+        assertEquals(ids(first.getApiKeys(), k -> k.getKey() + k.getSubscription()),
+                ids(second.getApiKeys(), k -> k.getKey() + k.getSubscription()));
+        assertEquals(first.apiIds().keys(), second.apiIds().keys());
+    }
+
+    @Test
+    public void shouldKeepReferentialIntegrity() {
+        final Dataset dataset = skewed().build().generate();
+        final Set<String> users = new HashSet<>(ids(dataset.getUsers(), User::getId));
+        final Set<String> groups = new HashSet<>(ids(dataset.getGroups(), Group::getId));
+        final Set<String> apis = new HashSet<>(ids(dataset.getApis(), Api::getId));
+        final Set<String> applications = new HashSet<>(ids(dataset.getApplications(), Application::getId));
+        final Map<String, Plan> plans = dataset.getPlans().stream().collect(Collectors.toMap(Plan::getId, p -> p));
+        final Map<String, Subscription> subscriptions = dataset.getSubscriptions().stream()
+                .collect(Collectors.toMap(Subscription::getId, s -> s));
+
+        for (final Plan plan : dataset.getPlans()) {
+            assertTrue(plan.getId(), apis.containsAll(plan.getApis()));
+        }
+        for (final Subscription subscription : dataset.getSubscriptions()) {
+            assertTrue(subscription.getId(), apis.contains(subscription.getApi()));
+            assertTrue(subscription.getId(), applications.contains(subscription.getApplication()));
+            assertTrue(subscription.getId(), users.contains(subscription.getSubscribedBy()));
+            assertTrue(subscription.getId(), plans.get(subscription.getPlan()).getApis().contains(subscription.getApi()));
+        }
+        for (final ApiKey apiKey : dataset.getApiKeys()) {
+            final Subscription subscription = subscriptions.get(apiKey.getSubscription());
+            assertNotNull(apiKey.getKey(), subscription);
+            assertEquals(apiKey.getKey(), subscription.getApplication(), apiKey.getApplication());
+            assertEquals(apiKey.getKey(), subscription.getPlan(), apiKey.getPlan());
+        }
+        final Set<String> memberships = new HashSet<>();
+        for (final Membership membership : dataset.getMemberships()) {
+            assertTrue(membership.getUserId(), users.contains(membership.getUserId()));
+            assertTrue(membership.getReferenceId(), groups.contains(membership.getReferenceId()));
+            assertTrue("Duplicate membership", memberships.add(membership.getUserId() + '|' + membership.getReferenceId()));
+        }
+        for (final Event event : dataset.getEvents()) {
+            assertTrue(event.getId(), apis.contains(event.getProperties().get(Event.EventProperties.API_ID.getValue())));
+        }
+    }
+
+    @Test
+    public void shouldRankTheKeysByTheirDistribution() {
+        final Dataset dataset = skewed().build().generate();
+        final Map<String, Long> subscriptionsPerApi = dataset.getSubscriptions().stream()
+                .collect(Collectors.groupingBy(Subscription::getApi, Collectors.counting()));
+
+        final List<String> apiIds = dataset.apiIds().keys();
+        assertEquals(20, apiIds.size());
+        assertTrue(subscriptionsPerApi.get(apiIds.get(0)) > subscriptionsPerApi.getOrDefault(apiIds.get(19), 0L));
+    }
+
+    @Test
+    public void shouldDrawUniformRanks() {
+        final long[] counts = draw(Distribution.uniform(), 10);
+
+        for (final long count : counts) {
+            assertEquals(DRAWS / 10, count, DRAWS / 100);
+        }
+    }
+
+    @Test
+    public void shouldDrawZipfRanks() {
+        final long[] counts = draw(Distribution.zipf(1.0), 10);
+
+        // the probability of rank k is 1 / ((k + 1) * H(10)), H(10) being about 2.929
+        assertEquals(DRAWS / 2.929, counts[0], DRAWS / 100.0);
+        assertEquals(DRAWS / 2.929 / 10, counts[9], DRAWS / 100.0);
+        for (int rank = 1; rank < counts.length; rank++) {
+            assertTrue("rank " + rank, counts[rank] < counts[rank - 1]);
+        }
+    }
+
+    @Test
+    public void shouldDrawZipfRanksOfAlternatingSizes() {
+        final Distribution shared = Distribution.zipf(1.0);
+        final Distribution small = Distribution.zipf(1.0);
+        final Distribution large = Distribution.zipf(1.0);
+        final Random sharedRandom = new Random(42);
+        final Random separateRandom = new Random(42);
+
+        for (int i = 0; i < DRAWS; i++) {
+            final int size = i % 2 == 0 ? 10 : 1000;
+            assertEquals(size == 10 ? small.next(separateRandom, size) : large.next(separateRandom, size),
+                    shared.next(sharedRandom, size));
+        }
+    }
+
+    @Test
+    public void shouldDrawHotSpotRanks() {
+        final long[] counts = draw(Distribution.hotSpot(0.1, 0.9), 100);
+
+        long hot = 0;
+        for (int rank = 0; rank < 10; rank++) {
+            hot += counts[rank];
+        }
+        assertEquals(0.9 * DRAWS, hot, DRAWS / 100.0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectSubscriptionsWithoutApis() {
+        new DatasetGenerator.Builder().applications(1).subscriptions(1).build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectNegativeCounts() {
+        new DatasetGenerator.Builder().apis(-1).build();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotDrawFromAnEmptyKeySpace() {
+        new DatasetGenerator.Builder().users(1).build().generate().apiIds().next(new Random());
+    }
+
+    private static long[] draw(final Distribution distribution, final int size) {
+        final Random random = new Random(42);
+        final long[] counts = new long[size];
+        for (int i = 0; i < DRAWS; i++) {
+            final int rank = distribution.next(random, size);
+            assertTrue(rank >= 0 && rank < size);
+            counts[rank]++;
+        }
+        return counts;
+    }
+
+    private static <T> List<String> ids(final List<T> entities, final Function<T, String> id) {
+        return entities.stream().map(id).collect(Collectors.toList());
+    }
+}
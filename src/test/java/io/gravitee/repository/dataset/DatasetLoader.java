@@ -0,0 +1,56 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.dataset;
+
+import io.gravitee.repository.exceptions.TechnicalException;
+import io.gravitee.repository.management.api.*;
+import io.gravitee.repository.management.model.*;
+import org.springframework.beans.factory.BeanFactory;
+
+/**
+ * Creates the entities of a {@link Dataset} through the repositories of a context.
+ *
+ * @author GraviteeSource Team
+ */
+public final class DatasetLoader {
+
+    private DatasetLoader() {
+    }
+
+    public static void load(final Dataset dataset, final BeanFactory repositories) throws TechnicalException {
+        for (final Object entity : dataset.entities()) {
+            if (entity instanceof User) {
+                repositories.getBean(UserRepository.class).create((User) entity);
+            } else if (entity instanceof Group) {
+                repositories.getBean(GroupRepository.class).create((Group) entity);
+            } else if (entity instanceof Api) {
+                repositories.getBean(ApiRepository.class).create((Api) entity);
+            } else if (entity instanceof Plan) {
+                repositories.getBean(PlanRepository.class).create((Plan) entity);
+            } else if (entity instanceof Application) {
+                repositories.getBean(ApplicationRepository.class).create((Application) entity);
+            } else if (entity instanceof Subscription) {
+                repositories.getBean(SubscriptionRepository.class).create((Subscription) entity);
+            } else if (entity instanceof ApiKey) {
+                repositories.getBean(ApiKeyRepository.class).create((ApiKey) entity);
+            } else if (entity instanceof Membership) {
+                repositories.getBean(MembershipRepository.class).create((Membership) entity);
+            } else if (entity instanceof Event) {
+                repositories.getBean(EventRepository.class).create((Event) entity);
+            }
+        }
+    }
+}
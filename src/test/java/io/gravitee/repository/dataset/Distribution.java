@@ -0,0 +1,55 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.dataset;
+
+import java.util.Random;
+
+/**
+ * Describes how the children of a relationship are spread over their parents, e.g. how the subscriptions are spread
+ * over the APIs. A distribution returns ranks: rank 0 is the hottest parent, rank {@code size - 1} the coldest one.
+ *
+ * @author GraviteeSource Team
+ */
+public interface Distribution {
+
+    /**
+     * Returns the rank, in {@code [0, size)}, of the next parent to use.
+     */
+    int next(Random random, int size);
+
+    /**
+     * Every parent has the same probability to be chosen.
+     */
+    static Distribution uniform() {
+        return new UniformDistribution();
+    }
+
+    /**
+     * The probability of the parent of rank {@code k} is proportional to {@code 1 / (k + 1)^exponent}. An exponent
+     * around 1 is the usual shape of real traffic, higher values concentrate the load on fewer parents.
+     */
+    static Distribution zipf(double exponent) {
+        return new ZipfDistribution(exponent);
+    }
+
+    /**
+     * {@code hotAccessFraction} of the children go to the {@code hotSetFraction} hottest parents, the remaining
+     * children being spread uniformly over the other parents.
+     */
+    static Distribution hotSpot(double hotSetFraction, double hotAccessFraction) {
+        return new HotSpotDistribution(hotSetFraction, hotAccessFraction);
+    }
+}
@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.dataset;
+
+import java.util.Random;
+
+/**
+ * @author GraviteeSource Team
+ */
+final class HotSpotDistribution implements Distribution {
+
+    private final double hotSetFraction;
+    private final double hotAccessFraction;
+
+    HotSpotDistribution(final double hotSetFraction, final double hotAccessFraction) {
+        if (hotSetFraction <= 0 || hotSetFraction > 1 || hotAccessFraction < 0 || hotAccessFraction > 1) {
+            throw new IllegalArgumentException("Invalid hot spot fractions: " + hotSetFraction + ", " + hotAccessFraction);
+        }
+        this.hotSetFraction = hotSetFraction;
+        this.hotAccessFraction = hotAccessFraction;
+    }
+
+    @Override
+    public int next(Random random, int size) {
+        final int hotSetSize = Math.max(1, (int) (size * hotSetFraction));
+        if (hotSetSize >= size || random.nextDouble() < hotAccessFraction) {
+            return random.nextInt(hotSetSize);
+        }
+        return hotSetSize + random.nextInt(size - hotSetSize);
+    }
+
+    @Override
+    public String toString() {
+        return "hotSpot(" + hotSetFraction + ", " + hotAccessFraction + ')';
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.dataset;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The keys of a generated entity, ordered by rank: the first key is the one the relationship distribution favours
+ * the most. Workloads use it to replay the same skew, or to target the hot or the cold keys only. Drawing a key
+ * from an empty key space throws an {@link IllegalStateException}.
+ *
+ * @author GraviteeSource Team
+ */
+public class KeySpace {
+
+    private static final double HOT_FRACTION = 0.01;
+    private static final double COLD_FRACTION = 0.5;
+
+    private final List<String> keys;
+    private final Distribution distribution;
+
+    KeySpace(final List<String> keys, final Distribution distribution) {
+        this.keys = Collections.unmodifiableList(keys);
+        this.distribution = distribution;
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    public List<String> keys() {
+        return keys;
+    }
+
+    /**
+     * Returns a key following the distribution used to generate the dataset.
+     */
+    public String next(Random random) {
+        checkNotEmpty();
+        return keys.get(distribution.next(random, keys.size()));
+    }
+
+    /**
+     * Returns one of the hottest keys (the first percent of the key space).
+     */
+    public String nextHot(Random random) {
+        checkNotEmpty();
+        return keys.get(random.nextInt(hotSize()));
+    }
+
+    /**
+     * Returns one of the coldest keys (the last half of the key space).
+     */
+    public String nextCold(Random random) {
+        checkNotEmpty();
+        final int coldSize = Math.max(1, (int) (keys.size() * COLD_FRACTION));
+        return keys.get(keys.size() - 1 - random.nextInt(coldSize));
+    }
+
+    public List<String> hottest(int count) {
+        return keys.subList(0, Math.min(count, keys.size()));
+    }
+
+    public List<String> coldest(int count) {
+        return keys.subList(Math.max(0, keys.size() - count), keys.size());
+    }
+
+    private void checkNotEmpty() {
+        if (keys.isEmpty()) {
+            throw new IllegalStateException("No key to draw, the dataset was generated without any of them");
+        }
+    }
+
+    private int hotSize() {
+        return Math.max(1, (int) (keys.size() * HOT_FRACTION));
+    }
+}
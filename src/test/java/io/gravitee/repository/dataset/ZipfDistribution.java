@@ -0,0 +1,67 @@
+/**
+ * Copyright (C) 2015 The Gravitee team (http://gravitee.io)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.gravitee.repository.dataset;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Samples the ranks by a binary search over the cumulative probabilities, which are computed once per size and kept
+ * for each size, an instance being shared by relationships of different sizes.
+ *
+ * @author GraviteeSource Team
+ */
+final class ZipfDistribution implements Distribution {
+
+    private final double exponent;
+
+    private final Map<Integer, double[]> cumulativeProbabilities = new ConcurrentHashMap<>();
+
+    ZipfDistribution(final double exponent) {
+        if (exponent <= 0) {
+            throw new IllegalArgumentException("The Zipf exponent must be positive: " + exponent);
+        }
+        this.exponent = exponent;
+    }
+
+    @Override
+    public int next(Random random, int size) {
+        final double[] cumulative = cumulativeProbabilities.computeIfAbsent(size, this::cumulativeProbabilities);
+        final int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        final int rank = index >= 0 ? index : -index - 1;
+        return Math.min(rank, size - 1);
+    }
+
+    private double[] cumulativeProbabilities(final int size) {
+        final double[] cumulative = new double[size];
+        double sum = 0;
+        for (int rank = 0; rank < size; rank++) {
+            sum += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+        for (int rank = 0; rank < size; rank++) {
+            cumulative[rank] /= sum;
+        }
+        return cumulative;
+    }
+
+    @Override
+    public String toString() {
+        return "zipf(" + exponent + ')';
+    }
+}